@@ -0,0 +1,56 @@
+package org.kiwiproject.metrics.health.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Entry point for the benchmarks JAR.
+ * <p>
+ * Accepts the standard JMH command line options, and always adds the GC profiler so that every report includes
+ * allocation rates ({@code gc.alloc.rate.norm} is bytes allocated per operation). Results are also written in JSON
+ * format to {@code jmh-result.json} unless a different result file is specified using {@code -rff}.
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws CommandLineOptionException, IOException, RunnerException {
+        var commandLineOptions = new CommandLineOptions(args);
+
+        if (commandLineOptions.shouldHelp()) {
+            commandLineOptions.showHelp();
+            return;
+        }
+
+        if (commandLineOptions.shouldList()) {
+            new Runner(commandLineOptions).list();
+            return;
+        }
+
+        var optionsBuilder = new OptionsBuilder().parent(commandLineOptions);
+
+        var gcProfilerRequested = commandLineOptions.getProfilers()
+                .stream()
+                .anyMatch(profiler -> isGcProfiler(profiler.getKlass()));
+        if (!gcProfilerRequested) {
+            optionsBuilder.addProfiler(GCProfiler.class);
+        }
+
+        if (commandLineOptions.getResult().hasValue()) {
+            optionsBuilder.resultFormat(commandLineOptions.getResultFormat().orElse(ResultFormatType.JSON));
+        } else {
+            optionsBuilder.result("jmh-result.json").resultFormat(ResultFormatType.JSON);
+        }
+
+        new Runner(optionsBuilder.build()).run();
+    }
+
+    private static boolean isGcProfiler(String profilerName) {
+        return "gc".equals(profilerName) || GCProfiler.class.getName().equals(profilerName);
+    }
+}
@@ -0,0 +1,129 @@
+package org.kiwiproject.metrics.health.benchmark;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kiwiproject.metrics.health.BinaryHealthSnapshots;
+import org.kiwiproject.metrics.health.HealthCheckResults;
+import org.kiwiproject.metrics.health.HealthStatus;
+import org.kiwiproject.metrics.health.HealthStatusJsonEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares encoding health check results as binary snapshots with {@link BinaryHealthSnapshots} against encoding
+ * them as JSON, and evaluating the overall status of each.
+ * <p>
+ * The size of each response matters as much as the time to evaluate it when polling many instances, so
+ * {@link #main(String[])} prints the encoded sizes for each combination of parameters without running any
+ * benchmarks:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar org.kiwiproject.metrics.health.benchmark.BinaryHealthSnapshotsBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class BinaryHealthSnapshotsBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"MOSTLY_OK", "LAST_CRITICAL"})
+    public HealthMaps.Mix mix;
+
+    private ObjectMapper mapper;
+    private SortedMap<String, HealthCheck.Result> results;
+    private Map<String, Object> jsonModel;
+    private byte[] snapshot;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = new ObjectMapper();
+        results = new TreeMap<>();
+        jsonModel = new LinkedHashMap<>();
+
+        var statuses = HealthMaps.newStatusList(size, mix);
+        for (var i = 0; i < statuses.size(); i++) {
+            var name = String.format("check-%04d", i);
+            var result = newResult(statuses.get(i));
+            results.put(name, result);
+            jsonModel.put(name, Map.of(
+                    "healthy", result.isHealthy(),
+                    "message", result.getMessage(),
+                    "severity", result.getDetails().get("severity")));
+        }
+
+        snapshot = BinaryHealthSnapshots.encode(results);
+        json = mapper.writeValueAsBytes(jsonModel);
+    }
+
+    /**
+     * Print the encoded sizes of the binary snapshot (with and without messages) and the JSON, for each size and mix
+     * used by the benchmarks.
+     */
+    public static void main(String[] args) throws IOException {
+        for (var size : new int[] { 10, 100, 1000 }) {
+            for (var mix : List.of(HealthMaps.Mix.MOSTLY_OK, HealthMaps.Mix.LAST_CRITICAL)) {
+                var benchmark = new BinaryHealthSnapshotsBenchmark();
+                benchmark.size = size;
+                benchmark.mix = mix;
+                benchmark.setUp();
+
+                System.out.printf("%d checks, %s: binary snapshot %d bytes, with messages %d bytes, JSON %d bytes%n",
+                        size,
+                        mix,
+                        benchmark.snapshot.length,
+                        BinaryHealthSnapshots.encode(benchmark.results, true).length,
+                        benchmark.json.length);
+            }
+        }
+    }
+
+    private static HealthCheck.Result newResult(HealthStatus status) {
+        return switch (status) {
+            case OK, INFO -> HealthCheckResults.newHealthyResult(status, "Everything is fine");
+            default -> HealthCheckResults.newUnhealthyResult(status, "Connection refused");
+        };
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return BinaryHealthSnapshots.encode(results);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return mapper.writeValueAsBytes(jsonModel);
+    }
+
+    @Benchmark
+    public HealthStatus evaluateBinary() {
+        return BinaryHealthSnapshots.overallStatus(snapshot);
+    }
+
+    @Benchmark
+    public HealthStatus evaluateJson() {
+        return HealthStatusJsonEvaluator.evaluate(json);
+    }
+}
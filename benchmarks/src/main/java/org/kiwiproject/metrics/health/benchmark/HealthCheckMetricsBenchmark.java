@@ -0,0 +1,100 @@
+package org.kiwiproject.metrics.health.benchmark;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import org.kiwiproject.metrics.health.HealthCheckMetrics;
+import org.kiwiproject.metrics.health.HealthCheckResults;
+import org.kiwiproject.metrics.health.HealthStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead that {@link HealthCheckMetrics} adds to running a (trivial) health check through a
+ * {@link HealthCheckRegistry}, by comparing the same registry with and without instrumentation.
+ * <p>
+ * A flapping check alternates between a healthy and a critical result on every execution, so that every execution
+ * also records a status transition.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HealthCheckMetricsBenchmark {
+
+    private static final String CHECK_NAME = "database";
+
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    @Param({"false", "true"})
+    public boolean flapping;
+
+    private HealthCheckRegistry registry;
+    private HealthCheckMetrics metrics;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = new HealthCheckRegistry();
+        registry.register(CHECK_NAME, flapping ? new FlappingHealthCheck() : new SteadyHealthCheck());
+
+        if (instrumented) {
+            metrics = HealthCheckMetrics.instrument(registry, new MetricRegistry());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (instrumented) {
+            metrics.close();
+        }
+    }
+
+    @Benchmark
+    public HealthCheck.Result runHealthCheck() {
+        return registry.runHealthCheck(CHECK_NAME);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public HealthCheck.Result runHealthCheckConcurrently() {
+        return registry.runHealthCheck(CHECK_NAME);
+    }
+
+    private static class SteadyHealthCheck extends HealthCheck {
+
+        @Override
+        protected Result check() {
+            return HealthCheckResults.sharedHealthyResult();
+        }
+    }
+
+    private static class FlappingHealthCheck extends HealthCheck {
+
+        private boolean healthy;
+
+        @Override
+        protected Result check() {
+            healthy = !healthy;
+            return healthy ?
+                    HealthCheckResults.sharedHealthyResult() :
+                    HealthCheckResults.sharedUnhealthyResult(HealthStatus.CRITICAL);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.kiwiproject.metrics.health.benchmark;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.kiwiproject.metrics.health.HealthCheckResults;
+import org.kiwiproject.metrics.health.HealthStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link HealthCheckResults} factory methods that health checks call on every execution.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HealthCheckResultsBenchmark {
+
+    private final HealthStatus info = HealthStatus.INFO;
+    private final HealthStatus critical = HealthStatus.CRITICAL;
+    private final String message = "Connection pool has 3 of 50 connections available";
+    private final String messageTemplate = "Connection pool has %d of %d connections available";
+    private final int available = 3;
+    private final int total = 50;
+    private final Exception error = new IllegalStateException("Connection refused");
+
+    @Benchmark
+    public HealthCheck.Result newHealthyResult() {
+        return HealthCheckResults.newHealthyResult();
+    }
+
+    @Benchmark
+    public HealthCheck.Result newHealthyResultWithSeverity() {
+        return HealthCheckResults.newHealthyResult(info);
+    }
+
+    @Benchmark
+    public HealthCheck.Result sharedHealthyResult() {
+        return HealthCheckResults.sharedHealthyResult();
+    }
+
+    @Benchmark
+    public HealthCheck.Result sharedHealthyResultWithSeverity() {
+        return HealthCheckResults.sharedHealthyResult(info);
+    }
+
+    @Benchmark
+    public HealthCheck.Result newHealthyResultWithMessage() {
+        return HealthCheckResults.newHealthyResult(message);
+    }
+
+    @Benchmark
+    public HealthCheck.Result newHealthyResultWithTemplate() {
+        return HealthCheckResults.newHealthyResult(messageTemplate, available, total);
+    }
+
+    @Benchmark
+    public HealthCheck.Result newUnhealthyResultWithSeverityAndMessage() {
+        return HealthCheckResults.newUnhealthyResult(critical, message);
+    }
+
+    @Benchmark
+    public HealthCheck.Result newUnhealthyResultWithSeverityAndTemplate() {
+        return HealthCheckResults.newUnhealthyResult(critical, messageTemplate, available, total);
+    }
+
+    @Benchmark
+    public HealthCheck.Result newUnhealthyResultWithSeverityErrorAndTemplate() {
+        return HealthCheckResults.newUnhealthyResult(critical, error, messageTemplate, available, total);
+    }
+}
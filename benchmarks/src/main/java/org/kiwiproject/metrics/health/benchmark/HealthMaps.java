@@ -0,0 +1,190 @@
+package org.kiwiproject.metrics.health.benchmark;
+
+import org.kiwiproject.metrics.health.HealthStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Builds health check maps shaped like the JSON returned by a Dropwizard {@code healthcheck} endpoint, i.e.
+ * {@code string -> (string -> object)}, for use as benchmark inputs.
+ * <p>
+ * All generation is deterministic so that results are comparable between runs.
+ */
+final class HealthMaps {
+
+    private static final long SEED = 42L;
+
+    /**
+     * The mix of severities in a generated health map.
+     */
+    enum Mix {
+
+        /**
+         * Every check is healthy with an explicit OK severity.
+         */
+        ALL_OK,
+
+        /**
+         * Every check is healthy and has no severity detail.
+         */
+        ALL_HEALTHY_NO_SEVERITY,
+
+        /**
+         * Mostly healthy checks, with some INFO and unhealthy WARN checks sprinkled in.
+         */
+        MOSTLY_OK,
+
+        /**
+         * Checks are OK except the last one (in iteration order), which is CRITICAL.
+         */
+        LAST_CRITICAL,
+
+        /**
+         * The first check (in iteration order) is FATAL, and the rest are OK.
+         */
+        FIRST_FATAL
+    }
+
+    /**
+     * The kind of malformed entry to include in a generated health map.
+     */
+    enum Malformation {
+
+        /**
+         * A severity string that is not a HealthStatus constant.
+         */
+        INVALID_SEVERITY,
+
+        /**
+         * A severity that is neither a String nor a HealthStatus.
+         */
+        NON_STRING_SEVERITY,
+
+        /**
+         * A healthy value that is not a boolean.
+         */
+        NON_BOOLEAN_HEALTHY,
+
+        /**
+         * A (healthy, severity) combination that is not valid, e.g. (true, CRITICAL).
+         */
+        INVALID_COMBINATION,
+
+        /**
+         * A value that is not a map at all.
+         */
+        NON_MAP_VALUE
+    }
+
+    private HealthMaps() {
+        // utility class
+    }
+
+    static Map<String, Object> newHealthMap(int size, Mix mix) {
+        var random = new Random(SEED);
+        var healthMap = new LinkedHashMap<String, Object>(capacityFor(size));
+
+        for (var i = 0; i < size; i++) {
+            var check = newCheck(statusFor(mix, i, size, random));
+            if (mix == Mix.ALL_HEALTHY_NO_SEVERITY) {
+                check.remove("severity");
+            }
+            healthMap.put(checkName(i), check);
+        }
+
+        return healthMap;
+    }
+
+    /**
+     * Create a map in which every {@code malformedEvery}-th entry is malformed, and the rest are OK.
+     */
+    static Map<String, Object> newMalformedHealthMap(int size, Malformation malformation, int malformedEvery) {
+        var healthMap = new LinkedHashMap<String, Object>(capacityFor(size));
+
+        for (var i = 0; i < size; i++) {
+            var value = (i % malformedEvery == 0) ? newMalformedCheck(malformation) : newCheck(HealthStatus.OK);
+            healthMap.put(checkName(i), value);
+        }
+
+        return healthMap;
+    }
+
+    static List<HealthStatus> newStatusList(int size, Mix mix) {
+        var random = new Random(SEED);
+        var statuses = new ArrayList<HealthStatus>(size);
+
+        for (var i = 0; i < size; i++) {
+            statuses.add(statusFor(mix, i, size, random));
+        }
+
+        return statuses;
+    }
+
+    private static HealthStatus statusFor(Mix mix, int index, int size, Random random) {
+        return switch (mix) {
+            case ALL_OK, ALL_HEALTHY_NO_SEVERITY -> HealthStatus.OK;
+            case MOSTLY_OK -> mostlyOk(random);
+            case LAST_CRITICAL -> index == size - 1 ? HealthStatus.CRITICAL : HealthStatus.OK;
+            case FIRST_FATAL -> index == 0 ? HealthStatus.FATAL : HealthStatus.OK;
+        };
+    }
+
+    private static HealthStatus mostlyOk(Random random) {
+        var roll = random.nextInt(100);
+        if (roll < 90) {
+            return HealthStatus.OK;
+        } else if (roll < 97) {
+            return HealthStatus.INFO;
+        }
+        return HealthStatus.WARN;
+    }
+
+    private static String checkName(int index) {
+        return String.format("check-%05d", index);
+    }
+
+    private static Map<String, Object> newCheck(HealthStatus severity) {
+        var healthy = severity == HealthStatus.OK || severity == HealthStatus.INFO;
+        var check = new LinkedHashMap<String, Object>();
+        check.put("healthy", healthy);
+        check.put("message", healthy ? null : "Something is not right");
+        check.put("duration", 3);
+        check.put("timestamp", "2026-10-16T12:34:56.789Z");
+        check.put("severity", severity.name());
+        return check;
+    }
+
+    private static Object newMalformedCheck(Malformation malformation) {
+        var check = new LinkedHashMap<String, Object>();
+        switch (malformation) {
+            case INVALID_SEVERITY -> {
+                check.put("healthy", false);
+                check.put("severity", "SEVERE");
+            }
+            case NON_STRING_SEVERITY -> {
+                check.put("healthy", false);
+                check.put("severity", Map.of("level", "WARN"));
+            }
+            case NON_BOOLEAN_HEALTHY -> {
+                check.put("healthy", 1);
+                check.put("severity", "OK");
+            }
+            case INVALID_COMBINATION -> {
+                check.put("healthy", true);
+                check.put("severity", "CRITICAL");
+            }
+            case NON_MAP_VALUE -> {
+                return "this is not a map";
+            }
+        }
+        return check;
+    }
+
+    private static int capacityFor(int size) {
+        return (int) Math.ceil(size / 0.75);
+    }
+}
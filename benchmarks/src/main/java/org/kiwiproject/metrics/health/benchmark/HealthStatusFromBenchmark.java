@@ -0,0 +1,47 @@
+package org.kiwiproject.metrics.health.benchmark;
+
+import org.kiwiproject.metrics.health.HealthStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HealthStatus#from(Map)} over well-formed health maps of various sizes and severity mixes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HealthStatusFromBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int size;
+
+    @Param
+    public HealthMaps.Mix mix;
+
+    private Map<String, Object> healthMap;
+
+    @Setup
+    public void setUp() {
+        healthMap = HealthMaps.newHealthMap(size, mix);
+    }
+
+    @Benchmark
+    public HealthStatus from() {
+        return HealthStatus.from(healthMap);
+    }
+}
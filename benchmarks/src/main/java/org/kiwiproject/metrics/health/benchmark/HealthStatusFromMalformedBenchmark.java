@@ -0,0 +1,64 @@
+package org.kiwiproject.metrics.health.benchmark;
+
+import org.kiwiproject.metrics.health.HealthStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link HealthStatus#from(Map)} over health maps in which some entries are malformed, plus the
+ * degenerate empty and null inputs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HealthStatusFromMalformedBenchmark {
+
+    @Param({"10", "1000"})
+    public int size;
+
+    @Param
+    public HealthMaps.Malformation malformation;
+
+    /**
+     * One of every {@code malformedEvery} entries is malformed.
+     */
+    @Param({"1", "10"})
+    public int malformedEvery;
+
+    private Map<String, Object> healthMap;
+
+    @Setup
+    public void setUp() {
+        healthMap = HealthMaps.newMalformedHealthMap(size, malformation, malformedEvery);
+    }
+
+    @Benchmark
+    public HealthStatus fromMalformed() {
+        return HealthStatus.from(healthMap);
+    }
+
+    @Benchmark
+    public HealthStatus fromEmpty() {
+        return HealthStatus.from(Map.of());
+    }
+
+    @Benchmark
+    public HealthStatus fromNull() {
+        return HealthStatus.from((Map<String, Object>) null);
+    }
+}
@@ -0,0 +1,62 @@
+package org.kiwiproject.metrics.health.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.kiwiproject.metrics.health.HealthStatus;
+import org.kiwiproject.metrics.health.HealthStatusJsonEvaluator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares evaluating health check JSON with {@link HealthStatusJsonEvaluator} against deserializing it into a map
+ * of maps and then calling {@link HealthStatus#from(Map)}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HealthStatusJsonEvaluatorBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    @Param({"MOSTLY_OK", "FIRST_FATAL"})
+    public HealthMaps.Mix mix;
+
+    private ObjectMapper mapper;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = new ObjectMapper();
+        json = mapper.writeValueAsBytes(HealthMaps.newHealthMap(size, mix));
+    }
+
+    @Benchmark
+    public HealthStatus evaluateJson() {
+        return HealthStatusJsonEvaluator.evaluate(json);
+    }
+
+    @Benchmark
+    public HealthStatus deserializeToMapThenFrom() throws IOException {
+        return HealthStatus.from(mapper.readValue(json, MAP_TYPE));
+    }
+}
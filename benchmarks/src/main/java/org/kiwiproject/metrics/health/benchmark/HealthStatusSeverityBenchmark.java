@@ -0,0 +1,95 @@
+package org.kiwiproject.metrics.health.benchmark;
+
+import org.kiwiproject.metrics.health.HealthStatus;
+import org.kiwiproject.metrics.health.HealthStatusSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the severity comparison primitives: {@link HealthStatus#highestSeverity(java.util.Collection)},
+ * {@link HealthStatus#highestSeverity(HealthStatusSet)}, {@link HealthStatus#max(HealthStatus, HealthStatus)},
+ * and the comparator returned by
+ * {@link HealthStatus#comparingSeverity()}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class HealthStatusSeverityBenchmark {
+
+    @Param({"1", "10", "100", "1000", "10000"})
+    public int size;
+
+    @Param({"MOSTLY_OK", "LAST_CRITICAL"})
+    public HealthMaps.Mix mix;
+
+    private List<HealthStatus> statusList;
+    private Set<HealthStatus> statusSet;
+    private HealthStatusSet statusBitSet;
+    private HealthStatus[] statusArray;
+    private Comparator<HealthStatus> comparator;
+
+    @Setup
+    public void setUp() {
+        statusList = HealthMaps.newStatusList(size, mix);
+        statusSet = new HashSet<>(statusList);
+        statusBitSet = HealthStatusSet.of(statusList);
+        statusArray = statusList.toArray(new HealthStatus[0]);
+        comparator = HealthStatus.comparingSeverity();
+    }
+
+    @Benchmark
+    public HealthStatus highestSeverityOfList() {
+        return HealthStatus.highestSeverity(statusList);
+    }
+
+    @Benchmark
+    public HealthStatus highestSeverityOfSet() {
+        return HealthStatus.highestSeverity(statusSet);
+    }
+
+    @Benchmark
+    public HealthStatus highestSeverityOfBitSet() {
+        return HealthStatus.highestSeverity(statusBitSet);
+    }
+
+    @Benchmark
+    public HealthStatus buildBitSetThenHighestSeverity() {
+        return HealthStatus.highestSeverity(HealthStatusSet.of(statusList));
+    }
+
+    @Benchmark
+    public HealthStatus foldWithMax() {
+        var highest = statusArray[0];
+        for (var status : statusArray) {
+            highest = HealthStatus.max(highest, status);
+        }
+        return highest;
+    }
+
+    @Benchmark
+    public int foldWithComparator() {
+        var result = 0;
+        for (var i = 1; i < statusArray.length; i++) {
+            result += comparator.compare(statusArray[i - 1], statusArray[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,312 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.checkFromIndexSize;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static java.util.stream.Collectors.toUnmodifiableSet;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+import lombok.experimental.UtilityClass;
+import org.jspecify.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The aggregation loops shared by all {@link AggregationPolicy} implementations, and the built-in policies.
+ */
+@UtilityClass
+class AggregationPolicies {
+
+    static HealthStatus aggregate(AggregationPolicy policy,
+                                  String @Nullable [] checkNames,
+                                  byte[] statusValues,
+                                  int offset,
+                                  int length) {
+        checkArgumentNotNull(statusValues, "statusValues cannot be null");
+        checkFromIndexSize(offset, length, statusValues.length);
+        if (nonNull(checkNames)) {
+            checkFromIndexSize(offset, length, checkNames.length);
+        }
+
+        long ok = 0;
+        long info = 0;
+        long warn = 0;
+        long critical = 0;
+        long fatal = 0;
+        for (var i = offset; i < offset + length; i++) {
+            var weight = isNull(checkNames) ? 1 : policy.weight(checkNames[i]);
+            switch (statusValues[i]) {
+                case 1 -> ok += weight;
+                case 2 -> info += weight;
+                case 3 -> warn += weight;
+                case 4 -> critical += weight;
+                case 5 -> fatal += weight;
+                default -> throw new IllegalArgumentException("invalid status value: " + statusValues[i]);
+            }
+        }
+
+        return reduce(policy, length, ok, info, warn, critical, fatal);
+    }
+
+    static HealthStatus aggregate(AggregationPolicy policy, Map<String, HealthStatus> statuses) {
+        checkArgumentNotNull(statuses, "statuses cannot be null");
+
+        long ok = 0;
+        long info = 0;
+        long warn = 0;
+        long critical = 0;
+        long fatal = 0;
+        for (var entry : statuses.entrySet()) {
+            var status = entry.getValue();
+            checkArgumentNotNull(status, "statuses must not contain null values");
+            var weight = policy.weight(entry.getKey());
+            switch (status) {
+                case OK -> ok += weight;
+                case INFO -> info += weight;
+                case WARN -> warn += weight;
+                case CRITICAL -> critical += weight;
+                case FATAL -> fatal += weight;
+            }
+        }
+
+        return reduce(policy, statuses.size(), ok, info, warn, critical, fatal);
+    }
+
+    static HealthStatus aggregateResults(AggregationPolicy policy, Map<String, HealthCheck.Result> results) {
+        checkArgumentNotNull(results, "results cannot be null");
+
+        long ok = 0;
+        long info = 0;
+        long warn = 0;
+        long critical = 0;
+        long fatal = 0;
+        for (var entry : results.entrySet()) {
+            var result = entry.getValue();
+            checkArgumentNotNull(result, "result cannot be null");
+            var weight = policy.weight(entry.getKey());
+            var status = HealthStatus.determineOverallStatus(result.isHealthy(), result.getDetails(), entry.getKey());
+            switch (status) {
+                case OK -> ok += weight;
+                case INFO -> info += weight;
+                case WARN -> warn += weight;
+                case CRITICAL -> critical += weight;
+                case FATAL -> fatal += weight;
+            }
+        }
+
+        return reduce(policy, results.size(), ok, info, warn, critical, fatal);
+    }
+
+    /**
+     * Reduce the totals, unless there are checks but all of them have weight zero, in which case nothing that is
+     * counted can be wrong, so the status is {@link HealthStatus#OK}.
+     */
+    static HealthStatus reduce(AggregationPolicy policy,
+                               long checkCount,
+                               long ok,
+                               long info,
+                               long warn,
+                               long critical,
+                               long fatal) {
+        if (checkCount > 0 && ok + info + warn + critical + fatal == 0) {
+            return HealthStatus.OK;
+        }
+        return policy.reduce(ok, info, warn, critical, fatal);
+    }
+
+    /**
+     * The highest severity with a non-zero weight.
+     */
+    static class MaxSeverity implements AggregationPolicy {
+
+        static final MaxSeverity INSTANCE = new MaxSeverity();
+
+        @Override
+        public HealthStatus reduce(long ok, long info, long warn, long critical, long fatal) {
+            if (fatal > 0) {
+                return HealthStatus.FATAL;
+            } else if (critical > 0) {
+                return HealthStatus.CRITICAL;
+            } else if (warn > 0) {
+                return HealthStatus.WARN;
+            } else if (info > 0) {
+                return HealthStatus.INFO;
+            } else if (ok > 0) {
+                return HealthStatus.OK;
+            }
+            return HealthStatus.CRITICAL;
+        }
+
+        @Override
+        public String toString() {
+            return "maxSeverity";
+        }
+    }
+
+    /**
+     * Tolerates a minority of unavailable (CRITICAL or FATAL) instances.
+     */
+    static class Quorum implements AggregationPolicy {
+
+        private final double unavailableThreshold;
+
+        Quorum(double unavailableThreshold) {
+            checkArgument(unavailableThreshold >= 0 && unavailableThreshold < 1,
+                    "unavailableThreshold must be at least 0 and less than 1");
+            this.unavailableThreshold = unavailableThreshold;
+        }
+
+        @Override
+        public HealthStatus reduce(long ok, long info, long warn, long critical, long fatal) {
+            var available = ok + info + warn;
+            var unavailable = critical + fatal;
+            if (available == 0) {
+                return HealthStatus.FATAL;
+            } else if (unavailable > unavailableThreshold * (available + unavailable)) {
+                return HealthStatus.CRITICAL;
+            } else if (warn > 0 || unavailable > 0) {
+                return HealthStatus.WARN;
+            }
+            return info > 0 ? HealthStatus.INFO : HealthStatus.OK;
+        }
+
+        @Override
+        public String toString() {
+            return "quorum(" + unavailableThreshold + ")";
+        }
+    }
+
+    /**
+     * The highest severity whose checks, together with those at higher severities, carry more than a threshold
+     * fraction of the total weight.
+     */
+    static class Weighted implements AggregationPolicy {
+
+        private final Map<String, Integer> weights;
+        private final int defaultWeight;
+        private final double threshold;
+
+        Weighted(Map<String, Integer> weights, int defaultWeight, double threshold) {
+            checkArgumentNotNull(weights, "weights cannot be null");
+            weights.values().forEach(Weighted::checkWeight);
+            checkWeight(defaultWeight);
+            checkArgument(threshold >= 0 && threshold < 1, "threshold must be at least 0 and less than 1");
+            this.weights = Map.copyOf(weights);
+            this.defaultWeight = defaultWeight;
+            this.threshold = threshold;
+        }
+
+        private static void checkWeight(Integer weight) {
+            checkArgument(nonNull(weight) && weight >= 0, "weights must not be negative");
+        }
+
+        @Override
+        public int weight(String checkName) {
+            var weight = weights.get(checkName);
+            return isNull(weight) ? defaultWeight : weight;
+        }
+
+        @Override
+        public HealthStatus reduce(long ok, long info, long warn, long critical, long fatal) {
+            var totalWeight = ok + info + warn + critical + fatal;
+            if (totalWeight == 0) {
+                return HealthStatus.CRITICAL;
+            }
+
+            var thresholdWeight = threshold * totalWeight;
+            var atOrAbove = fatal;
+            if (atOrAbove > thresholdWeight) {
+                return HealthStatus.FATAL;
+            }
+            atOrAbove += critical;
+            if (atOrAbove > thresholdWeight) {
+                return HealthStatus.CRITICAL;
+            }
+            atOrAbove += warn;
+            if (atOrAbove > thresholdWeight) {
+                return HealthStatus.WARN;
+            }
+            atOrAbove += info;
+            return atOrAbove > thresholdWeight ? HealthStatus.INFO : HealthStatus.OK;
+        }
+
+        @Override
+        public String toString() {
+            return "weighted(" + weights + ", default " + defaultWeight + ", threshold " + threshold + ")";
+        }
+    }
+
+    /**
+     * Gives the ignored checks weight zero, wherever they are in a tree, and otherwise behaves like the delegate.
+     */
+    static class Ignoring implements AggregationPolicy {
+
+        private final AggregationPolicy delegate;
+        private final Set<String> ignoredCheckNames;
+
+        Ignoring(AggregationPolicy delegate, Set<String> ignoredCheckNames) {
+            checkArgumentNotNull(ignoredCheckNames, "checkNames cannot be null");
+            this.delegate = delegate;
+            this.ignoredCheckNames = Set.copyOf(ignoredCheckNames);
+        }
+
+        @Override
+        public int weight(String checkName) {
+            return ignoredCheckNames.contains(checkName) ? 0 : delegate.weight(checkName);
+        }
+
+        @Override
+        public int weight(List<String> path) {
+            return ignoredCheckNames.contains(path.get(path.size() - 1)) ? 0 : delegate.weight(path);
+        }
+
+        @Override
+        public HealthStatus reduce(long ok, long info, long warn, long critical, long fatal) {
+            return delegate.reduce(ok, info, warn, critical, fatal);
+        }
+
+        @Override
+        public String toString() {
+            return delegate + " ignoring " + ignoredCheckNames;
+        }
+    }
+
+    /**
+     * Gives the children of a tree at the ignored paths weight zero, and otherwise behaves like the delegate.
+     */
+    static class IgnoringPaths implements AggregationPolicy {
+
+        private final AggregationPolicy delegate;
+        private final Set<List<String>> ignoredPaths;
+
+        IgnoringPaths(AggregationPolicy delegate, Set<List<String>> ignoredPaths) {
+            checkArgumentNotNull(ignoredPaths, "paths cannot be null");
+            this.delegate = delegate;
+            this.ignoredPaths = ignoredPaths.stream().map(List::copyOf).collect(toUnmodifiableSet());
+        }
+
+        @Override
+        public int weight(String checkName) {
+            return delegate.weight(checkName);
+        }
+
+        @Override
+        public int weight(List<String> path) {
+            return ignoredPaths.contains(path) ? 0 : delegate.weight(path);
+        }
+
+        @Override
+        public HealthStatus reduce(long ok, long info, long warn, long critical, long fatal) {
+            return delegate.reduce(ok, info, warn, critical, fatal);
+        }
+
+        @Override
+        public String toString() {
+            return delegate + " ignoring paths " + ignoredPaths;
+        }
+    }
+}
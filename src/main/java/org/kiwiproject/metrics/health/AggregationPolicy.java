@@ -0,0 +1,208 @@
+package org.kiwiproject.metrics.health;
+
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rolls up the statuses of a set of checks (or instances, or any other children) into a single
+ * {@link HealthStatus}.
+ * <p>
+ * A policy has two parts. Its {@link #weight(String) weight} says how much each named check counts, where zero
+ * excludes the check entirely. Its {@link #reduce(long, long, long, long, long) reduction} turns the total weight at
+ * each severity into a single status. When there are checks but all of them are excluded, nothing that counts can
+ * be wrong, so the aggregate status is {@link HealthStatus#OK} without consulting the reduction.
+ * <p>
+ * Because the reduction only sees five totals, the {@code aggregate} methods need a single pass over the input and
+ * do not allocate (except for the iterator of a map), and incremental aggregators such as {@link HealthTree} can
+ * maintain the totals as statuses change and reduce them in constant time.
+ * <p>
+ * Use {@link #maxSeverity()} for the rule used by {@link HealthStatus#from(Map)} and
+ * {@link HealthCheckResults#overallStatus(Map)}, {@link #quorum(double)} for redundant instances,
+ * {@link #weighted(Map, int, double)} to weight checks by importance, and {@link #ignoring(Set)} to exclude
+ * non-essential checks from any policy.
+ * <p>
+ * In a {@link HealthTree}, the weight of each child is looked up by its {@link #weight(List) path}, which by default
+ * uses only its name. Weights and exclusions by name (including those of {@link #weighted(Map, int, double)}
+ * and {@link #ignoring(Set)}) therefore apply at every level of the tree, so a leaf and a subtree with the same name
+ * get the same weight. Use {@link #ignoringPaths(Set)}, or override {@link #weight(List)}, to distinguish them.
+ */
+public interface AggregationPolicy {
+
+    /**
+     * Get the weight of a check. Checks without a name, e.g., when aggregating an array of status values without
+     * names, always have weight one.
+     *
+     * @param checkName the name of the check
+     * @return the weight of the check, which is never negative; zero excludes the check
+     */
+    default int weight(String checkName) {
+        return 1;
+    }
+
+    /**
+     * Get the weight of a child in a {@link HealthTree}, by its full path from the root. By default, this is the
+     * {@link #weight(String) weight} of its name, i.e., the last element of the path.
+     *
+     * @param path the path of the child, which is never empty
+     * @return the weight of the child, which is never negative; zero excludes the child
+     */
+    default int weight(List<String> path) {
+        return weight(path.get(path.size() - 1));
+    }
+
+    /**
+     * Reduce the total weight of the checks at each severity to a single status. This is not called when there are
+     * checks but all of them have weight zero, so all totals are zero only when there are no checks.
+     *
+     * @param ok       the total weight of checks whose status is {@link HealthStatus#OK}
+     * @param info     the total weight of checks whose status is {@link HealthStatus#INFO}
+     * @param warn     the total weight of checks whose status is {@link HealthStatus#WARN}
+     * @param critical the total weight of checks whose status is {@link HealthStatus#CRITICAL}
+     * @param fatal    the total weight of checks whose status is {@link HealthStatus#FATAL}
+     * @return the aggregate status
+     */
+    HealthStatus reduce(long ok, long info, long warn, long critical, long fatal);
+
+    /**
+     * Aggregate an array of status values, each of which is the {@link HealthStatus#getValue() value} of a status.
+     * Every element has weight one.
+     *
+     * @param statusValues the status values
+     * @return the aggregate status
+     * @throws IllegalArgumentException if statusValues is null, or any element is not a valid status value
+     */
+    default HealthStatus aggregate(byte[] statusValues) {
+        checkArgumentNotNull(statusValues, "statusValues cannot be null");
+        return AggregationPolicies.aggregate(this, null, statusValues, 0, statusValues.length);
+    }
+
+    /**
+     * Aggregate a range of an array of status values. Every element has weight one.
+     *
+     * @param statusValues the status values
+     * @param offset       the index of the first status value
+     * @param length       the number of status values
+     * @return the aggregate status
+     * @throws IllegalArgumentException  if any element in the range is not a valid status value
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    default HealthStatus aggregate(byte[] statusValues, int offset, int length) {
+        return AggregationPolicies.aggregate(this, null, statusValues, offset, length);
+    }
+
+    /**
+     * Aggregate a range of an array of status values, with the check names in a parallel array.
+     *
+     * @param checkNames   the names of the checks, where {@code checkNames[i]} is the name of the check whose
+     *                     status value is {@code statusValues[i]}
+     * @param statusValues the status values
+     * @param offset       the index of the first check
+     * @param length       the number of checks
+     * @return the aggregate status
+     * @throws IllegalArgumentException  if any element in the range is not a valid status value
+     * @throws IndexOutOfBoundsException if the range is out of bounds of either array
+     */
+    default HealthStatus aggregate(String[] checkNames, byte[] statusValues, int offset, int length) {
+        checkArgumentNotNull(checkNames, "checkNames cannot be null");
+        return AggregationPolicies.aggregate(this, checkNames, statusValues, offset, length);
+    }
+
+    /**
+     * Aggregate the statuses of named checks.
+     *
+     * @param statuses the status of each check, keyed by check name
+     * @return the aggregate status
+     */
+    default HealthStatus aggregate(Map<String, HealthStatus> statuses) {
+        return AggregationPolicies.aggregate(this, statuses);
+    }
+
+    /**
+     * Aggregate health check results, e.g., those returned by
+     * {@link com.codahale.metrics.health.HealthCheckRegistry#runHealthChecks()}.
+     *
+     * @param results the health check results, keyed by health check name
+     * @return the aggregate status
+     * @see HealthCheckResults#statusOf(HealthCheck.Result)
+     */
+    default HealthStatus aggregateResults(Map<String, HealthCheck.Result> results) {
+        return AggregationPolicies.aggregateResults(this, results);
+    }
+
+    /**
+     * Create a policy that behaves like this one, except that the given checks are excluded.
+     *
+     * @param checkNames the names of the checks to exclude
+     * @return a new policy
+     */
+    default AggregationPolicy ignoring(Set<String> checkNames) {
+        return new AggregationPolicies.Ignoring(this, checkNames);
+    }
+
+    /**
+     * Create a policy that behaves like this one, except that the children of a {@link HealthTree} at the given
+     * paths are excluded. Unlike {@link #ignoring(Set)}, other nodes with the same names are not affected.
+     *
+     * @param paths the paths of the children to exclude, e.g., {@code List.of("orders", "instance-1", "cache")}
+     * @return a new policy
+     */
+    default AggregationPolicy ignoringPaths(Set<List<String>> paths) {
+        return new AggregationPolicies.IgnoringPaths(this, paths);
+    }
+
+    /**
+     * Get the policy that takes the highest severity of any check, which is how {@link HealthStatus#from(Map)}
+     * rolls up checks.
+     *
+     * @return the policy, which is {@link HealthStatus#CRITICAL} when there are no checks
+     */
+    static AggregationPolicy maxSeverity() {
+        return AggregationPolicies.MaxSeverity.INSTANCE;
+    }
+
+    /**
+     * Create a policy for redundant instances of a service, which tolerates a minority of unavailable instances.
+     * An instance is <em>available</em> when its status is less severe than {@link HealthStatus#CRITICAL}, as in
+     * {@link ServiceHealthAggregator}. The aggregate status is:
+     * <ul>
+     *     <li>{@link HealthStatus#FATAL} if no instances are available (including when there are none)</li>
+     *     <li>{@link HealthStatus#CRITICAL} if the (weighted) fraction of unavailable instances is greater than
+     *     {@code unavailableThreshold}</li>
+     *     <li>otherwise, the highest severity of the available instances, but at least {@link HealthStatus#WARN}
+     *     if any instance is unavailable</li>
+     * </ul>
+     *
+     * @param unavailableThreshold the fraction of unavailable instances above which the status is CRITICAL, e.g.,
+     *                             0.5 for a majority; must be at least 0 and less than 1
+     * @return a new policy
+     */
+    static AggregationPolicy quorum(double unavailableThreshold) {
+        return new AggregationPolicies.Quorum(unavailableThreshold);
+    }
+
+    /**
+     * Create a policy that weights checks by importance. The aggregate status is the highest severity such that
+     * the checks at that severity or higher carry more than {@code threshold} of the total weight. A heavy check
+     * therefore decides the status on its own when its weight is over the threshold, however many light checks
+     * are OK, while light checks only raise the status when enough of them agree. Checks with weight zero are
+     * excluded. Only the order of the severities matters, not their {@link HealthStatus#getValue() values}.
+     * <p>
+     * For example, with a threshold of 0.25, a CRITICAL check with weight 10 among nine OK checks with weight 1
+     * carries 10/19 of the weight, so the status is CRITICAL, while a single WARN check with weight 1 among them
+     * carries 1/19, so the status is OK. A threshold of 0 behaves like {@link #maxSeverity()} for non-zero weights.
+     *
+     * @param weights       the weight of each check, keyed by check name
+     * @param defaultWeight the weight of checks that are not in {@code weights}
+     * @param threshold     the fraction of the total weight that the checks at a severity or higher must exceed for
+     *                      the status to be that severity; must be at least 0 and less than 1
+     * @return a new policy, which is {@link HealthStatus#CRITICAL} when there are no checks
+     */
+    static AggregationPolicy weighted(Map<String, Integer> weights, int defaultWeight, double threshold) {
+        return new AggregationPolicies.Weighted(weights, defaultWeight, threshold);
+    }
+}
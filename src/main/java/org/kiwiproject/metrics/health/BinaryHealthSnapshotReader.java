@@ -0,0 +1,171 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.kiwiproject.metrics.health.BinaryHealthSnapshots.FLAG_MESSAGES;
+import static org.kiwiproject.metrics.health.BinaryHealthSnapshots.HEADER_LENGTH;
+import static org.kiwiproject.metrics.health.BinaryHealthSnapshots.HEALTHY_BIT;
+import static org.kiwiproject.metrics.health.BinaryHealthSnapshots.checkSnapshot;
+import static org.kiwiproject.metrics.health.BinaryHealthSnapshots.readHeaderAndCount;
+import static org.kiwiproject.metrics.health.BinaryHealthSnapshots.readVarint;
+import static org.kiwiproject.metrics.health.BinaryHealthSnapshots.skipVarint;
+import static org.kiwiproject.metrics.health.BinaryHealthSnapshots.statusValue;
+
+import org.jspecify.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Provides access to the individual checks in a snapshot encoded by {@link BinaryHealthSnapshots}, by index in
+ * name order, without decoding it into maps. Names and messages are only decoded into Strings when requested.
+ * <p>
+ * The whole snapshot is validated when the reader is created. A reader is immutable and can be shared between
+ * threads.
+ *
+ * @see BinaryHealthSnapshots#reader(byte[])
+ */
+public final class BinaryHealthSnapshotReader {
+
+    private final ByteBuffer snapshot;
+    private final int count;
+    private final int statusStart;
+    private final int[] nameStarts;
+    private final int[] nameEnds;
+    private final boolean hasMessages;
+    private final int offsetsStart;
+    private final int messagesStart;
+
+    // The snapshot must start at index zero of the buffer
+    BinaryHealthSnapshotReader(ByteBuffer snapshot) {
+        this.snapshot = snapshot;
+        this.count = readHeaderAndCount(snapshot, 0);
+        this.statusStart = skipVarint(snapshot, HEADER_LENGTH);
+        checkSnapshot(count <= snapshot.limit() - statusStart, "status bytes are truncated");
+        for (var i = 0; i < count; i++) {
+            statusValue(snapshot.get(statusStart + i));
+        }
+
+        this.nameStarts = new int[count];
+        this.nameEnds = new int[count];
+        var index = statusStart + count;
+        for (var i = 0; i < count; i++) {
+            var length = readVarint(snapshot, index);
+            nameStarts[i] = skipVarint(snapshot, index);
+            checkSnapshot(length <= snapshot.limit() - nameStarts[i], "name is truncated");
+            nameEnds[i] = nameStarts[i] + length;
+            index = nameEnds[i];
+        }
+
+        this.hasMessages = (snapshot.get(3) & FLAG_MESSAGES) != 0;
+        this.offsetsStart = index;
+        this.messagesStart = hasMessages ? validateMessageOffsets() : index;
+    }
+
+    private int validateMessageOffsets() {
+        var offsetsLength = Integer.BYTES * ((long) count + 1);
+        checkSnapshot(offsetsLength <= snapshot.limit() - offsetsStart, "message offsets are truncated");
+
+        var start = offsetsStart + (int) offsetsLength;
+        var previous = 0;
+        for (var i = 0; i <= count; i++) {
+            var offset = messageOffset(i);
+            checkSnapshot(offset >= previous, "message offsets are not in order");
+            previous = offset;
+        }
+        checkSnapshot(previous <= snapshot.limit() - start, "messages are truncated");
+        return start;
+    }
+
+    /**
+     * Get the number of checks in the snapshot.
+     *
+     * @return the number of checks
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Get the name of a check.
+     *
+     * @param index the index of the check, in name order
+     * @return the name of the check
+     */
+    public String name(int index) {
+        checkElementIndex(index, count);
+        return decode(nameStarts[index], nameEnds[index]);
+    }
+
+    /**
+     * Get the healthy flag of a check.
+     *
+     * @param index the index of the check, in name order
+     * @return true if the check was healthy
+     */
+    public boolean isHealthy(int index) {
+        checkElementIndex(index, count);
+        return (snapshot.get(statusStart + index) & HEALTHY_BIT) != 0;
+    }
+
+    /**
+     * Get the status of a check.
+     *
+     * @param index the index of the check, in name order
+     * @return the status of the check
+     */
+    public HealthStatus status(int index) {
+        checkElementIndex(index, count);
+        return HealthStatus.fromValueOrNull(statusValue(snapshot.get(statusStart + index)));
+    }
+
+    /**
+     * Check whether the snapshot was encoded with messages.
+     *
+     * @return true if the snapshot contains messages
+     */
+    public boolean hasMessages() {
+        return hasMessages;
+    }
+
+    /**
+     * Get the message of a check.
+     *
+     * @param index the index of the check, in name order
+     * @return the message of the check, or null if it had no (or an empty) message or the snapshot does not
+     * contain messages
+     */
+    public @Nullable String message(int index) {
+        checkElementIndex(index, count);
+        if (!hasMessages) {
+            return null;
+        }
+
+        var start = messageOffset(index);
+        var end = messageOffset(index + 1);
+        return start == end ? null : decode(messagesStart + start, messagesStart + end);
+    }
+
+    /**
+     * Get the overall status of the snapshot.
+     *
+     * @return the highest status of any check, or {@link HealthStatus#CRITICAL} if there are no checks
+     * @see BinaryHealthSnapshots#overallStatus(ByteBuffer)
+     */
+    public HealthStatus overallStatus() {
+        return BinaryHealthSnapshots.overallStatus(snapshot);
+    }
+
+    private int messageOffset(int index) {
+        return snapshot.getInt(offsetsStart + Integer.BYTES * index);
+    }
+
+    private String decode(int start, int end) {
+        if (snapshot.hasArray()) {
+            return new String(snapshot.array(), snapshot.arrayOffset() + start, end - start, UTF_8);
+        }
+
+        var bytes = new byte[end - start];
+        snapshot.get(start, bytes);
+        return new String(bytes, UTF_8);
+    }
+}
@@ -0,0 +1,241 @@
+package org.kiwiproject.metrics.health;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+import lombok.experimental.UtilityClass;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.SortedMap;
+
+/**
+ * Encodes health check results as compact binary snapshots, and evaluates them without decoding them into maps.
+ * This is an alternative to JSON (see {@link HealthStatusJsonEvaluator}) for monitors that poll many instances
+ * and only need the status of each check.
+ * <p>
+ * A snapshot is laid out as follows, with multibyte integers in big-endian order:
+ * <ol>
+ *     <li>A header: the magic bytes {@code 'H' 'S'}, a format version byte, and a flags byte whose lowest bit is
+ *     set when the snapshot contains messages</li>
+ *     <li>The number of checks, as an unsigned variable-length integer (7 bits per byte, low-order group first)</li>
+ *     <li>One status byte per check, in name order: the high bit is the healthy flag, and the low bits are the
+ *     {@link HealthStatus#getValue() value} of the check's status as determined by
+ *     {@link HealthCheckResults#statusOf(HealthCheck.Result)}</li>
+ *     <li>The dictionary of check names, in the same order: each name's UTF-8 length as a variable-length integer,
+ *     followed by its UTF-8 bytes</li>
+ *     <li>Only if the snapshot contains messages: one more 4-byte offset than there are checks, followed by the
+ *     UTF-8 bytes of all the messages. The message of check {@code i} spans from offset {@code i} up to offset
+ *     {@code i + 1}, relative to the first message byte; an empty span means there is no message.</li>
+ * </ol>
+ * Because the status bytes precede the names, {@link #overallStatus(byte[])} reads only the header and one byte per
+ * check. Use {@link #reader(byte[])} to access the individual checks.
+ */
+@UtilityClass
+public class BinaryHealthSnapshots {
+
+    /**
+     * The media type to use for binary snapshots, e.g., in HTTP content negotiation.
+     */
+    public static final String MEDIA_TYPE = "application/vnd.kiwiproject.health-snapshot";
+
+    static final byte MAGIC_0 = 'H';
+    static final byte MAGIC_1 = 'S';
+    static final byte VERSION = 1;
+    static final int FLAG_MESSAGES = 1;
+    static final int HEADER_LENGTH = 4;
+    static final int HEALTHY_BIT = 0x80;
+    static final int STATUS_MASK = 0x7F;
+
+    /**
+     * Encode health check results, without their messages.
+     *
+     * @param results the results, e.g., from {@link com.codahale.metrics.health.HealthCheckRegistry#runHealthChecks()}
+     * @return the encoded snapshot
+     */
+    public static byte[] encode(SortedMap<String, HealthCheck.Result> results) {
+        return encode(results, false);
+    }
+
+    /**
+     * Encode health check results.
+     *
+     * @param results         the results, e.g., from
+     *                        {@link com.codahale.metrics.health.HealthCheckRegistry#runHealthChecks()}
+     * @param includeMessages whether to include the message of each result
+     * @return the encoded snapshot
+     */
+    public static byte[] encode(SortedMap<String, HealthCheck.Result> results, boolean includeMessages) {
+        checkArgumentNotNull(results, "results cannot be null");
+
+        var out = new ByteArrayOutputStream(HEADER_LENGTH + 16 * (results.size() + 1));
+        out.write(MAGIC_0);
+        out.write(MAGIC_1);
+        out.write(VERSION);
+        out.write(includeMessages ? FLAG_MESSAGES : 0);
+        writeVarint(out, results.size());
+
+        results.values().forEach(result -> out.write(statusByte(result)));
+        results.keySet().forEach(name -> writeString(out, name));
+
+        if (includeMessages) {
+            writeMessages(out, results);
+        }
+
+        return out.toByteArray();
+    }
+
+    private static int statusByte(HealthCheck.Result result) {
+        checkArgumentNotNull(result, "results must not contain null values");
+        var status = HealthCheckResults.statusOf(result);
+        return (result.isHealthy() ? HEALTHY_BIT : 0) | status.getValue();
+    }
+
+    private static void writeMessages(ByteArrayOutputStream out, SortedMap<String, HealthCheck.Result> results) {
+        var messages = new ByteArrayOutputStream();
+        var offsets = ByteBuffer.allocate(Integer.BYTES * (results.size() + 1));
+        offsets.putInt(0);
+        for (var result : results.values()) {
+            var message = result.getMessage();
+            if (nonNull(message)) {
+                messages.writeBytes(message.getBytes(UTF_8));
+            }
+            offsets.putInt(messages.size());
+        }
+
+        out.writeBytes(offsets.array());
+        out.writeBytes(messages.toByteArray());
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        var bytes = value.getBytes(UTF_8);
+        writeVarint(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        var remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+    }
+
+    /**
+     * Determine the overall status of an encoded snapshot, using the same rules as
+     * {@link HealthCheckResults#overallStatus(java.util.Map)}. This does not allocate.
+     *
+     * @param snapshot the encoded snapshot
+     * @return the highest status of any check, or {@link HealthStatus#CRITICAL} if there are no checks
+     * @throws IllegalArgumentException if the bytes are not a valid snapshot
+     */
+    public static HealthStatus overallStatus(byte[] snapshot) {
+        checkArgumentNotNull(snapshot, "snapshot cannot be null");
+        return overallStatus(ByteBuffer.wrap(snapshot));
+    }
+
+    /**
+     * Determine the overall status of an encoded snapshot between the position and limit of the given buffer.
+     * The buffer's position and limit are not changed.
+     *
+     * @param snapshot the buffer containing the encoded snapshot
+     * @return the highest status of any check, or {@link HealthStatus#CRITICAL} if there are no checks
+     * @throws IllegalArgumentException if the bytes are not a valid snapshot
+     * @see #overallStatus(byte[])
+     */
+    public static HealthStatus overallStatus(ByteBuffer snapshot) {
+        checkArgumentNotNull(snapshot, "snapshot cannot be null");
+
+        var start = snapshot.position();
+        var count = readHeaderAndCount(snapshot, start);
+        var statusStart = skipVarint(snapshot, start + HEADER_LENGTH);
+        checkSnapshot(count <= snapshot.limit() - statusStart, "status bytes are truncated");
+
+        if (count == 0) {
+            return HealthStatus.CRITICAL;
+        }
+
+        var highest = 0;
+        for (var i = statusStart; i < statusStart + count; i++) {
+            highest = Math.max(highest, statusValue(snapshot.get(i)));
+            if (highest == HealthStatus.FATAL.getValue()) {
+                break;
+            }
+        }
+
+        return HealthStatus.fromValueOrNull(highest);
+    }
+
+    /**
+     * Create a reader to access the individual checks in an encoded snapshot.
+     *
+     * @param snapshot the encoded snapshot
+     * @return a new reader
+     * @throws IllegalArgumentException if the bytes are not a valid snapshot
+     */
+    public static BinaryHealthSnapshotReader reader(byte[] snapshot) {
+        checkArgumentNotNull(snapshot, "snapshot cannot be null");
+        return new BinaryHealthSnapshotReader(ByteBuffer.wrap(snapshot));
+    }
+
+    /**
+     * Create a reader to access the individual checks in an encoded snapshot between the position and limit of the
+     * given buffer. The buffer's position and limit are not changed, and its content must not change while the
+     * reader is in use.
+     *
+     * @param snapshot the buffer containing the encoded snapshot
+     * @return a new reader
+     * @throws IllegalArgumentException if the bytes are not a valid snapshot
+     */
+    public static BinaryHealthSnapshotReader reader(ByteBuffer snapshot) {
+        checkArgumentNotNull(snapshot, "snapshot cannot be null");
+        return new BinaryHealthSnapshotReader(snapshot.slice());
+    }
+
+    // Validates the header at the given index and returns the number of checks that follows it
+    static int readHeaderAndCount(ByteBuffer snapshot, int start) {
+        checkSnapshot(snapshot.limit() - start > HEADER_LENGTH, "too short");
+        checkSnapshot(snapshot.get(start) == MAGIC_0 && snapshot.get(start + 1) == MAGIC_1, "bad magic bytes");
+        checkSnapshot(snapshot.get(start + 2) == VERSION, "unsupported version");
+        return readVarint(snapshot, start + HEADER_LENGTH);
+    }
+
+    static int readVarint(ByteBuffer buffer, int index) {
+        var value = 0;
+        for (var shift = 0; shift < Integer.SIZE; shift += 7) {
+            checkSnapshot(index < buffer.limit(), "variable-length integer is truncated");
+            var b = buffer.get(index++);
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                checkSnapshot(value >= 0, "variable-length integer is negative");
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid health snapshot: variable-length integer is too long");
+    }
+
+    // Returns the index after the (already validated) variable-length integer at the given index
+    static int skipVarint(ByteBuffer buffer, int index) {
+        var end = index;
+        while ((buffer.get(end) & 0x80) != 0) {
+            end++;
+        }
+        return end + 1;
+    }
+
+    static int statusValue(byte statusByte) {
+        var value = statusByte & STATUS_MASK;
+        checkSnapshot(nonNull(HealthStatus.fromValueOrNull(value)), "invalid status value");
+        return value;
+    }
+
+    // Builds the exception message only when the condition is false
+    static void checkSnapshot(boolean condition, String problem) {
+        if (!condition) {
+            throw new IllegalArgumentException("Invalid health snapshot: " + problem);
+        }
+    }
+}
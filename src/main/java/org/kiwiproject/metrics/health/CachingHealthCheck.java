@@ -0,0 +1,222 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link HealthCheck} that caches the result of another (expensive) health check for a time-to-live that
+ * depends on the result's severity, so that frequent callers such as load balancers and monitoring do not run the
+ * underlying check on every request.
+ * <p>
+ * Once a cached result expires, it is still returned (i.e., stale-while-revalidate) while a single background
+ * refresh runs the underlying check, so callers never wait on a slow check. Only the very first call, when
+ * there is no cached result yet, waits for the underlying check. Concurrent callers share that first execution.
+ * <p>
+ * The default time-to-live values are:
+ * <ul>
+ *     <li>{@link HealthStatus#OK}: 60 seconds</li>
+ *     <li>{@link HealthStatus#INFO}: 30 seconds</li>
+ *     <li>{@link HealthStatus#WARN}: 15 seconds</li>
+ *     <li>{@link HealthStatus#CRITICAL}: 2 seconds</li>
+ *     <li>{@link HealthStatus#FATAL}: 2 seconds</li>
+ * </ul>
+ * The severity of a result is determined by {@link HealthCheckResults#statusOf(HealthCheck.Result)}.
+ *
+ * @implNote {@link #execute()} is overridden to return the cached result as-is, so that its duration remains
+ * that of the underlying check rather than the (negligible) time taken to return it from the cache
+ */
+@Slf4j
+public class CachingHealthCheck extends HealthCheck {
+
+    private static final Map<HealthStatus, Duration> DEFAULT_TIME_TO_LIVE = Map.of(
+            HealthStatus.OK, Duration.ofSeconds(60),
+            HealthStatus.INFO, Duration.ofSeconds(30),
+            HealthStatus.WARN, Duration.ofSeconds(15),
+            HealthStatus.CRITICAL, Duration.ofSeconds(2),
+            HealthStatus.FATAL, Duration.ofSeconds(2)
+    );
+
+    private final HealthCheck delegate;
+    private final EnumMap<HealthStatus, Long> timeToLiveNanos;
+    private final Executor executor;
+    private final LongSupplier nanoTime;
+
+    private final AtomicReference<CompletableFuture<Result>> refreshInProgress = new AtomicReference<>();
+    private volatile CachedResult cachedResult;
+
+    private record CachedResult(Result result, long expiresAtNanos) {
+    }
+
+    private CachingHealthCheck(Builder builder) {
+        this.delegate = builder.delegate;
+        this.timeToLiveNanos = new EnumMap<>(HealthStatus.class);
+        builder.timeToLive.forEach((severity, ttl) -> timeToLiveNanos.put(severity, ttl.toNanos()));
+        this.executor = isNull(builder.executor) ? HealthCheckExecutors.sharedBackgroundExecutor() : builder.executor;
+        this.nanoTime = builder.nanoTime;
+    }
+
+    /**
+     * Create a caching health check with the default time-to-live values.
+     *
+     * @param delegate the health check whose results should be cached
+     * @return a new caching health check
+     */
+    public static CachingHealthCheck of(HealthCheck delegate) {
+        return builder(delegate).build();
+    }
+
+    /**
+     * Create a builder for a caching health check.
+     *
+     * @param delegate the health check whose results should be cached
+     * @return a new builder
+     */
+    public static Builder builder(HealthCheck delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    protected Result check() {
+        return cachedOrRefreshedResult();
+    }
+
+    @Override
+    public Result execute() {
+        return cachedOrRefreshedResult();
+    }
+
+    private Result cachedOrRefreshedResult() {
+        var current = cachedResult;
+        if (isNull(current)) {
+            return refresh().join();
+        }
+
+        if (nanoTime.getAsLong() - current.expiresAtNanos() >= 0) {
+            refresh();
+        }
+
+        return current.result();
+    }
+
+    /**
+     * Discard the cached result, so that the next call runs the underlying check and waits for its result.
+     */
+    public void invalidate() {
+        cachedResult = null;
+    }
+
+    private CompletableFuture<Result> refresh() {
+        while (true) {
+            var inProgress = refreshInProgress.get();
+            if (nonNull(inProgress)) {
+                return inProgress;
+            }
+
+            var future = new CompletableFuture<Result>();
+            if (refreshInProgress.compareAndSet(null, future)) {
+                startRefresh(future);
+                return future;
+            }
+        }
+    }
+
+    private void startRefresh(CompletableFuture<Result> future) {
+        try {
+            executor.execute(() -> runDelegate(future));
+        } catch (RejectedExecutionException e) {
+            LOG.warn("Unable to refresh health check; executor rejected the task", e);
+            refreshInProgress.set(null);
+            future.complete(HealthCheckResults.newUnhealthyResult(e));
+        }
+    }
+
+    private void runDelegate(CompletableFuture<Result> future) {
+        Result result;
+        try {
+            result = delegate.execute();
+        } catch (RuntimeException e) {
+            // HealthCheck#execute catches exceptions thrown by checks, so this should not normally happen
+            result = HealthCheckResults.newUnhealthyResult(e);
+        } catch (Error e) {
+            refreshInProgress.set(null);
+            future.completeExceptionally(e);
+            throw e;
+        }
+
+        var ttlNanos = timeToLiveNanos.get(HealthCheckResults.statusOf(result));
+        cachedResult = new CachedResult(result, nanoTime.getAsLong() + ttlNanos);
+        refreshInProgress.set(null);
+        future.complete(result);
+    }
+
+    /**
+     * Builder for {@link CachingHealthCheck}.
+     */
+    public static class Builder {
+
+        private final HealthCheck delegate;
+        private final EnumMap<HealthStatus, Duration> timeToLive = new EnumMap<>(DEFAULT_TIME_TO_LIVE);
+        private Executor executor;
+        private LongSupplier nanoTime = System::nanoTime;
+
+        private Builder(HealthCheck delegate) {
+            this.delegate = checkArgumentNotNull(delegate, "delegate cannot be null");
+        }
+
+        /**
+         * Set how long results with the given severity are cached before they are refreshed.
+         *
+         * @param severity   the severity
+         * @param timeToLive the time-to-live, which must not be negative; zero refreshes on every call
+         * @return this builder
+         */
+        public Builder timeToLive(HealthStatus severity, Duration timeToLive) {
+            checkArgumentNotNull(severity, "severity cannot be null");
+            checkArgumentNotNull(timeToLive, "timeToLive cannot be null");
+            checkArgument(!timeToLive.isNegative(), "timeToLive must not be negative");
+            this.timeToLive.put(severity, timeToLive);
+            return this;
+        }
+
+        /**
+         * Use the given executor to refresh results in the background. By default, a shared executor that uses
+         * virtual threads (when supported by the JDK) is used.
+         *
+         * @param executor the executor
+         * @return this builder
+         */
+        public Builder executor(Executor executor) {
+            this.executor = checkArgumentNotNull(executor, "executor cannot be null");
+            return this;
+        }
+
+        // Visible for testing
+        Builder nanoTime(LongSupplier nanoTime) {
+            this.nanoTime = checkArgumentNotNull(nanoTime, "nanoTime cannot be null");
+            return this;
+        }
+
+        /**
+         * Build a new caching health check.
+         *
+         * @return a new caching health check
+         */
+        public CachingHealthCheck build() {
+            return new CachingHealthCheck(this);
+        }
+    }
+}
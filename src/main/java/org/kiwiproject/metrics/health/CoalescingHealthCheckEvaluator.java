@@ -0,0 +1,225 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheckRegistry;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent evaluations of a set of health checks, so that a burst of callers, e.g., health check
+ * requests from many load balancers at once, runs the health checks once rather than once per caller.
+ * <p>
+ * When {@link #evaluate()} is called while an evaluation is in flight, the caller waits for that evaluation and
+ * gets the same results and overall status, instead of starting another one. Otherwise, the caller runs a new
+ * evaluation on its own thread, which concurrent callers then share. Results may therefore have been started
+ * slightly before a caller called, but never before the previous caller's evaluation completed.
+ * <p>
+ * Optionally, a minimum interval between evaluations can be set. Callers within the minimum interval after an
+ * evaluation completed get its results without running the checks again, which bounds how often the checks run
+ * regardless of how many callers there are.
+ * <p>
+ * Fresh evaluations can also be published to a {@link HealthSnapshotHolder}, so that readers of the holder see
+ * the results without evaluating.
+ * <p>
+ * This class is thread-safe.
+ */
+public class CoalescingHealthCheckEvaluator {
+
+    private final Supplier<HealthCheckEvaluation> evaluator;
+    private final long minimumIntervalNanos;
+    private final @Nullable HealthSnapshotHolder snapshotHolder;
+    private final LongSupplier nanoTime;
+
+    private final AtomicReference<CompletableFuture<HealthCheckEvaluation>> evaluationInProgress =
+            new AtomicReference<>();
+    private volatile @Nullable CompletedEvaluation lastEvaluation;
+
+    private record CompletedEvaluation(HealthCheckEvaluation evaluation, long completedAtNanos) {
+    }
+
+    private CoalescingHealthCheckEvaluator(Builder builder) {
+        this.evaluator = builder.evaluator;
+        this.minimumIntervalNanos = builder.minimumInterval.toNanos();
+        this.snapshotHolder = builder.snapshotHolder;
+        this.nanoTime = builder.nanoTime;
+    }
+
+    /**
+     * Create an evaluator that coalesces concurrent runs of all the health checks in a registry, with no minimum
+     * interval.
+     *
+     * @param registry the registry containing the health checks to run
+     * @return a new evaluator
+     */
+    public static CoalescingHealthCheckEvaluator of(HealthCheckRegistry registry) {
+        return builder(registry).build();
+    }
+
+    /**
+     * Create a builder for an evaluator that runs all the health checks in a registry, one after another, using
+     * {@link HealthCheckRegistry#runHealthChecks()}.
+     *
+     * @param registry the registry containing the health checks to run
+     * @return a new builder
+     */
+    public static Builder builder(HealthCheckRegistry registry) {
+        checkArgumentNotNull(registry, "registry cannot be null");
+        return new Builder(() -> HealthCheckEvaluation.of(registry.runHealthChecks()));
+    }
+
+    /**
+     * Create a builder for an evaluator that coalesces calls to the given evaluator, e.g.,
+     * {@code runner::runHealthChecks} for a {@link ParallelHealthCheckRunner}.
+     *
+     * @param evaluator runs the health checks; it must not return null
+     * @return a new builder
+     */
+    public static Builder builder(Supplier<HealthCheckEvaluation> evaluator) {
+        return new Builder(evaluator);
+    }
+
+    /**
+     * Get the results of the in-flight evaluation if there is one, or of the last evaluation if it completed
+     * within the minimum interval, or otherwise of a new evaluation.
+     *
+     * @return the health check results and their overall status
+     * @throws RuntimeException if the evaluation that the caller shared threw an exception, which is rethrown
+     */
+    public HealthCheckEvaluation evaluate() {
+        var recent = recentEvaluation();
+        if (nonNull(recent)) {
+            return recent;
+        }
+
+        while (true) {
+            var inProgress = evaluationInProgress.get();
+            if (nonNull(inProgress)) {
+                return join(inProgress);
+            }
+
+            var future = new CompletableFuture<HealthCheckEvaluation>();
+            if (evaluationInProgress.compareAndSet(null, future)) {
+                // Another caller may have completed an evaluation between the check above and the CAS
+                recent = recentEvaluation();
+                if (nonNull(recent)) {
+                    evaluationInProgress.set(null);
+                    future.complete(recent);
+                    return recent;
+                }
+                return runEvaluation(future);
+            }
+        }
+    }
+
+    private @Nullable HealthCheckEvaluation recentEvaluation() {
+        var last = lastEvaluation;
+        if (isNull(last) || nanoTime.getAsLong() - last.completedAtNanos() >= minimumIntervalNanos) {
+            return null;
+        }
+        return last.evaluation();
+    }
+
+    private HealthCheckEvaluation runEvaluation(CompletableFuture<HealthCheckEvaluation> future) {
+        HealthCheckEvaluation evaluation;
+        try {
+            evaluation = evaluator.get();
+            checkState(nonNull(evaluation), "evaluator returned null");
+        } catch (RuntimeException | Error e) {
+            // Do not remember failures, so that the next caller tries again
+            evaluationInProgress.set(null);
+            future.completeExceptionally(e);
+            throw e;
+        }
+
+        // Publish before the next evaluation can start, so that snapshots are published in order
+        if (nonNull(snapshotHolder)) {
+            snapshotHolder.publish(evaluation);
+        }
+
+        lastEvaluation = new CompletedEvaluation(evaluation, nanoTime.getAsLong());
+        evaluationInProgress.set(null);
+        future.complete(evaluation);
+        return evaluation;
+    }
+
+    private static HealthCheckEvaluation join(CompletableFuture<HealthCheckEvaluation> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            var cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            } else if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Builder for {@link CoalescingHealthCheckEvaluator}.
+     */
+    public static class Builder {
+
+        private final Supplier<HealthCheckEvaluation> evaluator;
+        private Duration minimumInterval = Duration.ZERO;
+        private HealthSnapshotHolder snapshotHolder;
+        private LongSupplier nanoTime = System::nanoTime;
+
+        private Builder(Supplier<HealthCheckEvaluation> evaluator) {
+            this.evaluator = checkArgumentNotNull(evaluator, "evaluator cannot be null");
+        }
+
+        /**
+         * The minimum time between the completion of one evaluation and the start of the next. Callers within
+         * this interval get the results of the previous evaluation. The default is zero, i.e., only concurrent
+         * callers share an evaluation.
+         *
+         * @param minimumInterval the minimum interval, which must not be negative
+         * @return this builder
+         */
+        public Builder minimumInterval(Duration minimumInterval) {
+            checkArgumentNotNull(minimumInterval, "minimumInterval cannot be null");
+            checkArgument(!minimumInterval.isNegative(), "minimumInterval must not be negative");
+            this.minimumInterval = minimumInterval;
+            return this;
+        }
+
+        /**
+         * Publish the results of each evaluation to the given holder.
+         *
+         * @param snapshotHolder the holder
+         * @return this builder
+         */
+        public Builder publishTo(HealthSnapshotHolder snapshotHolder) {
+            this.snapshotHolder = checkArgumentNotNull(snapshotHolder, "snapshotHolder cannot be null");
+            return this;
+        }
+
+        // Visible for testing
+        Builder nanoTime(LongSupplier nanoTime) {
+            this.nanoTime = checkArgumentNotNull(nanoTime, "nanoTime cannot be null");
+            return this;
+        }
+
+        /**
+         * Build a new evaluator.
+         *
+         * @return a new evaluator
+         */
+        public CoalescingHealthCheckEvaluator build() {
+            return new CoalescingHealthCheckEvaluator(this);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package org.kiwiproject.metrics.health;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import org.jspecify.annotations.Nullable;
+import org.kiwiproject.metrics.health.HealthChangeStream.CheckState;
+import org.kiwiproject.metrics.health.HealthChangeStream.Delta;
+import org.kiwiproject.metrics.health.HealthChangeStream.Snapshot;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Rebuilds the current state of a set of health checks from a {@link HealthChangeStream}, by applying its deltas in
+ * sequence order to a snapshot.
+ * <p>
+ * A new replica does not follow any stream, and rejects deltas until it is {@link #reset(Snapshot) reset}
+ * from a snapshot. After that, {@link #apply(Delta)} accepts only the delta with the next sequence number from the
+ * same stream. When it reports a {@link ApplyResult#GAP gap}, the replica keeps its current state and sequence
+ * number, and the consumer should fetch the missed deltas using {@link HealthChangeStream#deltasSince(long)} with
+ * the replica's {@link #sequence()}, or reset from a new snapshot if they are no longer available.
+ * {@link #catchUp(HealthChangeStream)} does exactly that when the stream is in the same process.
+ * <p>
+ * The overall status is maintained incrementally as changes are applied, so reading it does not iterate over the
+ * checks. It is published once after each whole snapshot or delta, so readers never see a partly applied one.
+ * <p>
+ * This class is thread-safe.
+ */
+public class HealthChangeReplica {
+
+    private final SortedMap<String, CheckState> checks = new TreeMap<>();
+    private final HealthStatusCounter counter = new HealthStatusCounter();
+    private volatile HealthStatus overallStatus = HealthStatus.CRITICAL;
+    private @Nullable Long streamId;
+    private long sequence;
+
+    /**
+     * The result of applying a delta.
+     */
+    public enum ApplyResult {
+
+        /**
+         * The delta was the next one in sequence, and was applied.
+         */
+        APPLIED,
+
+        /**
+         * The delta had already been applied (or was included in the snapshot the replica was reset from), and was
+         * ignored.
+         */
+        DUPLICATE,
+
+        /**
+         * The delta does not follow the last one that was applied, or is from a different stream, or the replica
+         * has not been reset from a snapshot. It was not applied, and the replica must resync.
+         */
+        GAP
+    }
+
+    /**
+     * Replace the state of this replica with a snapshot.
+     *
+     * @param snapshot the snapshot
+     */
+    public synchronized void reset(Snapshot snapshot) {
+        checkArgumentNotNull(snapshot, "snapshot cannot be null");
+
+        checks.values().forEach(state -> counter.transition(state.status(), null));
+        checks.clear();
+        checks.putAll(snapshot.checks());
+        checks.values().forEach(state -> counter.transition(null, state.status()));
+
+        overallStatus = counter.overallStatus();
+
+        streamId = snapshot.streamId();
+        sequence = snapshot.sequence();
+    }
+
+    /**
+     * Apply a delta, if it is the next one in sequence from the stream this replica was reset from.
+     *
+     * @param delta the delta
+     * @return the result of applying the delta
+     */
+    public synchronized ApplyResult apply(Delta delta) {
+        checkArgumentNotNull(delta, "delta cannot be null");
+
+        if (isNull(streamId) || streamId != delta.streamId() || delta.sequence() > sequence + 1) {
+            return ApplyResult.GAP;
+        }
+
+        if (delta.sequence() <= sequence) {
+            return ApplyResult.DUPLICATE;
+        }
+
+        for (var change : delta.changes()) {
+            var state = change.state();
+            var previous = isNull(state) ? checks.remove(change.name()) : checks.put(change.name(), state);
+            counter.transition(statusOf(previous), statusOf(state));
+        }
+        overallStatus = counter.overallStatus();
+
+        sequence = delta.sequence();
+        return ApplyResult.APPLIED;
+    }
+
+    private static @Nullable HealthStatus statusOf(@Nullable CheckState state) {
+        return isNull(state) ? null : state.status();
+    }
+
+    /**
+     * Bring this replica up to date with a stream in the same process, applying only the deltas it missed if the
+     * stream still retains them, and otherwise resetting from a new snapshot.
+     *
+     * @param stream the stream
+     * @return true if the deltas were applied, or false if the replica had to be reset from a snapshot
+     */
+    public synchronized boolean catchUp(HealthChangeStream stream) {
+        checkArgumentNotNull(stream, "stream cannot be null");
+
+        if (isNull(streamId) || streamId != stream.streamId()) {
+            reset(stream.snapshot());
+            return false;
+        }
+
+        var deltas = stream.deltasSince(sequence).orElse(null);
+        if (isNull(deltas)) {
+            reset(stream.snapshot());
+            return false;
+        }
+
+        deltas.forEach(this::apply);
+        return true;
+    }
+
+    /**
+     * Check whether this replica has been reset from a snapshot, and can therefore apply deltas.
+     *
+     * @return true if the replica has been reset from a snapshot
+     */
+    public synchronized boolean isInitialized() {
+        return nonNull(streamId);
+    }
+
+    /**
+     * Get the identifier of the stream this replica follows.
+     *
+     * @return the stream identifier, or null if the replica has not been reset from a snapshot
+     */
+    public synchronized @Nullable Long streamId() {
+        return streamId;
+    }
+
+    /**
+     * Get the sequence number of the last delta that was applied, or of the snapshot the replica was reset from if
+     * no delta has been applied since.
+     *
+     * @return the sequence number
+     */
+    public synchronized long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Get the current state of a check.
+     *
+     * @param name the name of the check
+     * @return the state of the check, or null if the check is not present
+     */
+    public synchronized @Nullable CheckState state(String name) {
+        return checks.get(name);
+    }
+
+    /**
+     * Get a copy of the current state of all checks.
+     *
+     * @return the state of each check keyed by check name (unmodifiable)
+     */
+    public synchronized SortedMap<String, CheckState> checks() {
+        return Collections.unmodifiableSortedMap(new TreeMap<>(checks));
+    }
+
+    /**
+     * Get the overall status of the checks.
+     *
+     * @return the highest status of any check, or {@link HealthStatus#CRITICAL} if there are no checks
+     */
+    public HealthStatus overallStatus() {
+        return overallStatus;
+    }
+}
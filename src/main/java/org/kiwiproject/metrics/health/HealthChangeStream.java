@@ -0,0 +1,338 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Diffs successive health check results and emits only what changed, as a stream of sequence-numbered
+ * {@link Delta deltas}. A consumer (see {@link HealthChangeReplica}) rebuilds the current state of the checks from
+ * a {@link Snapshot} plus the deltas that follow it.
+ * <p>
+ * Only the healthy flag and {@link HealthCheckResults#statusOf(HealthCheck.Result) status} of each check are
+ * tracked, so a change in a result's message, details, or timestamp alone is not a change. When nothing changed
+ * between two updates, no delta is emitted and the sequence number does not advance, so in steady state consumers
+ * receive nothing at all.
+ * <p>
+ * Each delta has the sequence number of the previous delta plus one, and a snapshot has the sequence number of the
+ * last delta it includes. A consumer that sees a sequence number other than the one it expects has missed a delta
+ * and must resync, either by replaying the deltas it missed from {@link #deltasSince(long)}, which retains a
+ * bounded backlog of recent deltas, or by starting over from a new {@link #snapshot()}. Every stream also has a
+ * random {@link #streamId() identifier}, so that a consumer can tell when it is receiving deltas from a different
+ * stream, e.g., after the producing process restarted and its sequence numbers started over.
+ * <p>
+ * This class is thread-safe. Updates are serialized, since each one is diffed against the state left by the
+ * previous one.
+ */
+public class HealthChangeStream {
+
+    private static final int DEFAULT_BACKLOG_CAPACITY = 64;
+
+    private static final Comparator<Change> BY_NAME = Comparator.comparing(Change::name);
+
+    private final long streamId;
+    private final int backlogCapacity;
+    private final Map<String, CheckState> states = new HashMap<>();
+    private final Deque<Delta> backlog = new ArrayDeque<>();
+    private long sequence;
+
+    /**
+     * The kind of change to a check.
+     */
+    public enum ChangeType {
+
+        /**
+         * The check was not present in the previous results.
+         */
+        ADDED,
+
+        /**
+         * The check was present in the previous results but is not present now.
+         */
+        REMOVED,
+
+        /**
+         * The healthy flag and/or the status of the check changed.
+         */
+        UPDATED
+    }
+
+    /**
+     * The state of a single check that is tracked by a stream.
+     *
+     * @param healthy whether the check is healthy
+     * @param status  the status of the check
+     */
+    public record CheckState(boolean healthy, HealthStatus status) {
+
+        /**
+         * Canonical constructor.
+         *
+         * @param healthy whether the check is healthy
+         * @param status  the status of the check
+         */
+        public CheckState {
+            checkArgumentNotNull(status, "status cannot be null");
+        }
+
+        /**
+         * Create a new instance from a health check result.
+         *
+         * @param result the health check result
+         * @return a new instance
+         */
+        public static CheckState of(HealthCheck.Result result) {
+            return new CheckState(result.isHealthy(), HealthCheckResults.statusOf(result));
+        }
+    }
+
+    /**
+     * A change to a single check.
+     *
+     * @param name  the name of the check
+     * @param type  the kind of change
+     * @param state the new state of the check, or null if it was removed
+     */
+    public record Change(String name, ChangeType type, @Nullable CheckState state) {
+
+        /**
+         * Canonical constructor.
+         *
+         * @param name  the name of the check
+         * @param type  the kind of change
+         * @param state the new state of the check, which must be null if and only if the check was removed
+         */
+        public Change {
+            checkArgumentNotBlank(name, "name must not be blank");
+            checkArgumentNotNull(type, "type cannot be null");
+            checkArgument((type == ChangeType.REMOVED) == isNull(state),
+                    "state must be null if and only if type is REMOVED");
+        }
+    }
+
+    /**
+     * The changes between two successive updates of a stream.
+     *
+     * @param streamId the identifier of the stream that emitted the delta
+     * @param sequence the sequence number of the delta
+     * @param changes  the changes, ordered by check name (unmodifiable)
+     */
+    public record Delta(long streamId, long sequence, List<Change> changes) {
+
+        /**
+         * Canonical constructor.
+         *
+         * @param streamId the identifier of the stream that emitted the delta
+         * @param sequence the sequence number of the delta
+         * @param changes  the changes, ordered by check name
+         * @implNote The changes are stored in an unmodifiable copy
+         */
+        public Delta {
+            checkArgument(sequence > 0, "sequence must be positive");
+            checkArgumentNotNull(changes, "changes cannot be null");
+            changes = List.copyOf(changes);
+        }
+    }
+
+    /**
+     * The full state of a stream, which a consumer uses as the base to apply subsequent deltas to.
+     *
+     * @param streamId the identifier of the stream
+     * @param sequence the sequence number of the last delta that is included in the snapshot, or zero if none
+     * @param checks   the state of each check keyed by check name (unmodifiable)
+     */
+    public record Snapshot(long streamId, long sequence, SortedMap<String, CheckState> checks) {
+
+        /**
+         * Canonical constructor.
+         *
+         * @param streamId the identifier of the stream
+         * @param sequence the sequence number of the last delta that is included in the snapshot, or zero if none
+         * @param checks   the state of each check keyed by check name
+         * @implNote The checks are stored in an unmodifiable copy
+         */
+        public Snapshot {
+            checkArgument(sequence >= 0, "sequence must not be negative");
+            checkArgumentNotNull(checks, "checks cannot be null");
+            checks = Collections.unmodifiableSortedMap(new TreeMap<>(checks));
+        }
+    }
+
+    /**
+     * Create a stream that retains the 64 most recent deltas for consumers that need to catch up.
+     */
+    public HealthChangeStream() {
+        this(DEFAULT_BACKLOG_CAPACITY);
+    }
+
+    /**
+     * Create a stream that retains the given number of recent deltas for consumers that need to catch up.
+     *
+     * @param backlogCapacity the maximum number of deltas to retain; zero means consumers that miss a delta must
+     *                        always resync from a snapshot
+     */
+    public HealthChangeStream(int backlogCapacity) {
+        checkArgument(backlogCapacity >= 0, "backlogCapacity must not be negative");
+        this.streamId = ThreadLocalRandom.current().nextLong();
+        this.backlogCapacity = backlogCapacity;
+    }
+
+    /**
+     * Get the identifier of this stream, which is included in all of its deltas and snapshots.
+     *
+     * @return the stream identifier
+     */
+    public long streamId() {
+        return streamId;
+    }
+
+    /**
+     * Get the sequence number of the most recent delta.
+     *
+     * @return the current sequence number, or zero if no delta has been emitted
+     */
+    public synchronized long sequence() {
+        return sequence;
+    }
+
+    /**
+     * Run all the health checks in the registry and diff the results against the previous update.
+     *
+     * @param registry the registry containing the health checks
+     * @return the delta, or an empty Optional if nothing changed
+     * @see #update(Map)
+     */
+    public Optional<Delta> update(HealthCheckRegistry registry) {
+        checkArgumentNotNull(registry, "registry cannot be null");
+        return update(registry.runHealthChecks());
+    }
+
+    /**
+     * Diff the given results against the previous update. Checks that are in the previous update but not in the
+     * given results are considered removed.
+     *
+     * @param results the complete set of current health check results, keyed by health check name
+     * @return the delta, or an empty Optional if nothing changed
+     */
+    public synchronized Optional<Delta> update(Map<String, HealthCheck.Result> results) {
+        checkArgumentNotNull(results, "results cannot be null");
+
+        List<Change> changes = null;
+        for (var entry : results.entrySet()) {
+            var name = entry.getKey();
+            var result = entry.getValue();
+            checkArgumentNotNull(result, "results must not contain null values");
+
+            var state = CheckState.of(result);
+            var previous = states.put(name, state);
+            if (isNull(previous)) {
+                changes = add(changes, new Change(name, ChangeType.ADDED, state));
+            } else if (!previous.equals(state)) {
+                changes = add(changes, new Change(name, ChangeType.UPDATED, state));
+            }
+        }
+
+        // Only look for removed checks when some of the previous checks were not in the results
+        if (states.size() > results.size()) {
+            changes = removeMissing(changes, results);
+        }
+
+        if (isNull(changes)) {
+            return Optional.empty();
+        }
+
+        changes.sort(BY_NAME);
+        return Optional.of(emit(changes));
+    }
+
+    private static List<Change> add(@Nullable List<Change> changes, Change change) {
+        var list = isNull(changes) ? new ArrayList<Change>() : changes;
+        list.add(change);
+        return list;
+    }
+
+    private @Nullable List<Change> removeMissing(@Nullable List<Change> changes,
+                                                 Map<String, HealthCheck.Result> results) {
+        var result = changes;
+        var iterator = states.keySet().iterator();
+        while (iterator.hasNext()) {
+            var name = iterator.next();
+            if (!results.containsKey(name)) {
+                iterator.remove();
+                result = add(result, new Change(name, ChangeType.REMOVED, null));
+            }
+        }
+        return result;
+    }
+
+    private Delta emit(List<Change> changes) {
+        var delta = new Delta(streamId, ++sequence, changes);
+        if (backlogCapacity > 0) {
+            if (backlog.size() == backlogCapacity) {
+                backlog.removeFirst();
+            }
+            backlog.addLast(delta);
+        }
+        return delta;
+    }
+
+    /**
+     * Get a snapshot of the current state of all checks.
+     *
+     * @return a new snapshot
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(streamId, sequence, new TreeMap<>(states));
+    }
+
+    /**
+     * Get the deltas that follow the given sequence number, so that a consumer that missed some deltas can catch up
+     * without a full snapshot.
+     *
+     * @param lastSequence the sequence number of the last delta the consumer applied
+     * @return the deltas after {@code lastSequence} in order, which is an empty list if the consumer is up to date,
+     * or an empty Optional if some of the deltas are no longer retained or the sequence number is not one this
+     * stream has emitted, in which case the consumer must resync from a {@link #snapshot()}
+     */
+    public synchronized Optional<List<Delta>> deltasSince(long lastSequence) {
+        if (lastSequence == sequence) {
+            return Optional.of(List.of());
+        }
+
+        var oldest = backlog.peekFirst();
+        if (lastSequence < 0 || lastSequence > sequence || isNull(oldest) || oldest.sequence() > lastSequence + 1) {
+            return Optional.empty();
+        }
+
+        var deltas = new ArrayList<Delta>((int) (sequence - lastSequence));
+        for (var delta : backlog) {
+            if (delta.sequence() > lastSequence) {
+                deltas.add(delta);
+            }
+        }
+        return Optional.of(Collections.unmodifiableList(deltas));
+    }
+
+    // Visible for testing
+    synchronized int backlogSize() {
+        return backlog.size();
+    }
+}
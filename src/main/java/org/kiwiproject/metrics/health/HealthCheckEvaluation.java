@@ -0,0 +1,42 @@
+package org.kiwiproject.metrics.health;
+
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * The results of running a set of health checks, together with their overall {@link HealthStatus}.
+ *
+ * @param results the health check results keyed by health check name (unmodifiable)
+ * @param status  the overall status of the results
+ */
+public record HealthCheckEvaluation(SortedMap<String, HealthCheck.Result> results, HealthStatus status) {
+
+    /**
+     * Canonical constructor.
+     *
+     * @param results the health check results keyed by health check name
+     * @param status  the overall status of the results
+     * @implNote The results are stored in an unmodifiable copy
+     */
+    public HealthCheckEvaluation {
+        checkArgumentNotNull(results, "results cannot be null");
+        checkArgumentNotNull(status, "status cannot be null");
+        results = Collections.unmodifiableSortedMap(new TreeMap<>(results));
+    }
+
+    /**
+     * Create a new instance, computing the overall status from the results.
+     *
+     * @param results the health check results keyed by health check name
+     * @return a new instance
+     * @see HealthCheckResults#overallStatus(java.util.Map)
+     */
+    public static HealthCheckEvaluation of(SortedMap<String, HealthCheck.Result> results) {
+        return new HealthCheckEvaluation(results, HealthCheckResults.overallStatus(results));
+    }
+}
@@ -0,0 +1,80 @@
+package org.kiwiproject.metrics.health;
+
+import lombok.experimental.UtilityClass;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates executors for running health checks.
+ */
+@Slf4j
+@UtilityClass
+class HealthCheckExecutors {
+
+    /**
+     * Create an executor that runs each task on a new virtual thread when running on a JDK that supports them
+     * (21 or later). Otherwise, create a cached thread pool of daemon threads.
+     *
+     * @param threadNamePrefix the prefix of the names of platform threads (when virtual threads are unavailable)
+     * @return a new executor service
+     * @implNote Virtual threads are looked up reflectively because this library supports JDK 17
+     */
+    static ExecutorService newPerTaskExecutor(String threadNamePrefix) {
+        try {
+            var handle = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            return (ExecutorService) handle.invoke();
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            LOG.debug("Virtual threads are not available; using a cached thread pool");
+        } catch (Throwable e) {
+            LOG.warn("Unable to create a virtual thread executor; using a cached thread pool", e);
+        }
+
+        return Executors.newCachedThreadPool(newDaemonThreadFactory(threadNamePrefix));
+    }
+
+    /**
+     * Get a shared executor, created by {@link #newPerTaskExecutor(String)}, for running health checks in
+     * the background. It must never be shut down.
+     *
+     * @return the shared executor
+     */
+    static ExecutorService sharedBackgroundExecutor() {
+        return SharedBackgroundExecutorHolder.EXECUTOR;
+    }
+
+    private static class SharedBackgroundExecutorHolder {
+        private static final ExecutorService EXECUTOR = newPerTaskExecutor("health-check-background");
+    }
+
+    /**
+     * Create a scheduled executor with a single daemon thread, e.g., for refreshing health check results
+     * periodically.
+     *
+     * @param threadName the name of the thread
+     * @return a new scheduled executor service
+     */
+    static ScheduledExecutorService newSingleThreadScheduledExecutor(String threadName) {
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static ThreadFactory newDaemonThreadFactory(String threadNamePrefix) {
+        var threadCount = new AtomicInteger();
+        return runnable -> {
+            var thread = new Thread(runnable, threadNamePrefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
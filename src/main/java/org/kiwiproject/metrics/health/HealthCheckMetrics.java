@@ -0,0 +1,320 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.codahale.metrics.health.AsyncHealthCheckDecorator;
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import com.codahale.metrics.health.HealthCheckRegistryListener;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registers Dropwizard Metrics for every health check in a {@link HealthCheckRegistry}, including checks that are
+ * registered later, so that slow and flapping checks are visible.
+ * <p>
+ * For each health check named {@code name}, the following metrics are registered (with the default prefix):
+ * <ul>
+ *     <li>{@code health.<name>.execution}: a {@link Timer} of the execution time of the check</li>
+ *     <li>{@code health.<name>.status}: a {@link Gauge} of the {@link HealthStatus#getValue() value} of the
+ *     check's latest status, or zero if it has not run yet</li>
+ *     <li>{@code health.<name>.transitions}: a {@link Meter} marked each time the check's status changes</li>
+ * </ul>
+ * In addition, the following metrics cover all the checks:
+ * <ul>
+ *     <li>{@code health.status}: a {@link Gauge} of the value of the overall status, i.e., the highest latest
+ *     status of any check, or {@link HealthStatus#CRITICAL} if no check has run yet</li>
+ *     <li>{@code health.transitions.<severity>}, e.g., {@code health.transitions.critical}: a {@link Meter} for
+ *     each {@link HealthStatus}, marked each time any check's status changes to that severity</li>
+ * </ul>
+ * The status of each result is determined by {@link HealthCheckResults#statusOf(HealthCheck.Result)}.
+ * <p>
+ * <strong>Health checks are instrumented by replacing each one in the caller's registry with a decorator</strong>
+ * that records the metrics when the check executes, since Dropwizard Metrics has no other way to observe an
+ * execution. While instrumented, {@link HealthCheckRegistry#getHealthCheck(String)} returns the decorator rather
+ * than the registered check (use {@link #originalOf(HealthCheck)} to get the registered check), and other listeners
+ * of the registry see each check removed and added again. {@link #close() Closing} this instance restores the
+ * original checks and removes all the metrics.
+ * <p>
+ * Because the replacement happens while the registry is notifying its listeners that a check was added, listeners
+ * added to the registry <em>after</em> instrumenting it are notified of the replacement first, and then of the
+ * original check being added, although the decorator is what is registered. Add other listeners before
+ * instrumenting the registry. For the same reason, a registry can only be instrumented by one instance at a time,
+ * since a second one would decorate the decorators of the first, which would decorate those in turn, endlessly.
+ * <p>
+ * Recording metrics for an execution only reads the clock, updates the timer, and compares the status with the
+ * previous one; the overall status is maintained incrementally by a {@link HealthStatusCounter}. The
+ * {@code HealthCheckMetricsBenchmark} in the benchmarks project measures the overhead.
+ *
+ * @implNote Asynchronous health checks (annotated with {@link com.codahale.metrics.health.annotation.Async}) are not
+ * instrumented, since replacing them would stop the registry from scheduling them.
+ */
+@Slf4j
+public class HealthCheckMetrics implements HealthCheckRegistryListener, AutoCloseable {
+
+    /**
+     * The default prefix of the names of the registered metrics.
+     */
+    public static final String DEFAULT_PREFIX = "health";
+
+    private static final HealthStatus[] STATUSES = HealthStatus.values();
+
+    // Weak, so that a registry that is discarded without closing its instance can still be garbage collected
+    private static final Set<HealthCheckRegistry> INSTRUMENTED_REGISTRIES =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private final HealthCheckRegistry healthCheckRegistry;
+    private final MetricRegistry metricRegistry;
+    private final String prefix;
+    private final HealthStatusCounter statusCounter = new HealthStatusCounter();
+    private final Meter[] transitionsTo = new Meter[STATUSES.length];
+    private final ConcurrentMap<String, InstrumentedHealthCheck> instrumentedChecks = new ConcurrentHashMap<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private HealthCheckMetrics(HealthCheckRegistry healthCheckRegistry, MetricRegistry metricRegistry, String prefix) {
+        this.healthCheckRegistry = healthCheckRegistry;
+        this.metricRegistry = metricRegistry;
+        this.prefix = prefix;
+
+        replaceGauge(overallStatusName(), () -> statusCounter.overallStatus().getValue());
+        for (var status : STATUSES) {
+            transitionsTo[status.ordinal()] = metricRegistry.meter(transitionsToName(status));
+        }
+    }
+
+    /**
+     * Instrument all current and future health checks in the given registry, using the {@link #DEFAULT_PREFIX}.
+     * <p>
+     * <strong>This replaces each health check in {@code healthCheckRegistry} with a decorator</strong> until the
+     * returned instance is closed; see {@link #instrument(HealthCheckRegistry, MetricRegistry, String)}.
+     *
+     * @param healthCheckRegistry the registry containing the health checks, whose checks are replaced
+     * @param metricRegistry      the registry in which to register the metrics
+     * @return a new instance, which should be closed to stop instrumenting the health checks
+     */
+    public static HealthCheckMetrics instrument(HealthCheckRegistry healthCheckRegistry,
+                                                MetricRegistry metricRegistry) {
+        return instrument(healthCheckRegistry, metricRegistry, DEFAULT_PREFIX);
+    }
+
+    /**
+     * Instrument all current and future health checks in the given registry.
+     * <p>
+     * <strong>This replaces each health check in {@code healthCheckRegistry} with a decorator</strong> until the
+     * returned instance is closed, including checks that are registered later. Until then,
+     * {@link HealthCheckRegistry#getHealthCheck(String)} returns the decorator, so code that needs the registered
+     * check (e.g., to cast it to its own type) should pass the returned check to {@link #originalOf(HealthCheck)}.
+     * Each replacement is also seen by other listeners of the registry as the check being removed and added again.
+     * Asynchronous health checks are left as they are and are not instrumented.
+     *
+     * @param healthCheckRegistry the registry containing the health checks, whose checks are replaced
+     * @param metricRegistry      the registry in which to register the metrics
+     * @param prefix              the prefix of the names of the registered metrics
+     * @return a new instance, which should be closed to stop instrumenting the health checks
+     * @throws IllegalStateException if the health check registry is already instrumented by an instance that has
+     *                               not been closed
+     */
+    public static HealthCheckMetrics instrument(HealthCheckRegistry healthCheckRegistry,
+                                                MetricRegistry metricRegistry,
+                                                String prefix) {
+        checkArgumentNotNull(healthCheckRegistry, "healthCheckRegistry cannot be null");
+        checkArgumentNotNull(metricRegistry, "metricRegistry cannot be null");
+        checkArgumentNotBlank(prefix, "prefix must not be blank");
+        checkState(INSTRUMENTED_REGISTRIES.add(healthCheckRegistry),
+                "healthCheckRegistry is already instrumented; close the existing HealthCheckMetrics first");
+
+        try {
+            var metrics = new HealthCheckMetrics(healthCheckRegistry, metricRegistry, prefix);
+
+            // The registry calls onHealthCheckAdded for each existing check when a listener is added
+            healthCheckRegistry.addListener(metrics);
+            return metrics;
+        } catch (RuntimeException e) {
+            INSTRUMENTED_REGISTRIES.remove(healthCheckRegistry);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the health check that was registered, given a health check from a registry that may be instrumented.
+     *
+     * @param healthCheck a health check, e.g., as returned by {@link HealthCheckRegistry#getHealthCheck(String)}
+     * @return the health check decorated by an instance of this class, or the given check if it is not decorated
+     */
+    public static HealthCheck originalOf(HealthCheck healthCheck) {
+        checkArgumentNotNull(healthCheck, "healthCheck cannot be null");
+        return healthCheck instanceof InstrumentedHealthCheck instrumented ? instrumented.delegate : healthCheck;
+    }
+
+    @Override
+    public void onHealthCheckAdded(String name, HealthCheck healthCheck) {
+        if (healthCheck instanceof InstrumentedHealthCheck instrumented && instrumented.isOwnedBy(this)) {
+            return;
+        }
+
+        if (healthCheck instanceof AsyncHealthCheckDecorator) {
+            LOG.info("Not instrumenting asynchronous health check {}", name);
+            return;
+        }
+
+        // Track the decorator before registering it, so that removing it concurrently also removes its metrics
+        var instrumented = new InstrumentedHealthCheck(name, healthCheck);
+        instrumentedChecks.put(name, instrumented);
+        healthCheckRegistry.unregister(name);
+        try {
+            healthCheckRegistry.register(name, instrumented);
+        } catch (IllegalArgumentException e) {
+            LOG.warn("Unable to instrument health check {}; another check was registered with the same name", name);
+            if (instrumentedChecks.remove(name, instrumented)) {
+                instrumented.removeMetrics();
+            }
+        }
+    }
+
+    @Override
+    public void onHealthCheckRemoved(String name, HealthCheck healthCheck) {
+        if (healthCheck instanceof InstrumentedHealthCheck instrumented
+                && instrumentedChecks.remove(name, instrumented)) {
+            instrumented.removeMetrics();
+        }
+    }
+
+    /**
+     * Get the current overall status, i.e., the highest latest status of any instrumented check.
+     *
+     * @return the overall status, or {@link HealthStatus#CRITICAL} if no check has run yet
+     */
+    public HealthStatus overallStatus() {
+        return statusCounter.overallStatus();
+    }
+
+    /**
+     * Stop instrumenting health checks, restore the original checks in the health check registry, and remove all
+     * the metrics from the metric registry. Closing an instance more than once has no further effect.
+     */
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+
+        healthCheckRegistry.removeListener(this);
+
+        instrumentedChecks.forEach((name, instrumented) -> {
+            if (instrumentedChecks.remove(name, instrumented)) {
+                healthCheckRegistry.unregister(name);
+                healthCheckRegistry.register(name, instrumented.delegate);
+                instrumented.removeMetrics();
+            }
+        });
+
+        metricRegistry.remove(overallStatusName());
+        for (var status : STATUSES) {
+            metricRegistry.remove(transitionsToName(status));
+        }
+
+        INSTRUMENTED_REGISTRIES.remove(healthCheckRegistry);
+    }
+
+    private String overallStatusName() {
+        return MetricRegistry.name(prefix, "status");
+    }
+
+    private String transitionsToName(HealthStatus status) {
+        return MetricRegistry.name(prefix, "transitions", status.name().toLowerCase(Locale.ENGLISH));
+    }
+
+    // Replace rather than reuse, since an existing gauge would report the state of some other instance
+    private void replaceGauge(String name, Gauge<Integer> gauge) {
+        metricRegistry.remove(name);
+        metricRegistry.register(name, gauge);
+    }
+
+    /**
+     * Decorates a health check to record metrics each time it executes.
+     */
+    private final class InstrumentedHealthCheck extends HealthCheck {
+
+        private final String name;
+        private final HealthCheck delegate;
+        private final Timer executionTimer;
+        private final Meter transitions;
+
+        // The value of the latest status, or zero if the check has not run yet
+        private final AtomicInteger statusValue = new AtomicInteger();
+
+        InstrumentedHealthCheck(String name, HealthCheck delegate) {
+            this.name = name;
+            this.delegate = delegate;
+            this.executionTimer = metricRegistry.timer(checkMetricName("execution"));
+            this.transitions = metricRegistry.meter(checkMetricName("transitions"));
+            replaceGauge(checkMetricName("status"), statusValue::get);
+        }
+
+        boolean isOwnedBy(HealthCheckMetrics metrics) {
+            return HealthCheckMetrics.this == metrics;
+        }
+
+        @Override
+        protected Result check() {
+            return executeAndRecord();
+        }
+
+        @Override
+        public Result execute() {
+            return executeAndRecord();
+        }
+
+        private Result executeAndRecord() {
+            var start = System.nanoTime();
+            var result = delegate.execute();
+            executionTimer.update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            record(HealthCheckResults.statusOf(result));
+            return result;
+        }
+
+        private void record(HealthStatus status) {
+            var previousValue = statusValue.getAndSet(status.getValue());
+            if (previousValue == status.getValue()) {
+                return;
+            }
+
+            var previous = HealthStatus.fromValueOrNull(previousValue);
+            statusCounter.transition(previous, status);
+
+            // The first execution sets the initial status, which is not a transition
+            if (nonNull(previous)) {
+                transitions.mark();
+                transitionsTo[status.ordinal()].mark();
+            }
+        }
+
+        void removeMetrics() {
+            statusCounter.transition(HealthStatus.fromValueOrNull(statusValue.getAndSet(0)), null);
+            metricRegistry.remove(checkMetricName("execution"));
+            metricRegistry.remove(checkMetricName("status"));
+            metricRegistry.remove(checkMetricName("transitions"));
+        }
+
+        private String checkMetricName(String metric) {
+            return MetricRegistry.name(prefix, name, metric);
+        }
+    }
+}
@@ -2,11 +2,14 @@ package org.kiwiproject.metrics.health;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+import static org.kiwiproject.collect.KiwiMaps.isNullOrEmpty;
 import static org.kiwiproject.metrics.health.HealthStatus.isValidCombination;
 
 import com.codahale.metrics.health.HealthCheck;
 import lombok.experimental.UtilityClass;
 
+import java.util.Map;
+
 /**
  * Utilities to create {@link HealthCheck.Result} or {@link HealthCheck.ResultBuilder} instances with a
  * {@link HealthStatus} to indicate the severity. Methods that do not have a severity argument will provide
@@ -250,6 +253,150 @@ public class HealthCheckResults {
                 .build();
     }
 
+    /**
+     * Create a new Result with default severity, whose message is formatted from the template and arguments only
+     * when it is first read, and then memoized.
+     *
+     * @param messageTemplate the message template to use
+     * @param args            the message arguments, which must not be mutated after this call
+     * @return a healthy result
+     * @implNote The message is formatted using {@link String#format(String, Object...)}, the same as
+     * {@link #newHealthyResult(String, Object...)}, which formats the message immediately
+     */
+    public static HealthCheck.Result newHealthyResultWithLazyMessage(String messageTemplate, Object... args) {
+        return new LazyMessageResult(newHealthyResultBuilder(), messageTemplate, args);
+    }
+
+    /**
+     * Create a new Result with the given severity, whose message is formatted from the template and arguments only
+     * when it is first read, and then memoized.
+     *
+     * @param severity        the severity to use
+     * @param messageTemplate the message template to use
+     * @param args            the message arguments, which must not be mutated after this call
+     * @return a healthy result
+     * @see #newHealthyResultWithLazyMessage(String, Object...)
+     */
+    public static HealthCheck.Result newHealthyResultWithLazyMessage(HealthStatus severity,
+                                                                     String messageTemplate,
+                                                                     Object... args) {
+        return new LazyMessageResult(newHealthyResultBuilder(severity), messageTemplate, args);
+    }
+
+    /**
+     * Create a new Result with default severity, whose message is formatted from the template and arguments only
+     * when it is first read, and then memoized.
+     *
+     * @param messageTemplate the message template to use
+     * @param args            the message arguments, which must not be mutated after this call
+     * @return an unhealthy result
+     * @see #newHealthyResultWithLazyMessage(String, Object...)
+     */
+    public static HealthCheck.Result newUnhealthyResultWithLazyMessage(String messageTemplate, Object... args) {
+        return new LazyMessageResult(newUnhealthyResultBuilder(), messageTemplate, args);
+    }
+
+    /**
+     * Create a new Result with the given severity, whose message is formatted from the template and arguments only
+     * when it is first read, and then memoized.
+     *
+     * @param severity        the severity to use
+     * @param messageTemplate the message template to use
+     * @param args            the message arguments, which must not be mutated after this call
+     * @return an unhealthy result
+     * @see #newHealthyResultWithLazyMessage(String, Object...)
+     */
+    public static HealthCheck.Result newUnhealthyResultWithLazyMessage(HealthStatus severity,
+                                                                       String messageTemplate,
+                                                                       Object... args) {
+        return new LazyMessageResult(newUnhealthyResultBuilder(severity), messageTemplate, args);
+    }
+
+    /**
+     * Create a new Result with the given error and default severity, whose message is formatted from the template
+     * and arguments only when it is first read, and then memoized.
+     *
+     * @param error           the Throwable to use
+     * @param messageTemplate the message template to use
+     * @param args            the message arguments, which must not be mutated after this call
+     * @return an unhealthy result
+     * @see #newHealthyResultWithLazyMessage(String, Object...)
+     */
+    public static HealthCheck.Result newUnhealthyResultWithLazyMessage(Throwable error,
+                                                                       String messageTemplate,
+                                                                       Object... args) {
+        return new LazyMessageResult(newUnhealthyResultBuilder(error), messageTemplate, args);
+    }
+
+    /**
+     * Create a new Result with the given severity and error, whose message is formatted from the template and
+     * arguments only when it is first read, and then memoized.
+     *
+     * @param severity        the severity to use
+     * @param error           the Throwable to use
+     * @param messageTemplate the message template to use
+     * @param args            the message arguments, which must not be mutated after this call
+     * @return an unhealthy result
+     * @see #newHealthyResultWithLazyMessage(String, Object...)
+     */
+    public static HealthCheck.Result newUnhealthyResultWithLazyMessage(HealthStatus severity,
+                                                                       Throwable error,
+                                                                       String messageTemplate,
+                                                                       Object... args) {
+        return new LazyMessageResult(newUnhealthyResultBuilder(severity, error), messageTemplate, args);
+    }
+
+    /**
+     * Return a shared, immutable healthy Result with no message and default severity.
+     *
+     * @return a shared healthy result
+     * @see #sharedResult(boolean, HealthStatus)
+     */
+    public static HealthCheck.Result sharedHealthyResult() {
+        return sharedResult(true, HealthStatus.OK);
+    }
+
+    /**
+     * Return a shared, immutable healthy Result with no message and the given severity.
+     *
+     * @param severity the severity to use
+     * @return a shared healthy result
+     * @see #sharedResult(boolean, HealthStatus)
+     */
+    public static HealthCheck.Result sharedHealthyResult(HealthStatus severity) {
+        return sharedResult(true, severity);
+    }
+
+    /**
+     * Return a shared, immutable unhealthy Result with no message and the given severity.
+     *
+     * @param severity the severity to use
+     * @return a shared unhealthy result
+     * @see #sharedResult(boolean, HealthStatus)
+     */
+    public static HealthCheck.Result sharedUnhealthyResult(HealthStatus severity) {
+        return sharedResult(false, severity);
+    }
+
+    /**
+     * Return a shared, immutable Result with no message and the given severity. The same instance is returned for
+     * every call with the same arguments, so this does not allocate, unlike the {@code newXxx} methods that create
+     * a new builder, details map, and Result on every call.
+     * <p>
+     * Use this for cheap checks that run very frequently when a per-call timestamp and duration are not needed.
+     * The timestamp of a shared result is when it was first created, and its duration is always zero, since
+     * {@link HealthCheck.Result#setDuration(long)} has no effect on it.
+     *
+     * @param healthy  is it healthy?
+     * @param severity the severity to use
+     * @return a shared result
+     */
+    public static HealthCheck.Result sharedResult(boolean healthy, HealthStatus severity) {
+        checkSeverity(severity);
+        checkValidCombination(healthy, severity);
+        return SharedResult.of(healthy, severity);
+    }
+
     /**
      * Create a ResultBuilder with given severity.
      *
@@ -431,6 +578,48 @@ public class HealthCheckResults {
         return addSeverity(severity, builder).build();
     }
 
+    /**
+     * Determine the status of a single health check result from its healthy flag and severity detail, using the
+     * same rules as {@link HealthStatus#from(Map)} uses for each health check.
+     *
+     * @param result the health check result
+     * @return the status of the result
+     */
+    public static HealthStatus statusOf(HealthCheck.Result result) {
+        checkArgumentNotNull(result, "result cannot be null");
+        return HealthStatus.determineOverallStatus(result.isHealthy(), result.getDetails(), null);
+    }
+
+    /**
+     * Determine the overall status of a set of health check results, e.g., those returned by
+     * {@link com.codahale.metrics.health.HealthCheckRegistry#runHealthChecks()}, using the same rules as
+     * {@link HealthStatus#from(Map)}.
+     *
+     * @param results the health check results, keyed by health check name
+     * @return the highest status of any result, or {@link HealthStatus#CRITICAL} if results is null or empty
+     */
+    public static HealthStatus overallStatus(Map<String, HealthCheck.Result> results) {
+        if (isNullOrEmpty(results)) {
+            return HealthStatus.CRITICAL;
+        }
+
+        var highest = HealthStatus.OK;
+        for (var entry : results.entrySet()) {
+            var result = entry.getValue();
+            checkArgumentNotNull(result, "result cannot be null");
+            var status = HealthStatus.determineOverallStatus(result.isHealthy(), result.getDetails(), entry.getKey());
+            if (status.getValue() > highest.getValue()) {
+                highest = status;
+            }
+
+            if (highest == HealthStatus.FATAL) {
+                break;
+            }
+        }
+
+        return highest;
+    }
+
     private static void checkBuilder(HealthCheck.ResultBuilder builder) {
         checkArgumentNotNull(builder, "builder cannot be null");
     }
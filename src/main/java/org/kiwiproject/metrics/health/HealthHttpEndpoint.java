@@ -0,0 +1,518 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheckRegistry;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A standalone HTTP health endpoint built on the JDK's {@link HttpServer}, for services that want the severity
+ * semantics of this library without a full web framework.
+ * <p>
+ * The endpoint serves the latest snapshot of a {@link HealthSnapshotHolder}. It either serves a holder that the
+ * application publishes to, or runs the health checks in a {@link HealthCheckRegistry} periodically and publishes
+ * their results itself. Requests never run health checks, so they are cheap regardless of how many there are.
+ * <p>
+ * The following resources are served, relative to the {@link Builder#path(String) path} (default
+ * {@value #DEFAULT_PATH}):
+ * <ul>
+ *     <li>{@code GET /}: the overall status and the results of all the checks, including their severity, as JSON (see
+ *     {@link HealthResponseCache}), with an {@code ETag} so that a request with a matching {@code If-None-Match}
+ *     header gets {@code 304 Not Modified}. Clients that accept {@value BinaryHealthSnapshots#MEDIA_TYPE} get a
+ *     binary snapshot (see {@link BinaryHealthSnapshots}) instead.</li>
+ *     <li>{@code GET /status}: the overall status as plain text, e.g., {@code WARN}</li>
+ * </ul>
+ * Every response has the overall status in the {@value #STATUS_HEADER} header, and the snapshot version in the
+ * {@value #VERSION_HEADER} header. The HTTP status code is 200 when the overall status is less severe than
+ * {@link HealthStatus#CRITICAL}, and 503 otherwise, so that load balancers can use either resource directly.
+ * <p>
+ * Both resources support long-polling with the {@code changedFrom} query parameter, e.g.,
+ * {@code /status?changedFrom=OK&timeout=30}: the response is delayed until the overall status is not
+ * {@code changedFrom}, or until the timeout in seconds (at most the {@link Builder#maxWait(Duration) maximum wait})
+ * elapses, in which case the current status is returned. Monitors can therefore be notified of changes instead of
+ * polling frequently.
+ * <p>
+ * Requests are handled on virtual threads when the JDK supports them (21 or later), so waiting requests are
+ * cheap; on older JDKs, each waiting request occupies a platform thread. {@link #close() Closing} the endpoint
+ * stops the server and the periodic refresh.
+ */
+@Slf4j
+public class HealthHttpEndpoint implements AutoCloseable {
+
+    /**
+     * The default path of the endpoint.
+     */
+    public static final String DEFAULT_PATH = "/health";
+
+    /**
+     * The response header containing the overall status.
+     */
+    public static final String STATUS_HEADER = "X-Health-Status";
+
+    /**
+     * The response header containing the version of the served snapshot.
+     */
+    public static final String VERSION_HEADER = "X-Health-Version";
+
+    /**
+     * The default interval at which health checks in a registry are run.
+     */
+    public static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofSeconds(5);
+
+    /**
+     * The default maximum time that a long-poll request waits.
+     */
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(30);
+
+    private static final String STATUS_RESOURCE = "/status";
+    private static final String CHANGED_FROM_PARAMETER = "changedFrom";
+    private static final String TIMEOUT_PARAMETER = "timeout";
+    private static final String TEXT_MEDIA_TYPE = "text/plain; charset=utf-8";
+
+    private final HealthSnapshotHolder snapshotHolder;
+    private final String path;
+    private final Duration maxWait;
+    private final HealthResponseCache responseCache = new HealthResponseCache();
+    private final ExecutorService executor;
+    private final @Nullable ScheduledExecutorService refreshExecutor;
+    private final HttpServer server;
+    private volatile RenderedResponse rendered = new RenderedResponse(-1, responseCache.current());
+
+    /**
+     * A rendered JSON response, and the version of the snapshot it was rendered from.
+     */
+    private record RenderedResponse(long version, HealthResponseCache.Response response) {
+    }
+
+    private HealthHttpEndpoint(Builder builder) {
+        this.snapshotHolder = isNull(builder.snapshotHolder) ? new HealthSnapshotHolder() : builder.snapshotHolder;
+        this.path = builder.path;
+        this.maxWait = builder.maxWait;
+        this.executor = HealthCheckExecutors.newPerTaskExecutor("health-endpoint");
+
+        try {
+            this.server = HttpServer.create(builder.address, 0);
+        } catch (IOException e) {
+            executor.shutdownNow();
+            throw new UncheckedIOException("Unable to create health endpoint on " + builder.address, e);
+        }
+
+        ScheduledExecutorService refresher = null;
+        try {
+            server.createContext(path, this::handle);
+            server.setExecutor(executor);
+
+            if (nonNull(builder.registry)) {
+                var registry = builder.registry;
+                refresher = HealthCheckExecutors.newSingleThreadScheduledExecutor("health-endpoint-refresh");
+                refresher.scheduleWithFixedDelay(() -> refresh(registry),
+                        0, builder.refreshInterval.toNanos(), TimeUnit.NANOSECONDS);
+            }
+
+            server.start();
+        } catch (RuntimeException e) {
+            // Release the bound socket and the threads, since the caller never gets an endpoint to close
+            server.stop(0);
+            executor.shutdownNow();
+            if (nonNull(refresher)) {
+                refresher.shutdownNow();
+            }
+            throw e;
+        }
+        this.refreshExecutor = refresher;
+
+        LOG.info("Health endpoint listening on {}{}", server.getAddress(), path);
+    }
+
+    /**
+     * Create a builder for an endpoint that runs the health checks in the given registry periodically and
+     * serves their results.
+     *
+     * @param registry the registry containing the health checks to run
+     * @return a new builder
+     */
+    public static Builder builder(HealthCheckRegistry registry) {
+        checkArgumentNotNull(registry, "registry cannot be null");
+        return new Builder(registry, null);
+    }
+
+    /**
+     * Create a builder for an endpoint that serves the snapshots published to the given holder, e.g., by a
+     * {@link CoalescingHealthCheckEvaluator}.
+     *
+     * @param snapshotHolder the holder of the snapshots to serve
+     * @return a new builder
+     */
+    public static Builder builder(HealthSnapshotHolder snapshotHolder) {
+        checkArgumentNotNull(snapshotHolder, "snapshotHolder cannot be null");
+        return new Builder(null, snapshotHolder);
+    }
+
+    /**
+     * Get the address the endpoint is listening on, e.g., to find the port when it was started on port zero.
+     *
+     * @return the address of the server
+     */
+    public InetSocketAddress address() {
+        return server.getAddress();
+    }
+
+    /**
+     * Get the holder of the snapshots that the endpoint serves.
+     *
+     * @return the snapshot holder
+     */
+    public HealthSnapshotHolder snapshotHolder() {
+        return snapshotHolder;
+    }
+
+    private void refresh(HealthCheckRegistry registry) {
+        try {
+            snapshotHolder.publish(registry);
+        } catch (RuntimeException e) {
+            // Keep the previous snapshot, and keep refreshing
+            LOG.warn("Unable to refresh health check results", e);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            var method = exchange.getRequestMethod();
+            var isHead = "HEAD".equals(method);
+            if (!isHead && !"GET".equals(method)) {
+                exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+                sendText(exchange, 405, "Method not allowed", isHead);
+                return;
+            }
+
+            var resource = exchange.getRequestURI().getPath().substring(path.length());
+            if (!resource.isEmpty() && !"/".equals(resource) && !STATUS_RESOURCE.equals(resource)) {
+                sendText(exchange, 404, "Not found", isHead);
+                return;
+            }
+
+            HealthSnapshotHolder.Snapshot snapshot;
+            try {
+                snapshot = awaitSnapshot(exchange.getRequestURI().getRawQuery());
+            } catch (IllegalArgumentException e) {
+                sendText(exchange, 400, e.getMessage(), isHead);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sendText(exchange, 503, "Health endpoint is shutting down", isHead);
+                return;
+            }
+
+            if (STATUS_RESOURCE.equals(resource)) {
+                setSnapshotHeaders(exchange, snapshot.status(), snapshot.version());
+                sendText(exchange, httpStatusCodeOf(snapshot.status()), snapshot.status().name(), isHead);
+            } else if (acceptsBinarySnapshot(exchange.getRequestHeaders().get("Accept"))) {
+                setSnapshotHeaders(exchange, snapshot.status(), snapshot.version());
+                var body = BinaryHealthSnapshots.encode(snapshot.results(), true);
+                send(exchange, httpStatusCodeOf(snapshot.status()), BinaryHealthSnapshots.MEDIA_TYPE, body, isHead);
+            } else {
+                // The rendered response may be for a newer snapshot, so describe that one rather than the awaited one
+                var renderedResponse = responseFor(snapshot);
+                var response = renderedResponse.response();
+                setSnapshotHeaders(exchange, response.status(), renderedResponse.version());
+                sendJson(exchange, httpStatusCodeOf(response.status()), response, isHead);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Unable to handle health endpoint request {}", exchange.getRequestURI(), e);
+            throw e;
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Get the current snapshot, waiting for its status to change if the query asks to.
+     */
+    private HealthSnapshotHolder.Snapshot awaitSnapshot(@Nullable String rawQuery) throws InterruptedException {
+        var parameters = parseQuery(rawQuery);
+        var changedFrom = parameters.get(CHANGED_FROM_PARAMETER);
+        var snapshot = snapshotHolder.current();
+        if (isNull(changedFrom)) {
+            return snapshot;
+        }
+
+        var status = HealthStatus.parseIgnoreCase(changedFrom).orElseThrow(
+                () -> new IllegalArgumentException("Invalid " + CHANGED_FROM_PARAMETER + ": " + changedFrom));
+        var timeout = timeoutOf(parameters.get(TIMEOUT_PARAMETER));
+
+        var deadlineNanos = System.nanoTime() + timeout.toNanos();
+        while (snapshot.status() == status) {
+            var remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0) {
+                break;
+            }
+
+            var next = snapshotHolder.awaitNext(snapshot.version(), Duration.ofNanos(remainingNanos));
+            if (next.isEmpty()) {
+                break;
+            }
+            snapshot = next.get();
+        }
+        return snapshot;
+    }
+
+    private Duration timeoutOf(@Nullable String timeoutSeconds) {
+        if (isNull(timeoutSeconds)) {
+            return maxWait;
+        }
+
+        long seconds;
+        try {
+            seconds = Long.parseLong(timeoutSeconds);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + TIMEOUT_PARAMETER + ": " + timeoutSeconds);
+        }
+        checkArgument(seconds >= 0, "Invalid %s: %s", TIMEOUT_PARAMETER, timeoutSeconds);
+
+        var timeout = Duration.ofSeconds(seconds);
+        return timeout.compareTo(maxWait) < 0 ? timeout : maxWait;
+    }
+
+    private static Map<String, String> parseQuery(@Nullable String rawQuery) {
+        var parameters = new HashMap<String, String>();
+        if (isNull(rawQuery) || rawQuery.isEmpty()) {
+            return parameters;
+        }
+
+        for (var parameter : rawQuery.split("&")) {
+            var separator = parameter.indexOf('=');
+            var name = separator < 0 ? parameter : parameter.substring(0, separator);
+            var value = separator < 0 ? "" : parameter.substring(separator + 1);
+            parameters.putIfAbsent(URLDecoder.decode(name, UTF_8), URLDecoder.decode(value, UTF_8));
+        }
+        return parameters;
+    }
+
+    private static int httpStatusCodeOf(HealthStatus status) {
+        return HealthStatus.comparingSeverity().compare(status, HealthStatus.CRITICAL) < 0 ? 200 : 503;
+    }
+
+    // Visible for testing; true if the Accept headers list the binary snapshot media type itself (not a wildcard or
+    // a type with a suffix such as +json) with a non-zero quality
+    static boolean acceptsBinarySnapshot(@Nullable List<String> acceptHeaders) {
+        if (isNull(acceptHeaders)) {
+            return false;
+        }
+
+        return acceptHeaders.stream()
+                .flatMap(header -> Arrays.stream(header.split(",")))
+                .anyMatch(HealthHttpEndpoint::isAcceptableBinarySnapshotRange);
+    }
+
+    private static boolean isAcceptableBinarySnapshotRange(String mediaRange) {
+        var parts = mediaRange.split(";");
+        if (!BinaryHealthSnapshots.MEDIA_TYPE.equalsIgnoreCase(parts[0].strip())) {
+            return false;
+        }
+
+        for (var i = 1; i < parts.length; i++) {
+            var parameter = parts[i].strip();
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                return !isZeroQuality(parameter.substring(2).strip());
+            }
+        }
+        return true;
+    }
+
+    private static boolean isZeroQuality(String quality) {
+        try {
+            return Double.parseDouble(quality) <= 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static void setSnapshotHeaders(HttpExchange exchange, HealthStatus status, long version) {
+        exchange.getResponseHeaders().set(STATUS_HEADER, status.name());
+        exchange.getResponseHeaders().set(VERSION_HEADER, String.valueOf(version));
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+    }
+
+    private static void sendJson(HttpExchange exchange,
+                                 int statusCode,
+                                 HealthResponseCache.Response response,
+                                 boolean isHead) throws IOException {
+        exchange.getResponseHeaders().set("ETag", response.etag());
+
+        if (response.matches(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            return;
+        }
+
+        exchange.getResponseHeaders().set("Content-Type", HealthResponseCache.MEDIA_TYPE);
+        if (isHead) {
+            exchange.sendResponseHeaders(statusCode, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(statusCode, response.contentLength());
+        response.writeTo(exchange.getResponseBody());
+    }
+
+    /**
+     * Get the rendered response for a snapshot, rendering it only if it is newer than the last one rendered.
+     * The response may be for a newer snapshot if another request rendered one concurrently, so it is returned
+     * with the version it was rendered from.
+     */
+    private RenderedResponse responseFor(HealthSnapshotHolder.Snapshot snapshot) {
+        var current = rendered;
+        if (snapshot.version() > current.version()) {
+            synchronized (responseCache) {
+                current = rendered;
+                if (snapshot.version() > current.version()) {
+                    responseCache.update(snapshot.evaluation());
+                    current = new RenderedResponse(snapshot.version(), responseCache.current());
+                    rendered = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static void sendText(HttpExchange exchange, int statusCode, String text, boolean isHead)
+            throws IOException {
+        send(exchange, statusCode, TEXT_MEDIA_TYPE, (text + "\n").getBytes(UTF_8), isHead);
+    }
+
+    private static void send(HttpExchange exchange, int statusCode, String contentType, byte[] body, boolean isHead)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (isHead) {
+            exchange.sendResponseHeaders(statusCode, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(statusCode, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    /**
+     * Stop the server, interrupting any long-poll requests, and stop refreshing the health check results.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+        if (nonNull(refreshExecutor)) {
+            refreshExecutor.shutdownNow();
+        }
+        LOG.info("Health endpoint on {}{} stopped", server.getAddress(), path);
+    }
+
+    /**
+     * Builder for {@link HealthHttpEndpoint}.
+     */
+    public static class Builder {
+
+        private final @Nullable HealthCheckRegistry registry;
+        private final @Nullable HealthSnapshotHolder snapshotHolder;
+        private InetSocketAddress address = new InetSocketAddress(0);
+        private String path = DEFAULT_PATH;
+        private Duration refreshInterval = DEFAULT_REFRESH_INTERVAL;
+        private Duration maxWait = DEFAULT_MAX_WAIT;
+
+        private Builder(@Nullable HealthCheckRegistry registry, @Nullable HealthSnapshotHolder snapshotHolder) {
+            this.registry = registry;
+            this.snapshotHolder = snapshotHolder;
+        }
+
+        /**
+         * The port to listen on, on all interfaces. The default is zero, i.e., an ephemeral port; use
+         * {@link HealthHttpEndpoint#address()} to find it.
+         *
+         * @param port the port
+         * @return this builder
+         */
+        public Builder port(int port) {
+            checkArgument(port >= 0 && port <= 65_535, "port must be between 0 and 65535");
+            return address(new InetSocketAddress(port));
+        }
+
+        /**
+         * The address to listen on, e.g., to listen only on the loopback interface.
+         *
+         * @param address the address
+         * @return this builder
+         */
+        public Builder address(InetSocketAddress address) {
+            this.address = checkArgumentNotNull(address, "address cannot be null");
+            return this;
+        }
+
+        /**
+         * The path of the endpoint. The default is {@value HealthHttpEndpoint#DEFAULT_PATH}.
+         *
+         * @param path the path, which must start with a slash and must not end with one, e.g., {@code /healthz}
+         * @return this builder
+         */
+        public Builder path(String path) {
+            checkArgumentNotBlank(path, "path must not be blank");
+            checkArgument(path.startsWith("/") && !path.endsWith("/"), "path must start with / and not end with /");
+            this.path = path;
+            return this;
+        }
+
+        /**
+         * The interval at which the health checks in the registry are run. Only applies to endpoints built for a
+         * registry. The default is {@link HealthHttpEndpoint#DEFAULT_REFRESH_INTERVAL}.
+         *
+         * @param refreshInterval the interval, which must be positive
+         * @return this builder
+         */
+        public Builder refreshInterval(Duration refreshInterval) {
+            checkArgumentNotNull(refreshInterval, "refreshInterval cannot be null");
+            checkArgument(!refreshInterval.isNegative() && !refreshInterval.isZero(),
+                    "refreshInterval must be positive");
+            this.refreshInterval = refreshInterval;
+            return this;
+        }
+
+        /**
+         * The maximum time that a long-poll request waits for the status to change. The default is
+         * {@link HealthHttpEndpoint#DEFAULT_MAX_WAIT}.
+         *
+         * @param maxWait the maximum wait, which must not be negative
+         * @return this builder
+         */
+        public Builder maxWait(Duration maxWait) {
+            checkArgumentNotNull(maxWait, "maxWait cannot be null");
+            checkArgument(!maxWait.isNegative(), "maxWait must not be negative");
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        /**
+         * Create and start the endpoint.
+         *
+         * @return the started endpoint, which should be closed to stop it
+         * @throws UncheckedIOException if the server cannot be created, e.g., because the port is in use
+         */
+        public HealthHttpEndpoint start() {
+            return new HealthHttpEndpoint(this);
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package org.kiwiproject.metrics.health;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+import static org.kiwiproject.metrics.health.HealthCheckResults.SEVERITY_DETAIL;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import org.jspecify.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Caches the JSON body of a health check response, so that serving it costs no serialization, and serving it to a
+ * client that already has it costs nothing at all.
+ * <p>
+ * Each {@link #update(SortedMap) update} compares the new results with those that were last rendered, and only
+ * renders a new body when a result or the overall status changed.
+ * <p>
+ * The body is an object with two fields, so that no check name can collide with the overall status:
+ * {@value #STATUS_FIELD}, the name of the overall {@link Response#status() status}, and {@value #CHECKS_FIELD}, an
+ * object with one field per check, in name order, in the same shape as the Dropwizard {@code healthcheck} endpoint:
+ * {@code healthy}, {@code message}, {@code error} (its type and message), and the result's details. The
+ * {@code severity} field of each check is always present, and is the check's status as determined by
+ * {@link HealthCheckResults#statusOf(HealthCheck.Result)}. The {@value #CHECKS_FIELD} object can therefore be
+ * evaluated by {@link HealthStatus#from(Map)} or {@link HealthStatusJsonEvaluator}, which gives the same status as
+ * {@value #STATUS_FIELD} unless the response was updated from a {@link HealthCheckEvaluation} whose status was
+ * determined some other way, e.g., by an {@link AggregationPolicy}.
+ * <p>
+ * The {@code duration} and {@code timestamp} of results are not rendered, since they change on every run of a
+ * check and would defeat the cache. Likewise, error stack traces are omitted.
+ * <p>
+ * Each body has a strong {@link Response#etag() ETag} derived from a hash of its content, so an unchanged body has
+ * the same ETag even across restarts. Use {@link #ifNoneMatch(String)} to serve conditional requests.
+ * <p>
+ * Reading the current response is a single volatile read, and updates are serialized. This class is thread-safe.
+ *
+ * @implNote This class requires {@code jackson-core}, which is an optional dependency of this library.
+ */
+public class HealthResponseCache {
+
+    /**
+     * The media type of the rendered body.
+     */
+    public static final String MEDIA_TYPE = "application/json";
+
+    /**
+     * The name of the top-level field containing the overall status.
+     */
+    public static final String STATUS_FIELD = "status";
+
+    /**
+     * The name of the top-level field containing the results of the checks, keyed by check name.
+     */
+    public static final String CHECKS_FIELD = "checks";
+
+    private static final String HEALTHY_FIELD = "healthy";
+    private static final String MESSAGE_FIELD = "message";
+    private static final String ERROR_FIELD = "error";
+    private static final Set<String> RESERVED_FIELDS =
+            Set.of(HEALTHY_FIELD, MESSAGE_FIELD, ERROR_FIELD, SEVERITY_DETAIL);
+
+    private static final int ETAG_HASH_BYTES = 16;
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .build();
+
+    private SortedMap<String, HealthCheck.Result> renderedResults;
+    private volatile Response current;
+
+    /**
+     * A rendered health check response.
+     */
+    public static final class Response {
+
+        private final byte[] body;
+        private final String etag;
+        private final HealthStatus status;
+
+        private Response(byte[] body, String etag, HealthStatus status) {
+            this.body = body;
+            this.etag = etag;
+            this.status = status;
+        }
+
+        /**
+         * Get the JSON body.
+         *
+         * @return a new read-only buffer over the UTF-8 encoded body
+         */
+        public ByteBuffer body() {
+            return ByteBuffer.wrap(body).asReadOnlyBuffer();
+        }
+
+        /**
+         * Get a copy of the JSON body.
+         *
+         * @return a new array containing the UTF-8 encoded body
+         */
+        public byte[] bodyBytes() {
+            return body.clone();
+        }
+
+        /**
+         * Get the length of the body.
+         *
+         * @return the length of the body in bytes, e.g., for the {@code Content-Length} header
+         */
+        public int contentLength() {
+            return body.length;
+        }
+
+        /**
+         * Write the body to a stream.
+         *
+         * @param out the stream
+         * @throws IOException if writing fails
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            out.write(body);
+        }
+
+        /**
+         * Get the entity tag of the body.
+         *
+         * @return the strong entity tag, including its quotes, for the {@code ETag} header
+         */
+        public String etag() {
+            return etag;
+        }
+
+        /**
+         * Get the overall status of the rendered results.
+         *
+         * @return the overall status
+         */
+        public HealthStatus status() {
+            return status;
+        }
+
+        /**
+         * Check whether the value of an {@code If-None-Match} request header matches this response, using weak
+         * comparison as required for {@code If-None-Match}.
+         *
+         * @param ifNoneMatch the header value, which may be {@code *} or a comma-separated list of entity tags
+         * @return true if the client already has this body, otherwise false
+         */
+        public boolean matches(@Nullable String ifNoneMatch) {
+            if (isNull(ifNoneMatch)) {
+                return false;
+            }
+            if (ifNoneMatch.equals(etag)) {
+                return true;
+            }
+
+            for (var candidate : ifNoneMatch.split(",")) {
+                var tag = candidate.strip();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Create a new cache whose initial response has no results and status {@link HealthStatus#CRITICAL},
+     * consistent with {@link HealthCheckResults#overallStatus(Map)}.
+     */
+    public HealthResponseCache() {
+        this.renderedResults = Collections.emptySortedMap();
+        this.current = render(renderedResults, HealthCheckResults.overallStatus(renderedResults));
+    }
+
+    /**
+     * Get the current response.
+     *
+     * @return the most recently rendered response
+     */
+    public Response current() {
+        return current;
+    }
+
+    /**
+     * Get the current response unless the client already has it.
+     *
+     * @param ifNoneMatch the value of the {@code If-None-Match} request header, or null if there is none
+     * @return the current response, or an empty Optional if it matches (i.e., the client should be sent
+     * {@code 304 Not Modified})
+     * @see Response#matches(String)
+     */
+    public Optional<Response> ifNoneMatch(@Nullable String ifNoneMatch) {
+        var response = current;
+        return response.matches(ifNoneMatch) ? Optional.empty() : Optional.of(response);
+    }
+
+    /**
+     * Update the cached response from health check results, computing their overall status.
+     *
+     * @param results the health check results, keyed by health check name
+     * @return true if the response was rendered again, or false if nothing changed
+     * @throws IllegalArgumentException if a result is null
+     * @see HealthCheckResults#overallStatus(Map)
+     */
+    public boolean update(SortedMap<String, HealthCheck.Result> results) {
+        checkArgumentNotNull(results, "results cannot be null");
+        return update(results, HealthCheckResults.overallStatus(results));
+    }
+
+    /**
+     * Update the cached response from an evaluation, e.g., the {@link HealthSnapshotHolder.Snapshot#evaluation()}
+     * of a published snapshot.
+     *
+     * @param evaluation the health check results and their overall status
+     * @return true if the response was rendered again, or false if nothing changed
+     * @throws IllegalArgumentException if a result is null
+     */
+    public boolean update(HealthCheckEvaluation evaluation) {
+        checkArgumentNotNull(evaluation, "evaluation cannot be null");
+        return update(evaluation.results(), evaluation.status());
+    }
+
+    private synchronized boolean update(SortedMap<String, HealthCheck.Result> results, HealthStatus status) {
+        if (status == current.status() && isEquivalent(renderedResults, results)) {
+            return false;
+        }
+
+        var copy = Collections.unmodifiableSortedMap(new TreeMap<>(results));
+        current = render(copy, status);
+        renderedResults = copy;
+        return true;
+    }
+
+    private static boolean isEquivalent(SortedMap<String, HealthCheck.Result> rendered,
+                                        SortedMap<String, HealthCheck.Result> results) {
+        if (rendered.size() != results.size()) {
+            return false;
+        }
+
+        // Both maps are sorted by name, so they can be compared pairwise
+        Iterator<Map.Entry<String, HealthCheck.Result>> renderedEntries = rendered.entrySet().iterator();
+        for (var entry : results.entrySet()) {
+            var renderedEntry = renderedEntries.next();
+            if (!renderedEntry.getKey().equals(entry.getKey())
+                    || !isEquivalent(renderedEntry.getValue(), entry.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Two results are equivalent if they render the same, i.e., they differ at most in duration, timestamp, and
+     * stack trace.
+     */
+    private static boolean isEquivalent(HealthCheck.Result rendered,
+                                        HealthCheck.@Nullable Result result) {
+        if (rendered == result) {
+            return true;
+        }
+        if (isNull(result)) {
+            return false;
+        }
+
+        return rendered.isHealthy() == result.isHealthy()
+                && Objects.equals(rendered.getMessage(), result.getMessage())
+                && Objects.equals(rendered.getDetails(), result.getDetails())
+                && isEquivalent(rendered.getError(), result.getError());
+    }
+
+    private static boolean isEquivalent(@Nullable Throwable rendered, @Nullable Throwable error) {
+        if (rendered == error) {
+            return true;
+        }
+        if (isNull(rendered) || isNull(error)) {
+            return false;
+        }
+        return rendered.getClass() == error.getClass() && Objects.equals(rendered.getMessage(), error.getMessage());
+    }
+
+    private static Response render(SortedMap<String, HealthCheck.Result> results, HealthStatus status) {
+        var out = new ByteArrayOutputStream(128 * (results.size() + 1));
+        try (var generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeStringField(STATUS_FIELD, status.name());
+            generator.writeObjectFieldStart(CHECKS_FIELD);
+            for (var entry : results.entrySet()) {
+                var result = entry.getValue();
+                checkArgumentNotNull(result, "results must not contain null values");
+                generator.writeFieldName(entry.getKey());
+                writeResult(generator, result);
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+        } catch (IOException e) {
+            // A ByteArrayOutputStream does not throw, so this can only be a bug in the generator
+            throw new UncheckedIOException("Unable to render health check results", e);
+        }
+
+        var body = out.toByteArray();
+        return new Response(body, etagOf(body), status);
+    }
+
+    private static void writeResult(JsonGenerator generator, HealthCheck.Result result) throws IOException {
+        generator.writeStartObject();
+        generator.writeBooleanField(HEALTHY_FIELD, result.isHealthy());
+        if (nonNull(result.getMessage())) {
+            generator.writeStringField(MESSAGE_FIELD, result.getMessage());
+        }
+
+        var error = result.getError();
+        if (nonNull(error)) {
+            generator.writeObjectFieldStart(ERROR_FIELD);
+            generator.writeStringField("type", error.getClass().getName());
+            if (nonNull(error.getMessage())) {
+                generator.writeStringField(MESSAGE_FIELD, error.getMessage());
+            }
+            generator.writeEndObject();
+        }
+
+        generator.writeStringField(SEVERITY_DETAIL, HealthCheckResults.statusOf(result).name());
+
+        var details = result.getDetails();
+        if (nonNull(details)) {
+            for (var detail : details.entrySet()) {
+                if (!RESERVED_FIELDS.contains(detail.getKey())) {
+                    generator.writeFieldName(detail.getKey());
+                    writeValue(generator, detail.getValue());
+                }
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write a detail value. Maps, iterables, and arrays of objects are written as JSON objects and arrays; any other
+     * value that is not a string, number, or boolean is written using its {@code toString()}.
+     */
+    private static void writeValue(JsonGenerator generator, @Nullable Object value) throws IOException {
+        if (isNull(value)) {
+            generator.writeNull();
+        } else if (value instanceof String string) {
+            generator.writeString(string);
+        } else if (value instanceof Boolean bool) {
+            generator.writeBoolean(bool);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            generator.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof BigDecimal bigDecimal) {
+            generator.writeNumber(bigDecimal);
+        } else if (value instanceof BigInteger bigInteger) {
+            generator.writeNumber(bigInteger);
+        } else if (value instanceof Map<?, ?> map) {
+            generator.writeStartObject();
+            for (var entry : map.entrySet()) {
+                generator.writeFieldName(String.valueOf(entry.getKey()));
+                writeValue(generator, entry.getValue());
+            }
+            generator.writeEndObject();
+        } else if (value instanceof Iterable<?> iterable) {
+            generator.writeStartArray();
+            for (var element : iterable) {
+                writeValue(generator, element);
+            }
+            generator.writeEndArray();
+        } else if (value instanceof Object[] array) {
+            generator.writeStartArray();
+            for (var element : array) {
+                writeValue(generator, element);
+            }
+            generator.writeEndArray();
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+
+    private static String etagOf(byte[] body) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        var hash = digest.digest(body);
+        return '"' + HexFormat.of().formatHex(hash, 0, ETAG_HASH_BYTES) + '"';
+    }
+}
@@ -0,0 +1,192 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the latest published health check results, so that readers such as HTTP handlers, probes, and metrics
+ * exporters can share one evaluation instead of each running the health checks themselves.
+ * <p>
+ * Writers {@link #publish(HealthCheckEvaluation) publish} immutable {@link Snapshot snapshots}, each with a version
+ * one greater than the previous one. Readers get the {@link #current() current} snapshot with a single volatile read,
+ * without locking or allocating, so any number of readers can read concurrently with each other and with writers.
+ * <p>
+ * Long-poll style consumers can wait for a newer snapshot than the one they have, either by blocking in
+ * {@link #awaitNext(long, Duration)} or asynchronously with {@link #nextAfter(long)}.
+ * <p>
+ * This class is thread-safe.
+ */
+public class HealthSnapshotHolder {
+
+    private final AtomicReference<State> state;
+
+    /**
+     * An immutable snapshot of published health check results.
+     *
+     * @param version    the version of the snapshot, which is one greater than that of the previous snapshot, and
+     *                   is zero for the initial empty snapshot
+     * @param evaluation the health check results and their overall status
+     */
+    public record Snapshot(long version, HealthCheckEvaluation evaluation) {
+
+        /**
+         * Canonical constructor.
+         *
+         * @param version    the version of the snapshot, which must not be negative
+         * @param evaluation the health check results and their overall status
+         */
+        public Snapshot {
+            checkArgument(version >= 0, "version must not be negative");
+            checkArgumentNotNull(evaluation, "evaluation cannot be null");
+        }
+
+        /**
+         * Get the health check results.
+         *
+         * @return the unmodifiable results, keyed by health check name
+         */
+        public SortedMap<String, HealthCheck.Result> results() {
+            return evaluation.results();
+        }
+
+        /**
+         * Get the overall status of the health check results.
+         *
+         * @return the overall status
+         */
+        public HealthStatus status() {
+            return evaluation.status();
+        }
+    }
+
+    /**
+     * The current snapshot and the future that is completed when the next one is published, swapped atomically
+     * together so that a waiter can never miss a publication.
+     */
+    private record State(Snapshot snapshot, CompletableFuture<Snapshot> next) {
+    }
+
+    /**
+     * Create a new holder, whose initial snapshot has version zero, no results, and status
+     * {@link HealthStatus#CRITICAL}, consistent with {@link HealthCheckResults#overallStatus(java.util.Map)}.
+     */
+    public HealthSnapshotHolder() {
+        var initial = new Snapshot(0, HealthCheckEvaluation.of(new TreeMap<>()));
+        this.state = new AtomicReference<>(new State(initial, new CompletableFuture<>()));
+    }
+
+    /**
+     * Get the current snapshot.
+     *
+     * @return the most recently published snapshot
+     */
+    public Snapshot current() {
+        return state.get().snapshot();
+    }
+
+    /**
+     * Run all the health checks in the registry and publish their results.
+     *
+     * @param registry the registry containing the health checks to run
+     * @return the published snapshot
+     */
+    public Snapshot publish(HealthCheckRegistry registry) {
+        checkArgumentNotNull(registry, "registry cannot be null");
+        return publish(registry.runHealthChecks());
+    }
+
+    /**
+     * Publish health check results, computing their overall status.
+     *
+     * @param results the health check results, keyed by health check name
+     * @return the published snapshot
+     * @see HealthCheckEvaluation#of(SortedMap)
+     */
+    public Snapshot publish(SortedMap<String, HealthCheck.Result> results) {
+        checkArgumentNotNull(results, "results cannot be null");
+        return publish(HealthCheckEvaluation.of(results));
+    }
+
+    /**
+     * Publish health check results and their overall status, e.g., from a {@link ParallelHealthCheckRunner}.
+     * <p>
+     * Waiters are woken on the calling thread. Asynchronous waiters should use the {@code async} methods of
+     * {@link CompletableFuture} to avoid running their actions on it.
+     *
+     * @param evaluation the health check results and their overall status
+     * @return the published snapshot
+     */
+    public Snapshot publish(HealthCheckEvaluation evaluation) {
+        checkArgumentNotNull(evaluation, "evaluation cannot be null");
+
+        State previous;
+        State next;
+        do {
+            previous = state.get();
+            next = new State(new Snapshot(previous.snapshot().version() + 1, evaluation), new CompletableFuture<>());
+        } while (!state.compareAndSet(previous, next));
+
+        previous.next().complete(next.snapshot());
+        return next.snapshot();
+    }
+
+    /**
+     * Get a future that completes with a snapshot whose version is not {@code version}. If the current snapshot
+     * has a different version, the returned future is already complete with it. Otherwise, it completes when the
+     * next snapshot is published.
+     * <p>
+     * Versions are only compared for equality, so a consumer that passes a version from some other holder (e.g.,
+     * before a restart) immediately gets the current snapshot.
+     *
+     * @param version the version of the snapshot the caller already has
+     * @return a new future, which the caller may cancel without affecting other callers
+     */
+    public CompletableFuture<Snapshot> nextAfter(long version) {
+        var currentState = state.get();
+        if (currentState.snapshot().version() != version) {
+            return CompletableFuture.completedFuture(currentState.snapshot());
+        }
+        return currentState.next().copy();
+    }
+
+    /**
+     * Wait until a snapshot whose version is not {@code version} is published, or return immediately if the
+     * current snapshot has a different version.
+     *
+     * @param version the version of the snapshot the caller already has
+     * @param timeout the maximum time to wait
+     * @return the newer snapshot, or an empty Optional if none was published within the timeout
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     * @see #nextAfter(long)
+     */
+    public Optional<Snapshot> awaitNext(long version, Duration timeout) throws InterruptedException {
+        checkArgumentNotNull(timeout, "timeout cannot be null");
+
+        var currentState = state.get();
+        if (currentState.snapshot().version() != version) {
+            return Optional.of(currentState.snapshot());
+        }
+
+        try {
+            return Optional.of(currentState.next().get(timeout.toNanos(), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            return Optional.empty();
+        } catch (ExecutionException e) {
+            // The futures are only ever completed normally
+            throw new IllegalStateException("next snapshot completed exceptionally", e.getCause());
+        }
+    }
+}
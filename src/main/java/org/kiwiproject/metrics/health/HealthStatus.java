@@ -3,25 +3,24 @@ package org.kiwiproject.metrics.health;
 import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
-import static java.util.stream.Collectors.toSet;
 import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
 import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
 import static org.kiwiproject.collect.KiwiMaps.isNullOrEmpty;
 import static org.kiwiproject.metrics.health.HealthCheckResults.SEVERITY_DETAIL;
 
-import com.google.common.collect.Iterables;
 import lombok.Getter;
-import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.BooleanUtils;
 import org.jspecify.annotations.Nullable;
-import org.kiwiproject.base.KiwiEnums;
+import org.kiwiproject.metrics.health.HealthStatusDiagnostics.Anomaly;
 
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -36,7 +35,6 @@ import java.util.Optional;
  * Comparator. For example, even though no changes are expected, it is possible a new constant could be added
  * that falls between existing values, and could break existing assumptions.
  */
-@Slf4j
 public enum HealthStatus {
 
     /**
@@ -86,14 +84,60 @@ public enum HealthStatus {
     @Getter
     private final int value;
 
+    /**
+     * Lookup table indexed by {@link #value}. Slots that do not correspond to a value (e.g., zero) are null.
+     */
+    private static final HealthStatus[] BY_VALUE = newValueLookupTable();
+
+    /**
+     * Pre-built Optionals indexed by {@link #value}, so that value and name lookups do not allocate.
+     */
+    private static final Optional<HealthStatus>[] OPTIONAL_BY_VALUE = newOptionalLookupTable();
+
     HealthStatus(int value) {
         this.value = value;
     }
 
+    private static HealthStatus[] newValueLookupTable() {
+        var maxValue = Arrays.stream(values()).mapToInt(HealthStatus::getValue).max().orElseThrow();
+        var table = new HealthStatus[maxValue + 1];
+        for (var status : values()) {
+            table[status.value] = status;
+        }
+        return table;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Optional<HealthStatus>[] newOptionalLookupTable() {
+        var table = (Optional<HealthStatus>[]) new Optional[BY_VALUE.length];
+        for (var i = 0; i < table.length; i++) {
+            table[i] = Optional.ofNullable(BY_VALUE[i]);
+        }
+        return table;
+    }
+
+    private static Optional<HealthStatus> optionalOf(@Nullable HealthStatus status) {
+        return isNull(status) ? Optional.empty() : OPTIONAL_BY_VALUE[status.value];
+    }
+
+    // Package-private lookup by value that does not allocate; returns null if there is no matching constant
+    static @Nullable HealthStatus fromValueOrNull(int value) {
+        return (value > 0 && value < BY_VALUE.length) ? BY_VALUE[value] : null;
+    }
+
+    // Package-private; the highest value of any constant
+    static int maxValue() {
+        return BY_VALUE.length - 1;
+    }
+
     /**
      * Given a map containing the results of all the health checks in a service instance (e.g., the JSON that is
      * returned by calling the {@code healthcheck} endpoint of an instance), determine the appropriate health status
      * by checking both the {@code healthy} flag (true or false) as well as the {@code severity} if present.
+     * <p>
+     * Any anomalies in the data are counted in the {@link HealthStatusDiagnostics#shared() shared diagnostics}
+     * under the name of the check. Use {@link #from(Map, String, HealthStatusDiagnostics)} to count them under the
+     * service or instance that sent the data instead.
      *
      * @param healthDetails the health check results as a map of maps
      * @return the most appropriate {@link HealthStatus}
@@ -103,67 +147,135 @@ public enum HealthStatus {
      * can contain a {@code severity} whose values should be the exact names of this enum as a string, e.g. "INFO".
      */
     public static HealthStatus from(Map<String, Object> healthDetails) {
+        return from(healthDetails, HealthStatusDiagnostics.shared(), null);
+    }
+
+    /**
+     * Determine the health status in the same way as {@link #from(Map)}, but count any anomalies in the data
+     * under the given source in the {@link HealthStatusDiagnostics#shared() shared diagnostics}.
+     *
+     * @param healthDetails the health check results as a map of maps
+     * @param source        the source of the results, e.g., the name of the service or instance that sent them
+     * @return the most appropriate {@link HealthStatus}
+     * @throws IllegalArgumentException if source is blank
+     */
+    public static HealthStatus from(Map<String, Object> healthDetails, String source) {
+        checkArgumentNotBlank(source, "source must not be blank");
+        return from(healthDetails, HealthStatusDiagnostics.shared(), source);
+    }
+
+    /**
+     * Determine the health status in the same way as {@link #from(Map)}, but count any anomalies in the data
+     * under the given source in the given diagnostics.
+     *
+     * @param healthDetails the health check results as a map of maps
+     * @param source        the source of the results, e.g., the name of the service or instance that sent them
+     * @param diagnostics   the diagnostics in which to count anomalies
+     * @return the most appropriate {@link HealthStatus}
+     * @throws IllegalArgumentException if source is blank or diagnostics is null
+     */
+    public static HealthStatus from(Map<String, Object> healthDetails,
+                                    String source,
+                                    HealthStatusDiagnostics diagnostics) {
+        checkArgumentNotBlank(source, "source must not be blank");
+        checkArgumentNotNull(diagnostics, "diagnostics must not be null");
+        return from(healthDetails, diagnostics, source);
+    }
+
+    // Visible for testing; anomalies are counted under the source if there is one, otherwise under each check name
+    static HealthStatus from(Map<String, Object> healthDetails,
+                             HealthStatusDiagnostics diagnostics,
+                             @Nullable String source) {
         if (isNullOrEmpty(healthDetails)) {
             return CRITICAL;
         }
 
-        var healthStatuses = healthDetails.values()
-                .stream()
-                .filter(Map.class::isInstance)
-                .map(Map.class::cast)
-                .map(HealthStatus::determineOverallStatus)
-                .collect(toSet());
+        // Single pass that tracks the highest severity value seen so far; zero means no map values were found
+        var highestValue = 0;
+        for (var entry : healthDetails.entrySet()) {
+            if (entry.getValue() instanceof Map<?, ?> map) {
+                @SuppressWarnings("unchecked")
+                var checkStatus = determineOverallStatus((Map<String, Object>) map, diagnostics,
+                        isNull(source) ? entry.getKey() : source);
+                highestValue = Math.max(highestValue, checkStatus.value);
+
+                if (highestValue == FATAL.value) {
+                    break;
+                }
+            }
+        }
 
-        if (healthStatuses.isEmpty()) {
+        if (highestValue == 0) {
             return CRITICAL;
         }
 
-        if (healthStatuses.size() == 1) {
-            return Iterables.getOnlyElement(healthStatuses);
-        }
+        return BY_VALUE[highestValue];
+    }
 
-        return highestSeverity(healthStatuses);
+    private static HealthStatus determineOverallStatus(Map<String, Object> map,
+                                                      HealthStatusDiagnostics diagnostics,
+                                                      String source) {
+        var healthy = getHealthyValue(map, diagnostics, source);
+        var severity = getHealthStatusOrNull(map, diagnostics, source);
+        return determineOverallStatus(healthy, severity, diagnostics, source);
     }
 
-    private static HealthStatus determineOverallStatus(Map<String, Object> map) {
-        var healthy = getHealthyValue(map);
-        var severity = getHealthStatusOrNull(map);
-        return determineOverallStatus(healthy, severity);
+    // Package-private so that the status of a HealthCheck.Result can be determined using the same rules
+    static HealthStatus determineOverallStatus(boolean healthy,
+                                               @Nullable Map<String, Object> details,
+                                               @Nullable String source) {
+        var diagnostics = HealthStatusDiagnostics.shared();
+        var severity = isNull(details) ? null : getHealthStatusOrNull(details, diagnostics, source);
+        return determineOverallStatus(healthy, severity, diagnostics, source);
     }
 
     // Assumes the map contains a "healthy" key with boolean value, otherwise returns false.
-    private static boolean getHealthyValue(Map<String, Object> map) {
+    private static boolean getHealthyValue(Map<String, Object> map,
+                                           HealthStatusDiagnostics diagnostics,
+                                           String source) {
+        var value = map.getOrDefault("healthy", Boolean.FALSE);
+        if (value instanceof Boolean healthy) {
+            return healthy;
+        }
+
+        diagnostics.record(Anomaly.NON_BOOLEAN_HEALTHY, source);
+        if (value instanceof String healthy) {
+            return Boolean.parseBoolean(healthy);
+        }
+
         try {
-            var value = map.getOrDefault("healthy", Boolean.FALSE).toString();
-            return Boolean.parseBoolean(value);
+            return Boolean.parseBoolean(String.valueOf(value));
         } catch (Exception e) {
-            LOG.warn("Something gave us a 'healthy' value that threw an exception on toString()");
+            // The cause is always a broken toString(), which is already counted as a non-boolean value
             return false;
         }
     }
 
-    // Suppress "Exception handlers should preserve the original exceptions" - we know the cause in this case is that
-    // the severity value is null or not a valid enum constant, so the stack trace provides no additional help
-    @SuppressWarnings("java:S1166")
-    private static HealthStatus getHealthStatusOrNull(Map<String, Object> map) {
+    private static HealthStatus getHealthStatusOrNull(Map<String, Object> map,
+                                                      HealthStatusDiagnostics diagnostics,
+                                                      @Nullable String source) {
         if (!map.containsKey(SEVERITY_DETAIL)) {
             return null;
         }
 
         Object severityObj = map.get(SEVERITY_DETAIL);
-        String severity = severityOrNull(severityObj);
+        String severity = severityOrNull(severityObj, diagnostics, source);
 
-        try {
-            return Optional.ofNullable(severity)
-                    .map(HealthStatus::valueOf)
-                    .orElse(HealthStatus.WARN);
-        } catch (Exception e) {
-            LOG.error("Something gave us an invalid severity: {} (returning WARN). Health map: {}", severity, map);
+        if (isNull(severity)) {
             return WARN;
         }
+
+        var status = HealthStatusParser.parse(severity, false);
+        if (isNull(status)) {
+            diagnostics.record(Anomaly.INVALID_SEVERITY, source);
+            return WARN;
+        }
+        return status;
     }
 
-    private static String severityOrNull(Object severityObj) {
+    private static String severityOrNull(Object severityObj,
+                                         HealthStatusDiagnostics diagnostics,
+                                         @Nullable String source) {
         if (severityObj instanceof String severity) {
             return severity;
         }
@@ -172,14 +284,18 @@ public enum HealthStatus {
             return severity.name();
         }
 
-        LOG.warn("Something gave us a severity that was not a String or HealthStatus: {}", severityObj);
+        diagnostics.record(Anomaly.NON_STRING_SEVERITY, source);
         return null;
     }
 
-    private static HealthStatus determineOverallStatus(boolean healthy, @Nullable HealthStatus severity) {
+    // Package-private so that other evaluators (e.g., of JSON) can apply the same rules as from(Map)
+    static HealthStatus determineOverallStatus(boolean healthy,
+                                               @Nullable HealthStatus severity,
+                                               HealthStatusDiagnostics diagnostics,
+                                               @Nullable String source) {
         if (isInvalidCombination(healthy, severity)) {
-            LOG.warn("Detected invalid (healthy, severity) combination: ({}, {})", healthy, severity);
-            return HealthStatus.max(WARN, Optional.ofNullable(severity).orElse(WARN));
+            diagnostics.record(Anomaly.INVALID_COMBINATION, source);
+            return isNull(severity) ? WARN : HealthStatus.max(WARN, severity);
         }
 
         if (isNull(severity)) {
@@ -250,8 +366,11 @@ public enum HealthStatus {
      * @throws IllegalArgumentException if there is no HealthStatus whose value matches
      */
     public static HealthStatus fromValue(int value) {
-        return fromValueIfPresent(value)
-                .orElseThrow(() -> new IllegalArgumentException(value + " is not a valid HealthStatus value"));
+        var status = fromValueOrNull(value);
+        if (isNull(status)) {
+            throw new IllegalArgumentException(value + " is not a valid HealthStatus value");
+        }
+        return status;
     }
 
     /**
@@ -262,9 +381,7 @@ public enum HealthStatus {
      * @return an Optional containing the matching {@code HealthStatus}, or an empty Optional if no match exists
      */
     public static Optional<HealthStatus> fromValueIfPresent(int value) {
-        return Arrays.stream(values())
-                .filter(status -> status.getValue() == value)
-                .findFirst();
+        return optionalOf(fromValueOrNull(value));
     }
 
     /**
@@ -280,8 +397,57 @@ public enum HealthStatus {
      */
     public static HealthStatus valueOfIgnoreCase(String value) {
         checkArgumentNotBlank(value, "value must not be blank");
-        return KiwiEnums.getIfPresentIgnoreCase(HealthStatus.class, value)
-                .orElseThrow(() -> new IllegalArgumentException("No HealthStatus value " + value.toUpperCase(Locale.ENGLISH)));
+        var status = HealthStatusParser.parse(value, true);
+        if (isNull(status)) {
+            throw new IllegalArgumentException("No HealthStatus value " + value.toUpperCase(Locale.ENGLISH));
+        }
+        return status;
+    }
+
+    /**
+     * Parse the given characters as a {@code HealthStatus}, ignoring case and leading or trailing whitespace.
+     * <p>
+     * Unlike {@link #valueOfIgnoreCase(String)}, this does not throw an exception for blank or unknown values,
+     * and it does not allocate, so it is suitable for hot paths that parse untrusted input.
+     *
+     * @param value the value to parse, e.g., a {@link StringBuilder} or a {@link java.nio.CharBuffer}
+     * @return an Optional containing the matching {@code HealthStatus}, or an empty Optional if the value is null
+     * or does not match any of the constants
+     */
+    public static Optional<HealthStatus> parseIgnoreCase(@Nullable CharSequence value) {
+        return isNull(value) ? Optional.empty() : optionalOf(HealthStatusParser.parse(value, true));
+    }
+
+    /**
+     * Parse a range of ASCII (or UTF-8) bytes as a {@code HealthStatus}, ignoring case and leading or trailing
+     * whitespace, without decoding the bytes into a String.
+     *
+     * @param bytes  the bytes containing the value
+     * @param offset the offset of the first byte of the value
+     * @param length the number of bytes in the value
+     * @return an Optional containing the matching {@code HealthStatus}, or an empty Optional if the bytes do not
+     * match any of the constants
+     * @throws IllegalArgumentException if bytes is null
+     * @throws IndexOutOfBoundsException if offset and length do not describe a range within bytes
+     */
+    public static Optional<HealthStatus> parseIgnoreCase(byte[] bytes, int offset, int length) {
+        checkArgumentNotNull(bytes, "bytes must not be null");
+        Objects.checkFromIndexSize(offset, length, bytes.length);
+        return optionalOf(HealthStatusParser.parseIgnoreCase(bytes, offset, length));
+    }
+
+    /**
+     * Parse the remaining ASCII (or UTF-8) bytes in the given buffer as a {@code HealthStatus}, ignoring case and
+     * leading or trailing whitespace. The buffer's position and limit are not changed.
+     *
+     * @param buffer the buffer containing the value between its position and limit
+     * @return an Optional containing the matching {@code HealthStatus}, or an empty Optional if the bytes do not
+     * match any of the constants
+     * @throws IllegalArgumentException if buffer is null
+     */
+    public static Optional<HealthStatus> parseIgnoreCase(ByteBuffer buffer) {
+        checkArgumentNotNull(buffer, "buffer must not be null");
+        return optionalOf(HealthStatusParser.parseIgnoreCase(buffer));
     }
 
     /**
@@ -316,6 +482,19 @@ public enum HealthStatus {
         return Collections.max(statuses, comparingSeverity());
     }
 
+    /**
+     * Return the highest severity in the (non-null, non-empty) set of status values.
+     *
+     * @param statuses a set of {@link HealthStatus}
+     * @return the highest severity of the given status values
+     * @throws IllegalArgumentException if the status set is null or empty
+     */
+    public static HealthStatus highestSeverity(HealthStatusSet statuses) {
+        checkArgument(nonNull(statuses) && !statuses.isEmpty(), "statuses cannot be empty or null");
+
+        return statuses.highest();
+    }
+
     /**
      * Return a {@link Comparator} that compares {@link HealthStatus} objects from lowest to highest severity.
      *
@@ -11,6 +11,6 @@ class HealthStatusComparator implements Comparator<HealthStatus> {
 
     @Override
     public int compare(HealthStatus status1, HealthStatus status2) {
-        return Comparator.comparingInt(HealthStatus::getValue).compare(status1, status2);
+        return Integer.compare(status1.getValue(), status2.getValue());
     }
 }
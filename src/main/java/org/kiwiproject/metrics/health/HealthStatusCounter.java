@@ -0,0 +1,159 @@
+package org.kiwiproject.metrics.health;
+
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps a count of health checks at each {@link HealthStatus}, so that the overall status can be read without
+ * iterating over the checks.
+ * <p>
+ * The counts are held in an immutable snapshot that is replaced atomically on each transition, together with the
+ * overall status computed from them. Reading a count or the overall status is a single volatile read, and never
+ * iterates over the checks.
+ * <p>
+ * Counts can be maintained in two ways:
+ * <ul>
+ *     <li>Report the current status of each named check using {@link #report(String, HealthStatus)}; the counter
+ *     remembers each check's status and updates the counts only when it changes.</li>
+ *     <li>Report transitions directly using {@link #transition(HealthStatus, HealthStatus)}, when the caller
+ *     already tracks the status of each check.</li>
+ * </ul>
+ * Do not mix the two ways on the same instance.
+ *
+ * @implNote Each transition replaces the snapshot using compare-and-set, so reads always see the counts either
+ * before or after a whole transition, and the overall status is always one the checks actually had. Transitions
+ * only happen when a check's status changes, so the copy made by each one is cheap in practice.
+ */
+public class HealthStatusCounter {
+
+    private static final HealthStatus[] BY_DESCENDING_SEVERITY = Arrays.stream(HealthStatus.values())
+            .sorted(HealthStatus.comparingSeverity().reversed())
+            .toArray(HealthStatus[]::new);
+
+    private final AtomicReference<Counts> counts = new AtomicReference<>(Counts.EMPTY);
+    private final ConcurrentMap<String, HealthStatus> checkStatuses = new ConcurrentHashMap<>();
+
+    /**
+     * Immutable counts of checks by status ordinal, and the overall status they produce.
+     */
+    private record Counts(long[] byOrdinal, HealthStatus overallStatus) {
+
+        static final Counts EMPTY = new Counts(new long[HealthStatus.values().length], HealthStatus.CRITICAL);
+
+        Counts apply(@Nullable HealthStatus from, @Nullable HealthStatus to) {
+            var newCounts = byOrdinal.clone();
+            if (nonNull(to)) {
+                ++newCounts[to.ordinal()];
+            }
+            if (nonNull(from)) {
+                --newCounts[from.ordinal()];
+            }
+            return new Counts(newCounts, overallStatusOf(newCounts));
+        }
+
+        private static HealthStatus overallStatusOf(long[] counts) {
+            for (var status : BY_DESCENDING_SEVERITY) {
+                if (counts[status.ordinal()] > 0) {
+                    return status;
+                }
+            }
+
+            return HealthStatus.CRITICAL;
+        }
+    }
+
+    /**
+     * Create a new counter with all counts at zero.
+     */
+    public HealthStatusCounter() {
+    }
+
+    /**
+     * Report the current status of a named check, adding it if it is new.
+     *
+     * @param checkName the name of the check
+     * @param status    the current status of the check
+     */
+    public void report(String checkName, HealthStatus status) {
+        checkArgumentNotBlank(checkName, "checkName must not be blank");
+        checkArgumentNotNull(status, "status cannot be null");
+
+        // compute serializes reports for the same check, so its transitions are applied in order
+        checkStatuses.compute(checkName, (name, previousStatus) -> {
+            if (previousStatus != status) {
+                transition(previousStatus, status);
+            }
+            return status;
+        });
+    }
+
+    /**
+     * Report the current result of a named check, adding it if it is new.
+     *
+     * @param checkName the name of the check
+     * @param result    the current result of the check
+     * @see HealthCheckResults#statusOf(HealthCheck.Result)
+     */
+    public void report(String checkName, HealthCheck.Result result) {
+        report(checkName, HealthCheckResults.statusOf(result));
+    }
+
+    /**
+     * Remove a named check, e.g., because it was unregistered.
+     *
+     * @param checkName the name of the check
+     */
+    public void remove(String checkName) {
+        checkArgumentNotBlank(checkName, "checkName must not be blank");
+
+        checkStatuses.computeIfPresent(checkName, (name, previousStatus) -> {
+            transition(previousStatus, null);
+            return null;
+        });
+    }
+
+    /**
+     * Record that a check moved from one status to another. Use a null {@code from} when a check is added, and a
+     * null {@code to} when a check is removed.
+     *
+     * @param from the previous status, or null if the check is new
+     * @param to   the new status, or null if the check was removed
+     */
+    public void transition(@Nullable HealthStatus from, @Nullable HealthStatus to) {
+        if (from == to) {
+            return;
+        }
+
+        counts.updateAndGet(current -> current.apply(from, to));
+    }
+
+    /**
+     * Get the number of checks that have the given status.
+     *
+     * @param status the status
+     * @return the count
+     */
+    public long count(HealthStatus status) {
+        checkArgumentNotNull(status, "status cannot be null");
+        return counts.get().byOrdinal()[status.ordinal()];
+    }
+
+    /**
+     * Get the overall status, i.e., the highest status of any check.
+     *
+     * @return the highest status with a non-zero count, or {@link HealthStatus#CRITICAL} if there are no checks,
+     * consistent with {@link HealthStatus#from(java.util.Map)}
+     */
+    public HealthStatus overallStatus() {
+        return counts.get().overallStatus();
+    }
+}
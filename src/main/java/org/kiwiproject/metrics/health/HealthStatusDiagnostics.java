@@ -0,0 +1,327 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts anomalies found while determining health statuses (e.g., by {@link HealthStatus#from(Map)}) per kind of
+ * {@link Anomaly} and per source.
+ * <p>
+ * The source is supplied by the caller, e.g., the name of the service whose health data was evaluated using
+ * {@link HealthStatus#from(Map, String, HealthStatusDiagnostics)}, so that a misbehaving service can be found
+ * across a fleet. When no source is supplied, e.g., by {@link HealthStatus#from(Map)}, anomalies are counted under
+ * the name of the health check whose result was malformed.
+ * <p>
+ * Each instance has its own counters and summary interval, so that diagnostics can be kept separately, e.g., per
+ * {@link ServiceHealthAggregator} or per test. Methods that do not take an instance record into the
+ * {@link #shared() shared} instance.
+ * <p>
+ * Recording an anomaly only increments a counter, so malformed data from a misbehaving service does not flood the
+ * logs or build large strings on every evaluation. Instead, a summary of the anomalies recorded since the previous
+ * summary is logged (at WARN level) at most once per {@link #getSummaryInterval() summary interval}, and the
+ * counters are available programmatically, e.g., to export them as metrics.
+ * <p>
+ * A summary is only due once its interval has elapsed, so anomalies recorded just after a summary are not logged by
+ * {@link #record} until a later anomaly arrives. To log a final burst, the accessors ({@link #count(Anomaly)},
+ * {@link #count(String, Anomaly)}, and {@link #counts()}) also log a summary when one is due, so that periodically
+ * exporting the counters flushes it, and {@link #reset()} logs any anomalies not yet summarized before clearing them.
+ * This class is thread-safe.
+ *
+ * @implNote To bound memory use, at most {@link #MAX_SOURCES} distinct sources are tracked per instance; anomalies
+ * from any additional sources are counted under {@link #OTHER_SOURCES}.
+ */
+@Slf4j
+public class HealthStatusDiagnostics {
+
+    /**
+     * The kinds of anomalies that are counted.
+     */
+    public enum Anomaly {
+
+        /**
+         * The severity was a String that is not the exact name of a {@link HealthStatus} constant.
+         */
+        INVALID_SEVERITY,
+
+        /**
+         * The severity was present but was neither a String nor a {@link HealthStatus}, e.g., null or a map.
+         */
+        NON_STRING_SEVERITY,
+
+        /**
+         * The healthy value was present but was not a boolean, e.g., the String "true".
+         */
+        NON_BOOLEAN_HEALTHY,
+
+        /**
+         * The healthy flag and the severity contradict each other, e.g., healthy with a CRITICAL severity.
+         */
+        INVALID_COMBINATION,
+
+        /**
+         * The health data was not well-formed JSON, e.g., it was truncated. This is only found by
+         * {@link HealthStatusJsonEvaluator}, and is counted under {@link #UNKNOWN_SOURCE} unless a source is supplied.
+         */
+        MALFORMED_JSON
+    }
+
+    /**
+     * The source used when an anomaly is recorded without one, e.g., from {@link HealthCheckResults#statusOf}.
+     */
+    public static final String UNKNOWN_SOURCE = "(unknown)";
+
+    /**
+     * The source under which anomalies are counted once {@link #MAX_SOURCES} sources are already being tracked.
+     */
+    public static final String OTHER_SOURCES = "(other)";
+
+    /**
+     * The maximum number of distinct sources that are tracked.
+     */
+    public static final int MAX_SOURCES = 1_000;
+
+    /**
+     * The default interval between logged summaries.
+     */
+    public static final Duration DEFAULT_SUMMARY_INTERVAL = Duration.ofMinutes(1);
+
+    private static final Anomaly[] ANOMALIES = Anomaly.values();
+
+    private static final HealthStatusDiagnostics SHARED = new HealthStatusDiagnostics();
+
+    private final ConcurrentHashMap<String, SourceCounters> counters = new ConcurrentHashMap<>();
+
+    private final Object summaryLock = new Object();
+
+    private volatile long summaryIntervalNanos = DEFAULT_SUMMARY_INTERVAL.toNanos();
+
+    // Initially due, so that the first anomaly is reported promptly
+    private volatile long nextSummaryNanos = System.nanoTime();
+
+    /**
+     * Counters for one source. The {@code summarized} counts are only accessed while holding the summary lock.
+     */
+    private static class SourceCounters {
+
+        final LongAdder[] counts = new LongAdder[ANOMALIES.length];
+        final long[] summarized = new long[ANOMALIES.length];
+
+        SourceCounters() {
+            for (var i = 0; i < counts.length; i++) {
+                counts[i] = new LongAdder();
+            }
+        }
+    }
+
+    /**
+     * Create a new instance with no anomalies and the {@link #DEFAULT_SUMMARY_INTERVAL default summary interval}.
+     */
+    public HealthStatusDiagnostics() {
+    }
+
+    /**
+     * Return the shared instance, which is used when evaluating health data without supplying an instance.
+     *
+     * @return the shared instance
+     */
+    public static HealthStatusDiagnostics shared() {
+        return SHARED;
+    }
+
+    /**
+     * Record an anomaly found in the data from the given source, and log a summary if one is due.
+     *
+     * @param anomaly the kind of anomaly
+     * @param source  the service, health check, or other source that produced the malformed data
+     */
+    void record(Anomaly anomaly, @Nullable String source) {
+        countersFor(source).counts[anomaly.ordinal()].increment();
+        logSummaryIfDue();
+    }
+
+    private SourceCounters countersFor(@Nullable String source) {
+        var key = isNull(source) ? UNKNOWN_SOURCE : source;
+        var sourceCounters = counters.get(key);
+        if (nonNull(sourceCounters)) {
+            return sourceCounters;
+        }
+
+        // The limit is approximate under concurrent inserts, which is fine since it only exists to bound memory
+        if (counters.size() >= MAX_SOURCES) {
+            key = OTHER_SOURCES;
+        }
+        return counters.computeIfAbsent(key, ignored -> new SourceCounters());
+    }
+
+    private void logSummaryIfDue() {
+        var now = System.nanoTime();
+        if (now - nextSummaryNanos < 0) {
+            return;
+        }
+
+        String summary;
+        synchronized (summaryLock) {
+            if (now - nextSummaryNanos < 0) {
+                return;
+            }
+            nextSummaryNanos = now + summaryIntervalNanos;
+            summary = summarizeSinceLastSummary();
+        }
+        logSummary(summary);
+    }
+
+    private void logSummary(String summary) {
+        if (!summary.isEmpty()) {
+            LOG.warn("Found malformed health data (at most one summary per {}): {}",
+                    Duration.ofNanos(summaryIntervalNanos), summary);
+        }
+    }
+
+    /**
+     * Describe the anomalies counted since the previous summary, e.g.,
+     * {@code database={INVALID_SEVERITY=12}, queue={NON_BOOLEAN_HEALTHY=3, INVALID_COMBINATION=1}},
+     * and start a new summary period.
+     *
+     * @return the summary, or an empty String if there were no new anomalies
+     */
+    String summarizeSinceLastSummary() {
+        synchronized (summaryLock) {
+            var summary = new StringBuilder();
+            new TreeMap<>(counters).forEach((source, sourceCounters) -> appendSummary(summary, source, sourceCounters));
+            return summary.toString();
+        }
+    }
+
+    private static void appendSummary(StringBuilder summary, String source, SourceCounters counters) {
+        var sourceStart = summary.length();
+        for (var anomaly : ANOMALIES) {
+            var i = anomaly.ordinal();
+            var count = counters.counts[i].sum();
+            var delta = count - counters.summarized[i];
+            counters.summarized[i] = count;
+            if (delta <= 0) {
+                continue;
+            }
+
+            if (summary.length() == sourceStart) {
+                summary.append(sourceStart == 0 ? "" : ", ").append(source).append("={");
+            } else {
+                summary.append(", ");
+            }
+            summary.append(anomaly).append('=').append(delta);
+        }
+
+        if (summary.length() > sourceStart) {
+            summary.append('}');
+        }
+    }
+
+    /**
+     * Return the total number of anomalies of the given kind, from all sources, since this instance was created or
+     * the last {@link #reset()}. Logs a summary if one is due.
+     *
+     * @param anomaly the kind of anomaly
+     * @return the count
+     */
+    public long count(Anomaly anomaly) {
+        checkArgumentNotNull(anomaly, "anomaly must not be null");
+        logSummaryIfDue();
+        return counters.values().stream()
+                .mapToLong(sourceCounters -> sourceCounters.counts[anomaly.ordinal()].sum())
+                .sum();
+    }
+
+    /**
+     * Return the number of anomalies of the given kind from the given source, since this instance was created or
+     * the last {@link #reset()}. Logs a summary if one is due.
+     *
+     * @param source  the source, e.g., the name of a health check
+     * @param anomaly the kind of anomaly
+     * @return the count, which is zero if no anomalies have been recorded for the source
+     */
+    public long count(String source, Anomaly anomaly) {
+        checkArgumentNotNull(source, "source must not be null");
+        checkArgumentNotNull(anomaly, "anomaly must not be null");
+        logSummaryIfDue();
+        var sourceCounters = counters.get(source);
+        return isNull(sourceCounters) ? 0 : sourceCounters.counts[anomaly.ordinal()].sum();
+    }
+
+    /**
+     * Return the sources for which at least one anomaly has been recorded.
+     *
+     * @return an unmodifiable view of the sources
+     */
+    public Set<String> sources() {
+        return Collections.unmodifiableSet(counters.keySet());
+    }
+
+    /**
+     * Return a snapshot of the non-zero counts, keyed by source and then by kind of anomaly. Logs a summary if one
+     * is due.
+     *
+     * @return a new map, sorted by source
+     */
+    public Map<String, Map<Anomaly, Long>> counts() {
+        logSummaryIfDue();
+        var snapshot = new TreeMap<String, Map<Anomaly, Long>>();
+        counters.forEach((source, sourceCounters) -> {
+            var sourceCounts = new EnumMap<Anomaly, Long>(Anomaly.class);
+            for (var anomaly : ANOMALIES) {
+                var count = sourceCounters.counts[anomaly.ordinal()].sum();
+                if (count > 0) {
+                    sourceCounts.put(anomaly, count);
+                }
+            }
+            snapshot.put(source, sourceCounts);
+        });
+        return snapshot;
+    }
+
+    /**
+     * Return the minimum interval between logged summaries.
+     *
+     * @return the summary interval
+     */
+    public Duration getSummaryInterval() {
+        return Duration.ofNanos(summaryIntervalNanos);
+    }
+
+    /**
+     * Change the minimum interval between logged summaries. The change applies after the next summary.
+     *
+     * @param interval the new interval, which must be positive
+     * @throws IllegalArgumentException if interval is null, zero, or negative
+     */
+    public void setSummaryInterval(Duration interval) {
+        checkArgumentNotNull(interval, "interval must not be null");
+        checkArgument(!interval.isNegative() && !interval.isZero(), "interval must be positive");
+        summaryIntervalNanos = interval.toNanos();
+    }
+
+    /**
+     * Log any anomalies not yet summarized, regardless of the summary interval, and then clear all counters.
+     */
+    public void reset() {
+        String summary;
+        synchronized (summaryLock) {
+            summary = summarizeSinceLastSummary();
+            counters.clear();
+        }
+        logSummary(summary);
+    }
+}
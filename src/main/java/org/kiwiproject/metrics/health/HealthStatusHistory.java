@@ -0,0 +1,356 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Records the most recent status observations of each health check, with their timestamps, in a fixed amount of
+ * memory per check, and detects checks that are flapping, i.e., that changed status too many times recently.
+ * <p>
+ * Each check's history is a ring buffer of a {@code byte} (the {@link HealthStatus#getValue() status value}) and a
+ * {@code long} (the timestamp in epoch milliseconds) per observation, so a history with the default capacity of
+ * 64 observations uses about 600 bytes per check, regardless of the size of the results that were observed.
+ * <p>
+ * Queries walk backwards from the newest observation and stop at the first one outside the requested window, so
+ * their cost is proportional to the number of observations in the window, and they do not allocate.
+ *
+ * @implNote Observations of a check are expected to be recorded in timestamp order, which is the case when they
+ * are recorded as checks run. Each check's history is guarded by its own lock, so recording and querying different
+ * checks do not contend.
+ */
+public class HealthStatusHistory {
+
+    private static final int DEFAULT_CAPACITY = 64;
+    private static final Duration DEFAULT_FLAP_WINDOW = Duration.ofMinutes(5);
+    private static final int DEFAULT_FLAP_THRESHOLD = 5;
+
+    private final int capacity;
+    private final long flapWindowMillis;
+    private final int flapThreshold;
+    private final LongSupplier currentTimeMillis;
+    private final ConcurrentMap<String, CheckHistory> histories = new ConcurrentHashMap<>();
+
+    /**
+     * Receives observations from {@link #forEach(String, ObservationConsumer)}.
+     */
+    @FunctionalInterface
+    public interface ObservationConsumer {
+
+        /**
+         * Accept an observation.
+         *
+         * @param status          the observed status
+         * @param timestampMillis when the status was observed, in epoch milliseconds
+         */
+        void accept(HealthStatus status, long timestampMillis);
+    }
+
+    private HealthStatusHistory(Builder builder) {
+        this.capacity = builder.capacity;
+        this.flapWindowMillis = builder.flapWindow.toMillis();
+        this.flapThreshold = builder.flapThreshold;
+        this.currentTimeMillis = builder.currentTimeMillis;
+    }
+
+    /**
+     * Create a history with the default settings: 64 observations per check, and a check is flapping when it
+     * changed status at least 5 times in the last 5 minutes.
+     *
+     * @return a new history
+     */
+    public static HealthStatusHistory of() {
+        return builder().build();
+    }
+
+    /**
+     * Create a builder for a history.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Record the status of a check, observed now.
+     *
+     * @param checkName the name of the check
+     * @param status    the observed status
+     */
+    public void record(String checkName, HealthStatus status) {
+        record(checkName, status, currentTimeMillis.getAsLong());
+    }
+
+    /**
+     * Record the status of a check, observed at the given time.
+     *
+     * @param checkName       the name of the check
+     * @param status          the observed status
+     * @param timestampMillis when the status was observed, in epoch milliseconds
+     */
+    public void record(String checkName, HealthStatus status, long timestampMillis) {
+        checkArgumentNotBlank(checkName, "checkName must not be blank");
+        checkArgumentNotNull(status, "status cannot be null");
+
+        histories.computeIfAbsent(checkName, name -> new CheckHistory(capacity)).add(status, timestampMillis);
+    }
+
+    /**
+     * Record the status of a check result, observed now.
+     * <p>
+     * The time of the result is not used, since a shared result (see
+     * {@link HealthCheckResults#sharedResult(boolean, HealthStatus)}) carries the time it was first created rather
+     * than the time the check ran. Use {@link #record(String, HealthStatus, long)} to record a result at another time.
+     *
+     * @param checkName the name of the check
+     * @param result    the result of the check
+     * @see HealthCheckResults#statusOf(HealthCheck.Result)
+     */
+    public void record(String checkName, HealthCheck.Result result) {
+        checkArgumentNotNull(result, "result cannot be null");
+        record(checkName, HealthCheckResults.statusOf(result), currentTimeMillis.getAsLong());
+    }
+
+    /**
+     * Get the most recently observed status of a check.
+     *
+     * @param checkName the name of the check
+     * @return the latest status, or null if there are no observations of the check
+     */
+    public @Nullable HealthStatus latest(String checkName) {
+        var history = histories.get(checkName);
+        return isNull(history) ? null : history.latest();
+    }
+
+    /**
+     * Get the number of observations of a check that are retained, which is at most the capacity.
+     *
+     * @param checkName the name of the check
+     * @return the number of observations
+     */
+    public int size(String checkName) {
+        var history = histories.get(checkName);
+        return isNull(history) ? 0 : history.size();
+    }
+
+    /**
+     * Count the number of times a check changed status within the given window before now. A change is counted
+     * when an observation in the window has a different status from the observation before it.
+     *
+     * @param checkName the name of the check
+     * @param window    how far back to look
+     * @return the number of status changes
+     */
+    public int transitions(String checkName, Duration window) {
+        checkArgumentNotNull(window, "window cannot be null");
+        return transitionsSince(checkName, currentTimeMillis.getAsLong() - window.toMillis());
+    }
+
+    private int transitionsSince(String checkName, long sinceMillis) {
+        var history = histories.get(checkName);
+        return isNull(history) ? 0 : history.transitionsSince(sinceMillis);
+    }
+
+    /**
+     * Check whether a check is flapping, i.e., whether it changed status at least the flap threshold number of times
+     * within the flap window before now.
+     *
+     * @param checkName the name of the check
+     * @return true if the check is flapping
+     */
+    public boolean isFlapping(String checkName) {
+        return transitionsSince(checkName, currentTimeMillis.getAsLong() - flapWindowMillis) >= flapThreshold;
+    }
+
+    /**
+     * Get the names of all the checks that are currently flapping.
+     *
+     * @return the names of the flapping checks
+     */
+    public Set<String> flappingChecks() {
+        return histories.keySet().stream()
+                .filter(this::isFlapping)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Pass each retained observation of a check to the consumer, from newest to oldest.
+     * <p>
+     * The check's history is locked while the consumer runs, so the consumer should not do anything slow.
+     *
+     * @param checkName the name of the check
+     * @param consumer  the consumer of the observations
+     */
+    public void forEach(String checkName, ObservationConsumer consumer) {
+        checkArgumentNotNull(consumer, "consumer cannot be null");
+        var history = histories.get(checkName);
+        if (isNull(history)) {
+            return;
+        }
+        history.forEach(consumer);
+    }
+
+    /**
+     * Get the names of the checks that have at least one observation.
+     *
+     * @return an unmodifiable view of the check names
+     */
+    public Set<String> checkNames() {
+        return Collections.unmodifiableSet(histories.keySet());
+    }
+
+    /**
+     * Discard the history of a check, e.g., because it was unregistered.
+     *
+     * @param checkName the name of the check
+     */
+    public void remove(String checkName) {
+        histories.remove(checkName);
+    }
+
+    /**
+     * A ring buffer of the observations of one check. The newest observation is at {@code head - 1}.
+     */
+    private static class CheckHistory {
+
+        private final byte[] statusValues;
+        private final long[] timestamps;
+        private int head;
+        private int size;
+
+        CheckHistory(int capacity) {
+            statusValues = new byte[capacity];
+            timestamps = new long[capacity];
+        }
+
+        synchronized void add(HealthStatus status, long timestampMillis) {
+            statusValues[head] = (byte) status.getValue();
+            timestamps[head] = timestampMillis;
+            head = (head + 1) % statusValues.length;
+            if (size < statusValues.length) {
+                size++;
+            }
+        }
+
+        synchronized @Nullable HealthStatus latest() {
+            return size == 0 ? null : HealthStatus.fromValueOrNull(statusValues[indexOf(0)]);
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized int transitionsSince(long sinceMillis) {
+            var transitions = 0;
+
+            // Compare each observation in the window with the one before it, from newest to oldest
+            for (var age = 0; age < size - 1; age++) {
+                var index = indexOf(age);
+                if (timestamps[index] < sinceMillis) {
+                    break;
+                }
+
+                if (statusValues[index] != statusValues[indexOf(age + 1)]) {
+                    transitions++;
+                }
+            }
+
+            return transitions;
+        }
+
+        synchronized void forEach(ObservationConsumer consumer) {
+            for (var age = 0; age < size; age++) {
+                var index = indexOf(age);
+                consumer.accept(HealthStatus.fromValueOrNull(statusValues[index]), timestamps[index]);
+            }
+        }
+
+        // The index of the observation that is the given number of observations older than the newest one
+        private int indexOf(int age) {
+            var index = head - 1 - age;
+            return index < 0 ? index + statusValues.length : index;
+        }
+    }
+
+    /**
+     * Builder for {@link HealthStatusHistory}.
+     */
+    public static class Builder {
+
+        private int capacity = DEFAULT_CAPACITY;
+        private Duration flapWindow = DEFAULT_FLAP_WINDOW;
+        private int flapThreshold = DEFAULT_FLAP_THRESHOLD;
+        private LongSupplier currentTimeMillis = System::currentTimeMillis;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the maximum number of observations retained per check. Older observations are discarded.
+         *
+         * @param capacity the number of observations, which must be at least 2 to detect changes
+         * @return this builder
+         */
+        public Builder capacity(int capacity) {
+            checkArgument(capacity >= 2, "capacity must be at least 2");
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Set the window used to detect flapping checks.
+         *
+         * @param flapWindow the window, which must be positive
+         * @return this builder
+         */
+        public Builder flapWindow(Duration flapWindow) {
+            checkArgumentNotNull(flapWindow, "flapWindow cannot be null");
+            checkArgument(!flapWindow.isNegative() && !flapWindow.isZero(), "flapWindow must be positive");
+            this.flapWindow = flapWindow;
+            return this;
+        }
+
+        /**
+         * Set the number of status changes within the flap window at which a check is considered to be flapping.
+         *
+         * @param flapThreshold the number of changes, which must be positive
+         * @return this builder
+         */
+        public Builder flapThreshold(int flapThreshold) {
+            checkArgument(flapThreshold > 0, "flapThreshold must be positive");
+            this.flapThreshold = flapThreshold;
+            return this;
+        }
+
+        // Visible for testing
+        Builder currentTimeMillis(LongSupplier currentTimeMillis) {
+            this.currentTimeMillis = checkArgumentNotNull(currentTimeMillis, "currentTimeMillis cannot be null");
+            return this;
+        }
+
+        /**
+         * Build a new history.
+         *
+         * @return a new history
+         * @throws IllegalArgumentException if the flap threshold is not less than the capacity, since a history
+         *                                  with that capacity cannot contain enough changes to reach the threshold
+         */
+        public HealthStatusHistory build() {
+            checkArgument(flapThreshold < capacity, "flapThreshold must be less than capacity");
+            return new HealthStatusHistory(this);
+        }
+    }
+}
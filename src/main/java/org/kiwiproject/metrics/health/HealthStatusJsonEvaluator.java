@@ -0,0 +1,360 @@
+package org.kiwiproject.metrics.health;
+
+import static java.util.Objects.checkFromIndexSize;
+import static java.util.Objects.isNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+import static org.kiwiproject.metrics.health.HealthCheckResults.SEVERITY_DETAIL;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import lombok.experimental.UtilityClass;
+import org.jspecify.annotations.Nullable;
+import org.kiwiproject.metrics.health.HealthStatusDiagnostics.Anomaly;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Map;
+
+/**
+ * Determines the overall {@link HealthStatus} of a service instance directly from the JSON returned by its
+ * {@code healthcheck} endpoint, without first deserializing it into a map of maps.
+ * <p>
+ * The same rules as {@link HealthStatus#from(Map)} are applied, but only the {@code healthy} and {@code severity}
+ * fields of each health check result are read. All other fields, including large nested details, are skipped
+ * without being materialized, and evaluation stops as soon as a {@link HealthStatus#FATAL} check is found.
+ * <p>
+ * Anomalies in the JSON are counted in {@link HealthStatusDiagnostics} in the same way as by
+ * {@link HealthStatus#from(Map)}, i.e., in the shared diagnostics under the name of each check, unless a source and
+ * diagnostics are supplied. JSON that is not well-formed is counted as {@link Anomaly#MALFORMED_JSON} under the
+ * source, or under {@link HealthStatusDiagnostics#UNKNOWN_SOURCE} if there is none, rather than logged.
+ *
+ * @implNote This class requires {@code jackson-core}, which is an optional dependency of this library.
+ */
+@UtilityClass
+public class HealthStatusJsonEvaluator {
+
+    private static final String HEALTHY_FIELD = "healthy";
+
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    /**
+     * Determine the overall health status from the given UTF-8 encoded JSON.
+     *
+     * @param json the health check JSON
+     * @return the most appropriate {@link HealthStatus}
+     * @see #evaluate(byte[], int, int)
+     */
+    public static HealthStatus evaluate(byte[] json) {
+        checkJson(json);
+        return evaluate(json, 0, json.length);
+    }
+
+    /**
+     * Determine the overall health status from the given range of UTF-8 encoded JSON.
+     *
+     * @param json   the array containing the health check JSON
+     * @param offset the offset of the JSON in the array
+     * @param length the length of the JSON in bytes
+     * @return the most appropriate {@link HealthStatus}; {@link HealthStatus#CRITICAL} if the JSON is not
+     * well-formed, is not an object, or contains no health check results
+     * @throws IllegalArgumentException if json is null
+     * @throws IndexOutOfBoundsException if the offset and length do not specify a valid range in the array
+     */
+    public static HealthStatus evaluate(byte[] json, int offset, int length) {
+        checkJson(json);
+        checkFromIndexSize(offset, length, json.length);
+        return evaluate(() -> JSON_FACTORY.createParser(json, offset, length), HealthStatusDiagnostics.shared(), null);
+    }
+
+    /**
+     * Determine the overall health status from the given range of UTF-8 encoded JSON, counting any anomalies under
+     * the given source in the given diagnostics.
+     *
+     * @param json        the array containing the health check JSON
+     * @param offset      the offset of the JSON in the array
+     * @param length      the length of the JSON in bytes
+     * @param source      the source of the JSON, e.g., the name of the service or instance that sent it
+     * @param diagnostics the diagnostics in which to count anomalies
+     * @return the most appropriate {@link HealthStatus}
+     * @throws IllegalArgumentException  if json or diagnostics is null, or source is blank
+     * @throws IndexOutOfBoundsException if the offset and length do not specify a valid range in the array
+     */
+    public static HealthStatus evaluate(byte[] json,
+                                        int offset,
+                                        int length,
+                                        String source,
+                                        HealthStatusDiagnostics diagnostics) {
+        checkJson(json);
+        checkFromIndexSize(offset, length, json.length);
+        checkSourceAndDiagnostics(source, diagnostics);
+        return evaluate(() -> JSON_FACTORY.createParser(json, offset, length), diagnostics, source);
+    }
+
+    /**
+     * Determine the overall health status from the given UTF-8 encoded JSON, counting any anomalies under the given
+     * source in the given diagnostics.
+     *
+     * @param json        the health check JSON
+     * @param source      the source of the JSON, e.g., the name of the service or instance that sent it
+     * @param diagnostics the diagnostics in which to count anomalies
+     * @return the most appropriate {@link HealthStatus}
+     * @throws IllegalArgumentException if json or diagnostics is null, or source is blank
+     * @see HealthStatus#from(Map, String, HealthStatusDiagnostics)
+     */
+    public static HealthStatus evaluate(byte[] json, String source, HealthStatusDiagnostics diagnostics) {
+        checkJson(json);
+        checkSourceAndDiagnostics(source, diagnostics);
+        return evaluate(() -> JSON_FACTORY.createParser(json), diagnostics, source);
+    }
+
+    /**
+     * Determine the overall health status from the UTF-8 encoded JSON between the buffer's position and limit.
+     * <p>
+     * The buffer's position, limit, and mark are not modified.
+     *
+     * @param json the buffer containing the health check JSON
+     * @return the most appropriate {@link HealthStatus}; {@link HealthStatus#CRITICAL} if the JSON is not
+     * well-formed, is not an object, or contains no health check results
+     * @throws IllegalArgumentException if json is null
+     */
+    public static HealthStatus evaluate(ByteBuffer json) {
+        checkJson(json);
+        return evaluate(json, HealthStatusDiagnostics.shared(), null);
+    }
+
+    /**
+     * Determine the overall health status from the UTF-8 encoded JSON between the buffer's position and limit,
+     * counting any anomalies under the given source in the given diagnostics.
+     * <p>
+     * The buffer's position, limit, and mark are not modified.
+     *
+     * @param json        the buffer containing the health check JSON
+     * @param source      the source of the JSON, e.g., the name of the service or instance that sent it
+     * @param diagnostics the diagnostics in which to count anomalies
+     * @return the most appropriate {@link HealthStatus}
+     * @throws IllegalArgumentException if json or diagnostics is null, or source is blank
+     */
+    public static HealthStatus evaluate(ByteBuffer json, String source, HealthStatusDiagnostics diagnostics) {
+        checkJson(json);
+        checkSourceAndDiagnostics(source, diagnostics);
+        return evaluate(json, diagnostics, source);
+    }
+
+    private static HealthStatus evaluate(ByteBuffer json,
+                                         HealthStatusDiagnostics diagnostics,
+                                         @Nullable String source) {
+        if (json.hasArray()) {
+            var array = json.array();
+            var offset = json.arrayOffset() + json.position();
+            var length = json.remaining();
+            return evaluate(() -> JSON_FACTORY.createParser(array, offset, length), diagnostics, source);
+        }
+
+        var stream = new ByteBufferInputStream(json.duplicate());
+        return evaluate(() -> JSON_FACTORY.createParser(stream), diagnostics, source);
+    }
+
+    /**
+     * Determine the overall health status from JSON read from the given stream.
+     * <p>
+     * The stream is not closed, and if evaluation stops early, it will not have been read to the end.
+     *
+     * @param json the stream containing the health check JSON
+     * @return the most appropriate {@link HealthStatus}; {@link HealthStatus#CRITICAL} if the JSON is not
+     * well-formed, is not an object, or contains no health check results
+     * @throws IllegalArgumentException if json is null
+     * @throws UncheckedIOException if an I/O error occurs reading from the stream
+     */
+    public static HealthStatus evaluate(InputStream json) {
+        checkJson(json);
+        return evaluate(() -> JSON_FACTORY.createParser(json), HealthStatusDiagnostics.shared(), null);
+    }
+
+    /**
+     * Determine the overall health status from JSON read from the given stream, counting any anomalies under the
+     * given source in the given diagnostics.
+     * <p>
+     * The stream is not closed, and if evaluation stops early, it will not have been read to the end.
+     *
+     * @param json        the stream containing the health check JSON
+     * @param source      the source of the JSON, e.g., the name of the service or instance that sent it
+     * @param diagnostics the diagnostics in which to count anomalies
+     * @return the most appropriate {@link HealthStatus}
+     * @throws IllegalArgumentException if json or diagnostics is null, or source is blank
+     * @throws UncheckedIOException if an I/O error occurs reading from the stream
+     */
+    public static HealthStatus evaluate(InputStream json, String source, HealthStatusDiagnostics diagnostics) {
+        checkJson(json);
+        checkSourceAndDiagnostics(source, diagnostics);
+        return evaluate(() -> JSON_FACTORY.createParser(json), diagnostics, source);
+    }
+
+    private static void checkJson(Object json) {
+        checkArgumentNotNull(json, "json cannot be null");
+    }
+
+    private static void checkSourceAndDiagnostics(String source, HealthStatusDiagnostics diagnostics) {
+        checkArgumentNotBlank(source, "source must not be blank");
+        checkArgumentNotNull(diagnostics, "diagnostics must not be null");
+    }
+
+    @FunctionalInterface
+    private interface ParserFactory {
+        JsonParser create() throws IOException;
+    }
+
+    /**
+     * Anomalies are counted under the source if there is one, otherwise under the name of each check, or under the
+     * unknown source if the JSON is not well-formed.
+     */
+    private static HealthStatus evaluate(ParserFactory parserFactory,
+                                         HealthStatusDiagnostics diagnostics,
+                                         @Nullable String source) {
+        try (var parser = parserFactory.create()) {
+            return evaluate(parser, diagnostics, source);
+        } catch (JsonProcessingException e) {
+            diagnostics.record(Anomaly.MALFORMED_JSON, source);
+            return HealthStatus.CRITICAL;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static HealthStatus evaluate(JsonParser parser,
+                                         HealthStatusDiagnostics diagnostics,
+                                         @Nullable String source) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return HealthStatus.CRITICAL;
+        }
+
+        HealthStatus highest = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var name = parser.currentName();
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                // Ignore anything that is not a health check result, as HealthStatus.from(Map) does
+                parser.skipChildren();
+                continue;
+            }
+
+            var checkStatus = evaluateCheck(parser, diagnostics, isNull(source) ? name : source);
+            if (isNull(highest) || checkStatus.getValue() > highest.getValue()) {
+                highest = checkStatus;
+            }
+
+            if (highest == HealthStatus.FATAL) {
+                return highest;
+            }
+        }
+
+        return isNull(highest) ? HealthStatus.CRITICAL : highest;
+    }
+
+    private static HealthStatus evaluateCheck(JsonParser parser,
+                                              HealthStatusDiagnostics diagnostics,
+                                              String source) throws IOException {
+        var healthy = false;
+        HealthStatus severity = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var fieldName = parser.currentName();
+            var token = parser.nextToken();
+
+            if (HEALTHY_FIELD.equals(fieldName)) {
+                healthy = isHealthy(parser, token, diagnostics, source);
+            } else if (SEVERITY_DETAIL.equals(fieldName)) {
+                severity = severityOf(parser, token, diagnostics, source);
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return HealthStatus.determineOverallStatus(healthy, severity, diagnostics, source);
+    }
+
+    // Mirrors HealthStatus.from(Map), which parses the toString() of the healthy value
+    private static boolean isHealthy(JsonParser parser,
+                                     JsonToken token,
+                                     HealthStatusDiagnostics diagnostics,
+                                     String source) throws IOException {
+        return switch (token) {
+            case VALUE_TRUE -> true;
+            case VALUE_FALSE -> false;
+            case VALUE_STRING -> {
+                diagnostics.record(Anomaly.NON_BOOLEAN_HEALTHY, source);
+                yield Boolean.parseBoolean(parser.getText());
+            }
+            default -> {
+                diagnostics.record(Anomaly.NON_BOOLEAN_HEALTHY, source);
+                parser.skipChildren();
+                yield false;
+            }
+        };
+    }
+
+    // Mirrors HealthStatus.from(Map): a severity that is present but null, not a string, or invalid is WARN
+    private static HealthStatus severityOf(JsonParser parser,
+                                           JsonToken token,
+                                           HealthStatusDiagnostics diagnostics,
+                                           String source) throws IOException {
+        if (token != JsonToken.VALUE_STRING) {
+            diagnostics.record(Anomaly.NON_STRING_SEVERITY, source);
+            parser.skipChildren();
+            return HealthStatus.WARN;
+        }
+
+        // Match against the parser's own buffer so that valid severities do not need a String
+        var text = CharBuffer.wrap(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+        var status = HealthStatusParser.parse(text, false);
+        if (isNull(status)) {
+            diagnostics.record(Anomaly.INVALID_SEVERITY, source);
+            return HealthStatus.WARN;
+        }
+        return status;
+    }
+
+    /**
+     * Minimal InputStream over a (direct) ByteBuffer, which reads from the buffer it is given.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? (buffer.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            var count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.kiwiproject.metrics.health;
+
+import lombok.experimental.UtilityClass;
+import org.jspecify.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Parses {@link HealthStatus} names from characters or (ASCII or UTF-8) bytes without creating strings or
+ * throwing exceptions.
+ * <p>
+ * Only the lengths and characters of the (few) constant names are compared, so the cost does not depend on the
+ * length of the input, and invalid input is as cheap as valid input.
+ *
+ * @implNote Case-insensitive matching folds ASCII letters only, which is sufficient since all the constant names
+ * are ASCII. Case-insensitive parsing also ignores leading and trailing whitespace.
+ */
+@UtilityClass
+class HealthStatusParser {
+
+    private static final HealthStatus[] STATUSES = HealthStatus.values();
+    private static final byte[][] NAMES = newNames();
+
+    private static byte[][] newNames() {
+        var names = new byte[STATUSES.length][];
+        for (var status : STATUSES) {
+            var name = status.name();
+            var bytes = new byte[name.length()];
+            for (var i = 0; i < name.length(); i++) {
+                bytes[i] = (byte) name.charAt(i);
+            }
+            names[status.ordinal()] = bytes;
+        }
+        return names;
+    }
+
+    static @Nullable HealthStatus parse(CharSequence value, boolean ignoreCase) {
+        var start = 0;
+        var end = value.length();
+        if (ignoreCase) {
+            while (start < end && isWhitespace(value.charAt(start))) {
+                start++;
+            }
+            while (end > start && isWhitespace(value.charAt(end - 1))) {
+                end--;
+            }
+        }
+
+        for (var status : STATUSES) {
+            var name = NAMES[status.ordinal()];
+            if (name.length == end - start && matches(name, value, start, ignoreCase)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(byte[] name, CharSequence value, int start, boolean ignoreCase) {
+        for (var i = 0; i < name.length; i++) {
+            var c = value.charAt(start + i);
+            if (name[i] != (ignoreCase ? toUpperCaseAscii(c) : c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static @Nullable HealthStatus parseIgnoreCase(byte[] bytes, int offset, int length) {
+        var start = offset;
+        var end = offset + length;
+        while (start < end && isWhitespace(bytes[start])) {
+            start++;
+        }
+        while (end > start && isWhitespace(bytes[end - 1])) {
+            end--;
+        }
+
+        for (var status : STATUSES) {
+            var name = NAMES[status.ordinal()];
+            if (name.length == end - start && matchesIgnoreCase(name, bytes, start)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matchesIgnoreCase(byte[] name, byte[] bytes, int start) {
+        for (var i = 0; i < name.length; i++) {
+            if (name[i] != toUpperCaseAscii(bytes[start + i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static @Nullable HealthStatus parseIgnoreCase(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return parseIgnoreCase(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+
+        var start = buffer.position();
+        var end = buffer.limit();
+        while (start < end && isWhitespace(buffer.get(start))) {
+            start++;
+        }
+        while (end > start && isWhitespace(buffer.get(end - 1))) {
+            end--;
+        }
+
+        for (var status : STATUSES) {
+            var name = NAMES[status.ordinal()];
+            if (name.length == end - start && matchesIgnoreCase(name, buffer, start)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matchesIgnoreCase(byte[] name, ByteBuffer buffer, int start) {
+        for (var i = 0; i < name.length; i++) {
+            if (name[i] != toUpperCaseAscii(buffer.get(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int toUpperCaseAscii(int c) {
+        return (c >= 'a' && c <= 'z') ? (c - ('a' - 'A')) : c;
+    }
+
+    private static boolean isWhitespace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f' || c == 0x0B;
+    }
+}
@@ -0,0 +1,247 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkState;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.StringJoiner;
+
+/**
+ * An immutable set of {@link HealthStatus} values backed by a single {@code int} bitmask.
+ * <p>
+ * Each status is represented by the bit at the position of its {@link HealthStatus#getValue() value}, so finding
+ * the highest or lowest severity in the set is a single {@link Integer#numberOfLeadingZeros(int)} or
+ * {@link Integer#numberOfTrailingZeros(int)} call.
+ * <p>
+ * Since there are only a few possible sets, every instance is canonical and shared, so none of the operations
+ * allocate. To store many sets compactly (e.g., one per service instance), store the {@link #bits()} as an
+ * {@code int} and convert back using {@link #fromBits(int)}.
+ */
+public final class HealthStatusSet {
+
+    private static final int ALL_BITS = allBits();
+    private static final HealthStatusSet[] INSTANCES = newInstances();
+    private static final HealthStatusSet EMPTY = INSTANCES[0];
+
+    private final int bits;
+
+    private HealthStatusSet(int bits) {
+        this.bits = bits;
+    }
+
+    private static int allBits() {
+        var bits = 0;
+        for (var status : HealthStatus.values()) {
+            bits |= bitOf(status);
+        }
+        return bits;
+    }
+
+    private static HealthStatusSet[] newInstances() {
+        var instances = new HealthStatusSet[1 << (HealthStatus.maxValue() + 1)];
+        for (var bits = 0; bits < instances.length; bits++) {
+            if ((bits & ~ALL_BITS) == 0) {
+                instances[bits] = new HealthStatusSet(bits);
+            }
+        }
+        return instances;
+    }
+
+    /**
+     * Return the bit that represents the given status.
+     *
+     * @param status the status
+     * @return an int with only the bit for the status set
+     */
+    public static int bitOf(HealthStatus status) {
+        checkArgumentNotNull(status, "status cannot be null");
+        return 1 << status.getValue();
+    }
+
+    /**
+     * Return the empty set.
+     *
+     * @return the empty set
+     */
+    public static HealthStatusSet empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Return the set containing the given statuses.
+     *
+     * @param statuses the statuses
+     * @return the set
+     */
+    public static HealthStatusSet of(HealthStatus... statuses) {
+        checkArgumentNotNull(statuses, "statuses cannot be null");
+
+        var bits = 0;
+        for (var status : statuses) {
+            bits |= bitOf(status);
+        }
+        return INSTANCES[bits];
+    }
+
+    /**
+     * Return the set containing the given statuses.
+     *
+     * @param statuses the statuses
+     * @return the set
+     */
+    public static HealthStatusSet of(Collection<HealthStatus> statuses) {
+        checkArgumentNotNull(statuses, "statuses cannot be null");
+
+        var bits = 0;
+        for (var status : statuses) {
+            bits |= bitOf(status);
+        }
+        return INSTANCES[bits];
+    }
+
+    /**
+     * Return the set represented by the given bits, e.g., from a previous call to {@link #bits()}.
+     *
+     * @param bits the bitmask
+     * @return the set
+     * @throws IllegalArgumentException if any bit does not represent a {@link HealthStatus}
+     */
+    public static HealthStatusSet fromBits(int bits) {
+        if ((bits & ~ALL_BITS) != 0) {
+            throw new IllegalArgumentException(
+                    "bits contain invalid HealthStatus bits: " + Integer.toBinaryString(bits));
+        }
+        return INSTANCES[bits];
+    }
+
+    /**
+     * Return the bitmask that represents this set.
+     *
+     * @return the bits
+     */
+    public int bits() {
+        return bits;
+    }
+
+    /**
+     * Return a set containing the statuses in this set and the given status.
+     *
+     * @param status the status to add
+     * @return the resulting set
+     */
+    public HealthStatusSet add(HealthStatus status) {
+        return INSTANCES[bits | bitOf(status)];
+    }
+
+    /**
+     * Return a set containing the statuses in this set except the given status.
+     *
+     * @param status the status to remove
+     * @return the resulting set
+     */
+    public HealthStatusSet remove(HealthStatus status) {
+        return INSTANCES[bits & ~bitOf(status)];
+    }
+
+    /**
+     * Return a set containing the statuses in this set and the other set.
+     *
+     * @param other the other set
+     * @return the resulting set
+     */
+    public HealthStatusSet union(HealthStatusSet other) {
+        checkArgumentNotNull(other, "other cannot be null");
+        return INSTANCES[bits | other.bits];
+    }
+
+    /**
+     * Does this set contain the given status?
+     *
+     * @param status the status
+     * @return true if the set contains the status, otherwise false
+     */
+    public boolean contains(HealthStatus status) {
+        return (bits & bitOf(status)) != 0;
+    }
+
+    /**
+     * Is this set empty?
+     *
+     * @return true if the set is empty, otherwise false
+     */
+    public boolean isEmpty() {
+        return bits == 0;
+    }
+
+    /**
+     * Return the number of statuses in this set.
+     *
+     * @return the size
+     */
+    public int size() {
+        return Integer.bitCount(bits);
+    }
+
+    /**
+     * Return the highest severity in this set.
+     *
+     * @return the highest severity
+     * @throws IllegalStateException if this set is empty
+     */
+    public HealthStatus highest() {
+        checkNotEmpty();
+        return HealthStatus.fromValueOrNull(Integer.SIZE - 1 - Integer.numberOfLeadingZeros(bits));
+    }
+
+    /**
+     * Return the lowest severity in this set.
+     *
+     * @return the lowest severity
+     * @throws IllegalStateException if this set is empty
+     */
+    public HealthStatus lowest() {
+        checkNotEmpty();
+        return HealthStatus.fromValueOrNull(Integer.numberOfTrailingZeros(bits));
+    }
+
+    private void checkNotEmpty() {
+        checkState(bits != 0, "set is empty");
+    }
+
+    /**
+     * Return the statuses in this set as a new {@link EnumSet}.
+     *
+     * @return a new EnumSet
+     */
+    public EnumSet<HealthStatus> toEnumSet() {
+        var statuses = EnumSet.noneOf(HealthStatus.class);
+        for (var status : HealthStatus.values()) {
+            if (contains(status)) {
+                statuses.add(status);
+            }
+        }
+        return statuses;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof HealthStatusSet other && bits == other.bits;
+    }
+
+    @Override
+    public int hashCode() {
+        return bits;
+    }
+
+    @Override
+    public String toString() {
+        var joiner = new StringJoiner(", ", "[", "]");
+        for (var status : HealthStatus.values()) {
+            if (contains(status)) {
+                joiner.add(status.name());
+            }
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,287 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.jspecify.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Smooths the statuses reported for health checks, so that brief blips do not cause alert storms or make load
+ * balancers eject and re-add instances.
+ * <p>
+ * The first observed status of a check is reported as-is. After that, a different status is only reported once
+ * the raw statuses have been consistently higher (escalation) or lower (recovery) than the reported status for
+ * either a number of consecutive observations or a minimum dwell time, whichever comes first. Escalation and
+ * recovery have separate thresholds, so that, for example, a check can escalate quickly but recover slowly.
+ * <p>
+ * When a change is reported, the new status is the least extreme status observed during the streak, i.e., the
+ * lowest status for an escalation and the highest for a recovery, since the check was consistently at least
+ * (or at most) that status. Observing the reported status again ends the streak.
+ * <p>
+ * The default thresholds escalate after 2 consecutive observations and recover after 3, without dwell times.
+ *
+ * @implNote The state of each check is packed into a single {@code long}: the reported status, the least extreme
+ * status of the current streak, the length of the streak, and when the streak started (in milliseconds since this
+ * smoother was created). Observations update it with a compare-and-set loop, so concurrent observations of the same
+ * check are safe and never block.
+ */
+public class HealthStatusSmoother {
+
+    /**
+     * The maximum number of consecutive observations that can be required.
+     */
+    public static final int MAX_OBSERVATIONS = 0xFFFF;
+
+    private static final long NO_DWELL = Long.MAX_VALUE;
+
+    private static final int STATUS_BITS = 4;
+    private static final long STATUS_MASK = (1L << STATUS_BITS) - 1;
+    private static final int BOUND_SHIFT = STATUS_BITS;
+    private static final int COUNT_SHIFT = 2 * STATUS_BITS;
+    private static final long COUNT_MASK = MAX_OBSERVATIONS;
+    private static final int START_SHIFT = COUNT_SHIFT + 16;
+
+    private final int escalationObservations;
+    private final long escalationDwellMillis;
+    private final int recoveryObservations;
+    private final long recoveryDwellMillis;
+    private final LongSupplier nanoTime;
+    private final long originNanos;
+    private final ConcurrentMap<String, AtomicLong> states = new ConcurrentHashMap<>();
+
+    private HealthStatusSmoother(Builder builder) {
+        this.escalationObservations = builder.escalationObservations;
+        this.escalationDwellMillis = dwellMillis(builder.escalationDwell);
+        this.recoveryObservations = builder.recoveryObservations;
+        this.recoveryDwellMillis = dwellMillis(builder.recoveryDwell);
+        this.nanoTime = builder.nanoTime;
+        this.originNanos = nanoTime.getAsLong();
+    }
+
+    private static long dwellMillis(@Nullable Duration dwell) {
+        return isNull(dwell) ? NO_DWELL : dwell.toMillis();
+    }
+
+    /**
+     * Create a smoother with the default thresholds.
+     *
+     * @return a new smoother
+     */
+    public static HealthStatusSmoother of() {
+        return builder().build();
+    }
+
+    /**
+     * Create a builder for a smoother.
+     *
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Observe the result of a check and return the status to report for it.
+     *
+     * @param checkName the name of the check
+     * @param result    the latest result of the check
+     * @return the smoothed status of the check
+     * @see HealthCheckResults#statusOf(HealthCheck.Result)
+     */
+    public HealthStatus observe(String checkName, HealthCheck.Result result) {
+        checkArgumentNotNull(result, "result cannot be null");
+        return observe(checkName, HealthCheckResults.statusOf(result));
+    }
+
+    /**
+     * Observe the raw status of a check and return the status to report for it.
+     *
+     * @param checkName the name of the check
+     * @param status    the latest raw status of the check
+     * @return the smoothed status of the check
+     */
+    public HealthStatus observe(String checkName, HealthStatus status) {
+        checkArgumentNotBlank(checkName, "checkName must not be blank");
+        checkArgumentNotNull(status, "status cannot be null");
+
+        var state = states.computeIfAbsent(checkName, name -> new AtomicLong());
+        var nowMillis = TimeUnit.NANOSECONDS.toMillis(nanoTime.getAsLong() - originNanos);
+        var value = status.getValue();
+
+        while (true) {
+            var current = state.get();
+            var next = nextState(current, value, nowMillis);
+            if (state.compareAndSet(current, next)) {
+                return HealthStatus.fromValueOrNull(reportedOf(next));
+            }
+        }
+    }
+
+    private long nextState(long current, int value, long nowMillis) {
+        var reported = reportedOf(current);
+        if (reported == 0 || value == reported) {
+            return pack(value, 0, 0, 0);
+        }
+
+        var escalating = value > reported;
+        var count = countOf(current);
+        var bound = boundOf(current);
+        var startMillis = startOf(current);
+
+        if (count > 0 && (bound > reported) == escalating) {
+            count = Math.min(count + 1, MAX_OBSERVATIONS);
+            bound = escalating ? Math.min(bound, value) : Math.max(bound, value);
+        } else {
+            count = 1;
+            bound = value;
+            startMillis = nowMillis;
+        }
+
+        var requiredObservations = escalating ? escalationObservations : recoveryObservations;
+        var dwellMillis = escalating ? escalationDwellMillis : recoveryDwellMillis;
+        if (count >= requiredObservations || nowMillis - startMillis >= dwellMillis) {
+            return pack(bound, 0, 0, 0);
+        }
+
+        return pack(reported, bound, count, startMillis);
+    }
+
+    private static long pack(int reported, int bound, int count, long startMillis) {
+        return reported | ((long) bound << BOUND_SHIFT) | ((long) count << COUNT_SHIFT) | (startMillis << START_SHIFT);
+    }
+
+    private static int reportedOf(long state) {
+        return (int) (state & STATUS_MASK);
+    }
+
+    private static int boundOf(long state) {
+        return (int) ((state >>> BOUND_SHIFT) & STATUS_MASK);
+    }
+
+    private static int countOf(long state) {
+        return (int) ((state >>> COUNT_SHIFT) & COUNT_MASK);
+    }
+
+    private static long startOf(long state) {
+        return state >>> START_SHIFT;
+    }
+
+    /**
+     * Get the status currently reported for a check, without observing a new status.
+     *
+     * @param checkName the name of the check
+     * @return the smoothed status, or null if the check has not been observed
+     */
+    public @Nullable HealthStatus reportedStatus(String checkName) {
+        var state = states.get(checkName);
+        return isNull(state) ? null : HealthStatus.fromValueOrNull(reportedOf(state.get()));
+    }
+
+    /**
+     * Discard the state of a check, e.g., because it was unregistered. The next observation of the check is
+     * reported as-is.
+     *
+     * @param checkName the name of the check
+     */
+    public void remove(String checkName) {
+        states.remove(checkName);
+    }
+
+    /**
+     * Builder for {@link HealthStatusSmoother}.
+     */
+    public static class Builder {
+
+        private int escalationObservations = 2;
+        private Duration escalationDwell;
+        private int recoveryObservations = 3;
+        private Duration recoveryDwell;
+        private LongSupplier nanoTime = System::nanoTime;
+
+        private Builder() {
+        }
+
+        /**
+         * Set the number of consecutive higher statuses after which a check escalates.
+         *
+         * @param observations the number of observations, from 1 (no smoothing) to {@link #MAX_OBSERVATIONS}
+         * @return this builder
+         */
+        public Builder escalationObservations(int observations) {
+            this.escalationObservations = checkObservations(observations);
+            return this;
+        }
+
+        /**
+         * Set how long a check must consistently have higher statuses before it escalates, even if there were
+         * fewer than the escalation number of observations. By default, there is no dwell time.
+         *
+         * @param dwell the dwell time, which must not be negative
+         * @return this builder
+         */
+        public Builder escalationDwell(Duration dwell) {
+            this.escalationDwell = checkDwell(dwell);
+            return this;
+        }
+
+        /**
+         * Set the number of consecutive lower statuses after which a check recovers.
+         *
+         * @param observations the number of observations, from 1 (no smoothing) to {@link #MAX_OBSERVATIONS}
+         * @return this builder
+         */
+        public Builder recoveryObservations(int observations) {
+            this.recoveryObservations = checkObservations(observations);
+            return this;
+        }
+
+        /**
+         * Set how long a check must consistently have lower statuses before it recovers, even if there were
+         * fewer than the recovery number of observations. By default, there is no dwell time.
+         *
+         * @param dwell the dwell time, which must not be negative
+         * @return this builder
+         */
+        public Builder recoveryDwell(Duration dwell) {
+            this.recoveryDwell = checkDwell(dwell);
+            return this;
+        }
+
+        private static int checkObservations(int observations) {
+            checkArgument(observations >= 1 && observations <= MAX_OBSERVATIONS,
+                    "observations must be between 1 and %s", MAX_OBSERVATIONS);
+            return observations;
+        }
+
+        private static Duration checkDwell(Duration dwell) {
+            checkArgumentNotNull(dwell, "dwell cannot be null");
+            checkArgument(!dwell.isNegative(), "dwell must not be negative");
+            return dwell;
+        }
+
+        // Visible for testing
+        Builder nanoTime(LongSupplier nanoTime) {
+            this.nanoTime = checkArgumentNotNull(nanoTime, "nanoTime cannot be null");
+            return this;
+        }
+
+        /**
+         * Build a new smoother.
+         *
+         * @return a new smoother
+         */
+        public HealthStatusSmoother build() {
+            return new HealthStatusSmoother(this);
+        }
+    }
+}
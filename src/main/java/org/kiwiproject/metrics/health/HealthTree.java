@@ -0,0 +1,365 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A tree of health statuses, in which each leaf is a health check and each internal node is a grouping such as a
+ * group of checks, a service instance, a service, or a region. Nodes are identified by their path from the root,
+ * e.g., {@code ["us-east", "orders", "instance-1", "database"]}; the root has the empty path.
+ * <p>
+ * The status of an internal node is derived from the statuses of its children by an {@link AggregationPolicy},
+ * which is applied at every level of the tree and {@link AggregationPolicy#weight(List) weights} each child by its
+ * path (by default, by its name, so weights by name apply at every level). An internal node whose children all
+ * have weight zero has status {@link HealthStatus#OK}, so excluding the children of a node does not make it
+ * unhealthy. The default policy is {@link AggregationPolicy#maxSeverity()}, i.e., the highest severity of its
+ * children, consistent with {@link HealthCheckResults#overallStatus(Map)}; in that case the root has status
+ * {@link HealthStatus#CRITICAL} when the tree is empty. Internal nodes are created when a leaf below them is first
+ * updated, and are removed when their last child is removed.
+ * <p>
+ * Updates are incremental. Each internal node keeps the total weight of its children at each severity, so a change
+ * to a leaf updates its parent in constant time, and propagation stops at the first ancestor whose status does not
+ * change.
+ * An update therefore costs at most O(depth), regardless of how many nodes the tree has.
+ * <p>
+ * Listeners can subscribe to status changes of any node by its path, including nodes that do not exist yet.
+ * After each update, every subscribed node whose status changed is notified, from the leaf upwards. Listeners are
+ * called on the updating thread while the tree is locked, so they must be fast and must not update the tree.
+ * <p>
+ * This class is thread-safe.
+ */
+@Slf4j
+public class HealthTree {
+
+    private final AggregationPolicy policy;
+    private final Node root;
+    private final Map<List<String>, List<StatusListener>> listeners = new HashMap<>();
+    private int leafCount;
+
+    /**
+     * Receives status changes of a node in a {@link HealthTree}.
+     */
+    @FunctionalInterface
+    public interface StatusListener {
+
+        /**
+         * Called when the status of a node changed.
+         *
+         * @param path     the path of the node
+         * @param previous the previous status, or null if the node was added
+         * @param current  the new status, or null if the node was removed
+         */
+        void statusChanged(List<String> path, @Nullable HealthStatus previous, @Nullable HealthStatus current);
+    }
+
+    /**
+     * Create an empty tree in which each internal node has the highest severity of its children.
+     */
+    public HealthTree() {
+        this(AggregationPolicy.maxSeverity());
+    }
+
+    /**
+     * Create an empty tree in which the status of each internal node is derived by the given policy.
+     *
+     * @param policy the aggregation policy
+     */
+    public HealthTree(AggregationPolicy policy) {
+        this.policy = checkArgumentNotNull(policy, "policy cannot be null");
+        this.root = new Node(List.of(), null);
+        this.root.status = root.computeStatus(policy);
+    }
+
+    /**
+     * Set the status of a leaf, adding it and any missing ancestors if they do not exist.
+     *
+     * @param path   the path of the leaf, which must not be empty
+     * @param status the status of the leaf
+     * @return the status of the root after the update
+     * @throws IllegalArgumentException if the path (or part of it) is an internal node, or passes through a leaf
+     */
+    public synchronized HealthStatus update(List<String> path, HealthStatus status) {
+        checkPath(path);
+        checkArgument(!path.isEmpty(), "path must not be empty");
+        checkArgumentNotNull(status, "status cannot be null");
+
+        var node = root;
+        for (var i = 0; i < path.size(); i++) {
+            var name = path.get(i);
+            var child = node.children.get(name);
+            if (isNull(child)) {
+                checkArgument(!node.isLeaf(), "%s is a leaf and cannot have children", node.path);
+                child = new Node(List.copyOf(path.subList(0, i + 1)), node);
+                node.children.put(name, child);
+                if (i == path.size() - 1) {
+                    child.leaf = true;
+                    leafCount++;
+                }
+            }
+            node = child;
+        }
+        checkArgument(node.isLeaf(), "%s is not a leaf", node.path);
+
+        var previous = node.status;
+        if (previous != status) {
+            node.status = status;
+            var changes = new ArrayList<Node>();
+            recordChange(changes, node, previous);
+            propagate(node, previous, status, changes);
+            notifyListeners(changes);
+        }
+
+        return root.status;
+    }
+
+    /**
+     * Set the status of a leaf from a health check result.
+     *
+     * @param path   the path of the leaf, which must not be empty
+     * @param result the health check result
+     * @return the status of the root after the update
+     * @see HealthCheckResults#statusOf(HealthCheck.Result)
+     */
+    public HealthStatus update(List<String> path, HealthCheck.Result result) {
+        checkArgumentNotNull(result, "result cannot be null");
+        return update(path, HealthCheckResults.statusOf(result));
+    }
+
+    /**
+     * Remove a node and everything below it. Ancestors that have no children left are removed too.
+     *
+     * @param path the path of the node, which must not be empty
+     * @return true if the node existed, otherwise false
+     */
+    public synchronized boolean remove(List<String> path) {
+        checkPath(path);
+        checkArgument(!path.isEmpty(), "path must not be empty");
+
+        var node = find(path);
+        if (isNull(node)) {
+            return false;
+        }
+
+        var changes = new ArrayList<Node>();
+        removeSubtree(node, changes);
+        var parent = node.parent;
+        parent.children.remove(node.name());
+        propagate(node, node.status, null, changes);
+        notifyListeners(changes);
+        return true;
+    }
+
+    private void removeSubtree(Node node, List<Node> changes) {
+        node.children.values().forEach(child -> removeSubtree(child, changes));
+        if (node.isLeaf()) {
+            leafCount--;
+        }
+        recordChange(changes, node, node.status);
+        node.removed = true;
+    }
+
+    /**
+     * Get the status of a node.
+     *
+     * @param path the path of the node; use the empty path for the root
+     * @return the status of the node, or null if it does not exist
+     */
+    public synchronized @Nullable HealthStatus status(List<String> path) {
+        checkPath(path);
+        var node = find(path);
+        return isNull(node) ? null : node.status;
+    }
+
+    /**
+     * Get the status of the root, i.e., of the whole tree.
+     *
+     * @return the aggregate status of the tree, which with the default policy is the highest status of any leaf, or
+     * {@link HealthStatus#CRITICAL} if the tree is empty
+     */
+    public synchronized HealthStatus overallStatus() {
+        return root.status;
+    }
+
+    /**
+     * Get the names of the children of a node.
+     *
+     * @param path the path of the node; use the empty path for the root
+     * @return an unmodifiable copy of the child names, which is empty if the node is a leaf or does not exist
+     */
+    public synchronized Set<String> children(List<String> path) {
+        checkPath(path);
+        var node = find(path);
+        return isNull(node) ? Set.of() : Set.copyOf(node.children.keySet());
+    }
+
+    /**
+     * Get the number of leaves in the tree.
+     *
+     * @return the number of leaves
+     */
+    public synchronized int leafCount() {
+        return leafCount;
+    }
+
+    /**
+     * Subscribe to status changes of a node. The node does not need to exist; the listener is notified when it is
+     * added, when its status changes, and when it is removed.
+     *
+     * @param path     the path of the node; use the empty path for the root
+     * @param listener the listener
+     */
+    public synchronized void subscribe(List<String> path, StatusListener listener) {
+        checkPath(path);
+        checkArgumentNotNull(listener, "listener cannot be null");
+        listeners.computeIfAbsent(List.copyOf(path), key -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Unsubscribe a listener from status changes of a node.
+     *
+     * @param path     the path of the node
+     * @param listener the listener
+     * @return true if the listener was subscribed to the node, otherwise false
+     */
+    public synchronized boolean unsubscribe(List<String> path, StatusListener listener) {
+        checkPath(path);
+        var nodeListeners = listeners.get(path);
+        if (isNull(nodeListeners) || !nodeListeners.remove(listener)) {
+            return false;
+        }
+
+        if (nodeListeners.isEmpty()) {
+            listeners.remove(path);
+        }
+        return true;
+    }
+
+    private @Nullable Node find(List<String> path) {
+        var node = root;
+        for (var name : path) {
+            node = node.children.get(name);
+            if (isNull(node)) {
+                return null;
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Move the weights of the ancestors of {@code node} from {@code from} to {@code to}, stopping at the first
+     * ancestor whose status does not change. A null {@code from} means the node was added, and a null {@code to}
+     * means it was removed.
+     */
+    private void propagate(Node node, @Nullable HealthStatus from, @Nullable HealthStatus to, List<Node> changes) {
+        var child = node;
+        var childFrom = from;
+        var childTo = to;
+        while (nonNull(child.parent) && childFrom != childTo) {
+            var parent = child.parent;
+            var weight = policy.weight(child.path);
+            if (nonNull(childFrom)) {
+                parent.statusWeights[childFrom.ordinal()] -= weight;
+            }
+            if (nonNull(childTo)) {
+                parent.statusWeights[childTo.ordinal()] += weight;
+            }
+
+            var previous = parent.status;
+            parent.status = parent.computeStatus(policy);
+
+            // An internal node (other than the root) with no children left is removed from its parent
+            if (parent.children.isEmpty() && nonNull(parent.parent)) {
+                parent.status = null;
+                parent.removed = true;
+                parent.parent.children.remove(parent.name());
+            }
+
+            if (parent.status == previous) {
+                return;
+            }
+
+            recordChange(changes, parent, previous);
+            child = parent;
+            childFrom = previous;
+            childTo = parent.status;
+        }
+    }
+
+    private void recordChange(List<Node> changes, Node node, @Nullable HealthStatus previous) {
+        if (listeners.containsKey(node.path)) {
+            node.previousStatus = previous;
+            changes.add(node);
+        }
+    }
+
+    private void notifyListeners(List<Node> changes) {
+        for (var node : changes) {
+            var current = node.removed ? null : node.status;
+            for (var listener : listeners.getOrDefault(node.path, List.of())) {
+                try {
+                    listener.statusChanged(node.path, node.previousStatus, current);
+                } catch (Exception e) {
+                    LOG.warn("Health tree listener threw an exception for node {}", node.path, e);
+                }
+            }
+        }
+    }
+
+    private static void checkPath(List<String> path) {
+        checkArgumentNotNull(path, "path cannot be null");
+        path.forEach(name -> checkArgumentNotBlank(name, "path must not contain blank names"));
+    }
+
+    /**
+     * A node of the tree. Only leaves have their status set directly; internal nodes keep the total weight of their
+     * children at each severity (indexed by ordinal), and derive their status from it.
+     */
+    private static class Node {
+
+        private final List<String> path;
+        private final @Nullable Node parent;
+        private final Map<String, Node> children = new HashMap<>();
+        private final long[] statusWeights = new long[HealthStatus.values().length];
+        private @Nullable HealthStatus status;
+        private @Nullable HealthStatus previousStatus;
+        private boolean leaf;
+        private boolean removed;
+
+        Node(List<String> path, @Nullable Node parent) {
+            this.path = path;
+            this.parent = parent;
+        }
+
+        String name() {
+            return path.get(path.size() - 1);
+        }
+
+        boolean isLeaf() {
+            return leaf;
+        }
+
+        HealthStatus computeStatus(AggregationPolicy policy) {
+            return AggregationPolicies.reduce(policy,
+                    children.size(),
+                    statusWeights[HealthStatus.OK.ordinal()],
+                    statusWeights[HealthStatus.INFO.ordinal()],
+                    statusWeights[HealthStatus.WARN.ordinal()],
+                    statusWeights[HealthStatus.CRITICAL.ordinal()],
+                    statusWeights[HealthStatus.FATAL.ordinal()]);
+        }
+    }
+}
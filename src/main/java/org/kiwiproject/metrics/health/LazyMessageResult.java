@@ -0,0 +1,78 @@
+package org.kiwiproject.metrics.health;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import com.codahale.metrics.health.HealthCheck;
+
+import java.util.Objects;
+
+/**
+ * A {@link HealthCheck.Result} whose message is formatted from a template and arguments only when it is first
+ * read (e.g., when the result is serialized), and is then memoized.
+ * <p>
+ * The message is formatted using {@link String#format(String, Object...)}, the same as
+ * {@link HealthCheck.ResultBuilder#withMessage(String, Object...)}. The arguments are captured by reference,
+ * so they must not be mutated after the result is created.
+ */
+final class LazyMessageResult extends HealthCheck.Result {
+
+    private final String messageTemplate;
+    private final Object[] args;
+
+    // Formatting is idempotent and String is immutable, so a racy single check is sufficient
+    private volatile String message;
+
+    LazyMessageResult(HealthCheck.ResultBuilder builder, String messageTemplate, Object[] args) {
+        super(builder);
+        this.messageTemplate = messageTemplate;
+        this.args = args;
+    }
+
+    @Override
+    public String getMessage() {
+        var formatted = message;
+        if (isNull(formatted) && nonNull(messageTemplate)) {
+            formatted = String.format(messageTemplate, args);
+            message = formatted;
+        }
+        return formatted;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof LazyMessageResult other &&
+                super.equals(other) &&
+                Objects.equals(getMessage(), other.getMessage());
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + Objects.hashCode(getMessage());
+    }
+
+    @Override
+    public String toString() {
+        var builder = new StringBuilder("Result{isHealthy=").append(isHealthy());
+
+        var formattedMessage = getMessage();
+        if (nonNull(formattedMessage)) {
+            builder.append(", message=").append(formattedMessage);
+        }
+
+        var error = getError();
+        if (nonNull(error)) {
+            builder.append(", error=").append(error);
+        }
+
+        builder.append(", duration=").append(getDuration())
+                .append(", timestamp=").append(getTimestamp());
+
+        var details = getDetails();
+        if (nonNull(details)) {
+            details.forEach((key, value) -> builder.append(", ").append(key).append('=').append(value));
+        }
+
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,283 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.BYTE_ORDER;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.CAPACITY_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.CHECK_COUNT_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.CLOSED_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.HEADER_SEQUENCE_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.HEADER_SIZE;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.MAGIC;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.MAGIC_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.MAX_CAPACITY;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.MAX_NAME_BYTES;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.MAX_READ_ATTEMPTS;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.OVERALL_STATUS_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_HEALTHY_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_NAME_LENGTH_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_NAME_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_SEQUENCE_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_SIZE;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_SIZE_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_STATUS_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.UPDATED_AT_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.VERSION;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.VERSION_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.beginRead;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.fileSize;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.inconsistentReadException;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.slotOffset;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.validateRead;
+
+import org.jspecify.annotations.Nullable;
+import org.kiwiproject.metrics.health.HealthChangeStream.CheckState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the health status table published by a {@link MappedHealthStatusWriter}, possibly in another process.
+ * <p>
+ * Reads go directly to the mapped memory: they take no locks, make no system calls, and do not allocate, except
+ * for encoding the check name passed to {@link #status(String)} and {@link #isHealthy(String)}. Each read retries
+ * if the writer was in the middle of updating the value being read, so it never returns a torn value.
+ * <p>
+ * If the writer process restarts, it replaces the file, and this reader keeps reading the old file, which is no
+ * longer updated. Use {@link #lastUpdatedMillis()} to detect this, and open a new reader. A writer that was closed
+ * cleanly also marks the table, which {@link #isWriterClosed()} detects without waiting for it to become stale.
+ * <p>
+ * This class is thread-safe.
+ */
+public class MappedHealthStatusReader {
+
+    private static final int STATUS_MASK = 0xFF;
+    private static final int HEALTHY_FLAG = 0x100;
+
+    private final Path path;
+    private final int capacity;
+    private final MappedByteBuffer buffer;
+
+    private MappedHealthStatusReader(Path path, int capacity, MappedByteBuffer buffer) {
+        this.path = path;
+        this.capacity = capacity;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Open the table at the given path.
+     *
+     * @param path the path of the file
+     * @return a new reader
+     * @throws IllegalArgumentException if the file is not a health status table
+     * @throws UncheckedIOException     if the file cannot be read
+     */
+    public static MappedHealthStatusReader open(Path path) {
+        checkArgumentNotNull(path, "path cannot be null");
+
+        MappedByteBuffer buffer;
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            var size = channel.size();
+            checkArgument(size >= HEADER_SIZE, "%s is not a health status table: too short", path);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open health status table at " + path, e);
+        }
+        buffer.order(BYTE_ORDER);
+
+        checkArgument(buffer.getInt(MAGIC_OFFSET) == MAGIC, "%s is not a health status table: bad magic number", path);
+        checkArgument(buffer.getInt(VERSION_OFFSET) == VERSION,
+                "%s is not a health status table: unsupported version", path);
+        checkArgument(buffer.getInt(SLOT_SIZE_OFFSET) == SLOT_SIZE,
+                "%s is not a health status table: unsupported slot size", path);
+        var capacity = buffer.getInt(CAPACITY_OFFSET);
+        checkArgument(capacity > 0 && capacity <= MAX_CAPACITY && fileSize(capacity) <= buffer.capacity(),
+                "%s is not a health status table: invalid capacity", path);
+
+        return new MappedHealthStatusReader(path, capacity, buffer);
+    }
+
+    /**
+     * Get the path of the file.
+     *
+     * @return the path of the file
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Get the maximum number of checks the table can hold.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Get the overall status published by the writer.
+     *
+     * @return the highest status of any published check, or {@link HealthStatus#CRITICAL} if there are none
+     * @throws IllegalStateException if the writer stopped in the middle of a write
+     */
+    public HealthStatus overallStatus() {
+        for (var attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            var sequence = beginRead(buffer, HEADER_SEQUENCE_OFFSET);
+            var value = buffer.get(OVERALL_STATUS_OFFSET);
+            if (validateRead(buffer, HEADER_SEQUENCE_OFFSET, sequence)) {
+                return statusOrCritical(value);
+            }
+            Thread.onSpinWait();
+        }
+        throw inconsistentReadException();
+    }
+
+    /**
+     * Get the number of checks published by the writer.
+     *
+     * @return the number of checks
+     * @throws IllegalStateException if the writer stopped in the middle of a write
+     */
+    public int checkCount() {
+        for (var attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            var sequence = beginRead(buffer, HEADER_SEQUENCE_OFFSET);
+            var count = buffer.getInt(CHECK_COUNT_OFFSET);
+            if (validateRead(buffer, HEADER_SEQUENCE_OFFSET, sequence)) {
+                return count;
+            }
+            Thread.onSpinWait();
+        }
+        throw inconsistentReadException();
+    }
+
+    /**
+     * Check whether the writer has been {@link MappedHealthStatusWriter#close() closed}, in which case the table will
+     * not be updated again.
+     *
+     * @return true if the writer has been closed
+     * @throws IllegalStateException if the writer stopped in the middle of a write
+     */
+    public boolean isWriterClosed() {
+        for (var attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            var sequence = beginRead(buffer, HEADER_SEQUENCE_OFFSET);
+            var closed = buffer.get(CLOSED_OFFSET);
+            if (validateRead(buffer, HEADER_SEQUENCE_OFFSET, sequence)) {
+                return closed != 0;
+            }
+            Thread.onSpinWait();
+        }
+        throw inconsistentReadException();
+    }
+
+    /**
+     * Get the time the writer last published a status or heartbeat.
+     *
+     * @return the last update time, in epoch milliseconds
+     * @throws IllegalStateException if the writer stopped in the middle of a write
+     */
+    public long lastUpdatedMillis() {
+        for (var attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            var sequence = beginRead(buffer, HEADER_SEQUENCE_OFFSET);
+            var updatedAt = buffer.getLong(UPDATED_AT_OFFSET);
+            if (validateRead(buffer, HEADER_SEQUENCE_OFFSET, sequence)) {
+                return updatedAt;
+            }
+            Thread.onSpinWait();
+        }
+        throw inconsistentReadException();
+    }
+
+    /**
+     * Get the published status of a check. This scans the slots for the check name, so its cost is proportional
+     * to the capacity of the table.
+     *
+     * @param checkName the name of the check
+     * @return the status of the check, or null if the check is not published
+     * @throws IllegalStateException if the writer stopped in the middle of a write
+     */
+    public @Nullable HealthStatus status(String checkName) {
+        return HealthStatus.fromValueOrNull(find(checkName) & STATUS_MASK);
+    }
+
+    /**
+     * Check whether a check is published as healthy. Like {@link #status(String)}, this scans the slots for the
+     * check name.
+     *
+     * @param checkName the name of the check
+     * @return true if the check is published and healthy, false if it is unhealthy or not published
+     * @throws IllegalStateException if the writer stopped in the middle of a write
+     */
+    public boolean isHealthy(String checkName) {
+        return (find(checkName) & HEALTHY_FLAG) != 0;
+    }
+
+    /**
+     * Get the published healthy flag and status of a check, read together so that they are consistent with each
+     * other. Like {@link #status(String)}, this scans the slots for the check name.
+     *
+     * @param checkName the name of the check
+     * @return the state of the check, or null if the check is not published
+     * @throws IllegalStateException if the writer stopped in the middle of a write
+     */
+    public @Nullable CheckState state(String checkName) {
+        var value = find(checkName);
+        var status = HealthStatus.fromValueOrNull(value & STATUS_MASK);
+        return isNull(status) ? null : new CheckState((value & HEALTHY_FLAG) != 0, status);
+    }
+
+    private int find(String checkName) {
+        checkArgumentNotNull(checkName, "checkName cannot be null");
+        var nameBytes = checkName.getBytes(UTF_8);
+        if (nameBytes.length > MAX_NAME_BYTES) {
+            return 0;
+        }
+
+        for (var slot = 0; slot < capacity; slot++) {
+            var value = statusIfNameMatches(slotOffset(slot), nameBytes);
+            if (value != 0) {
+                return value;
+            }
+        }
+        return 0;
+    }
+
+    // Returns the status value, with HEALTHY_FLAG set if the check is healthy, or zero if the slot holds another check
+    private int statusIfNameMatches(int offset, byte[] nameBytes) {
+        for (var attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+            var sequence = beginRead(buffer, offset + SLOT_SEQUENCE_OFFSET);
+            var value = buffer.get(offset + SLOT_STATUS_OFFSET);
+            var healthy = buffer.get(offset + SLOT_HEALTHY_OFFSET) != 0;
+            var matches = value != 0 && nameMatches(offset, nameBytes);
+            if (validateRead(buffer, offset + SLOT_SEQUENCE_OFFSET, sequence)) {
+                return matches ? (value | (healthy ? HEALTHY_FLAG : 0)) : 0;
+            }
+            Thread.onSpinWait();
+        }
+        throw inconsistentReadException();
+    }
+
+    private boolean nameMatches(int offset, byte[] nameBytes) {
+        if (Byte.toUnsignedInt(buffer.get(offset + SLOT_NAME_LENGTH_OFFSET)) != nameBytes.length) {
+            return false;
+        }
+
+        for (var i = 0; i < nameBytes.length; i++) {
+            if (buffer.get(offset + SLOT_NAME_OFFSET + i) != nameBytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static HealthStatus statusOrCritical(byte value) {
+        var status = HealthStatus.fromValueOrNull(value);
+        return isNull(status) ? HealthStatus.CRITICAL : status;
+    }
+}
@@ -0,0 +1,110 @@
+package org.kiwiproject.metrics.health;
+
+import lombok.experimental.UtilityClass;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The layout of the memory-mapped health status table shared by {@link MappedHealthStatusWriter} and
+ * {@link MappedHealthStatusReader}, and the seqlock protocol that protects it.
+ * <p>
+ * All multibyte values are little-endian. The file starts with a 64-byte header:
+ * <pre>
+ *  0  int   magic ('HSTB')
+ *  4  int   format version
+ *  8  int   capacity (number of slots)
+ * 12  int   slot size in bytes
+ * 16  long  header sequence
+ * 24  int   number of checks
+ * 28  byte  overall status value
+ * 29  byte  1 if the writer has been closed, otherwise 0
+ * 32  long  last update time, in epoch milliseconds
+ * </pre>
+ * followed by {@code capacity} slots of 128 bytes each:
+ * <pre>
+ *  0  long  slot sequence
+ *  8  byte  status value, or zero if the slot is empty
+ *  9  byte  1 if the check is healthy, otherwise 0
+ * 10  byte  length of the check name in UTF-8 bytes
+ * 16  long  last update time of the check, in epoch milliseconds
+ * 24  ...   check name, in UTF-8 (at most 104 bytes)
+ * </pre>
+ * Each sequence is a seqlock for the fields that follow it: the writer makes it odd before changing the fields and
+ * even again afterwards, and a reader retries when the sequence was odd or changed while it read the fields. The
+ * sequences are 8-byte aligned, so they are accessed atomically.
+ */
+@UtilityClass
+class MappedHealthStatusTable {
+
+    static final int MAGIC = 0x48535442;
+    static final int VERSION = 1;
+    static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int HEADER_SIZE = 64;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int CAPACITY_OFFSET = 8;
+    static final int SLOT_SIZE_OFFSET = 12;
+    static final int HEADER_SEQUENCE_OFFSET = 16;
+    static final int CHECK_COUNT_OFFSET = 24;
+    static final int OVERALL_STATUS_OFFSET = 28;
+    static final int CLOSED_OFFSET = 29;
+    static final int UPDATED_AT_OFFSET = 32;
+
+    static final int SLOT_SIZE = 128;
+    static final int SLOT_SEQUENCE_OFFSET = 0;
+    static final int SLOT_STATUS_OFFSET = 8;
+    static final int SLOT_HEALTHY_OFFSET = 9;
+    static final int SLOT_NAME_LENGTH_OFFSET = 10;
+    static final int SLOT_UPDATED_AT_OFFSET = 16;
+    static final int SLOT_NAME_OFFSET = 24;
+    static final int MAX_NAME_BYTES = SLOT_SIZE - SLOT_NAME_OFFSET;
+
+    static final int MAX_CAPACITY = 65_536;
+
+    /**
+     * How many times a reader retries before concluding that the writer stopped in the middle of a write.
+     * A write takes tens of nanoseconds, so this is only reached if the writing process died during one.
+     */
+    static final int MAX_READ_ATTEMPTS = 100_000;
+
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, BYTE_ORDER);
+
+    static int fileSize(int capacity) {
+        return HEADER_SIZE + capacity * SLOT_SIZE;
+    }
+
+    static int slotOffset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    static void beginWrite(ByteBuffer buffer, int sequenceOffset) {
+        var sequence = (long) LONG.get(buffer, sequenceOffset);
+        LONG.setOpaque(buffer, sequenceOffset, sequence + 1);
+        VarHandle.storeStoreFence();
+    }
+
+    static void endWrite(ByteBuffer buffer, int sequenceOffset) {
+        var sequence = (long) LONG.get(buffer, sequenceOffset);
+        LONG.setRelease(buffer, sequenceOffset, sequence + 1);
+    }
+
+    // Returns an even sequence to pass to validateRead, or -1 if a write is in progress
+    static long beginRead(ByteBuffer buffer, int sequenceOffset) {
+        var sequence = (long) LONG.getAcquire(buffer, sequenceOffset);
+        return (sequence & 1) == 0 ? sequence : -1;
+    }
+
+    static boolean validateRead(ByteBuffer buffer, int sequenceOffset, long sequence) {
+        VarHandle.loadLoadFence();
+        return sequence >= 0 && (long) LONG.getOpaque(buffer, sequenceOffset) == sequence;
+    }
+
+    static IllegalStateException inconsistentReadException() {
+        return new IllegalStateException(
+                "Unable to read a consistent health status; the writer may have stopped in the middle of a write");
+    }
+}
@@ -0,0 +1,412 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.BYTE_ORDER;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.CAPACITY_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.CHECK_COUNT_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.CLOSED_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.HEADER_SEQUENCE_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.MAGIC;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.MAGIC_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.MAX_CAPACITY;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.MAX_NAME_BYTES;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.OVERALL_STATUS_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_HEALTHY_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_NAME_LENGTH_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_NAME_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_SEQUENCE_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_SIZE;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_SIZE_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_STATUS_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.SLOT_UPDATED_AT_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.UPDATED_AT_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.VERSION;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.VERSION_OFFSET;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.beginWrite;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.endWrite;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.fileSize;
+import static org.kiwiproject.metrics.health.MappedHealthStatusTable.slotOffset;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.jspecify.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+
+/**
+ * Publishes the status of each health check, and the overall status, into a memory-mapped file that other local
+ * processes (e.g., sidecars) read using {@link MappedHealthStatusReader}, instead of calling a health endpoint that
+ * runs the checks and serializes them just so they can read the overall status.
+ * <p>
+ * Each check is assigned a fixed-size slot in the file the first time it is published, and the slot is freed when
+ * the check is removed. Writes to a slot or the header are protected by a seqlock, so readers never see a torn
+ * write, and neither side takes a lock or makes a system call.
+ * <p>
+ * The file is created in a temporary file next to the target path and atomically moved into place, so an existing
+ * file that readers may still have mapped is replaced rather than truncated. Readers of a replaced file see it stop
+ * being updated, which they can detect using {@link MappedHealthStatusReader#lastUpdatedMillis()}; a writer can
+ * call {@link #heartbeat()} periodically so that an unchanged status is not mistaken for a stopped writer.
+ * {@link #close() Closing} the writer marks the table as closed, which readers see using
+ * {@link MappedHealthStatusReader#isWriterClosed()}.
+ * <p>
+ * Readers must be able to read the file. By default it is readable by all users ({@code rw-r--r--}) on file
+ * systems that support POSIX permissions, so that sidecars running as other users can read it; pass other
+ * {@link #create(Path, int, Set) permissions} to restrict it, e.g., to a group. On other file systems, the file has
+ * the default permissions of a new file, and access must be granted some other way, e.g., by the directory.
+ * <p>
+ * There must be only one writer per file. Within the writing process this class is thread-safe.
+ *
+ * @see MappedHealthStatusTable
+ */
+public class MappedHealthStatusWriter implements AutoCloseable {
+
+    /**
+     * The default permissions of the file, which allow any user to read it, i.e., {@code rw-r--r--}.
+     */
+    public static final Set<PosixFilePermission> DEFAULT_PERMISSIONS =
+            Set.copyOf(PosixFilePermissions.fromString("rw-r--r--"));
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private final Path path;
+    private final int capacity;
+    private final MappedByteBuffer buffer;
+    private final LongSupplier currentTimeMillis;
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private final HealthStatusCounter counter = new HealthStatusCounter();
+    private int nextSlot;
+    private boolean closed;
+
+    private MappedHealthStatusWriter(Path path, int capacity, MappedByteBuffer buffer, LongSupplier currentTimeMillis) {
+        this.path = path;
+        this.capacity = capacity;
+        this.buffer = buffer;
+        this.currentTimeMillis = currentTimeMillis;
+    }
+
+    /**
+     * Create a table for up to 64 checks at the given path, replacing any existing file.
+     *
+     * @param path the path of the file
+     * @return a new writer
+     * @throws UncheckedIOException if the file cannot be created
+     */
+    public static MappedHealthStatusWriter create(Path path) {
+        return create(path, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a table for up to the given number of checks at the given path, replacing any existing file.
+     *
+     * @param path     the path of the file
+     * @param capacity the maximum number of checks
+     * @return a new writer
+     * @throws UncheckedIOException if the file cannot be created
+     */
+    public static MappedHealthStatusWriter create(Path path, int capacity) {
+        return create(path, capacity, DEFAULT_PERMISSIONS);
+    }
+
+    /**
+     * Create a table for up to the given number of checks at the given path, replacing any existing file, with the
+     * given permissions.
+     *
+     * @param path        the path of the file
+     * @param capacity    the maximum number of checks
+     * @param permissions the permissions of the file, which are ignored if the file system does not support POSIX
+     *                    permissions; readers need at least read permission
+     * @return a new writer
+     * @throws UncheckedIOException if the file cannot be created
+     */
+    public static MappedHealthStatusWriter create(Path path, int capacity, Set<PosixFilePermission> permissions) {
+        return create(path, capacity, permissions, System::currentTimeMillis);
+    }
+
+    // Visible for testing
+    static MappedHealthStatusWriter create(Path path, int capacity, LongSupplier currentTimeMillis) {
+        return create(path, capacity, DEFAULT_PERMISSIONS, currentTimeMillis);
+    }
+
+    private static MappedHealthStatusWriter create(Path path,
+                                                   int capacity,
+                                                   Set<PosixFilePermission> permissions,
+                                                   LongSupplier currentTimeMillis) {
+        checkArgumentNotNull(path, "path cannot be null");
+        checkArgument(capacity > 0 && capacity <= MAX_CAPACITY, "capacity must be between 1 and %s", MAX_CAPACITY);
+        checkArgumentNotNull(permissions, "permissions cannot be null");
+        checkArgumentNotNull(currentTimeMillis, "currentTimeMillis cannot be null");
+
+        try {
+            var absolutePath = path.toAbsolutePath();
+            var tempFile = Files.createTempFile(
+                    absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+            try {
+                // Set after creating the file, since the permissions given at creation are restricted by the umask
+                if (Files.getFileStore(tempFile).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                    Files.setPosixFilePermissions(tempFile, permissions);
+                }
+
+                MappedByteBuffer buffer;
+                try (var channel = FileChannel.open(tempFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize(capacity));
+                }
+                buffer.order(BYTE_ORDER);
+
+                var writer = new MappedHealthStatusWriter(absolutePath, capacity, buffer, currentTimeMillis);
+                writer.writeHeader();
+                Files.move(tempFile, absolutePath,
+                        StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return writer;
+            } catch (IOException | RuntimeException e) {
+                deleteAfterFailure(tempFile, e);
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create health status table at " + path, e);
+        }
+    }
+
+    private static void deleteAfterFailure(Path tempFile, Exception failure) {
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private void writeHeader() {
+        buffer.putInt(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(VERSION_OFFSET, VERSION);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(SLOT_SIZE_OFFSET, SLOT_SIZE);
+        updateHeader();
+    }
+
+    /**
+     * Get the path of the file.
+     *
+     * @return the absolute path of the file
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Get the maximum number of checks the table can hold.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Publish the status of a health check result.
+     *
+     * @param checkName the name of the check, which must be at most 104 bytes in UTF-8
+     * @param result    the result of the check
+     * @throws IllegalStateException if this is a new check and the table is full, or the writer is closed
+     * @see HealthCheckResults#statusOf(HealthCheck.Result)
+     */
+    public void publish(String checkName, HealthCheck.Result result) {
+        checkArgumentNotNull(result, "result cannot be null");
+        publish(checkName, HealthCheckResults.statusOf(result), result.isHealthy());
+    }
+
+    /**
+     * Publish the status of a check.
+     *
+     * @param checkName the name of the check, which must be at most 104 bytes in UTF-8
+     * @param status    the status of the check
+     * @param healthy   whether the check is healthy
+     * @throws IllegalStateException if this is a new check and the table is full, or the writer is closed
+     */
+    public synchronized void publish(String checkName, HealthStatus status, boolean healthy) {
+        checkOpen();
+        writeSlot(checkName, status, healthy);
+        updateHeader();
+    }
+
+    /**
+     * Publish the status of each of the given results, and remove any previously published check that is not among
+     * them. The overall status is updated once, after all the checks.
+     * <p>
+     * The results are validated before anything is written, so if they are invalid or do not fit, the table is left
+     * unchanged.
+     *
+     * @param results the complete set of current health check results, keyed by health check name
+     * @throws IllegalStateException if there are more results than the capacity of the table, or the writer is
+     *                               closed
+     */
+    public synchronized void publishAll(Map<String, HealthCheck.Result> results) {
+        checkOpen();
+        checkArgumentNotNull(results, "results cannot be null");
+        results.forEach((name, result) -> {
+            checkCheckName(name);
+            checkArgumentNotNull(result, "results must not contain null values");
+        });
+        checkState(results.size() <= capacity,
+                "health status table is full (capacity %s, results %s)", capacity, results.size());
+
+        for (var name : new ArrayList<>(slots.keySet())) {
+            if (!results.containsKey(name)) {
+                clearSlot(name);
+            }
+        }
+
+        results.forEach((name, result) -> writeSlot(name, HealthCheckResults.statusOf(result), result.isHealthy()));
+
+        updateHeader();
+    }
+
+    /**
+     * Remove a check and free its slot.
+     *
+     * @param checkName the name of the check
+     * @throws IllegalStateException if the writer is closed
+     */
+    public synchronized void remove(String checkName) {
+        checkOpen();
+        if (nonNull(checkName) && clearSlot(checkName)) {
+            updateHeader();
+        }
+    }
+
+    /**
+     * Update the last update time of the table without changing any status.
+     *
+     * @throws IllegalStateException if the writer is closed
+     */
+    public synchronized void heartbeat() {
+        checkOpen();
+        updateHeader();
+    }
+
+    /**
+     * Mark the table as closed, so that readers can tell that it will not be updated again, and stop publishing to
+     * it. The file is left in place with the last published statuses. Closing a writer more than once has no
+     * further effect.
+     * <p>
+     * The JDK cannot unmap a file explicitly, so the mapping is released once the writer is no longer referenced.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        updateHeader();
+    }
+
+    private void checkOpen() {
+        checkState(!closed, "health status table writer is closed");
+    }
+
+    /**
+     * Get the current overall status, as published to the table.
+     *
+     * @return the highest status of any published check, or {@link HealthStatus#CRITICAL} if there are none
+     */
+    public HealthStatus overallStatus() {
+        return counter.overallStatus();
+    }
+
+    private void writeSlot(String checkName, HealthStatus status, boolean healthy) {
+        checkArgumentNotNull(status, "status cannot be null");
+
+        var slot = slots.get(checkName);
+        if (isNull(slot)) {
+            var nameBytes = checkCheckName(checkName);
+            slot = allocateSlot();
+            slots.put(checkName, slot);
+            writeSlot(slotOffset(slot), nameBytes, status.getValue(), healthy);
+        } else {
+            writeSlot(slotOffset(slot), null, status.getValue(), healthy);
+        }
+
+        counter.report(checkName, status);
+    }
+
+    private static byte[] checkCheckName(String checkName) {
+        checkArgumentNotBlank(checkName, "checkName must not be blank");
+        var nameBytes = checkName.getBytes(UTF_8);
+        checkArgument(nameBytes.length <= MAX_NAME_BYTES,
+                "checkName must be at most %s bytes in UTF-8", MAX_NAME_BYTES);
+        return nameBytes;
+    }
+
+    private int allocateSlot() {
+        var freeSlot = freeSlots.pollFirst();
+        if (nonNull(freeSlot)) {
+            return freeSlot;
+        }
+
+        checkState(nextSlot < capacity, "health status table is full (capacity %s)", capacity);
+        return nextSlot++;
+    }
+
+    // Writes the name only when it is not null, i.e., when the slot is (re)assigned to a check
+    private void writeSlot(int offset, byte @Nullable [] nameBytes, int statusValue, boolean healthy) {
+        beginWrite(buffer, offset + SLOT_SEQUENCE_OFFSET);
+        buffer.put(offset + SLOT_STATUS_OFFSET, (byte) statusValue);
+        buffer.put(offset + SLOT_HEALTHY_OFFSET, (byte) (healthy ? 1 : 0));
+        buffer.putLong(offset + SLOT_UPDATED_AT_OFFSET, currentTimeMillis.getAsLong());
+        if (nonNull(nameBytes)) {
+            buffer.put(offset + SLOT_NAME_LENGTH_OFFSET, (byte) nameBytes.length);
+            buffer.put(offset + SLOT_NAME_OFFSET, nameBytes);
+        }
+        endWrite(buffer, offset + SLOT_SEQUENCE_OFFSET);
+    }
+
+    private boolean clearSlot(String checkName) {
+        var slot = slots.remove(checkName);
+        if (isNull(slot)) {
+            return false;
+        }
+
+        var offset = slotOffset(slot);
+        beginWrite(buffer, offset + SLOT_SEQUENCE_OFFSET);
+        buffer.put(offset + SLOT_STATUS_OFFSET, (byte) 0);
+        buffer.put(offset + SLOT_HEALTHY_OFFSET, (byte) 0);
+        buffer.put(offset + SLOT_NAME_LENGTH_OFFSET, (byte) 0);
+        buffer.putLong(offset + SLOT_UPDATED_AT_OFFSET, currentTimeMillis.getAsLong());
+        endWrite(buffer, offset + SLOT_SEQUENCE_OFFSET);
+
+        freeSlots.addLast(slot);
+        counter.remove(checkName);
+        return true;
+    }
+
+    private void updateHeader() {
+        beginWrite(buffer, HEADER_SEQUENCE_OFFSET);
+        buffer.putInt(CHECK_COUNT_OFFSET, slots.size());
+        buffer.put(OVERALL_STATUS_OFFSET, (byte) counter.overallStatus().getValue());
+        buffer.put(CLOSED_OFFSET, (byte) (closed ? 1 : 0));
+        buffer.putLong(UPDATED_AT_OFFSET, currentTimeMillis.getAsLong());
+        endWrite(buffer, HEADER_SEQUENCE_OFFSET);
+    }
+}
@@ -0,0 +1,221 @@
+package org.kiwiproject.metrics.health;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs all the health checks in a {@link HealthCheckRegistry} concurrently and computes their overall
+ * {@link HealthStatus}, so that the time to run them is that of the slowest check rather than the sum of all checks.
+ * <p>
+ * Each check must complete within a timeout. A check that does not is cancelled (interrupting it) and reported
+ * as an unhealthy result with a configurable severity, which is {@link HealthStatus#CRITICAL} by default.
+ * <p>
+ * By default, checks run on virtual threads when the JDK supports them, otherwise on a cached pool of daemon
+ * threads. A custom executor can be supplied instead. Use {@link #close()} to shut down the default executor;
+ * a supplied executor is never shut down by this class.
+ */
+@Slf4j
+public class ParallelHealthCheckRunner implements AutoCloseable {
+
+    /**
+     * The default per-check timeout.
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(10);
+
+    private final HealthCheckRegistry registry;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final Duration timeout;
+    private final HealthStatus timeoutSeverity;
+
+    private ParallelHealthCheckRunner(Builder builder) {
+        this.registry = builder.registry;
+        this.ownsExecutor = isNull(builder.executor);
+        this.executor = ownsExecutor ?
+                HealthCheckExecutors.newPerTaskExecutor("health-check-runner") : builder.executor;
+        this.timeout = builder.timeout;
+        this.timeoutSeverity = builder.timeoutSeverity;
+    }
+
+    /**
+     * Create a runner for the given registry using the default executor, timeout, and timeout severity.
+     *
+     * @param registry the registry containing the health checks to run
+     * @return a new runner
+     */
+    public static ParallelHealthCheckRunner of(HealthCheckRegistry registry) {
+        return builder(registry).build();
+    }
+
+    /**
+     * Create a builder for a runner.
+     *
+     * @param registry the registry containing the health checks to run
+     * @return a new builder
+     */
+    public static Builder builder(HealthCheckRegistry registry) {
+        return new Builder(registry);
+    }
+
+    /**
+     * Run all the health checks concurrently, waiting at most the timeout for each.
+     * <p>
+     * Checks that are unregistered while running are omitted from the results.
+     *
+     * @return the results of all the health checks, and their overall status
+     * @implNote If the calling thread is interrupted while waiting, all checks still running are cancelled and
+     * reported as unhealthy with the timeout severity, and the thread's interrupt status is restored.
+     */
+    public HealthCheckEvaluation runHealthChecks() {
+        var futures = new LinkedHashMap<String, Future<HealthCheck.Result>>();
+        for (var name : registry.getNames()) {
+            futures.put(name, executor.submit(() -> registry.runHealthCheck(name)));
+        }
+
+        // All checks start at (about) the same time, so they share a single deadline
+        var deadlineNanos = System.nanoTime() + timeout.toNanos();
+        var results = new TreeMap<String, HealthCheck.Result>();
+        var interrupted = false;
+
+        for (var entry : futures.entrySet()) {
+            var name = entry.getKey();
+            var future = entry.getValue();
+
+            if (interrupted) {
+                future.cancel(true);
+                results.put(name, newInterruptedResult());
+                continue;
+            }
+
+            try {
+                var remainingNanos = Math.max(0, deadlineNanos - System.nanoTime());
+                results.put(name, future.get(remainingNanos, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                LOG.warn("Health check {} timed out after {}", name, timeout);
+                results.put(name, newTimeoutResult());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interrupted = true;
+                future.cancel(true);
+                results.put(name, newInterruptedResult());
+            } catch (CancellationException e) {
+                results.put(name, newInterruptedResult());
+            } catch (ExecutionException e) {
+                handleExecutionException(name, e, results);
+            }
+        }
+
+        return HealthCheckEvaluation.of(results);
+    }
+
+    private void handleExecutionException(String name,
+                                          ExecutionException e,
+                                          TreeMap<String, HealthCheck.Result> results) {
+        var cause = e.getCause();
+        if (cause instanceof NoSuchElementException) {
+            LOG.debug("Health check {} was unregistered while running; omitting it", name);
+            return;
+        }
+
+        // HealthCheck#execute catches exceptions thrown by checks, so this should not normally happen
+        results.put(name, HealthCheckResults.newUnhealthyResult(isNull(cause) ? e : cause));
+    }
+
+    private HealthCheck.Result newTimeoutResult() {
+        return HealthCheckResults.newUnhealthyResult(timeoutSeverity, "Health check timed out after " + timeout);
+    }
+
+    private HealthCheck.Result newInterruptedResult() {
+        return HealthCheckResults.newUnhealthyResult(timeoutSeverity, "Health check was interrupted");
+    }
+
+    /**
+     * Shut down the executor if it was created by this runner. Does nothing if an executor was supplied.
+     */
+    @Override
+    public void close() {
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Builder for {@link ParallelHealthCheckRunner}.
+     */
+    public static class Builder {
+
+        private final HealthCheckRegistry registry;
+        private ExecutorService executor;
+        private Duration timeout = DEFAULT_TIMEOUT;
+        private HealthStatus timeoutSeverity = HealthStatus.CRITICAL;
+
+        private Builder(HealthCheckRegistry registry) {
+            this.registry = checkArgumentNotNull(registry, "registry cannot be null");
+        }
+
+        /**
+         * Use the given executor to run the health checks. It must be able to run all the checks concurrently
+         * for the timeout to apply to each check individually.
+         *
+         * @param executor the executor
+         * @return this builder
+         */
+        public Builder executor(ExecutorService executor) {
+            this.executor = checkArgumentNotNull(executor, "executor cannot be null");
+            return this;
+        }
+
+        /**
+         * The maximum time to wait for each health check.
+         *
+         * @param timeout the timeout, which must be positive
+         * @return this builder
+         */
+        public Builder timeout(Duration timeout) {
+            checkArgumentNotNull(timeout, "timeout cannot be null");
+            checkArgument(!timeout.isNegative() && !timeout.isZero(), "timeout must be positive");
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * The severity of the unhealthy results that replace health checks that time out.
+         *
+         * @param timeoutSeverity the severity, which must be valid for an unhealthy result
+         * @return this builder
+         */
+        public Builder timeoutSeverity(HealthStatus timeoutSeverity) {
+            checkArgumentNotNull(timeoutSeverity, "timeoutSeverity cannot be null");
+            checkArgument(HealthStatus.isValidCombination(false, timeoutSeverity),
+                    "timeoutSeverity is not valid for an unhealthy result: %s", timeoutSeverity);
+            this.timeoutSeverity = timeoutSeverity;
+            return this;
+        }
+
+        /**
+         * Build a new runner.
+         *
+         * @return a new runner
+         */
+        public ParallelHealthCheckRunner build() {
+            return new ParallelHealthCheckRunner(this);
+        }
+    }
+}
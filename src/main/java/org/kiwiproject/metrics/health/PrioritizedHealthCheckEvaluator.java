@@ -0,0 +1,297 @@
+package org.kiwiproject.metrics.health;
+
+import static java.util.Objects.isNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs the health checks in a {@link HealthCheckRegistry} one at a time in priority order, and can stop as soon as
+ * the overall {@link HealthStatus} reaches a threshold. This suits probes that only need to know whether the
+ * overall status is at or above the threshold, such as a Kubernetes readiness probe that fails on
+ * {@link HealthStatus#CRITICAL}: a failing check found early saves running the remaining, possibly slow, checks.
+ * <p>
+ * Checks run in order of their declared {@link Builder#priority(String, int) priority}, highest first. Checks with
+ * the same priority are ordered by their measured cost divided by how often they have reached the threshold, so that
+ * cheap and decisive checks run first. Both are exponentially weighted moving averages over the previous runs of
+ * each check. Checks that have not run yet are assumed to be free, so they are measured on the next evaluation.
+ * <p>
+ * {@link #evaluate()} stops early; {@link #evaluateAll()} runs every check, e.g., for a detailed health endpoint,
+ * and also updates the measurements.
+ * <p>
+ * Checks run on the calling thread. This class is thread-safe.
+ */
+@Slf4j
+public class PrioritizedHealthCheckEvaluator {
+
+    /**
+     * The priority of checks that do not have a declared priority.
+     */
+    public static final int DEFAULT_PRIORITY = 0;
+
+    /**
+     * The weight of the latest run in the moving averages of the cost and the decisiveness of each check.
+     */
+    private static final double SMOOTHING_FACTOR = 0.2;
+
+    /**
+     * The decisiveness assumed for checks that rarely or never reach the threshold, so that the cost of such
+     * checks still determines their order.
+     */
+    private static final double MIN_DECISIVENESS = 0.01;
+
+    private final HealthCheckRegistry registry;
+    private final HealthStatus threshold;
+    private final Map<String, Integer> priorities;
+    private final LongSupplier nanoTime;
+    private final ConcurrentMap<String, CheckStatistics> statistics = new ConcurrentHashMap<>();
+
+    private PrioritizedHealthCheckEvaluator(Builder builder) {
+        this.registry = builder.registry;
+        this.threshold = builder.threshold;
+        this.priorities = Map.copyOf(builder.priorities);
+        this.nanoTime = builder.nanoTime;
+    }
+
+    /**
+     * Create an evaluator for the given registry that stops at {@link HealthStatus#CRITICAL}, using only the
+     * measured cost of the checks to order them.
+     *
+     * @param registry the registry containing the health checks to run
+     * @return a new evaluator
+     */
+    public static PrioritizedHealthCheckEvaluator of(HealthCheckRegistry registry) {
+        return builder(registry).build();
+    }
+
+    /**
+     * Create a builder for an evaluator.
+     *
+     * @param registry the registry containing the health checks to run
+     * @return a new builder
+     */
+    public static Builder builder(HealthCheckRegistry registry) {
+        return new Builder(registry);
+    }
+
+    /**
+     * Run the health checks in priority order until one of them reaches the threshold.
+     * <p>
+     * When the returned status is below the threshold, all the checks ran and the status is the same as that of
+     * {@link #evaluateAll()}. Otherwise, the results only contain the checks that ran, and the status is at least the
+     * threshold but may be lower than it would be if all the checks ran.
+     *
+     * @return the results of the checks that ran, and their overall status
+     */
+    public HealthCheckEvaluation evaluate() {
+        return run(true);
+    }
+
+    /**
+     * Run all the health checks in priority order.
+     *
+     * @return the results of all the health checks, and their overall status
+     */
+    public HealthCheckEvaluation evaluateAll() {
+        return run(false);
+    }
+
+    /**
+     * Run the health checks in priority order until one of them reaches the threshold, and report whether one did.
+     *
+     * @return true if the overall status is at or above the threshold, otherwise false
+     */
+    public boolean isAtOrAboveThreshold() {
+        return isAtOrAboveThreshold(evaluate().status());
+    }
+
+    /**
+     * Get the status at which {@link #evaluate()} stops.
+     *
+     * @return the threshold
+     */
+    public HealthStatus threshold() {
+        return threshold;
+    }
+
+    /**
+     * Get the names of the registered health checks in the order in which they will run next. This only reads the
+     * measurements; it does not run any checks or change the order.
+     *
+     * @return a new list containing the check names
+     */
+    public List<String> evaluationOrder() {
+        return evaluationOrder(registry.getNames());
+    }
+
+    private List<String> evaluationOrder(Set<String> names) {
+        // Snapshot the scores so that concurrent measurements cannot change the order while sorting
+        var candidates = new ArrayList<Candidate>(names.size());
+        for (var name : names) {
+            var score = scoreOf(name, registry.getHealthCheck(name));
+            candidates.add(new Candidate(name, priorities.getOrDefault(name, DEFAULT_PRIORITY), score));
+        }
+        candidates.sort(Candidate.IN_EVALUATION_ORDER);
+
+        return candidates.stream().map(Candidate::name).toList();
+    }
+
+    /**
+     * Checks that have not been measured, including a check that replaced a measured check with the same name, are
+     * assumed to be free.
+     */
+    private double scoreOf(String name, @Nullable HealthCheck check) {
+        var checkStatistics = statistics.get(name);
+        return isNull(checkStatistics) || checkStatistics.check != check ? 0.0 : checkStatistics.score();
+    }
+
+    private HealthCheckEvaluation run(boolean stopAtThreshold) {
+        var names = registry.getNames();
+
+        // Forget checks that were unregistered, so the measurements do not grow with every name ever registered
+        statistics.keySet().retainAll(names);
+
+        var results = new TreeMap<String, HealthCheck.Result>();
+        for (var name : evaluationOrder(names)) {
+            var check = registry.getHealthCheck(name);
+            if (isNull(check)) {
+                LOG.debug("Health check {} was unregistered before it ran; omitting it", name);
+                continue;
+            }
+
+            var startNanos = nanoTime.getAsLong();
+            var result = check.execute();
+            var elapsedNanos = nanoTime.getAsLong() - startNanos;
+
+            results.put(name, result);
+            var decisive = isAtOrAboveThreshold(HealthCheckResults.statusOf(result));
+            statistics.compute(name, (key, existing) ->
+                            isNull(existing) || existing.check != check ? new CheckStatistics(check) : existing)
+                    .record(elapsedNanos, decisive);
+
+            if (stopAtThreshold && decisive) {
+                LOG.trace("Health check {} reached {}; skipping the remaining checks", name, threshold);
+                break;
+            }
+        }
+
+        return HealthCheckEvaluation.of(results);
+    }
+
+    private boolean isAtOrAboveThreshold(HealthStatus status) {
+        return HealthStatus.comparingSeverity().compare(status, threshold) >= 0;
+    }
+
+    private record Candidate(String name, int priority, double score) {
+
+        static final Comparator<Candidate> IN_EVALUATION_ORDER = Comparator
+                .comparingInt(Candidate::priority).reversed()
+                .thenComparingDouble(Candidate::score)
+                .thenComparing(Candidate::name);
+    }
+
+    /**
+     * The moving averages of the cost of a check and of how often it reached the threshold.
+     */
+    private static class CheckStatistics {
+
+        private final HealthCheck check;
+        private boolean measured;
+        private double averageNanos;
+        private double decisiveness;
+
+        CheckStatistics(HealthCheck check) {
+            this.check = check;
+        }
+
+        synchronized void record(long elapsedNanos, boolean decisive) {
+            var decisiveSample = decisive ? 1.0 : 0.0;
+            if (measured) {
+                averageNanos += SMOOTHING_FACTOR * (elapsedNanos - averageNanos);
+                decisiveness += SMOOTHING_FACTOR * (decisiveSample - decisiveness);
+            } else {
+                averageNanos = elapsedNanos;
+                decisiveness = decisiveSample;
+                measured = true;
+            }
+        }
+
+        /**
+         * The expected cost of finding a check that reaches the threshold by running this check; lower is better.
+         */
+        synchronized double score() {
+            return averageNanos / Math.max(decisiveness, MIN_DECISIVENESS);
+        }
+    }
+
+    /**
+     * Builder for {@link PrioritizedHealthCheckEvaluator}.
+     */
+    public static class Builder {
+
+        private final HealthCheckRegistry registry;
+        private final Map<String, Integer> priorities = new HashMap<>();
+        private HealthStatus threshold = HealthStatus.CRITICAL;
+        private LongSupplier nanoTime = System::nanoTime;
+
+        private Builder(HealthCheckRegistry registry) {
+            this.registry = checkArgumentNotNull(registry, "registry cannot be null");
+        }
+
+        /**
+         * The status at which {@link #evaluate()} stops running checks. The default is {@link HealthStatus#CRITICAL}.
+         *
+         * @param threshold the threshold
+         * @return this builder
+         */
+        public Builder threshold(HealthStatus threshold) {
+            this.threshold = checkArgumentNotNull(threshold, "threshold cannot be null");
+            return this;
+        }
+
+        /**
+         * Declare the priority of a health check. Checks with a higher priority run before checks with a lower
+         * priority, regardless of their measured cost. Checks without a declared priority have the
+         * {@link #DEFAULT_PRIORITY}, so a negative priority makes a check run after them.
+         *
+         * @param checkName the name of the health check
+         * @param priority  the priority
+         * @return this builder
+         */
+        public Builder priority(String checkName, int priority) {
+            checkArgumentNotBlank(checkName, "checkName must not be blank");
+            priorities.put(checkName, priority);
+            return this;
+        }
+
+        // Visible for testing
+        Builder nanoTime(LongSupplier nanoTime) {
+            this.nanoTime = checkArgumentNotNull(nanoTime, "nanoTime cannot be null");
+            return this;
+        }
+
+        /**
+         * Build a new evaluator.
+         *
+         * @return a new evaluator
+         */
+        public PrioritizedHealthCheckEvaluator build() {
+            return new PrioritizedHealthCheckEvaluator(this);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.kiwiproject.metrics.health;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotBlank;
+import static org.kiwiproject.base.KiwiPreconditions.checkArgumentNotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Aggregates the {@link HealthStatus} of individual service instances into an overall status per service.
+ * <p>
+ * The status of a service is:
+ * <ul>
+ *     <li>{@link HealthStatus#FATAL} if it has no instances, or if none of its instances are available</li>
+ *     <li>otherwise, the highest severity of any of its instances</li>
+ * </ul>
+ * An instance is considered <em>available</em> when its status is less severe than {@link HealthStatus#CRITICAL}.
+ * <p>
+ * Updates are incremental. Each service keeps a count of its instances at each severity, so that changing the
+ * status of one instance costs a constant amount of work regardless of how many instances the service has.
+ * Reading the status of a service is a single volatile read.
+ * <p>
+ * Anomalies found in the health data of instances (see {@link HealthStatusDiagnostics}) are counted under the name
+ * of the service that sent it, so that a misbehaving service can be found across a fleet.
+ * <p>
+ * This class is thread-safe. Updates to different services proceed concurrently; updates to the same service
+ * are serialized.
+ */
+public class ServiceHealthAggregator {
+
+    private static final HealthStatus[] BY_DESCENDING_SEVERITY = Arrays.stream(HealthStatus.values())
+            .sorted(HealthStatus.comparingSeverity().reversed())
+            .toArray(HealthStatus[]::new);
+
+    private final ConcurrentMap<String, ServiceState> services = new ConcurrentHashMap<>();
+    private final HealthStatusDiagnostics diagnostics;
+
+    /**
+     * Create a new aggregator that counts anomalies in the {@link HealthStatusDiagnostics#shared() shared}
+     * diagnostics.
+     */
+    public ServiceHealthAggregator() {
+        this(HealthStatusDiagnostics.shared());
+    }
+
+    /**
+     * Create a new aggregator that counts anomalies in the given diagnostics.
+     *
+     * @param diagnostics the diagnostics in which to count anomalies in the health data of instances
+     */
+    public ServiceHealthAggregator(HealthStatusDiagnostics diagnostics) {
+        this.diagnostics = checkArgumentNotNull(diagnostics, "diagnostics must not be null");
+    }
+
+    /**
+     * Update the status of a service instance, adding the service and/or instance if they do not exist.
+     *
+     * @param serviceName the name of the service
+     * @param instanceId  the identifier of the instance, unique within the service
+     * @param status      the current status of the instance
+     * @return the status of the service after the update
+     */
+    public HealthStatus updateInstance(String serviceName, String instanceId, HealthStatus status) {
+        checkServiceName(serviceName);
+        checkInstanceId(instanceId);
+        checkArgumentNotNull(status, "status cannot be null");
+
+        var state = services.compute(serviceName, (name, existingState) -> {
+            var serviceState = isNull(existingState) ? new ServiceState() : existingState;
+            serviceState.update(instanceId, status);
+            return serviceState;
+        });
+
+        return state.status;
+    }
+
+    /**
+     * Update the status of a service instance from the results of its health checks, adding the service
+     * and/or instance if they do not exist.
+     *
+     * @param serviceName   the name of the service
+     * @param instanceId    the identifier of the instance, unique within the service
+     * @param healthDetails the health check results of the instance as a map of maps
+     * @return the status of the service after the update
+     * @see HealthStatus#from(Map, String, HealthStatusDiagnostics)
+     */
+    public HealthStatus updateInstance(String serviceName, String instanceId, Map<String, Object> healthDetails) {
+        checkServiceName(serviceName);
+        return updateInstance(serviceName, instanceId, HealthStatus.from(healthDetails, serviceName, diagnostics));
+    }
+
+    /**
+     * Remove a service instance. The service remains known even if this was its last instance, in which case
+     * its status becomes {@link HealthStatus#FATAL}.
+     *
+     * @param serviceName the name of the service
+     * @param instanceId  the identifier of the instance
+     * @return the status of the service after the removal
+     */
+    public HealthStatus removeInstance(String serviceName, String instanceId) {
+        checkServiceName(serviceName);
+        checkInstanceId(instanceId);
+
+        var state = services.computeIfPresent(serviceName, (name, serviceState) -> {
+            serviceState.remove(instanceId);
+            return serviceState;
+        });
+
+        return isNull(state) ? HealthStatus.FATAL : state.status;
+    }
+
+    /**
+     * Remove a service and all of its instances.
+     *
+     * @param serviceName the name of the service
+     * @return true if the service was known, otherwise false
+     */
+    public boolean removeService(String serviceName) {
+        checkServiceName(serviceName);
+        return nonNull(services.remove(serviceName));
+    }
+
+    /**
+     * Get the current status of a service.
+     *
+     * @param serviceName the name of the service
+     * @return the status of the service; {@link HealthStatus#FATAL} if the service is not known, since it has
+     * no instances
+     */
+    public HealthStatus getServiceStatus(String serviceName) {
+        checkServiceName(serviceName);
+        var state = services.get(serviceName);
+        return isNull(state) ? HealthStatus.FATAL : state.status;
+    }
+
+    /**
+     * Get the current status of a service instance.
+     *
+     * @param serviceName the name of the service
+     * @param instanceId  the identifier of the instance
+     * @return an Optional containing the status of the instance, or an empty Optional if it is not known
+     */
+    public Optional<HealthStatus> getInstanceStatus(String serviceName, String instanceId) {
+        checkServiceName(serviceName);
+        checkInstanceId(instanceId);
+        return Optional.ofNullable(services.get(serviceName)).map(state -> state.getInstanceStatus(instanceId));
+    }
+
+    /**
+     * Get the number of instances of a service.
+     *
+     * @param serviceName the name of the service
+     * @return the number of instances, or zero if the service is not known
+     */
+    public int getInstanceCount(String serviceName) {
+        checkServiceName(serviceName);
+        var state = services.get(serviceName);
+        return isNull(state) ? 0 : state.getInstanceCount();
+    }
+
+    /**
+     * Get the names of all known services.
+     *
+     * @return an unmodifiable snapshot of the service names
+     */
+    public Set<String> getServiceNames() {
+        return Set.copyOf(services.keySet());
+    }
+
+    /**
+     * Get the current status of every known service.
+     *
+     * @return an unmodifiable snapshot of service name to status
+     */
+    public Map<String, HealthStatus> getServiceStatuses() {
+        return services.entrySet()
+                .stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> entry.getValue().status));
+    }
+
+    private static void checkServiceName(String serviceName) {
+        checkArgumentNotBlank(serviceName, "serviceName must not be blank");
+    }
+
+    private static void checkInstanceId(String instanceId) {
+        checkArgumentNotBlank(instanceId, "instanceId must not be blank");
+    }
+
+    /**
+     * Instance statuses of a single service, plus the count of instances at each severity (indexed by ordinal).
+     */
+    private static class ServiceState {
+
+        private final Map<String, HealthStatus> instanceStatuses = new HashMap<>();
+        private final int[] statusCounts = new int[HealthStatus.values().length];
+        private volatile HealthStatus status = HealthStatus.FATAL;
+
+        synchronized void update(String instanceId, HealthStatus newStatus) {
+            var oldStatus = instanceStatuses.put(instanceId, newStatus);
+            if (oldStatus == newStatus) {
+                return;
+            }
+
+            if (nonNull(oldStatus)) {
+                statusCounts[oldStatus.ordinal()]--;
+            }
+            statusCounts[newStatus.ordinal()]++;
+            status = computeStatus();
+        }
+
+        synchronized void remove(String instanceId) {
+            var oldStatus = instanceStatuses.remove(instanceId);
+            if (isNull(oldStatus)) {
+                return;
+            }
+
+            statusCounts[oldStatus.ordinal()]--;
+            status = computeStatus();
+        }
+
+        synchronized HealthStatus getInstanceStatus(String instanceId) {
+            return instanceStatuses.get(instanceId);
+        }
+
+        synchronized int getInstanceCount() {
+            return instanceStatuses.size();
+        }
+
+        // Cost depends only on the number of HealthStatus constants, not the number of instances
+        private HealthStatus computeStatus() {
+            var highest = HealthStatus.FATAL;
+            var hasHighest = false;
+            var availableCount = 0;
+
+            for (var severity : BY_DESCENDING_SEVERITY) {
+                var count = statusCounts[severity.ordinal()];
+                if (count == 0) {
+                    continue;
+                }
+
+                if (!hasHighest) {
+                    highest = severity;
+                    hasHighest = true;
+                }
+
+                if (isAvailable(severity)) {
+                    availableCount += count;
+                }
+            }
+
+            return availableCount == 0 ? HealthStatus.FATAL : highest;
+        }
+
+        private static boolean isAvailable(HealthStatus instanceStatus) {
+            return HealthStatus.comparingSeverity().compare(instanceStatus, HealthStatus.CRITICAL) < 0;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.kiwiproject.metrics.health;
+
+import com.codahale.metrics.health.HealthCheck;
+
+/**
+ * An immutable {@link HealthCheck.Result} with no message or error, and only a severity detail. One instance
+ * exists for each valid (healthy, severity) combination, and is shared by all callers.
+ * <p>
+ * The timestamp of each instance is the time it was created (when this class was initialized), and its duration is
+ * always zero, because {@link #setDuration(long)} does nothing. This is what makes it safe to share an instance
+ * that is returned from {@link HealthCheck#execute()}, which normally sets the duration of the result.
+ */
+final class SharedResult extends HealthCheck.Result {
+
+    private static final SharedResult[] HEALTHY = newResults(true);
+    private static final SharedResult[] UNHEALTHY = newResults(false);
+
+    private SharedResult(boolean healthy, HealthStatus severity) {
+        super(HealthCheckResults.newResultBuilder(healthy, severity));
+    }
+
+    private static SharedResult[] newResults(boolean healthy) {
+        var results = new SharedResult[HealthStatus.values().length];
+        for (var severity : HealthStatus.values()) {
+            if (HealthStatus.isValidCombination(healthy, severity)) {
+                results[severity.ordinal()] = new SharedResult(healthy, severity);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Get the shared result for the given (healthy, severity) combination.
+     *
+     * @param healthy  is it healthy?
+     * @param severity the severity, which must be valid for the healthy value
+     * @return the shared result
+     */
+    static SharedResult of(boolean healthy, HealthStatus severity) {
+        return healthy ? HEALTHY[severity.ordinal()] : UNHEALTHY[severity.ordinal()];
+    }
+
+    /**
+     * Does nothing, so that shared instances are never modified.
+     *
+     * @param duration ignored
+     */
+    @Override
+    public void setDuration(long duration) {
+        // intentionally empty
+    }
+}
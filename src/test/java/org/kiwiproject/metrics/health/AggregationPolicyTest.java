@@ -0,0 +1,353 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+@DisplayName("AggregationPolicy")
+class AggregationPolicyTest {
+
+    private static byte[] values(HealthStatus... statuses) {
+        var values = new byte[statuses.length];
+        for (var i = 0; i < statuses.length; i++) {
+            values[i] = (byte) statuses[i].getValue();
+        }
+        return values;
+    }
+
+    @Nested
+    class MaxSeverity {
+
+        private final AggregationPolicy policy = AggregationPolicy.maxSeverity();
+
+        @Test
+        void shouldTakeHighestSeverity() {
+            assertThat(policy.aggregate(values(HealthStatus.OK, HealthStatus.WARN, HealthStatus.INFO)))
+                    .isEqualTo(HealthStatus.WARN);
+            assertThat(policy.aggregate(values(HealthStatus.FATAL, HealthStatus.CRITICAL)))
+                    .isEqualTo(HealthStatus.FATAL);
+            assertThat(policy.aggregate(values(HealthStatus.OK))).isEqualTo(HealthStatus.OK);
+        }
+
+        @Test
+        void shouldBeCritical_WhenEmpty() {
+            assertThat(policy.aggregate(new byte[0])).isEqualTo(HealthStatus.CRITICAL);
+            assertThat(policy.aggregate(Map.of())).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldAgreeWithOverallStatus_OfResults() {
+            var random = new Random(42);
+            var statuses = HealthStatus.values();
+            for (var round = 0; round < 100; round++) {
+                var results = new HashMap<String, HealthCheck.Result>();
+                var checkCount = random.nextInt(6);
+                for (var i = 0; i < checkCount; i++) {
+                    var status = statuses[random.nextInt(statuses.length)];
+                    var result = random.nextBoolean() && HealthStatus.isValidCombination(true, status) ?
+                            HealthCheckResults.newHealthyResult(status) :
+                            HealthCheckResults.newUnhealthyResult(status, "failed");
+                    results.put("check-" + i, result);
+                }
+
+                assertThat(policy.aggregateResults(results)).isEqualTo(HealthCheckResults.overallStatus(results));
+            }
+        }
+    }
+
+    @Nested
+    class Quorum {
+
+        private final AggregationPolicy policy = AggregationPolicy.quorum(0.5);
+
+        @Test
+        void shouldBeOk_WhenAllInstancesAreOk() {
+            assertThat(policy.aggregate(values(HealthStatus.OK, HealthStatus.OK))).isEqualTo(HealthStatus.OK);
+            assertThat(policy.aggregate(values(HealthStatus.OK, HealthStatus.INFO))).isEqualTo(HealthStatus.INFO);
+        }
+
+        @Test
+        void shouldBeWarn_WhenMinorityIsUnavailable() {
+            var statuses = values(HealthStatus.OK, HealthStatus.OK, HealthStatus.FATAL);
+
+            assertThat(policy.aggregate(statuses)).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldBeWarn_WhenAnyAvailableInstanceIsWarn() {
+            assertThat(policy.aggregate(values(HealthStatus.OK, HealthStatus.WARN))).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldBeCritical_WhenMoreThanThresholdIsUnavailable() {
+            assertThat(policy.aggregate(values(HealthStatus.OK, HealthStatus.CRITICAL)))
+                    .isEqualTo(HealthStatus.WARN);
+            assertThat(policy.aggregate(values(HealthStatus.OK, HealthStatus.CRITICAL, HealthStatus.CRITICAL)))
+                    .isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldBeFatal_WhenNoInstanceIsAvailable() {
+            assertThat(policy.aggregate(values(HealthStatus.CRITICAL, HealthStatus.CRITICAL)))
+                    .isEqualTo(HealthStatus.FATAL);
+            assertThat(policy.aggregate(new byte[0])).isEqualTo(HealthStatus.FATAL);
+        }
+
+        @Test
+        void shouldTolerateNoUnavailableInstances_WithZeroThreshold() {
+            var strict = AggregationPolicy.quorum(0);
+
+            assertThat(strict.aggregate(values(HealthStatus.OK, HealthStatus.OK, HealthStatus.CRITICAL)))
+                    .isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @ParameterizedTest
+        @ValueSource(doubles = {-0.1, 1.0, 1.5, Double.NaN})
+        void shouldRejectInvalidThresholds(double threshold) {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> AggregationPolicy.quorum(threshold))
+                    .withMessage("unavailableThreshold must be at least 0 and less than 1");
+        }
+    }
+
+    @Nested
+    class Weighted {
+
+        private final AggregationPolicy policy = AggregationPolicy.weighted(Map.of("database", 10), 1, 0.25);
+
+        @Test
+        void shouldLetHeavyCheck_WinOverManyLightChecks() {
+            var statuses = new HashMap<String, HealthStatus>();
+            for (var i = 1; i <= 9; i++) {
+                statuses.put("check-" + i, HealthStatus.OK);
+            }
+
+            statuses.put("database", HealthStatus.CRITICAL);
+            assertThat(policy.aggregate(statuses)).isEqualTo(HealthStatus.CRITICAL);
+
+            statuses.put("database", HealthStatus.FATAL);
+            assertThat(policy.aggregate(statuses)).isEqualTo(HealthStatus.FATAL);
+        }
+
+        @Test
+        void shouldIgnoreLightChecks_BelowThreshold() {
+            var statuses = new HashMap<String, HealthStatus>();
+            statuses.put("database", HealthStatus.OK);
+            statuses.put("cache", HealthStatus.FATAL);
+            statuses.put("queue", HealthStatus.WARN);
+
+            // 2 of 12 is at WARN or higher, which is not over 0.25
+            assertThat(policy.aggregate(statuses)).isEqualTo(HealthStatus.OK);
+        }
+
+        @Test
+        void shouldCountHigherSeverities_TowardLowerOnes() {
+            var light = AggregationPolicy.weighted(Map.of(), 1, 0.5);
+            var statuses = Map.of(
+                    "database", HealthStatus.FATAL,
+                    "cache", HealthStatus.CRITICAL,
+                    "queue", HealthStatus.WARN,
+                    "metrics", HealthStatus.OK);
+
+            // FATAL is 1 of 4 and CRITICAL or higher is 2 of 4, neither over half, but WARN or higher is 3 of 4
+            assertThat(light.aggregate(statuses)).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldBehaveLikeMaxSeverity_WithZeroThreshold() {
+            var zeroThreshold = AggregationPolicy.weighted(Map.of("database", 10), 1, 0);
+            var statuses = Map.of(
+                    "database", HealthStatus.OK,
+                    "cache", HealthStatus.INFO);
+
+            assertThat(zeroThreshold.aggregate(statuses)).isEqualTo(HealthStatus.INFO);
+        }
+
+        @Test
+        void shouldBeExact_WhenAllChecksHaveSameStatus() {
+            var statuses = Map.of(
+                    "database", HealthStatus.WARN,
+                    "cache", HealthStatus.WARN);
+
+            assertThat(policy.aggregate(statuses)).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldExcludeChecksWithZeroWeight() {
+            var zeroDefault = AggregationPolicy.weighted(Map.of("database", 1), 0, 0.25);
+            var statuses = Map.of(
+                    "database", HealthStatus.OK,
+                    "cache", HealthStatus.FATAL);
+
+            assertThat(zeroDefault.aggregate(statuses)).isEqualTo(HealthStatus.OK);
+            assertThat(zeroDefault.aggregate(Map.of("cache", HealthStatus.FATAL))).isEqualTo(HealthStatus.OK);
+        }
+
+        @Test
+        void shouldUseWeights_OfNamedStatusValues() {
+            var names = new String[] { "other", "database", "cache", "other" };
+            var statuses = values(HealthStatus.FATAL, HealthStatus.OK, HealthStatus.FATAL, HealthStatus.FATAL);
+
+            // only cache is FATAL, which is 1 of 11
+            assertThat(policy.aggregate(names, statuses, 1, 2)).isEqualTo(HealthStatus.OK);
+            assertThat(policy.aggregate(names, statuses, 0, 1)).isEqualTo(HealthStatus.FATAL);
+        }
+
+        @Test
+        void shouldBeCritical_WhenThereAreNoChecks() {
+            assertThat(policy.aggregate(Map.of())).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldRejectNegativeWeights() {
+            var weights = Map.of("database", -1);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> AggregationPolicy.weighted(weights, 1, 0.25))
+                    .withMessage("weights must not be negative");
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> AggregationPolicy.weighted(Map.of(), -1, 0.25))
+                    .withMessage("weights must not be negative");
+        }
+
+        @ParameterizedTest
+        @ValueSource(doubles = { -0.1, 1.0, 1.5 })
+        void shouldRejectInvalidThreshold(double threshold) {
+            var weights = Map.<String, Integer>of();
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> AggregationPolicy.weighted(weights, 1, threshold))
+                    .withMessage("threshold must be at least 0 and less than 1");
+        }
+    }
+
+    @Nested
+    class Ignoring {
+
+        @Test
+        void shouldExcludeIgnoredChecks() {
+            var policy = AggregationPolicy.maxSeverity().ignoring(Set.of("metrics"));
+            var statuses = Map.of(
+                    "database", HealthStatus.OK,
+                    "metrics", HealthStatus.FATAL);
+
+            assertThat(policy.aggregate(statuses)).isEqualTo(HealthStatus.OK);
+        }
+
+        @Test
+        void shouldKeepWeights_OfOtherChecks() {
+            var policy = AggregationPolicy.weighted(Map.of("database", 3), 1, 0.25).ignoring(Set.of("metrics"));
+
+            assertThat(policy.weight("database")).isEqualTo(3);
+            assertThat(policy.weight("queue")).isOne();
+            assertThat(policy.weight("metrics")).isZero();
+        }
+
+        @Test
+        void shouldOnlyAffectNamedChecks() {
+            var policy = AggregationPolicy.maxSeverity().ignoring(Set.of("metrics"));
+
+            assertThat(policy.aggregate(values(HealthStatus.FATAL))).isEqualTo(HealthStatus.FATAL);
+        }
+
+        @Test
+        void shouldBeOK_WhenAllChecksAreIgnored() {
+            var policy = AggregationPolicy.maxSeverity().ignoring(Set.of("metrics", "tracing"));
+            var statuses = Map.of(
+                    "metrics", HealthStatus.CRITICAL,
+                    "tracing", HealthStatus.FATAL);
+
+            assertThat(policy.aggregate(statuses)).isEqualTo(HealthStatus.OK);
+            assertThat(policy.aggregate(new String[] { "metrics" }, values(HealthStatus.FATAL), 0, 1))
+                    .isEqualTo(HealthStatus.OK);
+        }
+
+        @Test
+        void shouldIgnoreByName_AtAnyPath() {
+            var policy = AggregationPolicy.maxSeverity().ignoring(Set.of("metrics"));
+
+            assertThat(policy.weight(List.of("orders", "metrics"))).isZero();
+            assertThat(policy.weight(List.of("metrics", "instance-1"))).isOne();
+        }
+
+        @Test
+        void shouldIgnoreOnlyGivenPaths() {
+            var policy = AggregationPolicy.weighted(Map.of("metrics", 3), 1, 0.25)
+                    .ignoringPaths(Set.of(List.of("orders", "metrics")));
+
+            assertThat(policy.weight(List.of("orders", "metrics"))).isZero();
+            assertThat(policy.weight(List.of("payments", "metrics"))).isEqualTo(3);
+            assertThat(policy.weight("metrics")).isEqualTo(3);
+        }
+    }
+
+    @Nested
+    class StatusValues {
+
+        private final AggregationPolicy policy = AggregationPolicy.maxSeverity();
+
+        @Test
+        void shouldAggregateRange() {
+            var statuses = values(HealthStatus.FATAL, HealthStatus.OK, HealthStatus.WARN, HealthStatus.CRITICAL);
+
+            assertThat(policy.aggregate(statuses, 1, 2)).isEqualTo(HealthStatus.WARN);
+            assertThat(policy.aggregate(statuses, 2, 0)).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldRejectInvalidValues() {
+            var statuses = new byte[] { 1, 0 };
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> policy.aggregate(statuses))
+                    .withMessage("invalid status value: 0");
+        }
+
+        @Test
+        void shouldRejectRangesOutOfBounds() {
+            var statuses = values(HealthStatus.OK, HealthStatus.OK);
+            var names = new String[] { "database" };
+
+            assertThatThrownBy(() -> policy.aggregate(statuses, 1, 2))
+                    .isInstanceOf(IndexOutOfBoundsException.class);
+            assertThatThrownBy(() -> policy.aggregate(names, statuses, 0, 2))
+                    .isInstanceOf(IndexOutOfBoundsException.class);
+        }
+    }
+
+    @Test
+    void shouldRejectNullArguments() {
+        var policy = AggregationPolicy.maxSeverity();
+        var statuses = values(HealthStatus.OK);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> policy.aggregate((byte[]) null))
+                .withMessage("statusValues cannot be null");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> policy.aggregate(null, statuses, 0, 1))
+                .withMessage("checkNames cannot be null");
+    }
+
+    @Test
+    void shouldRejectNullStatuses() {
+        var statuses = new HashMap<String, HealthStatus>();
+        statuses.put("database", null);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> AggregationPolicy.maxSeverity().aggregate(statuses))
+                .withMessage("statuses must not contain null values");
+    }
+}
@@ -0,0 +1,103 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+@DisplayName("BinaryHealthSnapshotReader")
+class BinaryHealthSnapshotReaderTest {
+
+    private SortedMap<String, HealthCheck.Result> results;
+
+    @BeforeEach
+    void setUp() {
+        results = new TreeMap<>();
+        results.put("database", HealthCheckResults.newUnhealthyResult(HealthStatus.CRITICAL, "Connection refused"));
+        results.put("disk", HealthCheckResults.newHealthyResult(HealthStatus.INFO));
+        results.put("queue-éè",
+                HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "Backlog of 42 messages ✉"));
+    }
+
+    @Test
+    void shouldReadEachCheck_InNameOrder() {
+        var reader = BinaryHealthSnapshots.reader(BinaryHealthSnapshots.encode(results, true));
+
+        assertAll(
+                () -> assertThat(reader.size()).isEqualTo(3),
+                () -> assertThat(reader.hasMessages()).isTrue(),
+                () -> assertThat(reader.name(0)).isEqualTo("database"),
+                () -> assertThat(reader.isHealthy(0)).isFalse(),
+                () -> assertThat(reader.status(0)).isEqualTo(HealthStatus.CRITICAL),
+                () -> assertThat(reader.message(0)).isEqualTo("Connection refused"),
+                () -> assertThat(reader.name(1)).isEqualTo("disk"),
+                () -> assertThat(reader.isHealthy(1)).isTrue(),
+                () -> assertThat(reader.status(1)).isEqualTo(HealthStatus.INFO),
+                () -> assertThat(reader.message(1)).isNull(),
+                () -> assertThat(reader.name(2)).isEqualTo("queue-éè"),
+                () -> assertThat(reader.status(2)).isEqualTo(HealthStatus.WARN),
+                () -> assertThat(reader.message(2)).isEqualTo("Backlog of 42 messages ✉"),
+                () -> assertThat(reader.overallStatus()).isEqualTo(HealthStatus.CRITICAL)
+        );
+    }
+
+    @Test
+    void shouldNotHaveMessages_WhenEncodedWithoutThem() {
+        var reader = BinaryHealthSnapshots.reader(BinaryHealthSnapshots.encode(results));
+
+        assertAll(
+                () -> assertThat(reader.hasMessages()).isFalse(),
+                () -> assertThat(reader.message(0)).isNull(),
+                () -> assertThat(reader.name(2)).isEqualTo("queue-éè")
+        );
+    }
+
+    @Test
+    void shouldReadFromDirectBuffer() {
+        var snapshot = BinaryHealthSnapshots.encode(results, true);
+        var buffer = ByteBuffer.allocateDirect(snapshot.length + 1);
+        buffer.put((byte) 0).put(snapshot).position(1);
+
+        var reader = BinaryHealthSnapshots.reader(buffer);
+
+        assertAll(
+                () -> assertThat(reader.name(0)).isEqualTo("database"),
+                () -> assertThat(reader.message(2)).isEqualTo("Backlog of 42 messages ✉"),
+                () -> assertThat(reader.overallStatus()).isEqualTo(HealthStatus.CRITICAL)
+        );
+    }
+
+    @Test
+    void shouldRejectIndexOutOfRange() {
+        var reader = BinaryHealthSnapshots.reader(BinaryHealthSnapshots.encode(results));
+
+        assertAll(
+                () -> assertThatThrownBy(() -> reader.name(3)).isInstanceOf(IndexOutOfBoundsException.class),
+                () -> assertThatThrownBy(() -> reader.status(-1)).isInstanceOf(IndexOutOfBoundsException.class)
+        );
+    }
+
+    @Test
+    void shouldRejectTruncatedSnapshots() {
+        var snapshot = BinaryHealthSnapshots.encode(results, true);
+
+        assertAll(
+                () -> assertThatIllegalArgumentException()
+                        .isThrownBy(() -> BinaryHealthSnapshots.reader(Arrays.copyOf(snapshot, 12)))
+                        .withMessage("Invalid health snapshot: name is truncated"),
+                () -> assertThatIllegalArgumentException()
+                        .isThrownBy(() -> BinaryHealthSnapshots.reader(Arrays.copyOf(snapshot, snapshot.length - 1)))
+                        .withMessage("Invalid health snapshot: messages are truncated")
+        );
+    }
+}
@@ -0,0 +1,168 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+@DisplayName("BinaryHealthSnapshots")
+class BinaryHealthSnapshotsTest {
+
+    private static SortedMap<String, HealthCheck.Result> results(HealthCheck.Result... results) {
+        var map = new TreeMap<String, HealthCheck.Result>();
+        for (var i = 0; i < results.length; i++) {
+            map.put("check-" + i, results[i]);
+        }
+        return map;
+    }
+
+    @Nested
+    class Encode {
+
+        @Test
+        void shouldEncodeHeaderCountStatusBytesAndNames() {
+            var snapshot = BinaryHealthSnapshots.encode(results(
+                    HealthCheckResults.newHealthyResult(HealthStatus.INFO),
+                    HealthCheckResults.newUnhealthyResult(HealthStatus.CRITICAL, "down")));
+
+            assertThat(snapshot).containsExactly(
+                    'H', 'S', 1, 0,
+                    2,
+                    0x80 | 2, 4,
+                    7, 'c', 'h', 'e', 'c', 'k', '-', '0',
+                    7, 'c', 'h', 'e', 'c', 'k', '-', '1');
+        }
+
+        @Test
+        void shouldEncodeMessageOffsets_WhenIncludingMessages() {
+            var snapshot = BinaryHealthSnapshots.encode(results(
+                    HealthCheckResults.newHealthyResult(),
+                    HealthCheckResults.newUnhealthyResult(HealthStatus.CRITICAL, "down")), true);
+
+            var messageSection = Arrays.copyOfRange(snapshot, snapshot.length - 16, snapshot.length);
+            assertAll(
+                    () -> assertThat(snapshot[3]).isEqualTo((byte) BinaryHealthSnapshots.FLAG_MESSAGES),
+                    () -> assertThat(messageSection).containsExactly(
+                            0, 0, 0, 0,
+                            0, 0, 0, 0,
+                            0, 0, 0, 4,
+                            'd', 'o', 'w', 'n')
+            );
+        }
+
+        @Test
+        void shouldEncodeEmptyResults() {
+            assertThat(BinaryHealthSnapshots.encode(new TreeMap<>())).containsExactly('H', 'S', 1, 0, 0);
+        }
+
+        @Test
+        void shouldEncodeLargeCounts_AsVariableLengthIntegers() {
+            var results = new TreeMap<String, HealthCheck.Result>();
+            for (var i = 0; i < 300; i++) {
+                results.put(String.format("check-%03d", i), HealthCheckResults.newHealthyResult());
+            }
+
+            var snapshot = BinaryHealthSnapshots.encode(results);
+
+            assertAll(
+                    () -> assertThat(snapshot[4]).isEqualTo((byte) (0x80 | (300 & 0x7F))),
+                    () -> assertThat(snapshot[5]).isEqualTo((byte) (300 >>> 7)),
+                    () -> assertThat(BinaryHealthSnapshots.reader(snapshot).size()).isEqualTo(300)
+            );
+        }
+
+        @Test
+        void shouldNotAllowNullArguments() {
+            var results = new TreeMap<String, HealthCheck.Result>();
+            results.put("database", null);
+
+            assertAll(
+                    () -> assertThatIllegalArgumentException().isThrownBy(() -> BinaryHealthSnapshots.encode(null)),
+                    () -> assertThatIllegalArgumentException().isThrownBy(() -> BinaryHealthSnapshots.encode(results))
+            );
+        }
+    }
+
+    @Nested
+    class OverallStatus {
+
+        @Test
+        void shouldBeCritical_WhenThereAreNoChecks() {
+            var snapshot = BinaryHealthSnapshots.encode(new TreeMap<>());
+
+            assertThat(BinaryHealthSnapshots.overallStatus(snapshot)).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @ParameterizedTest
+        @EnumSource(HealthStatus.class)
+        void shouldBeHighestStatus(HealthStatus highest) {
+            var worst = highest.getValue() <= HealthStatus.INFO.getValue() ?
+                    HealthCheckResults.newHealthyResult(highest) :
+                    HealthCheckResults.newUnhealthyResult(highest, "not good");
+            var results = results(HealthCheckResults.newHealthyResult(), worst, HealthCheckResults.newHealthyResult());
+
+            var snapshot = BinaryHealthSnapshots.encode(results);
+
+            assertAll(
+                    () -> assertThat(BinaryHealthSnapshots.overallStatus(snapshot)).isEqualTo(highest),
+                    () -> assertThat(BinaryHealthSnapshots.overallStatus(snapshot))
+                            .isEqualTo(HealthCheckResults.overallStatus(results))
+            );
+        }
+
+        @Test
+        void shouldEvaluateBetweenPositionAndLimit() {
+            var snapshot = BinaryHealthSnapshots.encode(
+                    results(HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "slow")));
+            var buffer = ByteBuffer.allocateDirect(snapshot.length + 2);
+            buffer.put((byte) 'x').put(snapshot).put((byte) 'y');
+            buffer.position(1).limit(snapshot.length + 1);
+
+            assertAll(
+                    () -> assertThat(BinaryHealthSnapshots.overallStatus(buffer)).isEqualTo(HealthStatus.WARN),
+                    () -> assertThat(buffer.position()).isOne()
+            );
+        }
+
+        @Test
+        void shouldRejectInvalidSnapshots() {
+            var valid = BinaryHealthSnapshots.encode(results(HealthCheckResults.newHealthyResult()));
+            var badMagic = valid.clone();
+            badMagic[0] = '{';
+            var badVersion = valid.clone();
+            badVersion[2] = 99;
+            var badStatus = valid.clone();
+            badStatus[5] = (byte) (0x80 | 42);
+            var truncated = Arrays.copyOf(valid, 5);
+
+            assertAll(
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> BinaryHealthSnapshots.overallStatus(badMagic))
+                            .withMessage("Invalid health snapshot: bad magic bytes"),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> BinaryHealthSnapshots.overallStatus(badVersion))
+                            .withMessage("Invalid health snapshot: unsupported version"),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> BinaryHealthSnapshots.overallStatus(badStatus))
+                            .withMessage("Invalid health snapshot: invalid status value"),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> BinaryHealthSnapshots.overallStatus(truncated))
+                            .withMessage("Invalid health snapshot: status bytes are truncated"),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> BinaryHealthSnapshots.overallStatus(new byte[] { 'H', 'S' }))
+                            .withMessage("Invalid health snapshot: too short")
+            );
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@DisplayName("CachingHealthCheck")
+class CachingHealthCheckTest {
+
+    private AtomicLong nanoTime;
+    private AtomicInteger executionCount;
+    private AtomicReference<HealthCheck.Result> nextResult;
+    private List<Runnable> pendingRefreshes;
+    private HealthCheck delegate;
+
+    @BeforeEach
+    void setUp() {
+        nanoTime = new AtomicLong();
+        executionCount = new AtomicInteger();
+        nextResult = new AtomicReference<>(HealthCheckResults.newHealthyResult());
+        pendingRefreshes = new CopyOnWriteArrayList<>();
+        delegate = new HealthCheck() {
+            @Override
+            protected Result check() {
+                executionCount.incrementAndGet();
+                return nextResult.get();
+            }
+        };
+    }
+
+    private CachingHealthCheck.Builder builderWithDirectExecutor() {
+        return CachingHealthCheck.builder(delegate)
+                .executor(Runnable::run)
+                .nanoTime(nanoTime::get);
+    }
+
+    private void advance(Duration duration) {
+        nanoTime.addAndGet(duration.toNanos());
+    }
+
+    @Nested
+    class Caching {
+
+        @Test
+        void shouldRunDelegate_OnFirstCall() {
+            var healthCheck = builderWithDirectExecutor().build();
+
+            assertThat(healthCheck.execute()).isSameAs(nextResult.get());
+            assertThat(executionCount).hasValue(1);
+        }
+
+        @Test
+        void shouldReturnCachedResult_UntilItExpires() {
+            var healthCheck = builderWithDirectExecutor().build();
+            var firstResult = healthCheck.execute();
+
+            advance(Duration.ofSeconds(59));
+
+            assertThat(healthCheck.execute()).isSameAs(firstResult);
+            assertThat(executionCount).hasValue(1);
+        }
+
+        @Test
+        void shouldUseTimeToLiveForSeverity() {
+            nextResult.set(HealthCheckResults.newUnhealthyResult(HealthStatus.CRITICAL, "down"));
+            var healthCheck = builderWithDirectExecutor()
+                    .timeToLive(HealthStatus.CRITICAL, Duration.ofMillis(500))
+                    .build();
+            healthCheck.execute();
+
+            advance(Duration.ofMillis(499));
+            healthCheck.execute();
+            assertThat(executionCount).hasValue(1);
+
+            advance(Duration.ofMillis(1));
+            healthCheck.execute();
+            assertThat(executionCount).hasValue(2);
+        }
+
+        @Test
+        void shouldInvalidate() {
+            var healthCheck = builderWithDirectExecutor().build();
+            healthCheck.execute();
+
+            healthCheck.invalidate();
+            healthCheck.execute();
+
+            assertThat(executionCount).hasValue(2);
+        }
+    }
+
+    @Nested
+    class StaleWhileRevalidate {
+
+        @Test
+        void shouldReturnStaleResult_WhileRefreshing() {
+            var healthCheck = CachingHealthCheck.builder(delegate)
+                    .executor(pendingRefreshes::add)
+                    .nanoTime(nanoTime::get)
+                    .build();
+
+            // the first call waits for the result, so make it from another thread and run its refresh here
+            var firstCall = new Thread(healthCheck::execute);
+            firstCall.start();
+            awaitPendingRefresh();
+            pendingRefreshes.remove(0).run();
+            joinQuietly(firstCall);
+
+            var staleResult = healthCheck.execute();
+            advance(Duration.ofMinutes(2));
+            var newResult = HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "degraded");
+            nextResult.set(newResult);
+
+            assertThat(healthCheck.execute()).isSameAs(staleResult);
+            assertThat(healthCheck.execute()).isSameAs(staleResult);
+            assertThat(pendingRefreshes)
+                    .describedAs("only one refresh should be in progress")
+                    .hasSize(1);
+
+            pendingRefreshes.remove(0).run();
+
+            assertThat(healthCheck.execute()).isSameAs(newResult);
+            assertThat(executionCount).hasValue(2);
+        }
+
+        private void awaitPendingRefresh() {
+            var deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (pendingRefreshes.isEmpty() && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertThat(pendingRefreshes).hasSize(1);
+        }
+
+        private void joinQuietly(Thread thread) {
+            try {
+                thread.join(5_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Nested
+    class Builder {
+
+        @Test
+        void shouldRequireDelegate() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> CachingHealthCheck.builder(null))
+                    .withMessage("delegate cannot be null");
+        }
+
+        @Test
+        void shouldNotAllowNegativeTimeToLive() {
+            var builder = CachingHealthCheck.builder(delegate);
+            var negative = Duration.ofSeconds(-1);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> builder.timeToLive(HealthStatus.OK, negative))
+                    .withMessage("timeToLive must not be negative");
+        }
+
+        @Test
+        void shouldUseSharedExecutor_ByDefault() {
+            var healthCheck = CachingHealthCheck.of(delegate);
+
+            assertThat(healthCheck.execute()).isSameAs(nextResult.get());
+        }
+    }
+}
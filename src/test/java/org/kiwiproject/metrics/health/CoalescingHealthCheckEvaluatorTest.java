@@ -0,0 +1,208 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+@DisplayName("CoalescingHealthCheckEvaluator")
+class CoalescingHealthCheckEvaluatorTest {
+
+    private AtomicInteger evaluationCount;
+    private AtomicLong nanoTime;
+
+    @BeforeEach
+    void setUp() {
+        evaluationCount = new AtomicInteger();
+        nanoTime = new AtomicLong();
+    }
+
+    private Supplier<HealthCheckEvaluation> countingEvaluator() {
+        return () -> {
+            var results = new TreeMap<String, HealthCheck.Result>();
+            results.put("run-" + evaluationCount.incrementAndGet(), HealthCheckResults.newHealthyResult());
+            return HealthCheckEvaluation.of(results);
+        };
+    }
+
+    @Test
+    void shouldRunHealthChecks_InRegistry() {
+        var registry = new HealthCheckRegistry();
+        registry.register("queue", new HealthCheck() {
+            @Override
+            protected Result check() {
+                return HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "backlog");
+            }
+        });
+
+        var evaluation = CoalescingHealthCheckEvaluator.of(registry).evaluate();
+
+        assertThat(evaluation.results()).containsOnlyKeys("queue");
+        assertThat(evaluation.status()).isEqualTo(HealthStatus.WARN);
+    }
+
+    @Test
+    void shouldShareInFlightEvaluation_WithConcurrentCallers() throws InterruptedException {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var counting = countingEvaluator();
+        var coalescing = CoalescingHealthCheckEvaluator.builder(() -> {
+            started.countDown();
+            awaitQuietly(release);
+            return counting.get();
+        }).build();
+
+        var leaderResult = new AtomicReference<HealthCheckEvaluation>();
+        var leader = new Thread(() -> leaderResult.set(coalescing.evaluate()));
+        leader.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        var followerResults = new ArrayList<AtomicReference<HealthCheckEvaluation>>();
+        var followers = new ArrayList<Thread>();
+        for (var i = 0; i < 5; i++) {
+            var followerResult = new AtomicReference<HealthCheckEvaluation>();
+            followerResults.add(followerResult);
+            var follower = new Thread(() -> followerResult.set(coalescing.evaluate()));
+            follower.start();
+            followers.add(follower);
+        }
+        for (var follower : followers) {
+            awaitWaiting(follower);
+        }
+
+        release.countDown();
+        leader.join(5_000);
+        for (var follower : followers) {
+            follower.join(5_000);
+        }
+
+        assertThat(evaluationCount).hasValue(1);
+        assertThat(followerResults).allSatisfy(result -> assertThat(result.get()).isSameAs(leaderResult.get()));
+    }
+
+    @Nested
+    class MinimumInterval {
+
+        @Test
+        void shouldEvaluateOnEveryCall_ByDefault() {
+            var coalescing = CoalescingHealthCheckEvaluator.builder(countingEvaluator())
+                    .nanoTime(nanoTime::get)
+                    .build();
+
+            coalescing.evaluate();
+            coalescing.evaluate();
+
+            assertThat(evaluationCount).hasValue(2);
+        }
+
+        @Test
+        void shouldReusePreviousEvaluation_WithinMinimumInterval() {
+            var coalescing = CoalescingHealthCheckEvaluator.builder(countingEvaluator())
+                    .minimumInterval(Duration.ofNanos(100))
+                    .nanoTime(nanoTime::get)
+                    .build();
+
+            var first = coalescing.evaluate();
+            nanoTime.set(99);
+
+            assertThat(coalescing.evaluate()).isSameAs(first);
+            assertThat(evaluationCount).hasValue(1);
+
+            nanoTime.set(100);
+
+            assertThat(coalescing.evaluate().results()).containsOnlyKeys("run-2");
+        }
+
+        @Test
+        void shouldRejectNegativeInterval() {
+            var builder = CoalescingHealthCheckEvaluator.builder(countingEvaluator());
+            var interval = Duration.ofMillis(-1);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> builder.minimumInterval(interval))
+                    .withMessage("minimumInterval must not be negative");
+        }
+    }
+
+    @Test
+    void shouldPublishEvaluations_ToSnapshotHolder() {
+        var holder = new HealthSnapshotHolder();
+        var coalescing = CoalescingHealthCheckEvaluator.builder(countingEvaluator())
+                .minimumInterval(Duration.ofNanos(100))
+                .nanoTime(nanoTime::get)
+                .publishTo(holder)
+                .build();
+
+        var evaluation = coalescing.evaluate();
+        coalescing.evaluate();
+
+        assertThat(holder.current().version()).isOne();
+        assertThat(holder.current().evaluation()).isSameAs(evaluation);
+    }
+
+    @Nested
+    class WhenEvaluatorFails {
+
+        @Test
+        void shouldRethrowException_AndTryAgainOnNextCall() {
+            var fail = new AtomicReference<>(true);
+            var counting = countingEvaluator();
+            var coalescing = CoalescingHealthCheckEvaluator.builder(() -> {
+                if (fail.get()) {
+                    throw new IllegalStateException("registry unavailable");
+                }
+                return counting.get();
+            }).minimumInterval(Duration.ofDays(1)).build();
+
+            assertThatIllegalStateException()
+                    .isThrownBy(coalescing::evaluate)
+                    .withMessage("registry unavailable");
+
+            fail.set(false);
+
+            assertThat(coalescing.evaluate().results()).containsOnlyKeys("run-1");
+        }
+
+        @Test
+        void shouldRejectNullEvaluation() {
+            var coalescing = CoalescingHealthCheckEvaluator.builder(() -> null).build();
+
+            assertThatThrownBy(coalescing::evaluate)
+                    .isExactlyInstanceOf(IllegalStateException.class)
+                    .hasMessage("evaluator returned null");
+        }
+    }
+
+    private static void awaitWaiting(Thread thread) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(thread.getState()).isEqualTo(Thread.State.WAITING);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
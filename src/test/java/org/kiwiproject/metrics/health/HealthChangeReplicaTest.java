@@ -0,0 +1,218 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.kiwiproject.metrics.health.HealthChangeReplica.ApplyResult;
+import org.kiwiproject.metrics.health.HealthChangeStream.CheckState;
+import org.kiwiproject.metrics.health.HealthChangeStream.Delta;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@DisplayName("HealthChangeReplica")
+class HealthChangeReplicaTest {
+
+    private HealthChangeStream stream;
+    private HealthChangeReplica replica;
+
+    @BeforeEach
+    void setUp() {
+        stream = new HealthChangeStream(2);
+        replica = new HealthChangeReplica();
+    }
+
+    private Delta update(HealthStatus databaseStatus, HealthStatus queueStatus) {
+        var results = new TreeMap<String, HealthCheck.Result>();
+        results.put("database", result(databaseStatus));
+        results.put("queue", result(queueStatus));
+        return stream.update(results).orElseThrow();
+    }
+
+    private static HealthCheck.Result result(HealthStatus status) {
+        return switch (status) {
+            case OK, INFO -> HealthCheckResults.newHealthyResult(status);
+            default -> HealthCheckResults.newUnhealthyResult(status, "not good");
+        };
+    }
+
+    @Test
+    void shouldRejectDeltas_BeforeReset() {
+        var delta = update(HealthStatus.OK, HealthStatus.OK);
+
+        assertThat(replica.isInitialized()).isFalse();
+        assertThat(replica.streamId()).isNull();
+        assertThat(replica.apply(delta)).isEqualTo(ApplyResult.GAP);
+        assertThat(replica.checks()).isEmpty();
+        assertThat(replica.overallStatus()).isEqualTo(HealthStatus.CRITICAL);
+    }
+
+    @Nested
+    class Apply {
+
+        @BeforeEach
+        void setUp() {
+            replica.reset(stream.snapshot());
+        }
+
+        @Test
+        void shouldRebuildState_FromSnapshotPlusDeltas() {
+            assertThat(replica.apply(update(HealthStatus.OK, HealthStatus.OK))).isEqualTo(ApplyResult.APPLIED);
+            assertThat(replica.apply(update(HealthStatus.OK, HealthStatus.WARN))).isEqualTo(ApplyResult.APPLIED);
+
+            assertThat(replica.sequence()).isEqualTo(2);
+            assertThat(replica.checks()).isEqualTo(stream.snapshot().checks());
+            assertThat(replica.state("queue")).isEqualTo(new CheckState(false, HealthStatus.WARN));
+            assertThat(replica.overallStatus()).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldTrackOverallStatus_AsChecksAreRemoved() {
+            replica.apply(update(HealthStatus.OK, HealthStatus.FATAL));
+            assertThat(replica.overallStatus()).isEqualTo(HealthStatus.FATAL);
+
+            replica.apply(stream.update(Map.of("database", result(HealthStatus.INFO))).orElseThrow());
+
+            assertThat(replica.state("queue")).isNull();
+            assertThat(replica.overallStatus()).isEqualTo(HealthStatus.INFO);
+        }
+
+        @Test
+        void shouldIgnoreDuplicateDeltas() {
+            var delta = update(HealthStatus.OK, HealthStatus.OK);
+            replica.apply(delta);
+
+            assertThat(replica.apply(delta)).isEqualTo(ApplyResult.DUPLICATE);
+            assertThat(replica.sequence()).isOne();
+        }
+
+        @Test
+        void shouldReportGap_AndKeepState_WhenDeltaIsMissed() {
+            replica.apply(update(HealthStatus.OK, HealthStatus.OK));
+            update(HealthStatus.WARN, HealthStatus.OK);
+            var third = update(HealthStatus.WARN, HealthStatus.CRITICAL);
+
+            assertThat(replica.apply(third)).isEqualTo(ApplyResult.GAP);
+            assertThat(replica.sequence()).isOne();
+            assertThat(replica.overallStatus()).isEqualTo(HealthStatus.OK);
+        }
+
+        @Test
+        void shouldReportGap_ForDeltaFromDifferentStream() {
+            var otherStream = new HealthChangeStream();
+            var delta = otherStream.update(Map.of("database", result(HealthStatus.OK))).orElseThrow();
+
+            assertThat(replica.apply(delta)).isEqualTo(ApplyResult.GAP);
+        }
+    }
+
+    @Nested
+    class CatchUp {
+
+        @Test
+        void shouldResetFromSnapshot_WhenNotInitialized() {
+            update(HealthStatus.OK, HealthStatus.WARN);
+
+            assertThat(replica.catchUp(stream)).isFalse();
+
+            assertThat(replica.streamId()).isEqualTo(stream.streamId());
+            assertThat(replica.sequence()).isOne();
+            assertThat(replica.overallStatus()).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldApplyMissedDeltas_WhenStillRetained() {
+            replica.reset(stream.snapshot());
+            update(HealthStatus.OK, HealthStatus.OK);
+            update(HealthStatus.OK, HealthStatus.CRITICAL);
+
+            assertThat(replica.catchUp(stream)).isTrue();
+
+            assertThat(replica.sequence()).isEqualTo(2);
+            assertThat(replica.overallStatus()).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldResetFromSnapshot_WhenMissedDeltasAreNoLongerRetained() {
+            replica.reset(stream.snapshot());
+            update(HealthStatus.OK, HealthStatus.OK);
+            update(HealthStatus.OK, HealthStatus.CRITICAL);
+            update(HealthStatus.INFO, HealthStatus.CRITICAL);
+
+            assertThat(replica.catchUp(stream)).isFalse();
+
+            assertThat(replica.sequence()).isEqualTo(3);
+            assertThat(replica.checks()).isEqualTo(stream.snapshot().checks());
+        }
+
+        @Test
+        void shouldResetFromSnapshot_WhenFollowingDifferentStream() {
+            var otherStream = new HealthChangeStream();
+            otherStream.update(Map.of("cache", result(HealthStatus.FATAL)));
+            replica.reset(otherStream.snapshot());
+            update(HealthStatus.OK, HealthStatus.OK);
+
+            assertThat(replica.catchUp(stream)).isFalse();
+
+            assertThat(replica.streamId()).isEqualTo(stream.streamId());
+            assertThat(replica.state("cache")).isNull();
+            assertThat(replica.overallStatus()).isEqualTo(HealthStatus.OK);
+        }
+    }
+
+    @Test
+    void shouldMatchStream_AfterManyRandomUpdates() {
+        var statuses = HealthStatus.values();
+        var random = new Random(42);
+        var received = new ArrayList<Delta>();
+        replica.reset(stream.snapshot());
+
+        for (var i = 0; i < 200; i++) {
+            var results = new TreeMap<String, HealthCheck.Result>();
+            for (var check = 0; check < 10; check++) {
+                if (random.nextInt(4) > 0) {
+                    results.put("check-" + check, result(statuses[random.nextInt(statuses.length)]));
+                }
+            }
+            stream.update(results).ifPresent(received::add);
+        }
+
+        received.forEach(replica::apply);
+
+        var rebuilt = new HealthChangeReplica();
+        rebuilt.reset(stream.snapshot());
+        assertThat(replica.checks()).isEqualTo(rebuilt.checks());
+        assertThat(replica.overallStatus()).isEqualTo(rebuilt.overallStatus());
+    }
+
+    @Test
+    void shouldNeverReportPartlyReset_OverallStatus() throws InterruptedException {
+        update(HealthStatus.OK, HealthStatus.WARN);
+        var snapshot = stream.snapshot();
+        replica.reset(snapshot);
+
+        var running = new AtomicBoolean(true);
+        var writer = new Thread(() -> {
+            while (running.get()) {
+                replica.reset(snapshot);
+            }
+        });
+        writer.start();
+
+        try {
+            for (var i = 0; i < 100_000; i++) {
+                assertThat(replica.overallStatus()).isEqualTo(HealthStatus.WARN);
+            }
+        } finally {
+            running.set(false);
+            writer.join(5_000);
+        }
+    }
+}
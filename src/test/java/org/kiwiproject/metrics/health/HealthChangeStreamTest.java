@@ -0,0 +1,221 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.kiwiproject.metrics.health.HealthChangeStream.Change;
+import org.kiwiproject.metrics.health.HealthChangeStream.ChangeType;
+import org.kiwiproject.metrics.health.HealthChangeStream.CheckState;
+import org.kiwiproject.metrics.health.HealthChangeStream.Delta;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+@DisplayName("HealthChangeStream")
+class HealthChangeStreamTest {
+
+    private static final CheckState OK = new CheckState(true, HealthStatus.OK);
+    private static final CheckState WARN = new CheckState(false, HealthStatus.WARN);
+
+    private HealthChangeStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new HealthChangeStream(3);
+    }
+
+    private static Map<String, HealthCheck.Result> results(Object... namesAndResults) {
+        var results = new TreeMap<String, HealthCheck.Result>();
+        for (var i = 0; i < namesAndResults.length; i += 2) {
+            results.put((String) namesAndResults[i], (HealthCheck.Result) namesAndResults[i + 1]);
+        }
+        return results;
+    }
+
+    @Nested
+    class Update {
+
+        @Test
+        void shouldEmitAddedChecks_OnFirstUpdate() {
+            var delta = stream.update(results(
+                    "queue", HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "backlog"),
+                    "database", HealthCheckResults.newHealthyResult()));
+
+            assertThat(delta).contains(new Delta(stream.streamId(), 1, List.of(
+                    new Change("database", ChangeType.ADDED, OK),
+                    new Change("queue", ChangeType.ADDED, WARN))));
+            assertThat(stream.sequence()).isOne();
+        }
+
+        @Test
+        void shouldNotEmitAnything_WhenNothingChanged() {
+            stream.update(results("database", HealthCheckResults.newHealthyResult("connected")));
+
+            var delta = stream.update(results("database", HealthCheckResults.newHealthyResult("still connected")));
+
+            assertThat(delta).isEmpty();
+            assertThat(stream.sequence()).isOne();
+        }
+
+        @Test
+        void shouldEmitOnlyChangedChecks() {
+            stream.update(results(
+                    "database", HealthCheckResults.newHealthyResult(),
+                    "disk", HealthCheckResults.newHealthyResult(),
+                    "queue", HealthCheckResults.newHealthyResult()));
+
+            var delta = stream.update(results(
+                    "cache", HealthCheckResults.newHealthyResult(),
+                    "database", HealthCheckResults.newHealthyResult(),
+                    "queue", HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "backlog")));
+
+            assertThat(delta).contains(new Delta(stream.streamId(), 2, List.of(
+                    new Change("cache", ChangeType.ADDED, OK),
+                    new Change("disk", ChangeType.REMOVED, null),
+                    new Change("queue", ChangeType.UPDATED, WARN))));
+        }
+
+        @Test
+        void shouldEmitUpdate_WhenOnlyHealthyFlagChanged() {
+            stream.update(results("database", HealthCheckResults.newHealthyResult(HealthStatus.WARN)));
+
+            var delta = stream.update(
+                    results("database", HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "down")));
+
+            assertThat(delta).map(Delta::changes)
+                    .contains(List.of(new Change("database", ChangeType.UPDATED, WARN)));
+        }
+
+        @Test
+        void shouldEmitRemovals_WhenAllChecksAreGone() {
+            stream.update(results("database", HealthCheckResults.newHealthyResult()));
+
+            var delta = stream.update(Map.of());
+
+            assertThat(delta).map(Delta::changes)
+                    .contains(List.of(new Change("database", ChangeType.REMOVED, null)));
+            assertThat(stream.snapshot().checks()).isEmpty();
+        }
+
+        @Test
+        void shouldRunChecksInRegistry() {
+            var registry = new HealthCheckRegistry();
+            registry.register("database", new HealthCheck() {
+                @Override
+                protected Result check() {
+                    return HealthCheckResults.newHealthyResult();
+                }
+            });
+
+            assertThat(stream.update(registry)).map(Delta::changes)
+                    .contains(List.of(new Change("database", ChangeType.ADDED, OK)));
+        }
+
+        @Test
+        void shouldNotAllowNullResults() {
+            var results = new TreeMap<String, HealthCheck.Result>();
+            results.put("database", null);
+
+            assertThatIllegalArgumentException().isThrownBy(() -> stream.update(results));
+        }
+    }
+
+    @Nested
+    class Snapshot {
+
+        @Test
+        void shouldBeEmpty_BeforeFirstUpdate() {
+            var snapshot = stream.snapshot();
+
+            assertThat(snapshot.streamId()).isEqualTo(stream.streamId());
+            assertThat(snapshot.sequence()).isZero();
+            assertThat(snapshot.checks()).isEmpty();
+        }
+
+        @Test
+        void shouldContainCurrentStates_AndSequence() {
+            stream.update(results("database", HealthCheckResults.newHealthyResult()));
+            stream.update(results(
+                    "database", HealthCheckResults.newHealthyResult(),
+                    "queue", HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "backlog")));
+
+            var snapshot = stream.snapshot();
+
+            assertThat(snapshot.sequence()).isEqualTo(2);
+            assertThat(snapshot.checks()).containsExactly(Map.entry("database", OK), Map.entry("queue", WARN));
+        }
+    }
+
+    @Nested
+    class DeltasSince {
+
+        @BeforeEach
+        void setUp() {
+            for (var i = 0; i < 5; i++) {
+                stream.update(results("check-" + i, HealthCheckResults.newHealthyResult()));
+            }
+        }
+
+        @Test
+        void shouldReturnRetainedDeltas_AfterSequence() {
+            assertThat(stream.deltasSince(3)).hasValueSatisfying(deltas ->
+                    assertThat(deltas).extracting(Delta::sequence).containsExactly(4L, 5L));
+        }
+
+        @Test
+        void shouldReturnAllRetainedDeltas_WhenOldestFollowsSequence() {
+            assertThat(stream.deltasSince(2)).hasValueSatisfying(deltas ->
+                    assertThat(deltas).extracting(Delta::sequence).containsExactly(3L, 4L, 5L));
+        }
+
+        @Test
+        void shouldReturnEmptyList_WhenUpToDate() {
+            assertThat(stream.deltasSince(5)).contains(List.of());
+        }
+
+        @Test
+        void shouldReturnEmptyOptional_WhenDeltasAreNoLongerRetained() {
+            assertThat(stream.deltasSince(1)).isEmpty();
+            assertThat(stream.backlogSize()).isEqualTo(3);
+        }
+
+        @Test
+        void shouldReturnEmptyOptional_ForUnknownSequence() {
+            assertThat(stream.deltasSince(6)).isEmpty();
+            assertThat(stream.deltasSince(-1)).isEmpty();
+        }
+
+        @Test
+        void shouldReturnEmptyOptional_WhenBacklogIsDisabled() {
+            var unbuffered = new HealthChangeStream(0);
+            unbuffered.update(results("database", HealthCheckResults.newHealthyResult()));
+
+            assertThat(unbuffered.deltasSince(0)).isEmpty();
+            assertThat(unbuffered.deltasSince(1)).contains(List.of());
+        }
+    }
+
+    @Test
+    void shouldNotAllowNegativeBacklogCapacity() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new HealthChangeStream(-1))
+                .withMessage("backlogCapacity must not be negative");
+    }
+
+    @Test
+    void shouldValidateChanges() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new Change("database", ChangeType.REMOVED, OK))
+                .withMessage("state must be null if and only if type is REMOVED");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new Change("database", ChangeType.UPDATED, null))
+                .withMessage("state must be null if and only if type is REMOVED");
+    }
+}
@@ -0,0 +1,282 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import com.codahale.metrics.health.annotation.Async;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+@DisplayName("HealthCheckMetrics")
+class HealthCheckMetricsTest {
+
+    private HealthCheckRegistry healthCheckRegistry;
+    private MetricRegistry metricRegistry;
+    private AtomicReference<HealthCheck.Result> nextResult;
+    private HealthCheck database;
+
+    @BeforeEach
+    void setUp() {
+        healthCheckRegistry = new HealthCheckRegistry();
+        metricRegistry = new MetricRegistry();
+        nextResult = new AtomicReference<>(HealthCheckResults.newHealthyResult());
+        database = new HealthCheck() {
+            @Override
+            protected Result check() {
+                return nextResult.get();
+            }
+        };
+        healthCheckRegistry.register("database", database);
+    }
+
+    @AfterEach
+    void tearDown() {
+        healthCheckRegistry.shutdown();
+    }
+
+    private int gaugeValue(String name) {
+        return (Integer) metricRegistry.getGauges().get(name).getValue();
+    }
+
+    private long meterCount(String name) {
+        return metricRegistry.getMeters().get(name).getCount();
+    }
+
+    @Nested
+    class Registration {
+
+        @Test
+        void shouldRegisterMetrics_ForExistingChecks() {
+            HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry);
+
+            assertAll(
+                    () -> assertThat(metricRegistry.getTimers()).containsOnlyKeys("health.database.execution"),
+                    () -> assertThat(metricRegistry.getGauges())
+                            .containsOnlyKeys("health.database.status", "health.status"),
+                    () -> assertThat(metricRegistry.getMeters()).containsOnlyKeys(
+                            "health.database.transitions",
+                            "health.transitions.ok",
+                            "health.transitions.info",
+                            "health.transitions.warn",
+                            "health.transitions.critical",
+                            "health.transitions.fatal")
+            );
+        }
+
+        @Test
+        void shouldRegisterMetrics_ForChecksRegisteredLater() {
+            HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry);
+
+            healthCheckRegistry.register("queue", database);
+
+            assertAll(
+                    () -> assertThat(metricRegistry.getTimers())
+                            .containsOnlyKeys("health.database.execution", "health.queue.execution"),
+                    () -> assertThat(healthCheckRegistry.getNames()).containsExactly("database", "queue")
+            );
+        }
+
+        @Test
+        void shouldUsePrefix() {
+            HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry, "app.health");
+
+            assertThat(metricRegistry.getNames())
+                    .contains("app.health.database.execution", "app.health.database.status", "app.health.status");
+        }
+
+        @Test
+        void shouldNotInstrumentAsyncChecks() {
+            healthCheckRegistry.register("async", new AsyncHealthCheck());
+
+            HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry);
+
+            assertThat(metricRegistry.getTimers()).containsOnlyKeys("health.database.execution");
+        }
+
+        @Test
+        void shouldReplaceChecksInRegistry_AndExposeOriginals() {
+            HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry);
+
+            var registered = healthCheckRegistry.getHealthCheck("database");
+
+            assertAll(
+                    () -> assertThat(registered).isNotSameAs(database),
+                    () -> assertThat(HealthCheckMetrics.originalOf(registered)).isSameAs(database),
+                    () -> assertThat(HealthCheckMetrics.originalOf(database)).isSameAs(database),
+                    () -> assertThatIllegalArgumentException().isThrownBy(() -> HealthCheckMetrics.originalOf(null))
+            );
+        }
+
+        @Test
+        void shouldRefuseToInstrumentRegistry_ThatIsAlreadyInstrumented() {
+            var metrics = HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry);
+            var otherMetricRegistry = new MetricRegistry();
+
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> HealthCheckMetrics.instrument(healthCheckRegistry, otherMetricRegistry, "other"))
+                    .withMessageContaining("already instrumented");
+
+            healthCheckRegistry.register("queue", database);
+
+            assertAll(
+                    () -> assertThat(HealthCheckMetrics.originalOf(healthCheckRegistry.getHealthCheck("queue")))
+                            .isSameAs(database),
+                    () -> assertThat(otherMetricRegistry.getNames()).isEmpty(),
+                    () -> assertThat(metricRegistry.getTimers())
+                            .containsOnlyKeys("health.database.execution", "health.queue.execution")
+            );
+
+            metrics.close();
+            metrics.close();
+            var replacement = HealthCheckMetrics.instrument(healthCheckRegistry, otherMetricRegistry, "other");
+
+            assertThat(otherMetricRegistry.getTimers())
+                    .containsOnlyKeys("other.database.execution", "other.queue.execution");
+            replacement.close();
+        }
+
+        @Test
+        void shouldValidateArguments() {
+            assertAll(
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> HealthCheckMetrics.instrument(null, metricRegistry)),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> HealthCheckMetrics.instrument(healthCheckRegistry, null)),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry, " "))
+            );
+        }
+    }
+
+    @Async(period = 1, unit = TimeUnit.HOURS)
+    private static class AsyncHealthCheck extends HealthCheck {
+
+        @Override
+        protected Result check() {
+            return HealthCheckResults.newHealthyResult();
+        }
+    }
+
+    @Nested
+    class Execution {
+
+        @Test
+        void shouldTimeExecutions_AndReturnTheResult() {
+            HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry);
+
+            var result = healthCheckRegistry.runHealthCheck("database");
+            healthCheckRegistry.runHealthChecks();
+
+            assertAll(
+                    () -> assertThat(result).isSameAs(nextResult.get()),
+                    () -> assertThat(metricRegistry.getTimers().get("health.database.execution").getCount())
+                            .isEqualTo(2)
+            );
+        }
+
+        @Test
+        void shouldReportZeroStatus_BeforeFirstExecution() {
+            var metrics = HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry);
+
+            assertAll(
+                    () -> assertThat(gaugeValue("health.database.status")).isZero(),
+                    () -> assertThat(gaugeValue("health.status")).isEqualTo(HealthStatus.CRITICAL.getValue()),
+                    () -> assertThat(metrics.overallStatus()).isEqualTo(HealthStatus.CRITICAL)
+            );
+        }
+
+        @Test
+        void shouldReportLatestStatus_OfEachCheck_AndOverall() {
+            var metrics = HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry);
+            healthCheckRegistry.register("queue", new HealthCheck() {
+                @Override
+                protected Result check() {
+                    return HealthCheckResults.newHealthyResult(HealthStatus.INFO);
+                }
+            });
+
+            nextResult.set(HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "slow"));
+            healthCheckRegistry.runHealthChecks();
+
+            assertAll(
+                    () -> assertThat(gaugeValue("health.database.status")).isEqualTo(HealthStatus.WARN.getValue()),
+                    () -> assertThat(gaugeValue("health.queue.status")).isEqualTo(HealthStatus.INFO.getValue()),
+                    () -> assertThat(gaugeValue("health.status")).isEqualTo(HealthStatus.WARN.getValue()),
+                    () -> assertThat(metrics.overallStatus()).isEqualTo(HealthStatus.WARN)
+            );
+
+            nextResult.set(HealthCheckResults.newHealthyResult());
+            healthCheckRegistry.runHealthChecks();
+
+            assertThat(metrics.overallStatus()).isEqualTo(HealthStatus.INFO);
+        }
+
+        @Test
+        void shouldMarkTransitions_ButNotInitialStatus() {
+            HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry);
+
+            healthCheckRegistry.runHealthCheck("database");
+            healthCheckRegistry.runHealthCheck("database");
+
+            nextResult.set(HealthCheckResults.newUnhealthyResult(HealthStatus.CRITICAL, "down"));
+            healthCheckRegistry.runHealthCheck("database");
+            healthCheckRegistry.runHealthCheck("database");
+
+            nextResult.set(HealthCheckResults.newHealthyResult());
+            healthCheckRegistry.runHealthCheck("database");
+
+            assertAll(
+                    () -> assertThat(meterCount("health.database.transitions")).isEqualTo(2),
+                    () -> assertThat(meterCount("health.transitions.critical")).isOne(),
+                    () -> assertThat(meterCount("health.transitions.ok")).isOne(),
+                    () -> assertThat(meterCount("health.transitions.warn")).isZero()
+            );
+        }
+    }
+
+    @Nested
+    class Removal {
+
+        @Test
+        void shouldRemoveMetrics_WhenCheckIsUnregistered() {
+            var metrics = HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry);
+            nextResult.set(HealthCheckResults.newUnhealthyResult(HealthStatus.FATAL, "gone"));
+            healthCheckRegistry.runHealthCheck("database");
+
+            healthCheckRegistry.unregister("database");
+
+            assertAll(
+                    () -> assertThat(metricRegistry.getNames()).noneMatch(name -> name.startsWith("health.database.")),
+                    () -> assertThat(metrics.overallStatus()).isEqualTo(HealthStatus.CRITICAL)
+            );
+        }
+
+        @Test
+        void shouldRestoreOriginalChecks_AndRemoveAllMetrics_WhenClosed() {
+            var metrics = HealthCheckMetrics.instrument(healthCheckRegistry, metricRegistry);
+            healthCheckRegistry.runHealthCheck("database");
+
+            metrics.close();
+
+            assertAll(
+                    () -> assertThat(healthCheckRegistry.getHealthCheck("database")).isSameAs(database),
+                    () -> assertThat(metricRegistry.getNames()).isEmpty()
+            );
+
+            healthCheckRegistry.register("queue", database);
+
+            assertThat(metricRegistry.getNames()).isEmpty();
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package org.kiwiproject.metrics.health;
 
 import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.kiwiproject.test.assertj.dropwizard.metrics.HealthCheckResultAssertions.assertThat;
 
 import com.codahale.metrics.health.HealthCheck;
+import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @DisplayName("HealthCheckResults")
 class HealthCheckResultsTest {
@@ -681,4 +688,226 @@ class HealthCheckResultsTest {
                     .hasDetail(SEVERITY_KEY, "CRITICAL");
         }
     }
+
+    @Nested
+    class StatusOf {
+
+        @Test
+        void shouldNotAllowNullResult() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> HealthCheckResults.statusOf(null))
+                    .withMessage("result cannot be null");
+        }
+
+        @Test
+        void shouldUseSeverity_WhenPresent() {
+            var healthyResult = HealthCheckResults.newHealthyResult(HealthStatus.INFO);
+            var unhealthyResult = HealthCheckResults.newUnhealthyResult(HealthStatus.CRITICAL, "oops");
+
+            assertAll(
+                    () -> Assertions.assertThat(HealthCheckResults.statusOf(healthyResult))
+                            .isEqualTo(HealthStatus.INFO),
+                    () -> Assertions.assertThat(HealthCheckResults.statusOf(unhealthyResult))
+                            .isEqualTo(HealthStatus.CRITICAL)
+            );
+        }
+
+        @Test
+        void shouldUseDefaultSeverity_WhenNoSeverityDetail() {
+            var healthyResult = HealthCheck.Result.healthy();
+            var unhealthyResult = HealthCheck.Result.unhealthy("oops");
+
+            assertAll(
+                    () -> Assertions.assertThat(HealthCheckResults.statusOf(healthyResult))
+                            .isEqualTo(HealthStatus.OK),
+                    () -> Assertions.assertThat(HealthCheckResults.statusOf(unhealthyResult))
+                            .isEqualTo(HealthStatus.WARN)
+            );
+        }
+
+        @Test
+        void shouldApplySameRulesAsHealthStatusFrom_ForInvalidSeverity() {
+            var result = HealthCheck.Result.builder().healthy().withDetail(SEVERITY_KEY, "CRITICAL").build();
+
+            Assertions.assertThat(HealthCheckResults.statusOf(result)).isEqualTo(HealthStatus.CRITICAL);
+        }
+    }
+
+    @Nested
+    class OverallStatus {
+
+        @Test
+        void shouldBe_CRITICAL_WhenNullOrEmpty() {
+            Assertions.assertThat(HealthCheckResults.overallStatus(null)).isEqualTo(HealthStatus.CRITICAL);
+            Assertions.assertThat(HealthCheckResults.overallStatus(Map.of())).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldBeHighestSeverity() {
+            var results = Map.of(
+                    "database", HealthCheckResults.newHealthyResult(),
+                    "queue", HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "slow"),
+                    "cache", HealthCheckResults.newHealthyResult(HealthStatus.INFO)
+            );
+
+            Assertions.assertThat(HealthCheckResults.overallStatus(results)).isEqualTo(HealthStatus.WARN);
+        }
+    }
+
+    @Nested
+    class SharedResults {
+
+        @ParameterizedTest
+        @CsvSource({
+                "true, OK",
+                "true, INFO",
+                "true, WARN",
+                "false, INFO",
+                "false, WARN",
+                "false, CRITICAL",
+                "false, FATAL",
+        })
+        void shouldReturnSameInstance_ForEachValidCombination(boolean healthy, HealthStatus severity) {
+            var result = HealthCheckResults.sharedResult(healthy, severity);
+
+            Assertions.assertThat(HealthCheckResults.sharedResult(healthy, severity)).isSameAs(result);
+            Assertions.assertThat(result.isHealthy()).isEqualTo(healthy);
+            Assertions.assertThat(result.getMessage()).isNull();
+            Assertions.assertThat(result.getError()).isNull();
+            assertThat(result).hasDetail(SEVERITY_KEY, severity.name());
+        }
+
+        @ParameterizedTest
+        @CsvSource({
+                "false, OK",
+                "true, CRITICAL",
+                "true, FATAL"
+        })
+        void shouldRejectInvalidCombinations(boolean healthy, HealthStatus severity) {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> HealthCheckResults.sharedResult(healthy, severity))
+                    .withMessage("Invalid combination (healthy, severity): (%s, %s)", healthy, severity);
+        }
+
+        @Test
+        void shouldNotAllowNullSeverity() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> HealthCheckResults.sharedHealthyResult(null))
+                    .withMessage(SEVERITY_CANNOT_BE_NULL);
+        }
+
+        @Test
+        void shouldHaveConvenienceMethods() {
+            Assertions.assertThat(HealthCheckResults.sharedHealthyResult())
+                    .isSameAs(HealthCheckResults.sharedResult(true, HealthStatus.OK));
+            Assertions.assertThat(HealthCheckResults.sharedHealthyResult(HealthStatus.INFO))
+                    .isSameAs(HealthCheckResults.sharedResult(true, HealthStatus.INFO));
+            Assertions.assertThat(HealthCheckResults.sharedUnhealthyResult(HealthStatus.CRITICAL))
+                    .isSameAs(HealthCheckResults.sharedResult(false, HealthStatus.CRITICAL));
+        }
+
+        @Test
+        void shouldNotBeModified_WhenReturnedFromHealthCheck() {
+            var healthCheck = new HealthCheck() {
+                @Override
+                protected Result check() throws InterruptedException {
+                    Thread.sleep(5);
+                    return HealthCheckResults.sharedHealthyResult();
+                }
+            };
+
+            var result = healthCheck.execute();
+
+            Assertions.assertThat(result).isSameAs(HealthCheckResults.sharedHealthyResult());
+            Assertions.assertThat(result.getDuration()).isZero();
+        }
+    }
+
+    @Nested
+    class LazyMessages {
+
+        private final AtomicInteger toStringCount = new AtomicInteger();
+        private final Object countingArg = new Object() {
+            @Override
+            public String toString() {
+                toStringCount.incrementAndGet();
+                return "counted";
+            }
+        };
+
+        @Test
+        void shouldNotFormatMessage_UntilItIsRead() {
+            var result = HealthCheckResults.newHealthyResultWithLazyMessage("value: %s", countingArg);
+
+            Assertions.assertThat(toStringCount).hasValue(0);
+            Assertions.assertThat(result.getMessage()).isEqualTo("value: counted");
+            Assertions.assertThat(toStringCount).hasValue(1);
+        }
+
+        @Test
+        void shouldMemoizeMessage() {
+            var result = HealthCheckResults.newUnhealthyResultWithLazyMessage(HealthStatus.CRITICAL, "%s", countingArg);
+
+            Assertions.assertThat(result.getMessage()).isSameAs(result.getMessage());
+            Assertions.assertThat(toStringCount).hasValue(1);
+        }
+
+        @Test
+        void shouldHaveExpectedHealthyAndSeverity() {
+            assertAll(
+                    () -> assertThat(HealthCheckResults.newHealthyResultWithLazyMessage("%d", 42))
+                            .isHealthy()
+                            .hasDetail(SEVERITY_KEY, "OK")
+                            .hasMessage("42"),
+                    () -> assertThat(HealthCheckResults.newHealthyResultWithLazyMessage(HealthStatus.INFO, "%d", 42))
+                            .isHealthy()
+                            .hasDetail(SEVERITY_KEY, "INFO")
+                            .hasMessage("42"),
+                    () -> assertThat(HealthCheckResults.newUnhealthyResultWithLazyMessage("%d", 42))
+                            .isUnhealthy()
+                            .hasDetail(SEVERITY_KEY, "WARN")
+                            .hasMessage("42"),
+                    () -> assertThat(HealthCheckResults.newUnhealthyResultWithLazyMessage(HealthStatus.FATAL, "%d", 42))
+                            .isUnhealthy()
+                            .hasDetail(SEVERITY_KEY, "FATAL")
+                            .hasMessage("42")
+            );
+        }
+
+        @Test
+        void shouldIncludeError() {
+            var error = new IllegalStateException("oops");
+
+            assertAll(
+                    () -> assertThat(HealthCheckResults.newUnhealthyResultWithLazyMessage(error, "failed: %s", "db"))
+                            .isUnhealthy()
+                            .hasDetail(SEVERITY_KEY, "CRITICAL")
+                            .hasMessage("failed: db")
+                            .hasErrorWithMessage("oops"),
+                    () -> assertThat(HealthCheckResults.newUnhealthyResultWithLazyMessage(
+                                    HealthStatus.WARN, error, "failed: %s", "db"))
+                            .isUnhealthy()
+                            .hasDetail(SEVERITY_KEY, "WARN")
+                            .hasMessage("failed: db")
+                            .hasErrorWithMessage("oops")
+            );
+        }
+
+        @Test
+        void shouldValidateSeverity() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() ->
+                            HealthCheckResults.newHealthyResultWithLazyMessage(HealthStatus.CRITICAL, "%s", 1))
+                    .withMessage("Invalid combination (healthy, severity): (true, CRITICAL)");
+        }
+
+        @Test
+        void shouldIncludeFormattedMessage_InToString() {
+            var result = HealthCheckResults.newHealthyResultWithLazyMessage("value: %s", 42);
+
+            Assertions.assertThat(result.toString())
+                    .startsWith("Result{isHealthy=true, message=value: 42")
+                    .contains("severity=OK");
+        }
+    }
 }
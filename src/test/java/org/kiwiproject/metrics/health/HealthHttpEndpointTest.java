@@ -0,0 +1,322 @@
+package org.kiwiproject.metrics.health;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("HealthHttpEndpoint")
+class HealthHttpEndpointTest {
+
+    private HealthSnapshotHolder holder;
+    private HealthHttpEndpoint endpoint;
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        holder = new HealthSnapshotHolder();
+        endpoint = HealthHttpEndpoint.builder(holder)
+                .address(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                .maxWait(Duration.ofSeconds(5))
+                .start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.close();
+    }
+
+    private static SortedMap<String, HealthCheck.Result> results(HealthStatus queueStatus) {
+        var results = new TreeMap<String, HealthCheck.Result>();
+        results.put("database", HealthCheckResults.newHealthyResult());
+        results.put("queue", queueStatus == HealthStatus.OK ?
+                HealthCheckResults.newHealthyResult() :
+                HealthCheckResults.newUnhealthyResult(queueStatus, "backlog"));
+        return results;
+    }
+
+    private HttpRequest.Builder request(String pathAndQuery) {
+        var address = endpoint.address();
+        var uri = URI.create("http://" + address.getHostString() + ":" + address.getPort() + pathAndQuery);
+        return HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10));
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private static String bodyOf(HttpResponse<byte[]> response) {
+        return new String(response.body(), UTF_8);
+    }
+
+    @Nested
+    class Results {
+
+        @Test
+        void shouldServeResultsAsJson() throws Exception {
+            holder.publish(results(HealthStatus.WARN));
+
+            var response = send(request("/health"));
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue("Content-Type")).contains("application/json");
+            assertThat(response.headers().firstValue(HealthHttpEndpoint.STATUS_HEADER)).contains("WARN");
+            assertThat(response.headers().firstValue(HealthHttpEndpoint.VERSION_HEADER)).contains("1");
+            assertThat(response.headers().firstValue("ETag")).isPresent();
+            assertThat(bodyOf(response))
+                    .startsWith("{\"status\":\"WARN\",\"checks\":{")
+                    .contains("\"queue\":{\"healthy\":false,\"message\":\"backlog\"");
+        }
+
+        @Test
+        void shouldBeUnavailable_WhenStatusIsCritical() throws Exception {
+            holder.publish(results(HealthStatus.CRITICAL));
+
+            var response = send(request("/health/"));
+
+            assertThat(response.statusCode()).isEqualTo(503);
+            assertThat(response.headers().firstValue(HealthHttpEndpoint.STATUS_HEADER)).contains("CRITICAL");
+        }
+
+        @Test
+        void shouldBeUnavailable_BeforeAnythingIsPublished() throws Exception {
+            var response = send(request("/health"));
+
+            assertThat(response.statusCode()).isEqualTo(503);
+            assertThat(bodyOf(response)).isEqualTo("{\"status\":\"CRITICAL\",\"checks\":{}}");
+        }
+
+        @Test
+        void shouldReturnNotModified_WhenETagMatches() throws Exception {
+            holder.publish(results(HealthStatus.OK));
+            var etag = send(request("/health")).headers().firstValue("ETag").orElseThrow();
+
+            holder.publish(results(HealthStatus.OK));
+            var notModified = send(request("/health").header("If-None-Match", etag));
+
+            assertThat(notModified.statusCode()).isEqualTo(304);
+            assertThat(notModified.body()).isEmpty();
+
+            holder.publish(results(HealthStatus.WARN));
+            var modified = send(request("/health").header("If-None-Match", etag));
+
+            assertThat(modified.statusCode()).isEqualTo(200);
+            assertThat(modified.headers().firstValue("ETag")).isPresent().doesNotHaveValue(etag);
+        }
+
+        @Test
+        void shouldServeBinarySnapshot_WhenAccepted() throws Exception {
+            holder.publish(results(HealthStatus.WARN));
+
+            var response = send(request("/health").header("Accept", BinaryHealthSnapshots.MEDIA_TYPE));
+
+            assertThat(response.headers().firstValue("Content-Type")).contains(BinaryHealthSnapshots.MEDIA_TYPE);
+            assertThat(BinaryHealthSnapshots.overallStatus(response.body())).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldServeJson_WhenBinarySnapshotIsNotAccepted() throws Exception {
+            holder.publish(results(HealthStatus.WARN));
+
+            var response = send(request("/health").header("Accept", BinaryHealthSnapshots.MEDIA_TYPE + ";q=0"));
+
+            assertThat(response.headers().firstValue("Content-Type")).contains("application/json");
+        }
+
+        @Test
+        void shouldServeHeadersOnly_ForHeadRequests() throws Exception {
+            holder.publish(results(HealthStatus.INFO));
+
+            var response = send(request("/health").method("HEAD", HttpRequest.BodyPublishers.noBody()));
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.headers().firstValue(HealthHttpEndpoint.STATUS_HEADER)).contains("INFO");
+            assertThat(response.body()).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldServeOverallStatus_AsText() throws Exception {
+        holder.publish(results(HealthStatus.WARN));
+
+        var response = send(request("/health/status"));
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(bodyOf(response)).isEqualTo("WARN\n");
+    }
+
+    @Nested
+    class AcceptHeader {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                BinaryHealthSnapshots.MEDIA_TYPE,
+                "application/json;q=0.5, " + BinaryHealthSnapshots.MEDIA_TYPE,
+                BinaryHealthSnapshots.MEDIA_TYPE + " ; q=0.1",
+        })
+        void shouldAcceptBinarySnapshot_WhenListedWithNonZeroQuality(String accept) {
+            assertThat(HealthHttpEndpoint.acceptsBinarySnapshot(List.of(accept))).isTrue();
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "*/*",
+                "application/json",
+                BinaryHealthSnapshots.MEDIA_TYPE + ";q=0",
+                BinaryHealthSnapshots.MEDIA_TYPE + "; q=0.000",
+                BinaryHealthSnapshots.MEDIA_TYPE + "+json",
+        })
+        void shouldNotAcceptBinarySnapshot_OtherwiseListed(String accept) {
+            assertThat(HealthHttpEndpoint.acceptsBinarySnapshot(List.of(accept))).isFalse();
+        }
+
+        @Test
+        void shouldNotAcceptBinarySnapshot_WithoutAcceptHeader() {
+            assertThat(HealthHttpEndpoint.acceptsBinarySnapshot(null)).isFalse();
+        }
+    }
+
+    @Nested
+    class LongPoll {
+
+        @Test
+        void shouldRespondImmediately_WhenStatusAlreadyDiffers() throws Exception {
+            holder.publish(results(HealthStatus.WARN));
+
+            var response = send(request("/health/status?changedFrom=ok"));
+
+            assertThat(bodyOf(response)).isEqualTo("WARN\n");
+        }
+
+        @Test
+        void shouldRespond_WhenStatusChanges() throws Exception {
+            holder.publish(results(HealthStatus.OK));
+            var pending = client.sendAsync(request("/health/status?changedFrom=OK&timeout=5").build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            holder.publish(results(HealthStatus.CRITICAL));
+
+            var response = pending.get(5, TimeUnit.SECONDS);
+            assertThat(response.statusCode()).isEqualTo(503);
+            assertThat(response.body()).isEqualTo("CRITICAL\n");
+        }
+
+        @Test
+        void shouldRespondWithCurrentStatus_OnTimeout() throws Exception {
+            holder.publish(results(HealthStatus.OK));
+
+            var response = send(request("/health/status?changedFrom=OK&timeout=0"));
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(bodyOf(response)).isEqualTo("OK\n");
+        }
+
+        @Test
+        void shouldWaitAtMostMaxWait_WhenItIsLessThanOneSecond() throws Exception {
+            try (var shortWaitEndpoint = HealthHttpEndpoint.builder(holder)
+                    .address(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                    .maxWait(Duration.ofMillis(100))
+                    .start()) {
+                holder.publish(results(HealthStatus.OK));
+                var address = shortWaitEndpoint.address();
+                var uri = URI.create("http://" + address.getHostString() + ":" + address.getPort() +
+                        "/health/status?changedFrom=OK&timeout=5");
+
+                var pending = client.sendAsync(
+                        HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+
+                var response = pending.get(3, TimeUnit.SECONDS);
+                assertThat(response.body()).isEqualTo("OK\n");
+            }
+        }
+
+        @Test
+        void shouldRejectInvalidParameters() throws Exception {
+            var badStatus = send(request("/health/status?changedFrom=BROKEN"));
+
+            assertThat(badStatus.statusCode()).isEqualTo(400);
+            assertThat(bodyOf(badStatus)).isEqualTo("Invalid changedFrom: BROKEN\n");
+
+            var badTimeout = send(request("/health?changedFrom=OK&timeout=-1"));
+
+            assertThat(badTimeout.statusCode()).isEqualTo(400);
+            assertThat(bodyOf(badTimeout)).isEqualTo("Invalid timeout: -1\n");
+        }
+    }
+
+    @Test
+    void shouldReturnNotFound_ForUnknownResources() throws Exception {
+        assertThat(send(request("/health/unknown")).statusCode()).isEqualTo(404);
+        assertThat(send(request("/healthz")).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void shouldReturnMethodNotAllowed_ForOtherMethods() throws Exception {
+        var response = send(request("/health").POST(HttpRequest.BodyPublishers.ofString("{}")));
+
+        assertThat(response.statusCode()).isEqualTo(405);
+        assertThat(response.headers().firstValue("Allow")).contains("GET, HEAD");
+    }
+
+    @Test
+    void shouldRunHealthChecks_InRegistry() throws Exception {
+        var registry = new HealthCheckRegistry();
+        registry.register("database", new HealthCheck() {
+            @Override
+            protected Result check() {
+                return HealthCheckResults.newHealthyResult(HealthStatus.INFO);
+            }
+        });
+
+        try (var registryEndpoint = HealthHttpEndpoint.builder(registry)
+                .address(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0))
+                .path("/healthz")
+                .refreshInterval(Duration.ofMillis(50))
+                .start()) {
+            var address = registryEndpoint.address();
+            var uri = URI.create("http://" + address.getHostString() + ":" + address.getPort() +
+                    "/healthz/status?changedFrom=CRITICAL&timeout=5");
+
+            var response = client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+
+            assertThat(response.statusCode()).isEqualTo(200);
+            assertThat(response.body()).isEqualTo("INFO\n");
+            assertThat(registryEndpoint.snapshotHolder().current().results()).containsOnlyKeys("database");
+        }
+    }
+
+    @Test
+    void shouldValidatePath() {
+        var builder = HealthHttpEndpoint.builder(holder);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> builder.path("health"))
+                .withMessage("path must start with / and not end with /");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> builder.path("/health/"))
+                .withMessage("path must start with / and not end with /");
+    }
+}
@@ -0,0 +1,260 @@
+package org.kiwiproject.metrics.health;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+@DisplayName("HealthResponseCache")
+class HealthResponseCacheTest {
+
+    private HealthResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new HealthResponseCache();
+    }
+
+    private static SortedMap<String, HealthCheck.Result> results(String queueMessage) {
+        var results = new TreeMap<String, HealthCheck.Result>();
+        results.put("database", HealthCheckResults.newHealthyResult());
+        results.put("queue", HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, queueMessage));
+        return results;
+    }
+
+    private static String bodyOf(HealthResponseCache.Response response) {
+        return new String(response.bodyBytes(), UTF_8);
+    }
+
+    private static HealthStatus evaluateChecksOf(HealthResponseCache.Response response) {
+        var body = response.bodyBytes();
+        var checksPrefix = "\"" + HealthResponseCache.CHECKS_FIELD + "\":";
+        var offset = bodyOf(response).indexOf(checksPrefix) + checksPrefix.length();
+
+        // The checks object runs from after the prefix to just before the closing brace of the body
+        return HealthStatusJsonEvaluator.evaluate(body, offset, body.length - offset - 1);
+    }
+
+    @Test
+    void shouldStartWithEmptyCriticalResponse() {
+        var response = cache.current();
+
+        assertThat(bodyOf(response)).isEqualTo("{\"status\":\"CRITICAL\",\"checks\":{}}");
+        assertThat(response.status()).isEqualTo(HealthStatus.CRITICAL);
+        assertThat(response.etag()).startsWith("\"").endsWith("\"").hasSize(34);
+    }
+
+    @Nested
+    class Rendering {
+
+        @Test
+        void shouldRenderResults_WithSeverity() {
+            cache.update(results("backlog"));
+
+            var response = cache.current();
+
+            assertThat(bodyOf(response)).isEqualTo("{" +
+                    "\"status\":\"WARN\"," +
+                    "\"checks\":{" +
+                    "\"database\":{\"healthy\":true,\"severity\":\"OK\"}," +
+                    "\"queue\":{\"healthy\":false,\"message\":\"backlog\",\"severity\":\"WARN\"}" +
+                    "}}");
+            assertThat(response.status()).isEqualTo(HealthStatus.WARN);
+            assertThat(response.contentLength()).isEqualTo(response.bodyBytes().length);
+        }
+
+        @Test
+        void shouldRenderSeverity_OfResultsWithoutSeverityDetail() {
+            var results = new TreeMap<String, HealthCheck.Result>();
+            results.put("database", HealthCheck.Result.builder()
+                    .healthy()
+                    .withDetail("connections", 5)
+                    .withDetail("hosts", List.of("db-1", "db-2"))
+                    .build());
+
+            cache.update(results);
+
+            assertThat(bodyOf(cache.current())).isEqualTo("{\"status\":\"OK\",\"checks\":{\"database\":{" +
+                    "\"healthy\":true,\"severity\":\"OK\",\"connections\":5,\"hosts\":[\"db-1\",\"db-2\"]" +
+                    "}}}");
+        }
+
+        @Test
+        void shouldRenderErrorTypeAndMessage() {
+            var results = new TreeMap<String, HealthCheck.Result>();
+            results.put("database", HealthCheckResults.newUnhealthyResult(new ConnectException("refused")));
+
+            cache.update(results);
+
+            assertThat(bodyOf(cache.current()))
+                    .contains("\"error\":{\"type\":\"java.net.ConnectException\",\"message\":\"refused\"}")
+                    .doesNotContain("stack");
+        }
+
+        @Test
+        void shouldBeEvaluatedToSameStatus_ByJsonEvaluator() {
+            var results = results("backlog");
+            results.put("cache", HealthCheckResults.newUnhealthyResult(HealthStatus.CRITICAL, "down"));
+
+            cache.update(results);
+
+            var response = cache.current();
+            assertThat(evaluateChecksOf(response)).isEqualTo(response.status());
+        }
+
+        @Test
+        void shouldWriteBody_ToStreamAndBuffer() throws IOException {
+            cache.update(results("backlog"));
+            var response = cache.current();
+
+            var out = new ByteArrayOutputStream();
+            response.writeTo(out);
+
+            assertThat(out.toByteArray()).isEqualTo(response.bodyBytes());
+            assertThat(response.body().isReadOnly()).isTrue();
+            assertThat(response.body().remaining()).isEqualTo(response.contentLength());
+        }
+
+        @Test
+        void shouldRenderOverallStatus_OfEvaluation() {
+            var results = results("backlog");
+
+            cache.update(new HealthCheckEvaluation(results, HealthStatus.FATAL));
+
+            var response = cache.current();
+            assertThat(bodyOf(response)).startsWith("{\"status\":\"FATAL\",");
+            assertThat(response.status()).isEqualTo(HealthStatus.FATAL);
+            assertThat(evaluateChecksOf(response)).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldRenderChecks_NamedLikeTopLevelFields() {
+            var results = results("backlog");
+            results.put(HealthResponseCache.STATUS_FIELD, HealthCheckResults.newHealthyResult());
+            results.put(HealthResponseCache.CHECKS_FIELD, HealthCheckResults.newHealthyResult());
+            results.put("severity", HealthCheckResults.newHealthyResult());
+
+            assertThat(cache.update(results)).isTrue();
+
+            var response = cache.current();
+            assertThat(bodyOf(response))
+                    .startsWith("{\"status\":\"WARN\",\"checks\":{\"checks\":{\"healthy\":true,")
+                    .contains("\"status\":{\"healthy\":true,\"severity\":\"OK\"}")
+                    .contains("\"severity\":{\"healthy\":true,\"severity\":\"OK\"}");
+            assertThat(evaluateChecksOf(response)).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldRejectNullResults() {
+            var results = new TreeMap<String, HealthCheck.Result>();
+            results.put("database", null);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> cache.update(results))
+                    .withMessage("results must not contain null values");
+        }
+    }
+
+    @Nested
+    class Update {
+
+        @Test
+        void shouldNotRenderAgain_WhenOnlyTimestampsChanged() {
+            assertThat(cache.update(results("backlog"))).isTrue();
+            var response = cache.current();
+
+            assertThat(cache.update(results("backlog"))).isFalse();
+            assertThat(cache.current()).isSameAs(response);
+        }
+
+        @Test
+        void shouldRenderAgain_WhenResultChanged() {
+            cache.update(results("backlog"));
+            var previous = cache.current();
+
+            assertThat(cache.update(results("larger backlog"))).isTrue();
+            assertThat(cache.current().etag()).isNotEqualTo(previous.etag());
+        }
+
+        @Test
+        void shouldRenderAgain_WhenCheckWasRemoved() {
+            var results = results("backlog");
+            cache.update(results);
+
+            results.remove("database");
+
+            assertThat(cache.update(results)).isTrue();
+            assertThat(bodyOf(cache.current())).doesNotContain("database");
+        }
+
+        @Test
+        void shouldRenderAgain_WhenOnlyStatusOfEvaluationChanged() {
+            var results = results("backlog");
+            cache.update(new HealthCheckEvaluation(results, HealthStatus.WARN));
+            var previous = cache.current();
+
+            assertThat(cache.update(new HealthCheckEvaluation(results, HealthStatus.FATAL))).isTrue();
+            assertThat(cache.current().status()).isEqualTo(HealthStatus.FATAL);
+            assertThat(cache.current().etag()).isNotEqualTo(previous.etag());
+        }
+
+        @Test
+        void shouldProduceSameETag_ForSameContent() {
+            var otherCache = new HealthResponseCache();
+
+            cache.update(results("backlog"));
+            otherCache.update(results("backlog"));
+
+            assertThat(otherCache.current().etag()).isEqualTo(cache.current().etag());
+        }
+    }
+
+    @Nested
+    class IfNoneMatch {
+
+        private String etag;
+
+        @BeforeEach
+        void setUp() {
+            cache.update(results("backlog"));
+            etag = cache.current().etag();
+        }
+
+        @Test
+        void shouldReturnEmpty_WhenETagMatches() {
+            assertThat(cache.ifNoneMatch(etag)).isEmpty();
+            assertThat(cache.ifNoneMatch("W/" + etag)).isEmpty();
+            assertThat(cache.ifNoneMatch("\"other\", " + etag)).isEmpty();
+            assertThat(cache.ifNoneMatch("*")).isEmpty();
+        }
+
+        @ParameterizedTest
+        @NullSource
+        @ValueSource(strings = {"", "\"other\"", "W/\"other\", \"another\""})
+        void shouldReturnResponse_WhenETagDoesNotMatch(String ifNoneMatch) {
+            assertThat(cache.ifNoneMatch(ifNoneMatch)).containsSame(cache.current());
+        }
+
+        @Test
+        void shouldReturnResponse_AfterResultChanged() {
+            cache.update(results("larger backlog"));
+
+            assertThat(cache.ifNoneMatch(etag)).containsSame(cache.current());
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("HealthSnapshotHolder")
+class HealthSnapshotHolderTest {
+
+    private HealthSnapshotHolder holder;
+
+    @BeforeEach
+    void setUp() {
+        holder = new HealthSnapshotHolder();
+    }
+
+    private static SortedMap<String, HealthCheck.Result> results(HealthStatus queueStatus) {
+        var results = new TreeMap<String, HealthCheck.Result>();
+        results.put("database", HealthCheckResults.newHealthyResult());
+        results.put("queue", HealthCheckResults.newUnhealthyResult(queueStatus, "backlog"));
+        return results;
+    }
+
+    @Test
+    void shouldStartWithEmptyCriticalSnapshot() {
+        var snapshot = holder.current();
+
+        assertThat(snapshot.version()).isZero();
+        assertThat(snapshot.results()).isEmpty();
+        assertThat(snapshot.status()).isEqualTo(HealthStatus.CRITICAL);
+    }
+
+    @Nested
+    class Publish {
+
+        @Test
+        void shouldPublishResults_WithNextVersion() {
+            var published = holder.publish(results(HealthStatus.WARN));
+
+            assertThat(published.version()).isOne();
+            assertThat(published.results()).containsOnlyKeys("database", "queue");
+            assertThat(published.status()).isEqualTo(HealthStatus.WARN);
+            assertThat(holder.current()).isSameAs(published);
+
+            assertThat(holder.publish(results(HealthStatus.CRITICAL)).version()).isEqualTo(2);
+            assertThat(holder.current().status()).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldPublishEvaluation() {
+            var evaluation = new HealthCheckEvaluation(results(HealthStatus.WARN), HealthStatus.FATAL);
+
+            var published = holder.publish(evaluation);
+
+            assertThat(published.evaluation()).isSameAs(evaluation);
+            assertThat(published.status()).isEqualTo(HealthStatus.FATAL);
+        }
+
+        @Test
+        void shouldRunHealthChecks_InRegistry() {
+            var registry = new HealthCheckRegistry();
+            registry.register("database", new HealthCheck() {
+                @Override
+                protected Result check() {
+                    return HealthCheckResults.newHealthyResult(HealthStatus.INFO);
+                }
+            });
+
+            var published = holder.publish(registry);
+
+            assertThat(published.results()).containsOnlyKeys("database");
+            assertThat(published.status()).isEqualTo(HealthStatus.INFO);
+        }
+
+        @Test
+        void shouldNotChangePublishedSnapshot_WhenResultsChange() {
+            var results = results(HealthStatus.WARN);
+            var published = holder.publish(results);
+
+            results.remove("queue");
+
+            assertThat(published.results()).containsOnlyKeys("database", "queue");
+        }
+
+        @Test
+        void shouldAssignUniqueVersions_ToConcurrentPublications() throws InterruptedException {
+            var executor = Executors.newFixedThreadPool(4);
+            var futures = new ArrayList<CompletableFuture<Long>>();
+            for (var i = 0; i < 100; i++) {
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> holder.publish(results(HealthStatus.WARN)).version(), executor));
+            }
+
+            var versions = futures.stream().map(CompletableFuture::join).toList();
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(versions).doesNotHaveDuplicates().allMatch(version -> version >= 1 && version <= 100);
+            assertThat(holder.current().version()).isEqualTo(100);
+        }
+    }
+
+    @Nested
+    class NextAfter {
+
+        @Test
+        void shouldBeComplete_WhenVersionIsNotCurrent() {
+            var published = holder.publish(results(HealthStatus.OK));
+
+            assertThat(holder.nextAfter(0)).isCompletedWithValue(published);
+            assertThat(holder.nextAfter(42)).isCompletedWithValue(published);
+        }
+
+        @Test
+        void shouldComplete_WhenNextSnapshotIsPublished() {
+            var future = holder.nextAfter(0);
+
+            assertThat(future).isNotDone();
+
+            var published = holder.publish(results(HealthStatus.WARN));
+
+            assertThat(future).isCompletedWithValue(published);
+        }
+
+        @Test
+        void shouldNotAffectOtherWaiters_WhenCancelled() {
+            var cancelled = holder.nextAfter(0);
+            var other = holder.nextAfter(0);
+
+            cancelled.cancel(true);
+            var published = holder.publish(results(HealthStatus.WARN));
+
+            assertThat(other).isCompletedWithValue(published);
+        }
+    }
+
+    @Nested
+    class AwaitNext {
+
+        @Test
+        void shouldReturnImmediately_WhenVersionIsNotCurrent() throws InterruptedException {
+            var published = holder.publish(results(HealthStatus.OK));
+
+            assertThat(holder.awaitNext(0, Duration.ofDays(1))).contains(published);
+        }
+
+        @Test
+        void shouldReturnEmpty_WhenNothingIsPublishedBeforeTimeout() throws InterruptedException {
+            assertThat(holder.awaitNext(0, Duration.ofMillis(10))).isEmpty();
+        }
+
+        @Test
+        void shouldReturnNextSnapshot_WhenPublishedWhileWaiting() throws Exception {
+            var executor = Executors.newSingleThreadExecutor();
+            try {
+                var waiter = executor.submit(() -> holder.awaitNext(0, Duration.ofSeconds(5)));
+
+                var published = holder.publish(results(HealthStatus.CRITICAL));
+
+                assertThat(waiter.get(5, TimeUnit.SECONDS)).contains(published);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        @Test
+        void shouldRequireTimeout() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> holder.awaitNext(0, null))
+                    .withMessage("timeout cannot be null");
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+@DisplayName("HealthStatusCounter")
+class HealthStatusCounterTest {
+
+    private HealthStatusCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        counter = new HealthStatusCounter();
+    }
+
+    @Test
+    void shouldBe_CRITICAL_WhenThereAreNoChecks() {
+        assertThat(counter.overallStatus()).isEqualTo(HealthStatus.CRITICAL);
+    }
+
+    @Nested
+    class Report {
+
+        @Test
+        void shouldCountChecksByStatus() {
+            counter.report("database", HealthStatus.OK);
+            counter.report("queue", HealthStatus.WARN);
+            counter.report("cache", HealthStatus.OK);
+
+            assertThat(counter.count(HealthStatus.OK)).isEqualTo(2);
+            assertThat(counter.count(HealthStatus.WARN)).isOne();
+            assertThat(counter.overallStatus()).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldMoveChecksBetweenStatuses() {
+            counter.report("database", HealthStatus.CRITICAL);
+            counter.report("queue", HealthStatus.INFO);
+            assertThat(counter.overallStatus()).isEqualTo(HealthStatus.CRITICAL);
+
+            counter.report("database", HealthStatus.OK);
+
+            assertThat(counter.count(HealthStatus.CRITICAL)).isZero();
+            assertThat(counter.overallStatus()).isEqualTo(HealthStatus.INFO);
+        }
+
+        @Test
+        void shouldIgnoreRepeatedReportsOfSameStatus() {
+            counter.report("database", HealthStatus.WARN);
+            counter.report("database", HealthStatus.WARN);
+
+            assertThat(counter.count(HealthStatus.WARN)).isOne();
+        }
+
+        @Test
+        void shouldAcceptResults() {
+            counter.report("database", HealthCheckResults.newUnhealthyResult(HealthStatus.CRITICAL, "down"));
+
+            assertThat(counter.overallStatus()).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldRemoveChecks() {
+            counter.report("database", HealthStatus.WARN);
+            counter.report("queue", HealthStatus.OK);
+
+            counter.remove("database");
+            counter.remove("unknown");
+
+            assertThat(counter.count(HealthStatus.WARN)).isZero();
+            assertThat(counter.overallStatus()).isEqualTo(HealthStatus.OK);
+        }
+
+        @Test
+        void shouldRequireArguments() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> counter.report("", HealthStatus.OK))
+                    .withMessage("checkName must not be blank");
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> counter.report("database", (HealthStatus) null))
+                    .withMessage("status cannot be null");
+        }
+    }
+
+    @Nested
+    class Transition {
+
+        @Test
+        void shouldAddAndRemove_UsingNullStatuses() {
+            counter.transition(null, HealthStatus.INFO);
+            counter.transition(null, HealthStatus.FATAL);
+            assertThat(counter.overallStatus()).isEqualTo(HealthStatus.FATAL);
+
+            counter.transition(HealthStatus.FATAL, null);
+            assertThat(counter.overallStatus()).isEqualTo(HealthStatus.INFO);
+        }
+
+        @Test
+        void shouldBeExact_AfterConcurrentTransitions() throws InterruptedException {
+            var checkCount = 100;
+            IntStream.range(0, checkCount).forEach(i -> counter.transition(null, HealthStatus.OK));
+
+            var executor = Executors.newFixedThreadPool(8);
+            try {
+                IntStream.range(0, checkCount).forEach(i -> executor.submit(() -> {
+                    for (var j = 0; j < 1_000; j++) {
+                        counter.transition(HealthStatus.OK, HealthStatus.CRITICAL);
+                        counter.transition(HealthStatus.CRITICAL, HealthStatus.WARN);
+                        counter.transition(HealthStatus.WARN, HealthStatus.OK);
+                    }
+                }));
+            } finally {
+                executor.shutdown();
+                assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+            }
+
+            assertThat(counter.count(HealthStatus.OK)).isEqualTo(checkCount);
+            assertThat(counter.count(HealthStatus.WARN)).isZero();
+            assertThat(counter.count(HealthStatus.CRITICAL)).isZero();
+            assertThat(counter.overallStatus()).isEqualTo(HealthStatus.OK);
+        }
+
+        @Test
+        void shouldNeverUnderReportOverallStatus_DuringConcurrentTransitions() throws InterruptedException {
+            counter.transition(null, HealthStatus.CRITICAL);
+            counter.transition(null, HealthStatus.OK);
+
+            var running = new AtomicBoolean(true);
+            var writer = new Thread(() -> {
+                while (running.get()) {
+                    counter.transition(HealthStatus.OK, HealthStatus.CRITICAL);
+                    counter.transition(HealthStatus.CRITICAL, HealthStatus.WARN);
+                    counter.transition(HealthStatus.WARN, HealthStatus.OK);
+                }
+            });
+            writer.start();
+
+            try {
+                for (var i = 0; i < 100_000; i++) {
+                    assertThat(counter.overallStatus()).isEqualTo(HealthStatus.CRITICAL);
+                }
+            } finally {
+                running.set(false);
+                writer.join(5_000);
+            }
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.entry;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.kiwiproject.collect.KiwiMaps;
+import org.kiwiproject.metrics.health.HealthStatusDiagnostics.Anomaly;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+@DisplayName("HealthStatusDiagnostics")
+class HealthStatusDiagnosticsTest {
+
+    private HealthStatusDiagnostics diagnostics;
+
+    @BeforeEach
+    void setUp() {
+        diagnostics = new HealthStatusDiagnostics();
+    }
+
+    /**
+     * A source that no other test uses, so that tests of the shared instance do not need to reset it.
+     */
+    private static String uniqueSource() {
+        return "source-" + UUID.randomUUID();
+    }
+
+    @Nested
+    class WhenEvaluatingHealthMaps {
+
+        @Test
+        void shouldCountInvalidSeverities_PerCheck_WhenNoSourceIsSupplied() {
+            Map<String, Object> healthDetails = Map.of(
+                    "database", Map.of("healthy", false, "severity", "FOO"),
+                    "queue", Map.of("healthy", false, "severity", "critical"),
+                    "cache", Map.of("healthy", true)
+            );
+
+            HealthStatus.from(healthDetails, diagnostics, null);
+            HealthStatus.from(healthDetails, diagnostics, null);
+
+            assertAll(
+                    () -> assertThat(diagnostics.count("database", Anomaly.INVALID_SEVERITY)).isEqualTo(2),
+                    () -> assertThat(diagnostics.count("queue", Anomaly.INVALID_SEVERITY)).isEqualTo(2),
+                    () -> assertThat(diagnostics.count(Anomaly.INVALID_SEVERITY)).isEqualTo(4),
+                    () -> assertThat(diagnostics.sources()).containsExactlyInAnyOrder("database", "queue")
+            );
+        }
+
+        @Test
+        void shouldCountUnderSource_WhenSupplied() {
+            Map<String, Object> healthDetails = Map.of(
+                    "database", Map.of("healthy", false, "severity", "FOO"),
+                    "queue", Map.of("healthy", "false")
+            );
+
+            HealthStatus.from(healthDetails, "orders-service", diagnostics);
+
+            assertThat(diagnostics.counts()).containsOnly(entry("orders-service", Map.of(
+                    Anomaly.INVALID_SEVERITY, 1L,
+                    Anomaly.NON_BOOLEAN_HEALTHY, 1L
+            )));
+        }
+
+        @Test
+        void shouldCountInSharedInstance_WhenNoInstanceIsSupplied() {
+            var source = uniqueSource();
+            Map<String, Object> healthDetails = Map.of("database", Map.of("healthy", false, "severity", "FOO"));
+
+            HealthStatus.from(healthDetails, source);
+
+            assertThat(HealthStatusDiagnostics.shared().count(source, Anomaly.INVALID_SEVERITY)).isOne();
+            assertThat(diagnostics.sources()).isEmpty();
+        }
+
+        @Test
+        void shouldRequireSource() {
+            Map<String, Object> healthDetails = Map.of("database", Map.of("healthy", true));
+
+            assertAll(
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> HealthStatus.from(healthDetails, " "))
+                            .withMessage("source must not be blank"),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> HealthStatus.from(healthDetails, "orders-service", null))
+                            .withMessage("diagnostics must not be null")
+            );
+        }
+
+        @Test
+        void shouldCountNonStringSeverities() {
+            Map<String, Object> healthDetails = Map.of(
+                    "database", KiwiMaps.newHashMap("healthy", false, "severity", null),
+                    "queue", Map.of("healthy", false, "severity", Map.of("level", "WARN"))
+            );
+
+            assertThat(HealthStatus.from(healthDetails, diagnostics, null)).isEqualTo(HealthStatus.WARN);
+
+            assertThat(diagnostics.count(Anomaly.NON_STRING_SEVERITY)).isEqualTo(2);
+        }
+
+        @Test
+        void shouldCountNonBooleanHealthyValues_AndStillParseThem() {
+            Map<String, Object> healthDetails = Map.of(
+                    "database", Map.of("healthy", "true"),
+                    "queue", KiwiMaps.newHashMap("healthy", null)
+            );
+
+            assertThat(HealthStatus.from(healthDetails, diagnostics, null)).isEqualTo(HealthStatus.WARN);
+
+            assertAll(
+                    () -> assertThat(diagnostics.count("database", Anomaly.NON_BOOLEAN_HEALTHY)).isOne(),
+                    () -> assertThat(diagnostics.count("queue", Anomaly.NON_BOOLEAN_HEALTHY)).isOne()
+            );
+        }
+
+        @Test
+        void shouldCountInvalidCombinations() {
+            Map<String, Object> healthDetails = Map.of(
+                    "database", Map.of("healthy", true, "severity", "CRITICAL")
+            );
+
+            assertThat(HealthStatus.from(healthDetails, diagnostics, null)).isEqualTo(HealthStatus.CRITICAL);
+
+            assertThat(diagnostics.count("database", Anomaly.INVALID_COMBINATION)).isOne();
+        }
+
+        @Test
+        void shouldNotCountAnything_WhenMapIsWellFormed() {
+            Map<String, Object> healthDetails = Map.of(
+                    "database", Map.of("healthy", true, "severity", "INFO"),
+                    "queue", Map.of("healthy", false, "severity", "FATAL")
+            );
+
+            HealthStatus.from(healthDetails, diagnostics, null);
+
+            assertAll(
+                    () -> assertThat(diagnostics.sources()).isEmpty(),
+                    () -> assertThat(diagnostics.counts()).isEmpty()
+            );
+        }
+    }
+
+    @Nested
+    class WhenEvaluatingJson {
+
+        private static final String JSON = """
+                {
+                  "database": { "healthy": "true", "severity": "INFO" },
+                  "queue": { "healthy": false, "severity": "BAD" },
+                  "cache": { "healthy": true, "severity": 42 },
+                  "disk": { "healthy": true, "severity": "FATAL" }
+                }
+                """;
+
+        @Test
+        void shouldCountAnomalies_UnderSource() {
+            HealthStatusJsonEvaluator.evaluate(JSON.getBytes(StandardCharsets.UTF_8), "orders-service", diagnostics);
+
+            assertThat(diagnostics.counts()).containsOnly(entry("orders-service", Map.of(
+                    Anomaly.NON_BOOLEAN_HEALTHY, 1L,
+                    Anomaly.INVALID_SEVERITY, 1L,
+                    Anomaly.NON_STRING_SEVERITY, 1L,
+                    Anomaly.INVALID_COMBINATION, 1L
+            )));
+        }
+
+        @Test
+        void shouldCountAnomalies_FromStream() {
+            var json = new ByteArrayInputStream(JSON.getBytes(StandardCharsets.UTF_8));
+
+            HealthStatusJsonEvaluator.evaluate(json, "orders-service", diagnostics);
+
+            assertThat(diagnostics.count("orders-service", Anomaly.INVALID_SEVERITY)).isOne();
+        }
+
+        @Test
+        void shouldCountAnomalies_PerCheck_InSharedInstance() {
+            var check = uniqueSource();
+            var json = "{\"" + check + "\": { \"healthy\": false, \"severity\": \"BAD\" }}";
+
+            HealthStatusJsonEvaluator.evaluate(json.getBytes(StandardCharsets.UTF_8));
+
+            assertThat(HealthStatusDiagnostics.shared().count(check, Anomaly.INVALID_SEVERITY)).isOne();
+        }
+
+        @Test
+        void shouldCountAnomalies_FromRangeOfByteArray() {
+            var json = ("xx" + JSON + "yy").getBytes(StandardCharsets.UTF_8);
+
+            HealthStatusJsonEvaluator.evaluate(json, 2, json.length - 4, "orders-service", diagnostics);
+
+            assertThat(diagnostics.count("orders-service", Anomaly.INVALID_SEVERITY)).isOne();
+        }
+
+        @Test
+        void shouldCountAnomalies_FromHeapAndDirectBuffers() {
+            var jsonBytes = JSON.getBytes(StandardCharsets.UTF_8);
+            var heapBuffer = ByteBuffer.wrap(jsonBytes);
+            var directBuffer = ByteBuffer.allocateDirect(jsonBytes.length).put(jsonBytes).flip();
+
+            HealthStatusJsonEvaluator.evaluate(heapBuffer, "orders-service", diagnostics);
+            HealthStatusJsonEvaluator.evaluate(directBuffer, "orders-service", diagnostics);
+
+            assertAll(
+                    () -> assertThat(diagnostics.count("orders-service", Anomaly.INVALID_SEVERITY)).isEqualTo(2),
+                    () -> assertThat(heapBuffer.position()).isZero(),
+                    () -> assertThat(directBuffer.position()).isZero()
+            );
+        }
+
+        @Test
+        void shouldCountMalformedJson_UnderSource() {
+            var json = "{ \"db\": { \"healthy\": tru } }".getBytes(StandardCharsets.UTF_8);
+
+            var status = HealthStatusJsonEvaluator.evaluate(json, "orders-service", diagnostics);
+
+            assertAll(
+                    () -> assertThat(status).isEqualTo(HealthStatus.CRITICAL),
+                    () -> assertThat(diagnostics.counts())
+                            .containsOnly(entry("orders-service", Map.of(Anomaly.MALFORMED_JSON, 1L)))
+            );
+        }
+
+        @Test
+        void shouldCountMalformedJson_UnderUnknownSource_InSharedInstance() {
+            var shared = HealthStatusDiagnostics.shared();
+            var before = shared.count(HealthStatusDiagnostics.UNKNOWN_SOURCE, Anomaly.MALFORMED_JSON);
+
+            HealthStatusJsonEvaluator.evaluate("not json".getBytes(StandardCharsets.UTF_8));
+
+            assertThat(shared.count(HealthStatusDiagnostics.UNKNOWN_SOURCE, Anomaly.MALFORMED_JSON))
+                    .isEqualTo(before + 1);
+        }
+    }
+
+    @Nested
+    class WhenEvaluatingResults {
+
+        @Test
+        void shouldCountUnderUnknownSource_ForSingleResult() {
+            var shared = HealthStatusDiagnostics.shared();
+            var result = HealthCheck.Result.builder().healthy().withDetail("severity", "CRITICAL").build();
+            var before = shared.count(HealthStatusDiagnostics.UNKNOWN_SOURCE, Anomaly.INVALID_COMBINATION);
+
+            HealthCheckResults.statusOf(result);
+
+            assertThat(shared.count(HealthStatusDiagnostics.UNKNOWN_SOURCE, Anomaly.INVALID_COMBINATION))
+                    .isGreaterThan(before);
+        }
+
+        @Test
+        void shouldCountUnderCheckName_ForMapOfResults() {
+            var check = uniqueSource();
+            var result = HealthCheck.Result.builder().unhealthy().withDetail("severity", "OOPS").build();
+
+            HealthCheckResults.overallStatus(Map.of(check, result));
+
+            assertThat(HealthStatusDiagnostics.shared().count(check, Anomaly.INVALID_SEVERITY)).isOne();
+        }
+    }
+
+    @Nested
+    class Summaries {
+
+        @Test
+        void shouldSummarizeOnlyNewAnomalies() {
+            // The first summary is due immediately, so this one is logged and not included below
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "queue");
+
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "queue");
+            diagnostics.record(Anomaly.INVALID_COMBINATION, "queue");
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "database");
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "database");
+
+            assertThat(diagnostics.summarizeSinceLastSummary())
+                    .isEqualTo("database={INVALID_SEVERITY=2}, queue={INVALID_SEVERITY=1, INVALID_COMBINATION=1}");
+
+            diagnostics.record(Anomaly.NON_BOOLEAN_HEALTHY, "queue");
+
+            assertAll(
+                    () -> assertThat(diagnostics.summarizeSinceLastSummary())
+                            .isEqualTo("queue={NON_BOOLEAN_HEALTHY=1}"),
+                    () -> assertThat(diagnostics.summarizeSinceLastSummary()).isEmpty(),
+                    () -> assertThat(diagnostics.count("queue", Anomaly.INVALID_SEVERITY)).isEqualTo(2)
+            );
+        }
+
+        @Test
+        void shouldSummarize_WhenCountsAreRead_AfterIntervalElapses() throws InterruptedException {
+            diagnostics.setSummaryInterval(Duration.ofMillis(50));
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "queue");
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "database");
+
+            Thread.sleep(100);
+
+            assertAll(
+                    () -> assertThat(diagnostics.count(Anomaly.INVALID_SEVERITY)).isEqualTo(2),
+                    () -> assertThat(diagnostics.summarizeSinceLastSummary()).isEmpty()
+            );
+        }
+
+        @Test
+        void shouldSummarize_WhenReset() {
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "queue");
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "database");
+
+            diagnostics.reset();
+            diagnostics.record(Anomaly.INVALID_COMBINATION, "queue");
+
+            assertThat(diagnostics.summarizeSinceLastSummary()).isEqualTo("queue={INVALID_COMBINATION=1}");
+        }
+
+        @Test
+        void shouldRequirePositiveInterval() {
+            assertAll(
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> diagnostics.setSummaryInterval(null)),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> diagnostics.setSummaryInterval(Duration.ZERO)),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> diagnostics.setSummaryInterval(Duration.ofSeconds(-1)))
+            );
+        }
+
+        @Test
+        void shouldChangeInterval_OfOnlyThatInstance() {
+            diagnostics.setSummaryInterval(Duration.ofSeconds(5));
+
+            assertThat(diagnostics.getSummaryInterval()).isEqualTo(Duration.ofSeconds(5));
+            assertThat(new HealthStatusDiagnostics().getSummaryInterval())
+                    .isEqualTo(HealthStatusDiagnostics.DEFAULT_SUMMARY_INTERVAL);
+        }
+    }
+
+    @Nested
+    class Sources {
+
+        @Test
+        void shouldCountUnderUnknownSource_WhenSourceIsNull() {
+            diagnostics.record(Anomaly.INVALID_SEVERITY, null);
+
+            assertThat(diagnostics.count(HealthStatusDiagnostics.UNKNOWN_SOURCE, Anomaly.INVALID_SEVERITY)).isOne();
+        }
+
+        @Test
+        void shouldCountUnderOtherSources_WhenTooManySources() {
+            IntStream.range(0, HealthStatusDiagnostics.MAX_SOURCES)
+                    .forEach(i -> diagnostics.record(Anomaly.INVALID_SEVERITY, "check-" + i));
+
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "one-too-many");
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "check-0");
+
+            assertAll(
+                    () -> assertThat(diagnostics.sources())
+                            .hasSize(HealthStatusDiagnostics.MAX_SOURCES + 1)
+                            .doesNotContain("one-too-many"),
+                    () -> assertThat(diagnostics.count(HealthStatusDiagnostics.OTHER_SOURCES, Anomaly.INVALID_SEVERITY))
+                            .isOne(),
+                    () -> assertThat(diagnostics.count("check-0", Anomaly.INVALID_SEVERITY)).isEqualTo(2),
+                    () -> assertThat(diagnostics.count(Anomaly.INVALID_SEVERITY))
+                            .isEqualTo(HealthStatusDiagnostics.MAX_SOURCES + 2L)
+            );
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = { "database", "never-seen" })
+        void shouldReturnZero_WhenNoAnomaliesForSource(String source) {
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "database");
+
+            assertThat(diagnostics.count(source, Anomaly.INVALID_COMBINATION)).isZero();
+        }
+
+        @Test
+        void shouldClearCounts_WhenReset() {
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "database");
+
+            diagnostics.reset();
+
+            assertAll(
+                    () -> assertThat(diagnostics.sources()).isEmpty(),
+                    () -> assertThat(diagnostics.count(Anomaly.INVALID_SEVERITY)).isZero()
+            );
+        }
+
+        @Test
+        void shouldKeepInstancesSeparate() {
+            var other = new HealthStatusDiagnostics();
+
+            diagnostics.record(Anomaly.INVALID_SEVERITY, "database");
+
+            assertThat(other.sources()).isEmpty();
+            assertThat(other.count(Anomaly.INVALID_SEVERITY)).isZero();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@DisplayName("HealthStatusHistory")
+class HealthStatusHistoryTest {
+
+    private AtomicLong currentTimeMillis;
+
+    @BeforeEach
+    void setUp() {
+        currentTimeMillis = new AtomicLong(1_000_000);
+    }
+
+    private HealthStatusHistory.Builder builderWithClock() {
+        return HealthStatusHistory.builder().currentTimeMillis(currentTimeMillis::get);
+    }
+
+    private void advance(Duration duration) {
+        currentTimeMillis.addAndGet(duration.toMillis());
+    }
+
+    private void recordEverySecond(HealthStatusHistory history, HealthStatus... statuses) {
+        for (var status : statuses) {
+            history.record("database", status);
+            advance(Duration.ofSeconds(1));
+        }
+    }
+
+    private record Observation(HealthStatus status, long timestampMillis) {
+    }
+
+    private List<Observation> observationsOf(HealthStatusHistory history, String checkName) {
+        var observations = new ArrayList<Observation>();
+        history.forEach(checkName,
+                (status, timestampMillis) -> observations.add(new Observation(status, timestampMillis)));
+        return observations;
+    }
+
+    @Nested
+    class Recording {
+
+        @Test
+        void shouldHaveNoHistory_ForUnknownCheck() {
+            var history = HealthStatusHistory.of();
+
+            assertAll(
+                    () -> assertThat(history.latest("database")).isNull(),
+                    () -> assertThat(history.size("database")).isZero(),
+                    () -> assertThat(history.transitions("database", Duration.ofMinutes(5))).isZero(),
+                    () -> assertThat(history.isFlapping("database")).isFalse(),
+                    () -> assertThat(observationsOf(history, "database")).isEmpty(),
+                    () -> assertThat(history.checkNames()).isEmpty()
+            );
+        }
+
+        @Test
+        void shouldRecordObservations_NewestFirst() {
+            var history = builderWithClock().build();
+
+            recordEverySecond(history, HealthStatus.OK, HealthStatus.WARN, HealthStatus.CRITICAL);
+
+            assertAll(
+                    () -> assertThat(history.latest("database")).isEqualTo(HealthStatus.CRITICAL),
+                    () -> assertThat(history.size("database")).isEqualTo(3),
+                    () -> assertThat(history.checkNames()).containsExactly("database"),
+                    () -> assertThat(observationsOf(history, "database")).containsExactly(
+                            new Observation(HealthStatus.CRITICAL, 1_002_000),
+                            new Observation(HealthStatus.WARN, 1_001_000),
+                            new Observation(HealthStatus.OK, 1_000_000))
+            );
+        }
+
+        @Test
+        void shouldDiscardOldestObservations_WhenFull() {
+            var history = builderWithClock().capacity(3).flapThreshold(2).build();
+
+            recordEverySecond(history, HealthStatus.OK, HealthStatus.INFO, HealthStatus.WARN, HealthStatus.CRITICAL,
+                    HealthStatus.FATAL);
+
+            assertAll(
+                    () -> assertThat(history.size("database")).isEqualTo(3),
+                    () -> assertThat(observationsOf(history, "database"))
+                            .extracting(Observation::status)
+                            .containsExactly(HealthStatus.FATAL, HealthStatus.CRITICAL, HealthStatus.WARN)
+            );
+        }
+
+        @Test
+        void shouldRecordResults_UsingTheirStatus_AtCurrentTime() {
+            var history = builderWithClock().build();
+            var result = HealthCheckResults.newUnhealthyResult(HealthStatus.CRITICAL, "down");
+
+            history.record("database", result);
+
+            assertThat(observationsOf(history, "database"))
+                    .containsExactly(new Observation(HealthStatus.CRITICAL, currentTimeMillis.get()));
+        }
+
+        @Test
+        void shouldRemoveHistory() {
+            var history = builderWithClock().build();
+            recordEverySecond(history, HealthStatus.OK);
+
+            history.remove("database");
+
+            assertAll(
+                    () -> assertThat(history.size("database")).isZero(),
+                    () -> assertThat(history.checkNames()).isEmpty()
+            );
+        }
+
+        @Test
+        void shouldValidateArguments() {
+            var history = HealthStatusHistory.of();
+
+            assertAll(
+                    () -> assertThatIllegalArgumentException().isThrownBy(() -> history.record(" ", HealthStatus.OK)),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> history.record("database", (HealthStatus) null)),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> history.record("database", (HealthCheck.Result) null)),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> history.transitions("database", null))
+            );
+        }
+    }
+
+    @Nested
+    class Transitions {
+
+        @Test
+        void shouldCountChanges_WithinWindow() {
+            var history = builderWithClock().build();
+
+            recordEverySecond(history, HealthStatus.OK, HealthStatus.WARN, HealthStatus.WARN, HealthStatus.OK,
+                    HealthStatus.CRITICAL, HealthStatus.CRITICAL);
+
+            // now is 6 seconds after the first observation
+            assertAll(
+                    () -> assertThat(history.transitions("database", Duration.ofSeconds(1))).isZero(),
+                    () -> assertThat(history.transitions("database", Duration.ofSeconds(2))).isOne(),
+                    () -> assertThat(history.transitions("database", Duration.ofSeconds(3))).isEqualTo(2),
+                    () -> assertThat(history.transitions("database", Duration.ofSeconds(5))).isEqualTo(3),
+                    () -> assertThat(history.transitions("database", Duration.ofMinutes(1))).isEqualTo(3)
+            );
+        }
+
+        @Test
+        void shouldNotCountFirstObservation_AsChange() {
+            var history = builderWithClock().build();
+
+            recordEverySecond(history, HealthStatus.CRITICAL);
+
+            assertThat(history.transitions("database", Duration.ofMinutes(1))).isZero();
+        }
+    }
+
+    @Nested
+    class Flapping {
+
+        @Test
+        void shouldDetectFlapping_WhenThresholdReachedWithinWindow() {
+            var history = builderWithClock().flapThreshold(3).flapWindow(Duration.ofSeconds(30)).build();
+
+            recordEverySecond(history, HealthStatus.OK, HealthStatus.CRITICAL, HealthStatus.OK);
+            assertThat(history.isFlapping("database")).isFalse();
+
+            recordEverySecond(history, HealthStatus.WARN);
+            assertAll(
+                    () -> assertThat(history.isFlapping("database")).isTrue(),
+                    () -> assertThat(history.flappingChecks()).containsExactly("database")
+            );
+
+            advance(Duration.ofSeconds(30));
+            assertAll(
+                    () -> assertThat(history.isFlapping("database")).isFalse(),
+                    () -> assertThat(history.flappingChecks()).isEmpty()
+            );
+        }
+
+        @Test
+        void shouldDetectFlapping_OfFactoryResults() {
+            var history = builderWithClock().flapThreshold(3).flapWindow(Duration.ofSeconds(30)).build();
+            var results = List.of(
+                    HealthCheckResults.sharedHealthyResult(),
+                    HealthCheckResults.sharedUnhealthyResult(HealthStatus.CRITICAL),
+                    HealthCheckResults.newHealthyResult(),
+                    HealthCheckResults.sharedHealthyResult(HealthStatus.WARN));
+
+            for (var result : results) {
+                history.record("database", result);
+                advance(Duration.ofSeconds(1));
+            }
+
+            assertAll(
+                    () -> assertThat(history.transitions("database", Duration.ofSeconds(30))).isEqualTo(3),
+                    () -> assertThat(history.isFlapping("database")).isTrue()
+            );
+        }
+
+        @Test
+        void shouldNotDetectFlapping_ForSteadyChecks() {
+            var history = builderWithClock().flapThreshold(1).build();
+
+            recordEverySecond(history, HealthStatus.WARN, HealthStatus.WARN, HealthStatus.WARN);
+
+            assertThat(history.isFlapping("database")).isFalse();
+        }
+    }
+
+    @Nested
+    class BuilderValidation {
+
+        @ParameterizedTest
+        @ValueSource(ints = { -1, 0, 1 })
+        void shouldRequireCapacityOfAtLeastTwo(int capacity) {
+            var builder = HealthStatusHistory.builder();
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> builder.capacity(capacity))
+                    .withMessage("capacity must be at least 2");
+        }
+
+        @Test
+        void shouldRequirePositiveFlapSettings() {
+            var builder = HealthStatusHistory.builder();
+
+            assertAll(
+                    () -> assertThatIllegalArgumentException().isThrownBy(() -> builder.flapThreshold(0)),
+                    () -> assertThatIllegalArgumentException().isThrownBy(() -> builder.flapWindow(Duration.ZERO)),
+                    () -> assertThatIllegalArgumentException().isThrownBy(() -> builder.flapWindow(null))
+            );
+        }
+
+        @Test
+        void shouldRequireFlapThresholdLessThanCapacity() {
+            var builder = HealthStatusHistory.builder().capacity(5).flapThreshold(5);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(builder::build)
+                    .withMessage("flapThreshold must be less than capacity");
+        }
+    }
+}
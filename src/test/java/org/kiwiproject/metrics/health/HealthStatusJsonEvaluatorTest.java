@@ -0,0 +1,225 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@DisplayName("HealthStatusJsonEvaluator")
+class HealthStatusJsonEvaluatorTest {
+
+    @Nested
+    class SameRulesAsHealthStatusFromMap {
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @MethodSource("org.kiwiproject.metrics.health.HealthStatusJsonEvaluatorTest#healthJson")
+        void shouldEvaluateByteArrays(String description, String json, HealthStatus expectedStatus) {
+            assertThat(HealthStatusJsonEvaluator.evaluate(bytes(json))).isEqualTo(expectedStatus);
+        }
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @MethodSource("org.kiwiproject.metrics.health.HealthStatusJsonEvaluatorTest#healthJson")
+        void shouldEvaluateInputStreams(String description, String json, HealthStatus expectedStatus) {
+            assertThat(HealthStatusJsonEvaluator.evaluate(new ByteArrayInputStream(bytes(json))))
+                    .isEqualTo(expectedStatus);
+        }
+
+        @ParameterizedTest(name = "[{index}] {0}")
+        @MethodSource("org.kiwiproject.metrics.health.HealthStatusJsonEvaluatorTest#healthJson")
+        void shouldEvaluateDirectByteBuffers(String description, String json, HealthStatus expectedStatus) {
+            var jsonBytes = bytes(json);
+            var buffer = ByteBuffer.allocateDirect(jsonBytes.length).put(jsonBytes).flip();
+
+            assertThat(HealthStatusJsonEvaluator.evaluate(buffer)).isEqualTo(expectedStatus);
+        }
+    }
+
+    static List<Arguments> healthJson() {
+        return List.of(
+                Arguments.of("empty object", "{}", HealthStatus.CRITICAL),
+                Arguments.of("not an object", "[ { \"healthy\": true } ]", HealthStatus.CRITICAL),
+                Arguments.of("only non-object values", "{ \"a\": \"nope\", \"b\": [1, 2] }", HealthStatus.CRITICAL),
+                Arguments.of("healthy, no severity", "{ \"db\": { \"healthy\": true } }", HealthStatus.OK),
+                Arguments.of("unhealthy, no severity", "{ \"db\": { \"healthy\": false } }", HealthStatus.WARN),
+                Arguments.of("no healthy field", "{ \"db\": { \"message\": \"hi\" } }", HealthStatus.WARN),
+                Arguments.of("string healthy value", "{ \"db\": { \"healthy\": \"TRUE\" } }", HealthStatus.OK),
+                Arguments.of("numeric healthy value", "{ \"db\": { \"healthy\": 1 } }", HealthStatus.WARN),
+                Arguments.of("null healthy value", "{ \"db\": { \"healthy\": null } }", HealthStatus.WARN),
+                Arguments.of("healthy INFO",
+                        "{ \"db\": { \"healthy\": true, \"severity\": \"INFO\" } }", HealthStatus.INFO),
+                Arguments.of("unhealthy CRITICAL",
+                        "{ \"db\": { \"healthy\": false, \"severity\": \"CRITICAL\" } }", HealthStatus.CRITICAL),
+                Arguments.of("invalid severity",
+                        "{ \"db\": { \"healthy\": false, \"severity\": \"FOO\" } }", HealthStatus.WARN),
+                Arguments.of("lowercase severity",
+                        "{ \"db\": { \"healthy\": false, \"severity\": \"critical\" } }", HealthStatus.WARN),
+                Arguments.of("null severity",
+                        "{ \"db\": { \"healthy\": true, \"severity\": null } }", HealthStatus.WARN),
+                Arguments.of("object severity",
+                        "{ \"db\": { \"healthy\": false, \"severity\": { \"level\": \"CRITICAL\" } } }",
+                        HealthStatus.WARN),
+                Arguments.of("invalid combination (true, CRITICAL)",
+                        "{ \"db\": { \"healthy\": true, \"severity\": \"CRITICAL\" } }", HealthStatus.CRITICAL),
+                Arguments.of("invalid combination (false, OK)",
+                        "{ \"db\": { \"healthy\": false, \"severity\": \"OK\" } }", HealthStatus.WARN),
+                Arguments.of("ignores nested healthy and severity fields", """
+                        {
+                          "db": {
+                            "healthy": true,
+                            "details": { "healthy": false, "severity": "FATAL", "items": [ { "severity": "FATAL" } ] },
+                            "error": { "message": "boom", "stack": [ "a", "b", "c" ] }
+                          }
+                        }
+                        """, HealthStatus.OK),
+                Arguments.of("highest severity of many", """
+                        {
+                          "deadlocks": { "healthy": true, "duration": 0, "timestamp": "2026-10-16T12:00:00.000Z" },
+                          "notACheck": "ignored",
+                          "database": { "healthy": false, "severity": "WARN", "message": "slow" },
+                          "queue": { "healthy": false, "severity": "CRITICAL", "message": "down" },
+                          "cache": { "healthy": true, "severity": "INFO" }
+                        }
+                        """, HealthStatus.CRITICAL)
+        );
+    }
+
+    @Nested
+    class EarlyExit {
+
+        @Test
+        void shouldStopReading_WhenFatalCheckIsFound() {
+            // everything after the FATAL check is garbage, so this only works if evaluation stops early
+            var json = "{ \"a\": { \"healthy\": false, \"severity\": \"FATAL\" }, \"b\": {{{ garbage";
+
+            assertThat(HealthStatusJsonEvaluator.evaluate(bytes(json))).isEqualTo(HealthStatus.FATAL);
+        }
+    }
+
+    @Nested
+    class InvalidJson {
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "",
+                "   ",
+                "{",
+                "{ \"db\": { \"healthy\": tru } }",
+                "not json",
+                "{ \"db\": { \"healthy\": true }"
+        })
+        void shouldBe_CRITICAL_WhenJsonIsEmptyOrNotWellFormed(String json) {
+            assertThat(HealthStatusJsonEvaluator.evaluate(bytes(json))).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldNotAllowNullArguments() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> HealthStatusJsonEvaluator.evaluate((byte[]) null))
+                    .withMessage("json cannot be null");
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> HealthStatusJsonEvaluator.evaluate((ByteBuffer) null))
+                    .withMessage("json cannot be null");
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> HealthStatusJsonEvaluator.evaluate((InputStream) null))
+                    .withMessage("json cannot be null");
+        }
+
+        @Test
+        void shouldRejectInvalidRanges() {
+            var json = bytes("{}");
+
+            assertThatThrownBy(() -> HealthStatusJsonEvaluator.evaluate(json, 1, 5))
+                    .isInstanceOf(IndexOutOfBoundsException.class);
+            assertThatThrownBy(() -> HealthStatusJsonEvaluator.evaluate(json, 1, -1))
+                    .isInstanceOf(IndexOutOfBoundsException.class);
+        }
+
+        @Test
+        void shouldRejectRanges_WhoseEndOverflows() {
+            var json = bytes("{}");
+
+            assertThatThrownBy(() -> HealthStatusJsonEvaluator.evaluate(json, 1, Integer.MAX_VALUE))
+                    .isInstanceOf(IndexOutOfBoundsException.class);
+        }
+
+        @Test
+        void shouldThrowUncheckedIOException_WhenStreamThrowsIOException() {
+            var stream = new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    throw new IOException("connection reset");
+                }
+            };
+
+            assertThatThrownBy(() -> HealthStatusJsonEvaluator.evaluate(stream))
+                    .isExactlyInstanceOf(UncheckedIOException.class)
+                    .hasRootCauseMessage("connection reset");
+        }
+    }
+
+    @Nested
+    class Inputs {
+
+        @Test
+        void shouldEvaluateRangeOfByteArray() {
+            var json = "xx{ \"db\": { \"healthy\": false, \"severity\": \"CRITICAL\" } }yy";
+            var jsonBytes = bytes(json);
+
+            assertThat(HealthStatusJsonEvaluator.evaluate(jsonBytes, 2, jsonBytes.length - 4))
+                    .isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldEvaluateRemainingBytesOfHeapBuffer_WithoutChangingPosition() {
+            var json = "xx{ \"db\": { \"healthy\": true, \"severity\": \"INFO\" } }";
+            var buffer = ByteBuffer.wrap(bytes(json));
+            buffer.position(2);
+
+            assertThat(HealthStatusJsonEvaluator.evaluate(buffer)).isEqualTo(HealthStatus.INFO);
+            assertThat(buffer.position()).isEqualTo(2);
+        }
+
+        @Test
+        void shouldNotChangePositionOfDirectBuffer() {
+            var jsonBytes = bytes("{ \"db\": { \"healthy\": true } }");
+            var buffer = ByteBuffer.allocateDirect(jsonBytes.length).put(jsonBytes).flip();
+
+            assertThat(HealthStatusJsonEvaluator.evaluate(buffer)).isEqualTo(HealthStatus.OK);
+            assertThat(buffer.position()).isZero();
+        }
+
+        @Test
+        void shouldNotCloseInputStream() {
+            var closed = new AtomicBoolean();
+            var stream = new ByteArrayInputStream(bytes("{ \"db\": { \"healthy\": true } }")) {
+                @Override
+                public void close() {
+                    closed.set(true);
+                }
+            };
+
+            assertThat(HealthStatusJsonEvaluator.evaluate(stream)).isEqualTo(HealthStatus.OK);
+            assertThat(closed).isFalse();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
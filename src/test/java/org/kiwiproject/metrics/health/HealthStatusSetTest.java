@@ -0,0 +1,130 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+@DisplayName("HealthStatusSet")
+class HealthStatusSetTest {
+
+    @Test
+    void shouldCreateEmptySet() {
+        var set = HealthStatusSet.empty();
+
+        assertThat(set.isEmpty()).isTrue();
+        assertThat(set.size()).isZero();
+        assertThat(set.bits()).isZero();
+        assertThat(set).hasToString("[]");
+    }
+
+    @ParameterizedTest
+    @EnumSource(HealthStatus.class)
+    void shouldAddAndContainStatuses(HealthStatus status) {
+        var set = HealthStatusSet.empty().add(status);
+
+        assertThat(set.contains(status)).isTrue();
+        assertThat(set.size()).isOne();
+        assertThat(set.highest()).isEqualTo(status);
+        assertThat(set.lowest()).isEqualTo(status);
+        assertThat(set.remove(status)).isSameAs(HealthStatusSet.empty());
+    }
+
+    @ParameterizedTest(name = "[{index}] {0} ; expected lowest={1}, highest={2}")
+    @CsvSource({
+            " 'OK', OK, OK",
+            " 'OK, INFO, OK', OK, INFO",
+            " 'WARN, OK, INFO', OK, WARN",
+            " 'CRITICAL, INFO, WARN', INFO, CRITICAL",
+            " 'OK, FATAL, WARN, INFO, CRITICAL', OK, FATAL"
+    })
+    void shouldFindHighestAndLowest(String statusCsv, HealthStatus expectedLowest, HealthStatus expectedHighest) {
+        var set = HealthStatusSet.of(statuses(statusCsv));
+
+        assertThat(set.lowest()).isEqualTo(expectedLowest);
+        assertThat(set.highest()).isEqualTo(expectedHighest);
+        assertThat(HealthStatus.highestSeverity(set)).isEqualTo(expectedHighest);
+        assertThat(HealthStatus.highestSeverity(set)).isEqualTo(HealthStatus.highestSeverity(statuses(statusCsv)));
+    }
+
+    @Test
+    void shouldThrowIllegalState_WhenEmpty() {
+        var set = HealthStatusSet.empty();
+
+        assertThatIllegalStateException().isThrownBy(set::highest).withMessage("set is empty");
+        assertThatIllegalStateException().isThrownBy(set::lowest).withMessage("set is empty");
+    }
+
+    @Test
+    void shouldCreateUnion() {
+        var set1 = HealthStatusSet.of(HealthStatus.OK, HealthStatus.WARN);
+        var set2 = HealthStatusSet.of(HealthStatus.INFO, HealthStatus.WARN);
+
+        var union = set1.union(set2);
+
+        assertThat(union.toEnumSet()).containsExactly(HealthStatus.OK, HealthStatus.INFO, HealthStatus.WARN);
+        assertThat(union).hasToString("[OK, INFO, WARN]");
+    }
+
+    @Test
+    void shouldBeCanonical() {
+        var set1 = HealthStatusSet.of(HealthStatus.OK, HealthStatus.CRITICAL);
+        var set2 = HealthStatusSet.empty().add(HealthStatus.CRITICAL).add(HealthStatus.OK);
+
+        assertThat(set1).isSameAs(set2).isEqualTo(set2).hasSameHashCodeAs(set2);
+    }
+
+    @Nested
+    class Bits {
+
+        @Test
+        void shouldRoundTrip() {
+            var set = HealthStatusSet.of(EnumSet.of(HealthStatus.INFO, HealthStatus.FATAL));
+
+            assertThat(HealthStatusSet.fromBits(set.bits())).isSameAs(set);
+        }
+
+        @ParameterizedTest
+        @EnumSource(HealthStatus.class)
+        void shouldUseBitAtPositionOfValue(HealthStatus status) {
+            assertThat(HealthStatusSet.bitOf(status)).isEqualTo(1 << status.getValue());
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {1, 64, -1, 0b1000001})
+        void shouldRejectInvalidBits(int bits) {
+            assertThatIllegalArgumentException().isThrownBy(() -> HealthStatusSet.fromBits(bits));
+        }
+    }
+
+    @Nested
+    class HighestSeverity {
+
+        @Test
+        void shouldRejectNullOrEmptySets() {
+            var empty = HealthStatusSet.empty();
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> HealthStatus.highestSeverity(empty))
+                    .withMessage("statuses cannot be empty or null");
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> HealthStatus.highestSeverity((HealthStatusSet) null))
+                    .withMessage("statuses cannot be empty or null");
+        }
+    }
+
+    private static List<HealthStatus> statuses(String statusCsv) {
+        return Arrays.stream(statusCsv.split(",")).map(String::trim).map(HealthStatus::valueOf).toList();
+    }
+}
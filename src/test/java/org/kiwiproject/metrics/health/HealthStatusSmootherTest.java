@@ -0,0 +1,261 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.junit.jupiter.api.Assertions.assertAll;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+@DisplayName("HealthStatusSmoother")
+class HealthStatusSmootherTest {
+
+    private AtomicLong nanoTime;
+
+    @BeforeEach
+    void setUp() {
+        nanoTime = new AtomicLong(42_000_000_000L);
+    }
+
+    private HealthStatusSmoother.Builder builderWithClock() {
+        return HealthStatusSmoother.builder().nanoTime(nanoTime::get);
+    }
+
+    private void advance(Duration duration) {
+        nanoTime.addAndGet(duration.toNanos());
+    }
+
+    @Nested
+    class Observations {
+
+        @Test
+        void shouldReportFirstObservation_AsIs() {
+            var smoother = HealthStatusSmoother.of();
+
+            assertAll(
+                    () -> assertThat(smoother.reportedStatus("database")).isNull(),
+                    () -> assertThat(smoother.observe("database", HealthStatus.CRITICAL))
+                            .isEqualTo(HealthStatus.CRITICAL),
+                    () -> assertThat(smoother.reportedStatus("database")).isEqualTo(HealthStatus.CRITICAL)
+            );
+        }
+
+        @Test
+        void shouldIgnoreBriefBlips() {
+            var smoother = HealthStatusSmoother.of();
+            smoother.observe("database", HealthStatus.OK);
+
+            assertAll(
+                    () -> assertThat(smoother.observe("database", HealthStatus.CRITICAL)).isEqualTo(HealthStatus.OK),
+                    () -> assertThat(smoother.observe("database", HealthStatus.OK)).isEqualTo(HealthStatus.OK),
+                    () -> assertThat(smoother.observe("database", HealthStatus.CRITICAL)).isEqualTo(HealthStatus.OK),
+                    () -> assertThat(smoother.observe("database", HealthStatus.OK)).isEqualTo(HealthStatus.OK)
+            );
+        }
+
+        @Test
+        void shouldEscalate_AfterConsecutiveHigherObservations() {
+            var smoother = HealthStatusSmoother.of();
+            smoother.observe("database", HealthStatus.OK);
+
+            assertAll(
+                    () -> assertThat(smoother.observe("database", HealthStatus.CRITICAL)).isEqualTo(HealthStatus.OK),
+                    () -> assertThat(smoother.observe("database", HealthStatus.CRITICAL))
+                            .isEqualTo(HealthStatus.CRITICAL)
+            );
+        }
+
+        @Test
+        void shouldRecover_AfterConsecutiveLowerObservations() {
+            var smoother = HealthStatusSmoother.of();
+            smoother.observe("database", HealthStatus.CRITICAL);
+
+            assertAll(
+                    () -> assertThat(smoother.observe("database", HealthStatus.OK)).isEqualTo(HealthStatus.CRITICAL),
+                    () -> assertThat(smoother.observe("database", HealthStatus.OK)).isEqualTo(HealthStatus.CRITICAL),
+                    () -> assertThat(smoother.observe("database", HealthStatus.OK)).isEqualTo(HealthStatus.OK)
+            );
+        }
+
+        @Test
+        void shouldEscalateToLeastExtremeStatusOfStreak() {
+            var smoother = HealthStatusSmoother.builder().escalationObservations(3).build();
+            smoother.observe("database", HealthStatus.OK);
+
+            smoother.observe("database", HealthStatus.CRITICAL);
+            smoother.observe("database", HealthStatus.WARN);
+
+            assertThat(smoother.observe("database", HealthStatus.FATAL)).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldRecoverToLeastExtremeStatusOfStreak() {
+            var smoother = HealthStatusSmoother.builder().recoveryObservations(2).build();
+            smoother.observe("database", HealthStatus.FATAL);
+
+            smoother.observe("database", HealthStatus.INFO);
+
+            assertThat(smoother.observe("database", HealthStatus.WARN)).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldRestartStreak_WhenDirectionChanges() {
+            var smoother = HealthStatusSmoother.builder().escalationObservations(2).recoveryObservations(2).build();
+            smoother.observe("database", HealthStatus.WARN);
+
+            assertAll(
+                    () -> assertThat(smoother.observe("database", HealthStatus.CRITICAL)).isEqualTo(HealthStatus.WARN),
+                    () -> assertThat(smoother.observe("database", HealthStatus.OK)).isEqualTo(HealthStatus.WARN),
+                    () -> assertThat(smoother.observe("database", HealthStatus.CRITICAL)).isEqualTo(HealthStatus.WARN),
+                    () -> assertThat(smoother.observe("database", HealthStatus.CRITICAL))
+                            .isEqualTo(HealthStatus.CRITICAL)
+            );
+        }
+
+        @Test
+        void shouldNotSmooth_WhenOneObservationIsEnough() {
+            var smoother = HealthStatusSmoother.builder().escalationObservations(1).recoveryObservations(1).build();
+            smoother.observe("database", HealthStatus.OK);
+
+            assertAll(
+                    () -> assertThat(smoother.observe("database", HealthStatus.FATAL)).isEqualTo(HealthStatus.FATAL),
+                    () -> assertThat(smoother.observe("database", HealthStatus.INFO)).isEqualTo(HealthStatus.INFO)
+            );
+        }
+
+        @Test
+        void shouldObserveResults() {
+            var smoother = HealthStatusSmoother.of();
+
+            var result = HealthCheckResults.newUnhealthyResult(HealthStatus.CRITICAL, "down");
+
+            assertThat(smoother.observe("database", result)).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldKeepSeparateState_PerCheck() {
+            var smoother = HealthStatusSmoother.of();
+            smoother.observe("database", HealthStatus.OK);
+            smoother.observe("queue", HealthStatus.OK);
+
+            smoother.observe("database", HealthStatus.CRITICAL);
+            smoother.observe("queue", HealthStatus.CRITICAL);
+
+            assertThat(smoother.observe("database", HealthStatus.CRITICAL)).isEqualTo(HealthStatus.CRITICAL);
+            assertThat(smoother.reportedStatus("queue")).isEqualTo(HealthStatus.OK);
+        }
+
+        @Test
+        void shouldForgetState_WhenRemoved() {
+            var smoother = HealthStatusSmoother.of();
+            smoother.observe("database", HealthStatus.OK);
+
+            smoother.remove("database");
+
+            assertAll(
+                    () -> assertThat(smoother.reportedStatus("database")).isNull(),
+                    () -> assertThat(smoother.observe("database", HealthStatus.FATAL)).isEqualTo(HealthStatus.FATAL)
+            );
+        }
+    }
+
+    @Nested
+    class DwellTimes {
+
+        @Test
+        void shouldEscalate_AfterDwellTime_EvenWithFewerObservations() {
+            var smoother = builderWithClock()
+                    .escalationObservations(10)
+                    .escalationDwell(Duration.ofSeconds(30))
+                    .build();
+            smoother.observe("database", HealthStatus.OK);
+
+            assertThat(smoother.observe("database", HealthStatus.WARN)).isEqualTo(HealthStatus.OK);
+
+            advance(Duration.ofSeconds(29));
+            assertThat(smoother.observe("database", HealthStatus.WARN)).isEqualTo(HealthStatus.OK);
+
+            advance(Duration.ofSeconds(1));
+            assertThat(smoother.observe("database", HealthStatus.WARN)).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldRestartDwellTime_WhenReportedStatusIsObservedAgain() {
+            var smoother = builderWithClock()
+                    .recoveryObservations(10)
+                    .recoveryDwell(Duration.ofMinutes(1))
+                    .build();
+            smoother.observe("database", HealthStatus.CRITICAL);
+
+            smoother.observe("database", HealthStatus.OK);
+            advance(Duration.ofSeconds(50));
+            smoother.observe("database", HealthStatus.CRITICAL);
+            advance(Duration.ofSeconds(20));
+
+            assertThat(smoother.observe("database", HealthStatus.OK)).isEqualTo(HealthStatus.CRITICAL);
+
+            advance(Duration.ofMinutes(1));
+            assertThat(smoother.observe("database", HealthStatus.OK)).isEqualTo(HealthStatus.OK);
+        }
+    }
+
+    @Nested
+    class Concurrency {
+
+        @Test
+        void shouldEscalate_WhenObservedConcurrently() throws InterruptedException {
+            var smoother = HealthStatusSmoother.builder().escalationObservations(1_000).build();
+            smoother.observe("database", HealthStatus.OK);
+
+            var executor = Executors.newFixedThreadPool(4);
+            try {
+                IntStream.range(0, 1_000).forEach(i ->
+                        executor.submit(() -> smoother.observe("database", HealthStatus.CRITICAL)));
+            } finally {
+                executor.shutdown();
+                assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+            }
+
+            assertThat(smoother.reportedStatus("database")).isEqualTo(HealthStatus.CRITICAL);
+        }
+    }
+
+    @Nested
+    class BuilderValidation {
+
+        @ParameterizedTest
+        @ValueSource(ints = { -1, 0, HealthStatusSmoother.MAX_OBSERVATIONS + 1 })
+        void shouldRequireValidObservations(int observations) {
+            var builder = HealthStatusSmoother.builder();
+
+            assertAll(
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> builder.escalationObservations(observations))
+                            .withMessage("observations must be between 1 and 65535"),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> builder.recoveryObservations(observations))
+            );
+        }
+
+        @Test
+        void shouldRequireValidDwell() {
+            var builder = HealthStatusSmoother.builder();
+
+            assertAll(
+                    () -> assertThatIllegalArgumentException().isThrownBy(() -> builder.escalationDwell(null)),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> builder.recoveryDwell(Duration.ofSeconds(-1)))
+            );
+        }
+    }
+}
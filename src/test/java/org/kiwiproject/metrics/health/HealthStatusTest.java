@@ -20,13 +20,18 @@ import org.kiwiproject.base.KiwiStrings;
 import org.kiwiproject.collect.KiwiMaps;
 import org.kiwiproject.test.junit.jupiter.params.provider.MinimalBlankStringSource;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 @DisplayName("HealthStatus")
 class HealthStatusTest {
@@ -98,6 +103,101 @@ class HealthStatusTest {
         }
     }
 
+    @Nested
+    class ParseIgnoreCase {
+
+        @ParameterizedTest
+        @CsvSource(textBlock = """
+                ok, OK
+                Info, INFO
+                WaRn, WARN
+                critical, CRITICAL
+                FATAL, FATAL
+                """)
+        void shouldParseCharSequences(String value, HealthStatus expectedHealthStatus) {
+            assertAll(
+                    () -> assertThat(HealthStatus.parseIgnoreCase(value)).contains(expectedHealthStatus),
+                    () -> assertThat(HealthStatus.parseIgnoreCase(new StringBuilder(value)))
+                            .contains(expectedHealthStatus),
+                    () -> assertThat(HealthStatus.parseIgnoreCase(CharBuffer.wrap(value)))
+                            .contains(expectedHealthStatus)
+            );
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = { " warn", "warn ", "\twarn\n", "  WARN  " })
+        void shouldIgnoreLeadingAndTrailingWhitespace(String value) {
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            assertAll(
+                    () -> assertThat(HealthStatus.parseIgnoreCase(value)).contains(HealthStatus.WARN),
+                    () -> assertThat(HealthStatus.parseIgnoreCase(bytes, 0, bytes.length)).contains(HealthStatus.WARN),
+                    () -> assertThat(HealthStatus.parseIgnoreCase(ByteBuffer.wrap(bytes))).contains(HealthStatus.WARN)
+            );
+        }
+
+        @ParameterizedTest
+        @NullAndEmptySource
+        @ValueSource(strings = { " ", "foo", "okay", "war", "critic", "error", "w a r n", "crıtıcal", "ＯＫ" })
+        void shouldReturnEmptyOptional_WhenGivenNonMatchingCharSequence(String value) {
+            assertThat(HealthStatus.parseIgnoreCase(value)).isEmpty();
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = { "", " ", "foo", "okay", "war", "critic", "error", "crıtıcal", "ＯＫ" })
+        void shouldReturnEmptyOptional_WhenGivenNonMatchingBytes(String value) {
+            var bytes = value.getBytes(StandardCharsets.UTF_8);
+
+            assertAll(
+                    () -> assertThat(HealthStatus.parseIgnoreCase(bytes, 0, bytes.length)).isEmpty(),
+                    () -> assertThat(HealthStatus.parseIgnoreCase(ByteBuffer.wrap(bytes))).isEmpty()
+            );
+        }
+
+        @Test
+        void shouldParseRangeOfByteArray() {
+            var bytes = "{\"severity\":\"critical\"}".getBytes(StandardCharsets.US_ASCII);
+
+            assertAll(
+                    () -> assertThat(HealthStatus.parseIgnoreCase(bytes, 13, 8)).contains(HealthStatus.CRITICAL),
+                    () -> assertThat(HealthStatus.parseIgnoreCase(bytes, 13, 7)).isEmpty(),
+                    () -> assertThat(HealthStatus.parseIgnoreCase(bytes, 12, 8)).isEmpty()
+            );
+        }
+
+        @Test
+        void shouldRejectInvalidByteArrayRange() {
+            var bytes = "fatal".getBytes(StandardCharsets.US_ASCII);
+
+            assertAll(
+                    () -> assertThatThrownBy(() -> HealthStatus.parseIgnoreCase(bytes, 1, 5))
+                            .isInstanceOf(IndexOutOfBoundsException.class),
+                    () -> assertThatThrownBy(() -> HealthStatus.parseIgnoreCase(bytes, -1, 2))
+                            .isInstanceOf(IndexOutOfBoundsException.class),
+                    () -> assertThatIllegalArgumentException()
+                            .isThrownBy(() -> HealthStatus.parseIgnoreCase(null, 0, 0))
+                            .withMessage("bytes must not be null")
+            );
+        }
+
+        @ParameterizedTest
+        @EnumSource(HealthStatus.class)
+        void shouldParseBetweenPositionAndLimit_WithoutChangingThem(HealthStatus healthStatus) {
+            var bytes = ("[" + healthStatus.name().toLowerCase(Locale.ENGLISH) + "]")
+                    .getBytes(StandardCharsets.US_ASCII);
+            var heapBuffer = ByteBuffer.wrap(bytes).position(1).limit(bytes.length - 1);
+            var directBuffer = ByteBuffer.allocateDirect(bytes.length).put(bytes).position(1).limit(bytes.length - 1);
+
+            assertAll(
+                    () -> assertThat(HealthStatus.parseIgnoreCase(heapBuffer)).contains(healthStatus),
+                    () -> assertThat(HealthStatus.parseIgnoreCase(heapBuffer.slice())).contains(healthStatus),
+                    () -> assertThat(HealthStatus.parseIgnoreCase(directBuffer)).contains(healthStatus),
+                    () -> assertThat(directBuffer.position()).isOne(),
+                    () -> assertThat(directBuffer.limit()).isEqualTo(bytes.length - 1)
+            );
+        }
+    }
+
     @Nested
     class HealthStatusFrom {
 
@@ -205,6 +305,16 @@ class HealthStatusTest {
             assertThat(HealthStatus.from(healthDetails)).isEqualTo(HealthStatus.WARN);
         }
 
+        @ParameterizedTest
+        @ValueSource(strings = { "critical", "Fatal", " CRITICAL", "" })
+        void shouldBe_WARN_WhenGiven_SeverityThatIsNotAnExactConstantName(String severity) {
+            Map<String, Object> healthDetails = Map.of(
+                    "database", Map.of("healthy", false, "severity", severity)
+            );
+
+            assertThat(HealthStatus.from(healthDetails)).isEqualTo(HealthStatus.WARN);
+        }
+
         @Test
         void shouldBe_WARN_WhenGiven_MapWithSeverityLevel() {
             Map<String, Object> healthDetails = Map.of(
@@ -369,6 +479,29 @@ class HealthStatusTest {
             assertThat(HealthStatus.from(healthDetails)).isEqualTo(HealthStatus.CRITICAL);
         }
 
+        @ParameterizedTest
+        @ValueSource(ints = {0, 1, 2})
+        void shouldBe_FATAL_WhenAnyCheckIsFATAL_RegardlessOfPosition(int fatalIndex) {
+            var healthDetails = new LinkedHashMap<String, Object>();
+            for (var i = 0; i < 3; i++) {
+                var check = (i == fatalIndex) ?
+                        Map.of("healthy", false, "severity", "FATAL") : Map.of("healthy", true, "severity", "INFO");
+                healthDetails.put("check" + i, check);
+            }
+
+            assertThat(HealthStatus.from(healthDetails)).isEqualTo(HealthStatus.FATAL);
+        }
+
+        @Test
+        void shouldReturnHighestSeverity_ForLargeMaps() {
+            var healthDetails = new LinkedHashMap<String, Object>();
+            IntStream.range(0, 10_000).forEach(i -> healthDetails.put("check" + i, Map.of("healthy", true)));
+            healthDetails.put("notAMap", "ignored");
+            healthDetails.put("lastOne", Map.of("healthy", false, "severity", "CRITICAL"));
+
+            assertThat(HealthStatus.from(healthDetails)).isEqualTo(HealthStatus.CRITICAL);
+        }
+
         @ParameterizedTest
         @CsvSource({
                 "true,CRITICAL,CRITICAL",
@@ -0,0 +1,360 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.jspecify.annotations.Nullable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+@DisplayName("HealthTree")
+class HealthTreeTest {
+
+    private static final List<String> EAST_ORDERS_1_DB = List.of("us-east", "orders", "instance-1", "database");
+    private static final List<String> EAST_ORDERS_1_QUEUE = List.of("us-east", "orders", "instance-1", "queue");
+    private static final List<String> EAST_ORDERS_2_DB = List.of("us-east", "orders", "instance-2", "database");
+    private static final List<String> WEST_ORDERS_1_DB = List.of("us-west", "orders", "instance-1", "database");
+
+    private HealthTree tree;
+
+    @BeforeEach
+    void setUp() {
+        tree = new HealthTree();
+    }
+
+    @Test
+    void shouldBeCritical_WhenEmpty() {
+        assertThat(tree.overallStatus()).isEqualTo(HealthStatus.CRITICAL);
+        assertThat(tree.status(List.of())).isEqualTo(HealthStatus.CRITICAL);
+        assertThat(tree.leafCount()).isZero();
+    }
+
+    @Nested
+    class Update {
+
+        @Test
+        void shouldCreateAncestors_AndDeriveTheirStatus() {
+            var overall = tree.update(EAST_ORDERS_1_DB, HealthStatus.WARN);
+
+            assertThat(overall).isEqualTo(HealthStatus.WARN);
+            assertThat(tree.status(List.of("us-east"))).isEqualTo(HealthStatus.WARN);
+            assertThat(tree.status(List.of("us-east", "orders"))).isEqualTo(HealthStatus.WARN);
+            assertThat(tree.status(List.of("us-east", "orders", "instance-1"))).isEqualTo(HealthStatus.WARN);
+            assertThat(tree.status(EAST_ORDERS_1_DB)).isEqualTo(HealthStatus.WARN);
+            assertThat(tree.children(List.of())).containsExactly("us-east");
+            assertThat(tree.leafCount()).isOne();
+        }
+
+        @Test
+        void shouldDeriveHighestSeverity_AtEachLevel() {
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+            tree.update(EAST_ORDERS_1_QUEUE, HealthStatus.CRITICAL);
+            tree.update(EAST_ORDERS_2_DB, HealthStatus.INFO);
+            tree.update(WEST_ORDERS_1_DB, HealthStatus.WARN);
+
+            assertThat(tree.status(List.of("us-east", "orders", "instance-1"))).isEqualTo(HealthStatus.CRITICAL);
+            assertThat(tree.status(List.of("us-east", "orders", "instance-2"))).isEqualTo(HealthStatus.INFO);
+            assertThat(tree.status(List.of("us-west"))).isEqualTo(HealthStatus.WARN);
+            assertThat(tree.overallStatus()).isEqualTo(HealthStatus.CRITICAL);
+
+            tree.update(EAST_ORDERS_1_QUEUE, HealthStatus.OK);
+
+            assertThat(tree.status(List.of("us-east"))).isEqualTo(HealthStatus.INFO);
+            assertThat(tree.overallStatus()).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldAcceptResults() {
+            tree.update(EAST_ORDERS_1_DB, HealthCheckResults.newUnhealthyResult(HealthStatus.FATAL, "gone"));
+
+            assertThat(tree.overallStatus()).isEqualTo(HealthStatus.FATAL);
+        }
+
+        @Test
+        void shouldNotAllowUpdatingInternalNodes() {
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> tree.update(List.of("us-east", "orders"), HealthStatus.OK))
+                    .withMessage("[us-east, orders] is not a leaf");
+        }
+
+        @Test
+        void shouldNotAllowChildrenOfLeaves() {
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+            var path = List.of("us-east", "orders", "instance-1", "database", "replica");
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> tree.update(path, HealthStatus.OK))
+                    .withMessage("[us-east, orders, instance-1, database] is a leaf and cannot have children");
+        }
+
+        @Test
+        void shouldNotAllowInvalidPaths() {
+            assertThatIllegalArgumentException().isThrownBy(() -> tree.update(List.of(), HealthStatus.OK));
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> tree.update(List.of("us-east", " "), HealthStatus.OK));
+        }
+    }
+
+    @Nested
+    class Remove {
+
+        @Test
+        void shouldRemoveLeaf_AndRecomputeAncestors() {
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+            tree.update(EAST_ORDERS_1_QUEUE, HealthStatus.FATAL);
+
+            assertThat(tree.remove(EAST_ORDERS_1_QUEUE)).isTrue();
+
+            assertThat(tree.status(EAST_ORDERS_1_QUEUE)).isNull();
+            assertThat(tree.overallStatus()).isEqualTo(HealthStatus.OK);
+            assertThat(tree.leafCount()).isOne();
+        }
+
+        @Test
+        void shouldRemoveEmptyAncestors() {
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+            tree.update(WEST_ORDERS_1_DB, HealthStatus.WARN);
+
+            tree.remove(WEST_ORDERS_1_DB);
+
+            assertThat(tree.status(List.of("us-west"))).isNull();
+            assertThat(tree.children(List.of())).containsExactly("us-east");
+            assertThat(tree.overallStatus()).isEqualTo(HealthStatus.OK);
+        }
+
+        @Test
+        void shouldRemoveSubtree() {
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+            tree.update(EAST_ORDERS_1_QUEUE, HealthStatus.WARN);
+            tree.update(EAST_ORDERS_2_DB, HealthStatus.CRITICAL);
+
+            assertThat(tree.remove(List.of("us-east", "orders", "instance-2"))).isTrue();
+
+            assertThat(tree.leafCount()).isEqualTo(2);
+            assertThat(tree.children(List.of("us-east", "orders"))).containsExactly("instance-1");
+            assertThat(tree.overallStatus()).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldBeCritical_WhenLastLeafIsRemoved() {
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+
+            tree.remove(EAST_ORDERS_1_DB);
+
+            assertThat(tree.children(List.of())).isEmpty();
+            assertThat(tree.overallStatus()).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldReturnFalse_WhenNodeDoesNotExist() {
+            assertThat(tree.remove(EAST_ORDERS_1_DB)).isFalse();
+        }
+    }
+
+    @Nested
+    class WithAggregationPolicy {
+
+        @Test
+        void shouldApplyPolicy_AtEachLevel() {
+            tree = new HealthTree(AggregationPolicy.quorum(0.5));
+            tree.update(List.of("orders", "instance-1"), HealthStatus.OK);
+            tree.update(List.of("orders", "instance-2"), HealthStatus.OK);
+            tree.update(List.of("orders", "instance-3"), HealthStatus.CRITICAL);
+
+            assertThat(tree.status(List.of("orders"))).isEqualTo(HealthStatus.WARN);
+            assertThat(tree.overallStatus()).isEqualTo(HealthStatus.WARN);
+
+            var overall = tree.update(List.of("orders", "instance-2"), HealthStatus.FATAL);
+
+            assertThat(overall).isEqualTo(HealthStatus.FATAL);
+            assertThat(tree.status(List.of("orders"))).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldUsePolicy_ForStatusOfEmptyTree() {
+            tree = new HealthTree(AggregationPolicy.quorum(0.5));
+
+            assertThat(tree.overallStatus()).isEqualTo(HealthStatus.FATAL);
+
+            tree.update(List.of("orders", "instance-1"), HealthStatus.OK);
+            tree.remove(List.of("orders"));
+
+            assertThat(tree.overallStatus()).isEqualTo(HealthStatus.FATAL);
+        }
+
+        @Test
+        void shouldWeightChildren_ByName() {
+            tree = new HealthTree(AggregationPolicy.maxSeverity().ignoring(Set.of("metrics")));
+            tree.update(List.of("instance-1", "database"), HealthStatus.OK);
+            tree.update(List.of("instance-1", "metrics"), HealthStatus.CRITICAL);
+
+            assertThat(tree.status(List.of("instance-1", "metrics"))).isEqualTo(HealthStatus.CRITICAL);
+            assertThat(tree.status(List.of("instance-1"))).isEqualTo(HealthStatus.OK);
+
+            tree.remove(List.of("instance-1", "database"));
+
+            assertThat(tree.status(List.of("instance-1"))).isEqualTo(HealthStatus.OK);
+            assertThat(tree.overallStatus()).isEqualTo(HealthStatus.OK);
+        }
+
+        @Test
+        void shouldWeightChildren_ByPath() {
+            tree = new HealthTree(AggregationPolicy.maxSeverity().ignoringPaths(Set.of(List.of("orders", "cache"))));
+            tree.update(List.of("orders", "cache"), HealthStatus.CRITICAL);
+            tree.update(List.of("cache", "instance-1"), HealthStatus.WARN);
+
+            assertThat(tree.status(List.of("orders"))).isEqualTo(HealthStatus.OK);
+            assertThat(tree.status(List.of("cache"))).isEqualTo(HealthStatus.WARN);
+            assertThat(tree.overallStatus()).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldRequirePolicy() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> new HealthTree(null))
+                    .withMessage("policy cannot be null");
+        }
+    }
+
+    @Nested
+    class Subscriptions {
+
+        private record Event(List<String> path, @Nullable HealthStatus previous, @Nullable HealthStatus current) {
+        }
+
+        private List<Event> events;
+
+        @BeforeEach
+        void setUp() {
+            events = new ArrayList<>();
+        }
+
+        private HealthTree.StatusListener recorder() {
+            return (path, previous, current) -> events.add(new Event(path, previous, current));
+        }
+
+        @Test
+        void shouldNotifyOnAddChangeAndRemove_FromLeafUpwards() {
+            var listener = recorder();
+            tree.subscribe(EAST_ORDERS_1_DB, listener);
+            tree.subscribe(List.of("us-east"), listener);
+            tree.subscribe(List.of(), listener);
+
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.WARN);
+            tree.remove(EAST_ORDERS_1_DB);
+
+            assertThat(events).containsExactly(
+                    new Event(EAST_ORDERS_1_DB, null, HealthStatus.OK),
+                    new Event(List.of("us-east"), null, HealthStatus.OK),
+                    new Event(List.of(), HealthStatus.CRITICAL, HealthStatus.OK),
+                    new Event(EAST_ORDERS_1_DB, HealthStatus.OK, HealthStatus.WARN),
+                    new Event(List.of("us-east"), HealthStatus.OK, HealthStatus.WARN),
+                    new Event(List.of(), HealthStatus.OK, HealthStatus.WARN),
+                    new Event(EAST_ORDERS_1_DB, HealthStatus.WARN, null),
+                    new Event(List.of("us-east"), HealthStatus.WARN, null),
+                    new Event(List.of(), HealthStatus.WARN, HealthStatus.CRITICAL));
+        }
+
+        @Test
+        void shouldStopPropagating_WhenAncestorStatusDoesNotChange() {
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.CRITICAL);
+            tree.update(EAST_ORDERS_2_DB, HealthStatus.OK);
+            tree.subscribe(List.of("us-east", "orders", "instance-2"), recorder());
+            tree.subscribe(List.of("us-east", "orders"), recorder());
+
+            tree.update(EAST_ORDERS_2_DB, HealthStatus.WARN);
+
+            assertThat(events).containsExactly(
+                    new Event(List.of("us-east", "orders", "instance-2"), HealthStatus.OK, HealthStatus.WARN));
+        }
+
+        @Test
+        void shouldNotNotifyWhenStatusIsUnchanged() {
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+            tree.subscribe(EAST_ORDERS_1_DB, recorder());
+
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+
+            assertThat(events).isEmpty();
+        }
+
+        @Test
+        void shouldNotifySubtreeNodes_WhenSubtreeIsRemoved() {
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+            tree.subscribe(EAST_ORDERS_1_DB, recorder());
+
+            tree.remove(List.of("us-east"));
+
+            assertThat(events).containsExactly(new Event(EAST_ORDERS_1_DB, HealthStatus.OK, null));
+        }
+
+        @Test
+        void shouldUnsubscribe() {
+            var listener = recorder();
+            tree.subscribe(EAST_ORDERS_1_DB, listener);
+
+            assertThat(tree.unsubscribe(EAST_ORDERS_1_DB, listener)).isTrue();
+            assertThat(tree.unsubscribe(EAST_ORDERS_1_DB, listener)).isFalse();
+
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+            assertThat(events).isEmpty();
+        }
+
+        @Test
+        void shouldContinueNotifying_WhenListenerThrows() {
+            tree.subscribe(EAST_ORDERS_1_DB, (path, previous, current) -> {
+                throw new IllegalStateException("oops");
+            });
+            tree.subscribe(EAST_ORDERS_1_DB, recorder());
+
+            tree.update(EAST_ORDERS_1_DB, HealthStatus.OK);
+
+            assertThat(events).hasSize(1);
+        }
+    }
+
+    @Test
+    void shouldMatchFullRecomputation_AfterManyRandomUpdates() {
+        var random = new Random(42);
+        var statuses = HealthStatus.values();
+        var leaves = new HashMap<List<String>, HealthStatus>();
+
+        for (var i = 0; i < 2_000; i++) {
+            var path = List.of("region-" + random.nextInt(2), "service-" + random.nextInt(3),
+                    "instance-" + random.nextInt(4), "check-" + random.nextInt(3));
+            if (random.nextInt(5) == 0) {
+                tree.remove(path);
+                leaves.remove(path);
+            } else {
+                var status = statuses[random.nextInt(statuses.length)];
+                tree.update(path, status);
+                leaves.put(path, status);
+            }
+        }
+
+        var expectedOverall = leaves.isEmpty() ? HealthStatus.CRITICAL : HealthStatus.highestSeverity(leaves.values());
+        assertThat(tree.overallStatus()).isEqualTo(expectedOverall);
+        assertThat(tree.leafCount()).isEqualTo(leaves.size());
+        for (var region = 0; region < 2; region++) {
+            var prefix = "region-" + region;
+            var regionStatuses = leaves.entrySet().stream()
+                    .filter(entry -> entry.getKey().get(0).equals(prefix))
+                    .map(Map.Entry::getValue)
+                    .toList();
+            var expected = regionStatuses.isEmpty() ? null : HealthStatus.highestSeverity(regionStatuses);
+            assertThat(tree.status(List.of(prefix))).isEqualTo(expected);
+        }
+    }
+}
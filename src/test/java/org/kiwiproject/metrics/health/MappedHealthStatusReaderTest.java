@@ -0,0 +1,106 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kiwiproject.metrics.health.HealthChangeStream.CheckState;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@DisplayName("MappedHealthStatusReader")
+class MappedHealthStatusReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Nested
+    class Open {
+
+        @Test
+        void shouldRejectMissingFile() {
+            var path = tempDir.resolve("missing.table");
+
+            assertThatThrownBy(() -> MappedHealthStatusReader.open(path)).isInstanceOf(UncheckedIOException.class);
+        }
+
+        @Test
+        void shouldRejectFileThatIsTooShort() throws Exception {
+            var path = Files.write(tempDir.resolve("short.table"), new byte[] { 'H', 'S' });
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> MappedHealthStatusReader.open(path))
+                    .withMessage("%s is not a health status table: too short", path);
+        }
+
+        @Test
+        void shouldRejectFileWithBadMagicNumber() throws Exception {
+            var path = Files.write(tempDir.resolve("other.table"), new byte[MappedHealthStatusTable.HEADER_SIZE]);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> MappedHealthStatusReader.open(path))
+                    .withMessage("%s is not a health status table: bad magic number", path);
+        }
+
+        @Test
+        void shouldRejectFileThatIsSmallerThanItsCapacity() throws Exception {
+            var header = ByteBuffer.allocate(MappedHealthStatusTable.HEADER_SIZE)
+                    .order(MappedHealthStatusTable.BYTE_ORDER)
+                    .putInt(MappedHealthStatusTable.MAGIC_OFFSET, MappedHealthStatusTable.MAGIC)
+                    .putInt(MappedHealthStatusTable.VERSION_OFFSET, MappedHealthStatusTable.VERSION)
+                    .putInt(MappedHealthStatusTable.CAPACITY_OFFSET, 10)
+                    .putInt(MappedHealthStatusTable.SLOT_SIZE_OFFSET, MappedHealthStatusTable.SLOT_SIZE);
+            var path = Files.write(tempDir.resolve("truncated.table"), header.array());
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> MappedHealthStatusReader.open(path))
+                    .withMessage("%s is not a health status table: invalid capacity", path);
+        }
+    }
+
+    @Test
+    void shouldNeverSeeTornWrites() throws Exception {
+        var path = tempDir.resolve("health.table");
+        var writer = MappedHealthStatusWriter.create(path, 2);
+        var reader = MappedHealthStatusReader.open(path);
+        writer.publish("database", HealthStatus.OK, true);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // The writer alternates between two states that are each internally consistent
+            Future<?> writes = executor.submit(() -> {
+                for (var i = 0; i < 200_000; i++) {
+                    if (i % 2 == 0) {
+                        writer.publish("database", HealthStatus.FATAL, false);
+                    } else {
+                        writer.publish("database", HealthStatus.OK, true);
+                    }
+                }
+            });
+
+            while (!writes.isDone()) {
+                assertThat(reader.state("database")).isIn(
+                        new CheckState(true, HealthStatus.OK), new CheckState(false, HealthStatus.FATAL));
+                assertThat(reader.overallStatus()).isIn(HealthStatus.OK, HealthStatus.FATAL);
+            }
+
+            writes.get();
+            assertThat(reader.status("database")).isEqualTo(HealthStatus.OK);
+            assertThat(reader.isHealthy("database")).isTrue();
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.codahale.metrics.health.HealthCheck;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kiwiproject.metrics.health.HealthChangeStream.CheckState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@DisplayName("MappedHealthStatusWriter")
+class MappedHealthStatusWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path path;
+    private AtomicLong currentTimeMillis;
+    private MappedHealthStatusWriter writer;
+    private MappedHealthStatusReader reader;
+
+    @BeforeEach
+    void setUp() {
+        path = tempDir.resolve("health.table");
+        currentTimeMillis = new AtomicLong(1_000);
+        writer = MappedHealthStatusWriter.create(path, 4, currentTimeMillis::get);
+        reader = MappedHealthStatusReader.open(path);
+    }
+
+    @Test
+    void shouldCreateEmptyTable() throws IOException {
+        assertThat(writer.path()).isEqualTo(path.toAbsolutePath());
+        assertThat(Files.size(path)).isEqualTo(MappedHealthStatusTable.fileSize(4));
+        assertThat(reader.capacity()).isEqualTo(4);
+        assertThat(reader.checkCount()).isZero();
+        assertThat(reader.overallStatus()).isEqualTo(HealthStatus.CRITICAL);
+        assertThat(reader.lastUpdatedMillis()).isEqualTo(1_000);
+        assertThat(tempDir).isDirectoryNotContaining("glob:**.tmp");
+    }
+
+    @Nested
+    class Publish {
+
+        @Test
+        void shouldPublishCheckStatus_AndOverallStatus() {
+            currentTimeMillis.set(2_000);
+            writer.publish("database", HealthCheckResults.newHealthyResult(HealthStatus.INFO));
+            writer.publish("queue", HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "backlog"));
+
+            assertThat(reader.checkCount()).isEqualTo(2);
+            assertThat(reader.status("database")).isEqualTo(HealthStatus.INFO);
+            assertThat(reader.isHealthy("database")).isTrue();
+            assertThat(reader.state("database")).isEqualTo(new CheckState(true, HealthStatus.INFO));
+            assertThat(reader.status("queue")).isEqualTo(HealthStatus.WARN);
+            assertThat(reader.isHealthy("queue")).isFalse();
+            assertThat(reader.overallStatus()).isEqualTo(HealthStatus.WARN);
+            assertThat(writer.overallStatus()).isEqualTo(HealthStatus.WARN);
+            assertThat(reader.lastUpdatedMillis()).isEqualTo(2_000);
+        }
+
+        @Test
+        void shouldUpdateExistingCheck_InPlace() {
+            writer.publish("database", HealthStatus.CRITICAL, false);
+            writer.publish("database", HealthStatus.OK, true);
+
+            assertThat(reader.checkCount()).isOne();
+            assertThat(reader.status("database")).isEqualTo(HealthStatus.OK);
+            assertThat(reader.overallStatus()).isEqualTo(HealthStatus.OK);
+        }
+
+        @Test
+        void shouldNotFindUnpublishedChecks() {
+            writer.publish("database", HealthStatus.OK, true);
+
+            assertThat(reader.status("data")).isNull();
+            assertThat(reader.status("database-replica")).isNull();
+            assertThat(reader.isHealthy("queue")).isFalse();
+        }
+
+        @Test
+        void shouldSupportNonAsciiNames_UpToMaximumLength() {
+            var longestName = "é".repeat(MappedHealthStatusTable.MAX_NAME_BYTES / 2);
+            writer.publish(longestName, HealthStatus.WARN, true);
+
+            assertThat(reader.status(longestName)).isEqualTo(HealthStatus.WARN);
+            assertThat(reader.status(longestName + "e")).isNull();
+        }
+
+        @Test
+        void shouldRejectNamesThatAreTooLong() {
+            var name = "x".repeat(MappedHealthStatusTable.MAX_NAME_BYTES + 1);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> writer.publish(name, HealthStatus.OK, true))
+                    .withMessage("checkName must be at most 104 bytes in UTF-8");
+        }
+
+        @Test
+        void shouldRejectNewChecks_WhenTableIsFull() {
+            for (var i = 0; i < 4; i++) {
+                writer.publish("check-" + i, HealthStatus.OK, true);
+            }
+
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> writer.publish("check-4", HealthStatus.OK, true))
+                    .withMessage("health status table is full (capacity 4)");
+        }
+    }
+
+    @Nested
+    class PublishAll {
+
+        @Test
+        void shouldPublishResults_AndRemoveMissingChecks() {
+            writer.publish("cache", HealthStatus.FATAL, false);
+
+            var results = new TreeMap<String, HealthCheck.Result>();
+            results.put("database", HealthCheckResults.newHealthyResult());
+            results.put("queue", HealthCheckResults.newUnhealthyResult(HealthStatus.CRITICAL, "down"));
+            writer.publishAll(results);
+
+            assertThat(reader.checkCount()).isEqualTo(2);
+            assertThat(reader.status("cache")).isNull();
+            assertThat(reader.status("queue")).isEqualTo(HealthStatus.CRITICAL);
+            assertThat(reader.overallStatus()).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldReuseFreedSlots() {
+            for (var i = 0; i < 4; i++) {
+                writer.publish("check-" + i, HealthStatus.OK, true);
+            }
+
+            writer.publishAll(Map.of(
+                    "check-0", HealthCheckResults.newHealthyResult(),
+                    "other", HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "slow")));
+
+            assertThat(reader.checkCount()).isEqualTo(2);
+            assertThat(reader.status("other")).isEqualTo(HealthStatus.WARN);
+            assertThat(reader.status("check-1")).isNull();
+        }
+
+        @Test
+        void shouldLeaveTableUnchanged_WhenResultsDoNotFit() {
+            writer.publish("database", HealthStatus.OK, true);
+            currentTimeMillis.set(2_000);
+
+            var results = new TreeMap<String, HealthCheck.Result>();
+            for (var i = 0; i < 5; i++) {
+                results.put("check-" + i, HealthCheckResults.newUnhealthyResult(HealthStatus.FATAL, "down"));
+            }
+
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> writer.publishAll(results))
+                    .withMessage("health status table is full (capacity 4, results 5)");
+
+            assertThat(reader.checkCount()).isOne();
+            assertThat(reader.status("database")).isEqualTo(HealthStatus.OK);
+            assertThat(reader.status("check-0")).isNull();
+            assertThat(reader.overallStatus()).isEqualTo(HealthStatus.OK);
+            assertThat(reader.lastUpdatedMillis()).isEqualTo(1_000);
+        }
+
+        @Test
+        void shouldLeaveTableUnchanged_WhenAnyResultIsInvalid() {
+            writer.publish("database", HealthStatus.OK, true);
+
+            var results = new TreeMap<String, HealthCheck.Result>();
+            results.put("cache", HealthCheckResults.newUnhealthyResult(HealthStatus.FATAL, "down"));
+            results.put("x".repeat(MappedHealthStatusTable.MAX_NAME_BYTES + 1), HealthCheckResults.newHealthyResult());
+
+            assertThatIllegalArgumentException().isThrownBy(() -> writer.publishAll(results));
+
+            assertThat(reader.checkCount()).isOne();
+            assertThat(reader.status("database")).isEqualTo(HealthStatus.OK);
+            assertThat(reader.status("cache")).isNull();
+        }
+    }
+
+    @Test
+    void shouldRemoveChecks() {
+        writer.publish("database", HealthStatus.OK, true);
+        writer.publish("queue", HealthStatus.FATAL, false);
+
+        writer.remove("queue");
+        writer.remove("unknown");
+
+        assertThat(reader.checkCount()).isOne();
+        assertThat(reader.status("queue")).isNull();
+        assertThat(reader.overallStatus()).isEqualTo(HealthStatus.OK);
+    }
+
+    @Test
+    void shouldUpdateLastUpdatedTime_OnHeartbeat() {
+        currentTimeMillis.set(5_000);
+
+        writer.heartbeat();
+
+        assertThat(reader.lastUpdatedMillis()).isEqualTo(5_000);
+    }
+
+    @Test
+    void shouldReplaceExistingFile_WithoutAffectingExistingReaders() {
+        writer.publish("database", HealthStatus.WARN, false);
+
+        var newWriter = MappedHealthStatusWriter.create(path, 8, currentTimeMillis::get);
+        newWriter.publish("database", HealthStatus.OK, true);
+
+        assertThat(reader.status("database")).isEqualTo(HealthStatus.WARN);
+        assertThat(MappedHealthStatusReader.open(path).status("database")).isEqualTo(HealthStatus.OK);
+    }
+
+    @Nested
+    class Creation {
+
+        @Test
+        void shouldMakeFileReadableByOtherUsers_ByDefault() throws IOException {
+            if (supportsPosixPermissions()) {
+                assertThat(Files.getPosixFilePermissions(path))
+                        .containsExactlyInAnyOrderElementsOf(MappedHealthStatusWriter.DEFAULT_PERMISSIONS);
+            }
+        }
+
+        @Test
+        void shouldUseGivenPermissions() throws IOException {
+            var permissions = PosixFilePermissions.fromString("rw-r-----");
+            var groupPath = tempDir.resolve("group.table");
+
+            try (var groupWriter = MappedHealthStatusWriter.create(groupPath, 4, permissions)) {
+                assertThat(groupWriter.path()).exists();
+                if (supportsPosixPermissions()) {
+                    assertThat(Files.getPosixFilePermissions(groupPath))
+                            .containsExactlyInAnyOrderElementsOf(permissions);
+                }
+            }
+        }
+
+        @Test
+        void shouldDeleteTemporaryFile_WhenCreationFails() throws IOException {
+            var directoryPath = tempDir.resolve("directory.table");
+            Files.createDirectory(directoryPath);
+            Files.createFile(directoryPath.resolve("not-empty"));
+
+            assertThatThrownBy(() -> MappedHealthStatusWriter.create(directoryPath, 4))
+                    .isInstanceOf(UncheckedIOException.class);
+            assertThat(tempDir).isDirectoryNotContaining("glob:**.tmp");
+        }
+
+        private boolean supportsPosixPermissions() throws IOException {
+            return Files.getFileStore(path).supportsFileAttributeView(PosixFileAttributeView.class);
+        }
+    }
+
+    @Nested
+    class Close {
+
+        @Test
+        void shouldMarkTableClosed_AndKeepLastStatuses() {
+            writer.publish("database", HealthStatus.WARN, false);
+            assertThat(reader.isWriterClosed()).isFalse();
+
+            writer.close();
+
+            assertThat(reader.isWriterClosed()).isTrue();
+            assertThat(reader.status("database")).isEqualTo(HealthStatus.WARN);
+            assertThat(reader.overallStatus()).isEqualTo(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldRejectUpdates_AfterClose() {
+            writer.close();
+            writer.close();
+
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> writer.publish("database", HealthStatus.OK, true))
+                    .withMessage("health status table writer is closed");
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> writer.publishAll(Map.of()))
+                    .withMessage("health status table writer is closed");
+            assertThatIllegalStateException()
+                    .isThrownBy(() -> writer.remove("database"))
+                    .withMessage("health status table writer is closed");
+            assertThatIllegalStateException()
+                    .isThrownBy(writer::heartbeat)
+                    .withMessage("health status table writer is closed");
+        }
+    }
+
+    @Test
+    void shouldValidateCapacity() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> MappedHealthStatusWriter.create(path, 0))
+                .withMessage("capacity must be between 1 and 65536");
+    }
+}
@@ -0,0 +1,192 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.kiwiproject.test.assertj.dropwizard.metrics.HealthCheckResultAssertions.assertThat;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+@DisplayName("ParallelHealthCheckRunner")
+class ParallelHealthCheckRunnerTest {
+
+    private HealthCheckRegistry registry;
+    private CountDownLatch releaseLatch;
+
+    @BeforeEach
+    void setUp() {
+        registry = new HealthCheckRegistry();
+        releaseLatch = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseLatch.countDown();
+    }
+
+    @Nested
+    class RunHealthChecks {
+
+        @Test
+        void shouldReturnResultsAndOverallStatus() {
+            registry.register("database", healthCheck(HealthCheckResults::newHealthyResult));
+            registry.register("queue",
+                    healthCheck(() -> HealthCheckResults.newUnhealthyResult(HealthStatus.WARN, "slow")));
+            registry.register("cache", healthCheck(() -> HealthCheckResults.newHealthyResult(HealthStatus.INFO)));
+
+            try (var runner = ParallelHealthCheckRunner.of(registry)) {
+                var evaluation = runner.runHealthChecks();
+
+                assertThat(evaluation.results()).containsOnlyKeys("cache", "database", "queue");
+                assertThat(evaluation.status()).isEqualTo(HealthStatus.WARN);
+            }
+        }
+
+        @Test
+        void shouldBe_CRITICAL_WhenRegistryIsEmpty() {
+            try (var runner = ParallelHealthCheckRunner.of(registry)) {
+                var evaluation = runner.runHealthChecks();
+
+                assertThat(evaluation.results()).isEmpty();
+                assertThat(evaluation.status()).isEqualTo(HealthStatus.CRITICAL);
+            }
+        }
+
+        @Test
+        void shouldRunChecksConcurrently() {
+            var startLatch = new CountDownLatch(3);
+            Supplier<HealthCheck.Result> waitForOthers = () -> {
+                startLatch.countDown();
+                return awaitQuietly(startLatch) ?
+                        HealthCheckResults.newHealthyResult() : HealthCheckResults.newUnhealthyResult("not concurrent");
+            };
+            registry.register("a", healthCheck(waitForOthers));
+            registry.register("b", healthCheck(waitForOthers));
+            registry.register("c", healthCheck(waitForOthers));
+
+            try (var runner = ParallelHealthCheckRunner.of(registry)) {
+                assertThat(runner.runHealthChecks().status()).isEqualTo(HealthStatus.OK);
+            }
+        }
+
+        @Test
+        void shouldConvertTimeoutsToUnhealthyResults_WithCriticalSeverity_ByDefault() {
+            registry.register("fast", healthCheck(HealthCheckResults::newHealthyResult));
+            registry.register("slow", healthCheck(this::waitForRelease));
+
+            try (var runner = ParallelHealthCheckRunner.builder(registry).timeout(Duration.ofMillis(50)).build()) {
+                var evaluation = runner.runHealthChecks();
+
+                assertThat(evaluation.results().get("fast")).isHealthy();
+                assertThat(evaluation.results().get("slow"))
+                        .isUnhealthy()
+                        .hasMessageStartingWith("Health check timed out after")
+                        .hasDetail("severity", "CRITICAL");
+                assertThat(evaluation.status()).isEqualTo(HealthStatus.CRITICAL);
+            }
+        }
+
+        @ParameterizedTest
+        @EnumSource(value = HealthStatus.class, names = {"INFO", "WARN", "FATAL"})
+        void shouldUseConfiguredTimeoutSeverity(HealthStatus timeoutSeverity) {
+            registry.register("slow", healthCheck(this::waitForRelease));
+
+            try (var runner = ParallelHealthCheckRunner.builder(registry)
+                    .timeout(Duration.ofMillis(25))
+                    .timeoutSeverity(timeoutSeverity)
+                    .build()) {
+
+                var evaluation = runner.runHealthChecks();
+
+                assertThat(evaluation.results().get("slow"))
+                        .isUnhealthy()
+                        .hasDetail("severity", timeoutSeverity.name());
+                assertThat(evaluation.status()).isEqualTo(timeoutSeverity);
+            }
+        }
+
+        private HealthCheck.Result waitForRelease() {
+            awaitQuietly(releaseLatch);
+            return HealthCheckResults.newHealthyResult();
+        }
+    }
+
+    @Nested
+    class Executor {
+
+        @Test
+        void shouldNotShutDownSuppliedExecutor() {
+            registry.register("database", healthCheck(HealthCheckResults::newHealthyResult));
+            var executor = Executors.newFixedThreadPool(2);
+            try {
+                try (var runner = ParallelHealthCheckRunner.builder(registry).executor(executor).build()) {
+                    assertThat(runner.runHealthChecks().status()).isEqualTo(HealthStatus.OK);
+                }
+
+                assertThat(executor.isShutdown()).isFalse();
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Nested
+    class Builder {
+
+        @Test
+        void shouldRequireRegistry() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> ParallelHealthCheckRunner.builder(null))
+                    .withMessage("registry cannot be null");
+        }
+
+        @Test
+        void shouldRequirePositiveTimeout() {
+            var builder = ParallelHealthCheckRunner.builder(registry);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> builder.timeout(Duration.ZERO))
+                    .withMessage("timeout must be positive");
+        }
+
+        @Test
+        void shouldRequireUnhealthyTimeoutSeverity() {
+            var builder = ParallelHealthCheckRunner.builder(registry);
+
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> builder.timeoutSeverity(HealthStatus.OK))
+                    .withMessage("timeoutSeverity is not valid for an unhealthy result: OK");
+        }
+    }
+
+    private static HealthCheck healthCheck(Supplier<HealthCheck.Result> resultSupplier) {
+        return new HealthCheck() {
+            @Override
+            protected Result check() {
+                return resultSupplier.get();
+            }
+        };
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
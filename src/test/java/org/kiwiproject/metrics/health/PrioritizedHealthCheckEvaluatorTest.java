@@ -0,0 +1,194 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import com.codahale.metrics.health.HealthCheck;
+import com.codahale.metrics.health.HealthCheckRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@DisplayName("PrioritizedHealthCheckEvaluator")
+class PrioritizedHealthCheckEvaluatorTest {
+
+    private HealthCheckRegistry registry;
+    private AtomicLong nanoTime;
+    private List<String> executed;
+
+    @BeforeEach
+    void setUp() {
+        registry = new HealthCheckRegistry();
+        nanoTime = new AtomicLong();
+        executed = new ArrayList<>();
+    }
+
+    private PrioritizedHealthCheckEvaluator.Builder builder() {
+        return PrioritizedHealthCheckEvaluator.builder(registry).nanoTime(nanoTime::get);
+    }
+
+    /**
+     * Register a check that takes {@code costNanos} on the fake clock and returns the given result.
+     */
+    private void register(String name, long costNanos, HealthCheck.Result result) {
+        registry.register(name, new HealthCheck() {
+            @Override
+            protected Result check() {
+                executed.add(name);
+                nanoTime.addAndGet(costNanos);
+                return result;
+            }
+        });
+    }
+
+    private static HealthCheck.Result healthy() {
+        return HealthCheckResults.newHealthyResult();
+    }
+
+    private static HealthCheck.Result unhealthy(HealthStatus status) {
+        return HealthCheckResults.newUnhealthyResult(status, "failed");
+    }
+
+    @Nested
+    class Evaluate {
+
+        @Test
+        void shouldRunAllChecks_WhenNoneReachesThreshold() {
+            register("database", 10, healthy());
+            register("queue", 10, unhealthy(HealthStatus.WARN));
+            var evaluator = builder().build();
+
+            var evaluation = evaluator.evaluate();
+
+            assertThat(evaluation.results()).containsOnlyKeys("database", "queue");
+            assertThat(evaluation.status()).isEqualTo(HealthStatus.WARN);
+            assertThat(evaluator.isAtOrAboveThreshold()).isFalse();
+        }
+
+        @Test
+        void shouldStop_WhenCheckReachesThreshold() {
+            register("a-database", 10, unhealthy(HealthStatus.CRITICAL));
+            register("b-queue", 10, healthy());
+            var evaluator = builder().build();
+
+            var evaluation = evaluator.evaluate();
+
+            assertThat(executed).containsExactly("a-database");
+            assertThat(evaluation.results()).containsOnlyKeys("a-database");
+            assertThat(evaluation.status()).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldUseConfiguredThreshold() {
+            register("a-database", 10, unhealthy(HealthStatus.CRITICAL));
+            register("b-queue", 10, unhealthy(HealthStatus.FATAL));
+            var evaluator = builder().threshold(HealthStatus.FATAL).build();
+
+            var evaluation = evaluator.evaluate();
+
+            assertThat(executed).containsExactly("a-database", "b-queue");
+            assertThat(evaluation.status()).isEqualTo(HealthStatus.FATAL);
+            assertThat(evaluator.threshold()).isEqualTo(HealthStatus.FATAL);
+        }
+
+        @Test
+        void shouldBeCritical_WhenRegistryIsEmpty() {
+            var evaluator = PrioritizedHealthCheckEvaluator.of(registry);
+
+            assertThat(evaluator.evaluate().status()).isEqualTo(HealthStatus.CRITICAL);
+            assertThat(evaluator.isAtOrAboveThreshold()).isTrue();
+        }
+    }
+
+    @Test
+    void shouldRunAllChecks_WhenEvaluatingAll() {
+        register("a-database", 10, unhealthy(HealthStatus.CRITICAL));
+        register("b-queue", 10, unhealthy(HealthStatus.FATAL));
+        var evaluator = builder().build();
+
+        var evaluation = evaluator.evaluateAll();
+
+        assertThat(evaluation.results()).containsOnlyKeys("a-database", "b-queue");
+        assertThat(evaluation.status()).isEqualTo(HealthStatus.FATAL);
+    }
+
+    @Nested
+    class EvaluationOrder {
+
+        @Test
+        void shouldRunCheapestChecksFirst_OnceMeasured() {
+            register("expensive", 1_000, healthy());
+            register("cheap", 10, healthy());
+            register("medium", 100, healthy());
+            var evaluator = builder().build();
+
+            assertThat(evaluator.evaluationOrder()).containsExactly("cheap", "expensive", "medium");
+
+            evaluator.evaluateAll();
+
+            assertThat(evaluator.evaluationOrder()).containsExactly("cheap", "medium", "expensive");
+        }
+
+        @Test
+        void shouldRunDecisiveChecksFirst_WhenCostIsSimilar() {
+            register("a-healthy", 100, healthy());
+            register("b-failing", 150, unhealthy(HealthStatus.CRITICAL));
+            var evaluator = builder().build();
+
+            evaluator.evaluateAll();
+            executed.clear();
+            var evaluation = evaluator.evaluate();
+
+            assertThat(executed).containsExactly("b-failing");
+            assertThat(evaluation.status()).isEqualTo(HealthStatus.CRITICAL);
+        }
+
+        @Test
+        void shouldRunChecksWithHigherDeclaredPriority_First() {
+            register("cheap", 10, healthy());
+            register("expensive", 1_000, healthy());
+            register("last", 1, healthy());
+            var evaluator = builder()
+                    .priority("expensive", 10)
+                    .priority("last", -1)
+                    .build();
+
+            evaluator.evaluateAll();
+
+            assertThat(evaluator.evaluationOrder()).containsExactly("expensive", "cheap", "last");
+        }
+
+        @Test
+        void shouldForgetMeasurements_OfUnregisteredChecks() {
+            register("database", 1_000, healthy());
+            register("queue", 10, healthy());
+            var evaluator = builder().build();
+            evaluator.evaluateAll();
+
+            registry.unregister("database");
+            assertThat(evaluator.evaluationOrder()).containsExactly("queue");
+
+            register("database", 1_000, healthy());
+
+            assertThat(evaluator.evaluationOrder()).containsExactly("database", "queue");
+        }
+    }
+
+    @Test
+    void shouldValidateArguments() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> PrioritizedHealthCheckEvaluator.builder(null))
+                .withMessage("registry cannot be null");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> builder().threshold(null))
+                .withMessage("threshold cannot be null");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> builder().priority(" ", 1))
+                .withMessage("checkName must not be blank");
+    }
+}
@@ -0,0 +1,193 @@
+package org.kiwiproject.metrics.health;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+@DisplayName("ServiceHealthAggregator")
+class ServiceHealthAggregatorTest {
+
+    private ServiceHealthAggregator aggregator;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new ServiceHealthAggregator();
+    }
+
+    @Nested
+    class ServiceStatus {
+
+        @Test
+        void shouldBe_FATAL_ForUnknownService() {
+            assertThat(aggregator.getServiceStatus("orders")).isEqualTo(HealthStatus.FATAL);
+            assertThat(aggregator.getInstanceCount("orders")).isZero();
+        }
+
+        @ParameterizedTest(name = "[{index}] instances: {0} ; expected: {1}")
+        @CsvSource({
+                " 'OK', OK",
+                " 'OK, OK, INFO', INFO",
+                " 'OK, WARN, INFO', WARN",
+                " 'OK, CRITICAL, OK', CRITICAL",
+                " 'WARN, FATAL', FATAL",
+                " 'CRITICAL', FATAL",
+                " 'CRITICAL, CRITICAL, FATAL', FATAL",
+                " 'WARN', WARN"
+        })
+        void shouldBeHighestSeverity_OrFATAL_WhenNoInstancesAreAvailable(String statusCsv,
+                                                                        HealthStatus expectedStatus) {
+            var statuses = Arrays.stream(statusCsv.split(",")).map(String::trim).map(HealthStatus::valueOf).toList();
+            IntStream.range(0, statuses.size())
+                    .forEach(i -> aggregator.updateInstance("orders", "instance-" + i, statuses.get(i)));
+
+            assertThat(aggregator.getServiceStatus("orders")).isEqualTo(expectedStatus);
+            assertThat(aggregator.getInstanceCount("orders")).isEqualTo(statuses.size());
+        }
+
+        @Test
+        void shouldReturnServiceStatusFromUpdates() {
+            assertThat(aggregator.updateInstance("orders", "a", HealthStatus.OK)).isEqualTo(HealthStatus.OK);
+            assertThat(aggregator.updateInstance("orders", "b", HealthStatus.CRITICAL))
+                    .isEqualTo(HealthStatus.CRITICAL);
+            assertThat(aggregator.updateInstance("orders", "a", HealthStatus.CRITICAL)).isEqualTo(HealthStatus.FATAL);
+            assertThat(aggregator.updateInstance("orders", "b", HealthStatus.INFO)).isEqualTo(HealthStatus.CRITICAL);
+            assertThat(aggregator.updateInstance("orders", "a", HealthStatus.OK)).isEqualTo(HealthStatus.INFO);
+        }
+
+        @Test
+        void shouldAcceptHealthMaps() {
+            Map<String, Object> healthDetails = Map.of(
+                    "database", Map.of("healthy", true),
+                    "queue", Map.of("healthy", false, "severity", "WARN")
+            );
+
+            assertThat(aggregator.updateInstance("orders", "a", healthDetails)).isEqualTo(HealthStatus.WARN);
+            assertThat(aggregator.getInstanceStatus("orders", "a")).contains(HealthStatus.WARN);
+        }
+
+        @Test
+        void shouldCountAnomaliesInHealthMaps_UnderServiceName() {
+            var diagnostics = new HealthStatusDiagnostics();
+            var diagnosingAggregator = new ServiceHealthAggregator(diagnostics);
+            Map<String, Object> healthDetails = Map.of(
+                    "database", Map.of("healthy", false, "severity", "BAD"),
+                    "queue", Map.of("healthy", "true")
+            );
+
+            diagnosingAggregator.updateInstance("orders", "a", healthDetails);
+            diagnosingAggregator.updateInstance("orders", "b", healthDetails);
+
+            assertThat(diagnostics.counts()).containsOnly(Map.entry("orders", Map.of(
+                    HealthStatusDiagnostics.Anomaly.INVALID_SEVERITY, 2L,
+                    HealthStatusDiagnostics.Anomaly.NON_BOOLEAN_HEALTHY, 2L
+            )));
+        }
+
+        @Test
+        void shouldKeepServicesSeparate() {
+            aggregator.updateInstance("orders", "a", HealthStatus.OK);
+            aggregator.updateInstance("payments", "a", HealthStatus.CRITICAL);
+
+            assertThat(aggregator.getServiceStatuses()).containsOnly(
+                    Map.entry("orders", HealthStatus.OK),
+                    Map.entry("payments", HealthStatus.FATAL)
+            );
+            assertThat(aggregator.getServiceNames()).containsExactlyInAnyOrder("orders", "payments");
+        }
+    }
+
+    @Nested
+    class Removal {
+
+        @Test
+        void shouldRecompute_WhenInstanceIsRemoved() {
+            aggregator.updateInstance("orders", "a", HealthStatus.OK);
+            aggregator.updateInstance("orders", "b", HealthStatus.WARN);
+
+            assertThat(aggregator.removeInstance("orders", "b")).isEqualTo(HealthStatus.OK);
+            assertThat(aggregator.getInstanceStatus("orders", "b")).isEmpty();
+        }
+
+        @Test
+        void shouldBe_FATAL_WhenLastInstanceIsRemoved() {
+            aggregator.updateInstance("orders", "a", HealthStatus.OK);
+
+            assertThat(aggregator.removeInstance("orders", "a")).isEqualTo(HealthStatus.FATAL);
+            assertThat(aggregator.getServiceNames()).containsExactly("orders");
+        }
+
+        @Test
+        void shouldIgnoreUnknownInstancesAndServices() {
+            aggregator.updateInstance("orders", "a", HealthStatus.INFO);
+
+            assertThat(aggregator.removeInstance("orders", "z")).isEqualTo(HealthStatus.INFO);
+            assertThat(aggregator.removeInstance("payments", "a")).isEqualTo(HealthStatus.FATAL);
+        }
+
+        @Test
+        void shouldRemoveServices() {
+            aggregator.updateInstance("orders", "a", HealthStatus.OK);
+
+            assertThat(aggregator.removeService("orders")).isTrue();
+            assertThat(aggregator.removeService("orders")).isFalse();
+            assertThat(aggregator.getServiceNames()).isEmpty();
+        }
+    }
+
+    @Nested
+    class Concurrency {
+
+        @ParameterizedTest
+        @EnumSource(value = HealthStatus.class, names = {"OK", "WARN"})
+        void shouldProduceConsistentCounts_WhenUpdatedConcurrently(HealthStatus finalStatus)
+                throws InterruptedException {
+            var instanceCount = 1_000;
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                IntStream.range(0, instanceCount).forEach(i -> executor.submit(() -> {
+                    var instanceId = "instance-" + i;
+                    aggregator.updateInstance("orders", instanceId, HealthStatus.CRITICAL);
+                    aggregator.updateInstance("orders", instanceId, HealthStatus.INFO);
+                    aggregator.updateInstance("orders", instanceId, finalStatus);
+                }));
+            } finally {
+                executor.shutdown();
+                assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+            }
+
+            assertThat(aggregator.getInstanceCount("orders")).isEqualTo(instanceCount);
+            assertThat(aggregator.getServiceStatus("orders")).isEqualTo(finalStatus);
+        }
+    }
+
+    @Nested
+    class Arguments {
+
+        @Test
+        void shouldRequireArguments() {
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> aggregator.updateInstance(" ", "a", HealthStatus.OK))
+                    .withMessage("serviceName must not be blank");
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> aggregator.updateInstance("orders", "", HealthStatus.OK))
+                    .withMessage("instanceId must not be blank");
+            assertThatIllegalArgumentException()
+                    .isThrownBy(() -> aggregator.updateInstance("orders", "a", (HealthStatus) null))
+                    .withMessage("status cannot be null");
+        }
+    }
+}